@@ -5,6 +5,7 @@
  */
 package info.quantlab.numericalmethods.assignments.montecarlo.check;
 
+import java.util.Arrays;
 import java.util.List;
 
 import info.quantlab.numericalmethods.lecture.montecarlo.integration.Integrand;
@@ -205,6 +206,15 @@ public class MonteCarloIntegrationImplementationChecker {
 					final double y = arguments[1];
 					return x*x + y*y < 1.0 ? 1.0 : 0.0;
 				}
+
+				@Override
+				public void values(double[][] argumentsByDimension, double[] values, int numberOfPoints) {
+					final double[] x = argumentsByDimension[0];
+					final double[] y = argumentsByDimension[1];
+					for(int i=0; i<numberOfPoints; i++) {
+						values[i] = x[i]*x[i] + y[i]*y[i] < 1.0 ? 1.0 : 0.0;
+					}
+				}
 			};
 		}
 
@@ -226,6 +236,16 @@ public class MonteCarloIntegrationImplementationChecker {
 				public double getDeterminantOfDifferential(double[] parametersOnUnitCurve) {
 					return 4.0;
 				}
+
+				@Override
+				public void fromUnitCube(double[][] parametersByDimension, double[][] argumentsByDimension, double[] determinants, int numberOfPoints) {
+					for(int k=0; k<2; k++) {
+						for(int i=0; i<numberOfPoints; i++) {
+							argumentsByDimension[k][i] = 2.0 * parametersByDimension[k][i] - 1.0;
+						}
+					}
+					Arrays.fill(determinants, 0, numberOfPoints, 4.0);
+				}
 			};
 		}
 
@@ -256,6 +276,17 @@ public class MonteCarloIntegrationImplementationChecker {
 					final double z = arguments[2];
 					return Math.exp(-0.5 * (x*x + y*y + z*z)) / Math.pow(2*Math.PI, 3.0/2.0);
 				}
+
+				@Override
+				public void values(double[][] argumentsByDimension, double[] values, int numberOfPoints) {
+					final double[] x = argumentsByDimension[0];
+					final double[] y = argumentsByDimension[1];
+					final double[] z = argumentsByDimension[2];
+					final double normalization = Math.pow(2*Math.PI, 3.0/2.0);
+					for(int i=0; i<numberOfPoints; i++) {
+						values[i] = Math.exp(-0.5 * (x[i]*x[i] + y[i]*y[i] + z[i]*z[i])) / normalization;
+					}
+				}
 			};
 		}
 
@@ -281,6 +312,16 @@ public class MonteCarloIntegrationImplementationChecker {
 				public double getDeterminantOfDifferential(double[] parametersOnUnitCurve) {
 					return 8.0;
 				}
+
+				@Override
+				public void fromUnitCube(double[][] parametersByDimension, double[][] argumentsByDimension, double[] determinants, int numberOfPoints) {
+					for(int k=0; k<3; k++) {
+						for(int i=0; i<numberOfPoints; i++) {
+							argumentsByDimension[k][i] = 2.0 * parametersByDimension[k][i] - 1.0;
+						}
+					}
+					Arrays.fill(determinants, 0, numberOfPoints, 8.0);
+				}
 			};
 		}
 
@@ -2,6 +2,7 @@ package info.quantlab.numericalmethods.lecture.finitedifference;
 
 import java.util.function.DoubleUnaryOperator;
 
+import info.quantlab.numericalmethods.lecture.montecarlo.integration1d.GaussHermiteIntegrator1D;
 import net.finmath.functions.AnalyticFormulas;
 import net.finmath.montecarlo.BrownianMotion;
 import net.finmath.montecarlo.BrownianMotionFromMersenneRandomNumbers;
@@ -41,6 +42,8 @@ public class UnderlyingDensityExperiment {
 	private static final int numberOfPaths = 100000;
 	private static final int seed = 3141;
 
+	private static final int numberOfQuadraturePoints = 64;
+
 	private static double shift = 0.2;
 
 	public static void main(String[] args) {
@@ -54,6 +57,23 @@ public class UnderlyingDensityExperiment {
 		final double xi = 0.2;
 		final double rho = 0.8;
 
+		/*
+		 * For the Black-Scholes and the Bachelier model the terminal value is a function of a normal random variable,
+		 * the option values are calculated by quadrature with 64 evaluations per strike (instead of a Monte-Carlo simulation).
+		 */
+		final long timeStart = System.nanoTime();
+		final DoubleUnaryOperator densityBlackScholes = densityBlackScholesModelFromQuadrature();
+		final DoubleUnaryOperator densityBachelier = densityBachelierModelFromQuadrature();
+		for(double strike = -1.0; strike <= 5.0; strike += 0.01) {
+			densityBlackScholes.applyAsDouble(strike);
+			densityBachelier.applyAsDouble(strike);
+		}
+		final long timeEnd = System.nanoTime();
+		System.out.println("Time for the densities of 601 strikes (two models) by quadrature: " + (timeEnd-timeStart)/1E6 + " ms.");
+
+		(new Plot2D(-1.0, 5.0, densityBlackScholes)).setTitle("Density of BlackScholesModel (Gauss-Hermite quadrature)").setXAxisLabel("S").setYAxisLabel("density").show();
+		(new Plot2D(-1.0, 5.0, densityBachelier)).setTitle("Density of BachelierModel (Gauss-Hermite quadrature)").setXAxisLabel("S").setYAxisLabel("density").show();
+
 		plotDensityForModel(new HestonModel(initialValue, riskFreeRate, volatility, theta, kappa, xi, rho, Scheme.FULL_TRUNCATION));
 
 		/*
@@ -95,6 +115,30 @@ public class UnderlyingDensityExperiment {
 		return density;
 	}
 
+	private static DoubleUnaryOperator densityBlackScholesModelFromQuadrature() {
+		// log(S(T)/S(0)) is normal with mean (r - sigma^2/2) T and standard deviation sigma sqrt(T)
+		final GaussHermiteIntegrator1D integrator = new GaussHermiteIntegrator1D(numberOfQuadraturePoints, (riskFreeRate - 0.5 * volatility * volatility) * maturity, volatility * Math.sqrt(maturity));
+
+		// K -> V(K;T0) / N(T0), the payoff has a kink at log(K/S(0))
+		final DoubleUnaryOperator value = strike -> Math.exp(-riskFreeRate * maturity) * integrator.getExpectation(x -> Math.max(initialValue * Math.exp(x) - strike, 0.0), Math.log(strike / initialValue));
+
+		final DoubleUnaryOperator density = strike -> ((value.applyAsDouble(strike+shift) - 2 * value.applyAsDouble(strike) + value.applyAsDouble(strike-shift)) / (shift * shift));
+
+		return density;
+	}
+
+	private static DoubleUnaryOperator densityBachelierModelFromQuadrature() {
+		// S(T) is normal with mean S(0) exp(r T) and standard deviation sigma sqrt(T) exp(r T)
+		final GaussHermiteIntegrator1D integrator = new GaussHermiteIntegrator1D(numberOfQuadraturePoints, initialValue * Math.exp(riskFreeRate * maturity), volatility * Math.sqrt(maturity) * Math.exp(riskFreeRate * maturity));
+
+		// K -> V(K;T0) / N(T0), the payoff has a kink at K
+		final DoubleUnaryOperator value = strike -> Math.exp(-riskFreeRate * maturity) * integrator.getExpectation(x -> Math.max(x - strike, 0.0), strike);
+
+		final DoubleUnaryOperator density = strike -> ((value.applyAsDouble(strike+shift) - 2 * value.applyAsDouble(strike) + value.applyAsDouble(strike-shift)) / (shift * shift));
+
+		return density;
+	}
+
 	private static DoubleUnaryOperator impliedBlackScholesVolatiltiyModel(double amplitude, double width) {
 		final double forward = initialValue*Math.exp(riskFreeRate * maturity);
 		final DoubleUnaryOperator volatilityCurve = strike -> volatility * (1 + amplitude * Math.cos((strike-forward)/width/Math.PI));
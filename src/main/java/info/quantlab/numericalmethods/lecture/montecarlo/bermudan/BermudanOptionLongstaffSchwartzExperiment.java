@@ -0,0 +1,115 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.bermudan;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import net.finmath.exception.CalculationException;
+import net.finmath.functions.AnalyticFormulas;
+import net.finmath.montecarlo.BrownianMotionFromMersenneRandomNumbers;
+import net.finmath.montecarlo.assetderivativevaluation.MonteCarloAssetModel;
+import net.finmath.montecarlo.assetderivativevaluation.models.BlackScholesModel;
+import net.finmath.montecarlo.process.EulerSchemeFromProcessModel;
+import net.finmath.stochastic.RandomVariable;
+import net.finmath.time.TimeDiscretizationFromArray;
+
+/**
+ * Valuation of Bermudan options using the Longstaff-Schwartz algorithm, see {@link LongstaffSchwartzBermudanOption}.
+ *
+ * The first example is the option with two exercise dates of {@link BermudanOptionExerciseInMonteCarloBlackScholesPlot},
+ * where the exercise strategy from the regression is compared to the strategy using the analytic continuation value.
+ * The second example is a put with many exercise dates, where the value from the paths used for the regression is compared to the
+ * (low-biased) value from an independent set of paths.
+ *
+ * @author Christian Fries
+ */
+public class BermudanOptionLongstaffSchwartzExperiment {
+
+	private static final double initialValue = 100.0;
+	private static final double riskFreeRate = 0.05;
+	private static final double volatility = 0.30;
+
+	private static final int numberOfPaths = 100000;
+	private static final int seed = 3141;
+
+	public static void main(String[] args) throws CalculationException {
+		valueBermudanWithTwoExerciseDates();
+		valueBermudanPut();
+	}
+
+	private static void valueBermudanWithTwoExerciseDates() throws CalculationException {
+		final double maturity1 = 1.0;	// T1
+		final double strike1 = 120.0;	// K1
+
+		final double maturity2 = 2.0;	// T2
+		final double strike2 = 140.0;	// K2
+
+		final MonteCarloAssetModel model = getBlackScholesModel(2, 1.0, seed);
+
+		// Exercise strategy using the analytic continuation value (only available for this special case)
+		final RandomVariable valueOption1InT1 = model.getAssetValue(maturity1, 0).sub(strike1).floor(0.0);
+		final RandomVariable valueOption2InT1 = AnalyticFormulas.blackScholesOptionValue(model.getAssetValue(maturity1, 0), riskFreeRate, volatility, maturity2-maturity1, strike2);
+		final RandomVariable valueOption2InT2 = model.getAssetValue(maturity2, 0).sub(strike2).floor(0.0);
+		final double valueAnalyticContinuation = valueOption2InT1.sub(valueOption1InT1)
+				.choose(valueOption2InT2.div(model.getNumeraire(maturity2)), valueOption1InT1.div(model.getNumeraire(maturity1)))
+				.mult(model.getNumeraire(0.0)).getAverage();
+
+		// Exercise strategy using the regression of the continuation value
+		final LongstaffSchwartzBermudanOption bermudanOption = new LongstaffSchwartzBermudanOption(
+				new double[] { maturity1, maturity2 },
+				(time, underlying) -> Math.max(underlying - (time < maturity2 ? strike1 : strike2), 0.0),
+				RegressionBasis.ofMonomials(3, initialValue));
+
+		final LongstaffSchwartzResult result = bermudanOption.getValue(model);
+		final LongstaffSchwartzResult resultIndependentPaths = bermudanOption.getValue(model, getBlackScholesModel(2, 1.0, seed+1));
+
+		System.out.println("Bermudan option with exercise dates " + maturity1 + " (strike " + strike1 + ") and " + maturity2 + " (strike " + strike2 + ")");
+		System.out.println("Value with analytic continuation value............: " + valueAnalyticContinuation);
+		System.out.println("Value with regression (same paths)................: " + result.getValue() + "\t+/- " + result.getStandardError());
+		System.out.println("Value with regression (independent paths).........: " + resultIndependentPaths.getValue() + "\t+/- " + resultIndependentPaths.getStandardError());
+		System.out.println("Exercise probabilities............................: " + Arrays.toString(result.getExerciseProbabilities()));
+		System.out.println();
+	}
+
+	private static void valueBermudanPut() throws CalculationException {
+		final double maturity = 2.0;
+		final double strike = 100.0;
+		final int numberOfExerciseDates = 50;
+
+		final double[] exerciseDates = new double[numberOfExerciseDates];
+		for(int i=0; i<numberOfExerciseDates; i++) {
+			exerciseDates[i] = maturity * (i+1) / numberOfExerciseDates;
+		}
+
+		final MonteCarloAssetModel modelForRegression = getBlackScholesModel(numberOfExerciseDates, maturity / numberOfExerciseDates, seed);
+		final MonteCarloAssetModel modelForValuation = getBlackScholesModel(numberOfExerciseDates, maturity / numberOfExerciseDates, seed+1);
+
+		// Generate the paths before measuring the time
+		modelForRegression.getAssetValue(maturity, 0);
+		modelForValuation.getAssetValue(maturity, 0);
+
+		final double valueEuropean = AnalyticFormulas.blackScholesOptionValue(initialValue, riskFreeRate, volatility, maturity, strike, false);
+
+		System.out.println("Bermudan put with " + numberOfExerciseDates + " exercise dates (strike " + strike + ", maturity " + maturity + ")");
+		System.out.println("Value of European put (analytic)..................: " + valueEuropean);
+		for(final ForkJoinPool forkJoinPool : new ForkJoinPool[] { null, ForkJoinPool.commonPool() }) {
+			final LongstaffSchwartzBermudanOption bermudanOption = new LongstaffSchwartzBermudanOption(
+					exerciseDates, (time, underlying) -> Math.max(strike - underlying, 0.0), RegressionBasis.ofMonomials(3, strike), 0, forkJoinPool);
+
+			final long timeStart = System.currentTimeMillis();
+			final LongstaffSchwartzResult result = bermudanOption.getValue(modelForRegression);
+			final LongstaffSchwartzResult resultIndependentPaths = bermudanOption.getValue(modelForRegression, modelForValuation);
+			final long timeEnd = System.currentTimeMillis();
+
+			final String calculation = forkJoinPool == null ? "sequential" : "parallel, " + forkJoinPool.getParallelism() + " threads";
+			System.out.println("Value with regression (same paths)................: " + result.getValue() + "\t+/- " + result.getStandardError());
+			System.out.println("Value with regression (independent paths).........: " + resultIndependentPaths.getValue() + "\t+/- " + resultIndependentPaths.getStandardError()
+			+ "\t(" + calculation + ", " + (timeEnd-timeStart)/1000.0 + " sec.)");
+		}
+	}
+
+	private static MonteCarloAssetModel getBlackScholesModel(int numberOfTimeSteps, double timeStep, int seed) {
+		return new MonteCarloAssetModel(new EulerSchemeFromProcessModel(
+				new BlackScholesModel(initialValue, riskFreeRate, volatility),
+				new BrownianMotionFromMersenneRandomNumbers(new TimeDiscretizationFromArray(0.0, numberOfTimeSteps, timeStep), 1, numberOfPaths, seed)));
+	}
+}
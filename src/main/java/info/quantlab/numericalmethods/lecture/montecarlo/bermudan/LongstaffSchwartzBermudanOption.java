@@ -0,0 +1,319 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.bermudan;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.SingularValueDecomposition;
+
+import net.finmath.exception.CalculationException;
+import net.finmath.montecarlo.assetderivativevaluation.AssetModelMonteCarloSimulationModel;
+import net.finmath.stochastic.RandomVariable;
+
+/**
+ * Valuation of a Bermudan option with exercise dates \( T_{1} &lt; \ldots &lt; T_{n} \) and exercise values \( V_{i}(S(T_{i})) \)
+ * using the Longstaff-Schwartz algorithm (least squares Monte-Carlo).
+ *
+ * The algorithm is a backward induction over the exercise dates: at \( T_{i} \) the (numeraire relative) cash flow of the optimal exercise
+ * after \( T_{i} \) is regressed on the basis functions \( \phi_{j}(S(T_{i})) \) (using the paths in the money, i.e., with \( V_{i} &gt; 0 \)),
+ * giving the estimated continuation value \( C_{i}(S) = \sum_{j} \beta_{i,j} \phi_{j}(S) \). The option is exercised
+ * at \( T_{i} \) on the paths where \( V_{i} &gt; 0 \) and \( V_{i} &gt; C_{i} \).
+ *
+ * The regression solves the normal equations \( (\Phi^{\top} \Phi) \beta = \Phi^{\top} Y \). The matrix \( \Phi^{\top} \Phi \) and the vector
+ * \( \Phi^{\top} Y \) are assembled in a single pass over the paths: each block of paths accumulates its (k &times; k) matrix
+ * and its vector, the blocks are summed in the order of the paths, hence the result does not depend on the number of threads.
+ * The basis functions are written into a buffer of the block, hence no memory is allocated per path.
+ * Optionally, the blocks are processed on a <code>ForkJoinPool</code>.
+ *
+ * The normal equations are solved by a singular value decomposition (the pseudo-inverse of \( \Phi^{\top} \Phi \)), using the
+ * rank cutoff of <code>org.apache.commons.math3.linear.SingularValueDecomposition</code>: singular values
+ * \( \sigma_{j} \le \max( k \sigma_{1} \epsilon, \sqrt{\mathrm{SAFE\_MIN}} ) \) are treated as zero,
+ * where k is the number of basis functions, \( \sigma_{1} \) the largest singular value and \( \epsilon = 2^{-52} \).
+ * Since the singular values of \( \Phi^{\top} \Phi \) are the squares of those of \( \Phi \), directions of the basis with a relative
+ * singular value of \( \Phi \) below approximately \( \sqrt{k \epsilon} \approx 10^{-8} \) are dropped (e.g. if few paths are in the money).
+ * The basis functions should be scaled to values of order 1 (see {@link RegressionBasis#ofMonomials(int, double)}) to avoid a loss of rank by scaling.
+ *
+ * The value calculated on the paths used for the regression is biased (the exercise strategy has seen the paths).
+ * Applying the exercise strategy to an independent second set of paths, see {@link #getValue(AssetModelMonteCarloSimulationModel, AssetModelMonteCarloSimulationModel)},
+ * gives a low-biased estimate (the strategy is admissible but sub-optimal).
+ *
+ * @author Christian Fries
+ */
+public class LongstaffSchwartzBermudanOption {
+
+	private static final int numberOfPathsPerBlock = 4096;
+
+	private final double[] exerciseDates;
+	private final DoubleBinaryOperator payoff;
+	private final RegressionBasis basis;
+	private final int assetIndex;
+	private final ForkJoinPool forkJoinPool;
+
+	/**
+	 * Create the Longstaff-Schwartz valuation of a Bermudan option.
+	 *
+	 * @param exerciseDates The exercise dates \( T_{1} &lt; \ldots &lt; T_{n} \).
+	 * @param payoff The exercise value (T<sub>i</sub>, S) &mapsto; \( V_{i}(S) \), e.g. <code>(time, underlying) -&gt; Math.max(strike - underlying, 0)</code>.
+	 * @param basis The basis functions of the regression of the continuation value.
+	 * @param assetIndex The index of the asset S in the model.
+	 * @param forkJoinPool The fork join pool used to process the blocks of paths, or null for a sequential calculation.
+	 */
+	public LongstaffSchwartzBermudanOption(double[] exerciseDates, DoubleBinaryOperator payoff, RegressionBasis basis, int assetIndex, ForkJoinPool forkJoinPool) {
+		super();
+		Validate.isTrue(exerciseDates.length >= 1, "At least one exercise date is required.");
+		for(int i=1; i<exerciseDates.length; i++) {
+			Validate.isTrue(exerciseDates[i] > exerciseDates[i-1], "The exercise dates must be increasing.");
+		}
+		Validate.notNull(payoff, "Parameter payoff must not be null.");
+		Validate.notNull(basis, "Parameter basis must not be null.");
+		this.exerciseDates = exerciseDates.clone();
+		this.payoff = payoff;
+		this.basis = basis;
+		this.assetIndex = assetIndex;
+		this.forkJoinPool = forkJoinPool;
+	}
+
+	/**
+	 * Create the Longstaff-Schwartz valuation of a Bermudan option on the asset 0, calculated sequentially.
+	 *
+	 * @param exerciseDates The exercise dates \( T_{1} &lt; \ldots &lt; T_{n} \).
+	 * @param payoff The exercise value (T<sub>i</sub>, S) &mapsto; \( V_{i}(S) \).
+	 * @param basis The basis functions of the regression of the continuation value.
+	 */
+	public LongstaffSchwartzBermudanOption(double[] exerciseDates, DoubleBinaryOperator payoff, RegressionBasis basis) {
+		this(exerciseDates, payoff, basis, 0, null);
+	}
+
+	/**
+	 * Calculate the value using the same paths for the regression and the valuation (the value is biased by the foresight of the regression).
+	 *
+	 * @param model The Monte-Carlo model.
+	 * @return The value, its standard error, the exercise probabilities and the regression coefficients.
+	 * @throws CalculationException Thrown if the model fails to provide the asset values or the numeraire.
+	 */
+	public LongstaffSchwartzResult getValue(AssetModelMonteCarloSimulationModel model) throws CalculationException {
+		final int numberOfPaths = model.getNumberOfPaths();
+		final int numberOfExerciseDates = exerciseDates.length;
+
+		// Numeraire relative cash flow of the optimal exercise after the current exercise date
+		final double[] cashFlows = new double[numberOfPaths];
+		final int[] exerciseIndices = new int[numberOfPaths];
+		final double[][] regressionCoefficients = new double[numberOfExerciseDates-1][];
+
+		for(int exerciseIndex=numberOfExerciseDates-1; exerciseIndex>=0; exerciseIndex--) {
+			final double exerciseDate = exerciseDates[exerciseIndex];
+			final double[] underlyings = getRealizations(model.getAssetValue(exerciseDate, assetIndex), numberOfPaths);
+			final double[] numeraires = getRealizations(model.getNumeraire(exerciseDate), numberOfPaths);
+
+			final double[] coefficients = exerciseIndex < numberOfExerciseDates-1 ? getRegressionCoefficients(exerciseDate, underlyings, cashFlows) : null;
+			if(coefficients != null) {
+				regressionCoefficients[exerciseIndex] = coefficients;
+			}
+
+			final int exerciseIndexOfUpdate = exerciseIndex;
+			forEachBlock(numberOfPaths, block -> {
+				final double[] basisValues = new double[basis.getNumberOfBasisFunctions()];
+				final int firstPathIndex = block * numberOfPathsPerBlock;
+				final int lastPathIndex = Math.min(firstPathIndex + numberOfPathsPerBlock, numberOfPaths);
+				for(int pathIndex=firstPathIndex; pathIndex<lastPathIndex; pathIndex++) {
+					final double exerciseValue = payoff.applyAsDouble(exerciseDate, underlyings[pathIndex]) / numeraires[pathIndex];
+					if(coefficients == null) {
+						cashFlows[pathIndex] = exerciseValue;
+						exerciseIndices[pathIndex] = exerciseValue > 0 ? exerciseIndexOfUpdate : -1;
+					}
+					else if(exerciseValue > 0 && exerciseValue > getContinuationValue(coefficients, underlyings[pathIndex], basisValues)) {
+						cashFlows[pathIndex] = exerciseValue;
+						exerciseIndices[pathIndex] = exerciseIndexOfUpdate;
+					}
+				}
+			});
+		}
+
+		return getResult(model, cashFlows, exerciseIndices, regressionCoefficients);
+	}
+
+	/**
+	 * Calculate the value using independent paths for the regression and the valuation: the exercise strategy is estimated from the first model,
+	 * the value is the expectation of the cash flows of this strategy in the second model (a low-biased estimate).
+	 *
+	 * @param modelForRegression The Monte-Carlo model used to estimate the exercise strategy.
+	 * @param modelForValuation The Monte-Carlo model (with independent paths) used for the valuation.
+	 * @return The value, its standard error, the exercise probabilities and the regression coefficients.
+	 * @throws CalculationException Thrown if a model fails to provide the asset values or the numeraire.
+	 */
+	public LongstaffSchwartzResult getValue(AssetModelMonteCarloSimulationModel modelForRegression, AssetModelMonteCarloSimulationModel modelForValuation) throws CalculationException {
+		final double[][] regressionCoefficients = getValue(modelForRegression).getRegressionCoefficients();
+
+		final int numberOfPaths = modelForValuation.getNumberOfPaths();
+		final int numberOfExerciseDates = exerciseDates.length;
+
+		final double[] cashFlows = new double[numberOfPaths];
+		final int[] exerciseIndices = new int[numberOfPaths];
+		Arrays.fill(exerciseIndices, -1);
+
+		for(int exerciseIndex=0; exerciseIndex<numberOfExerciseDates; exerciseIndex++) {
+			final double exerciseDate = exerciseDates[exerciseIndex];
+			final double[] underlyings = getRealizations(modelForValuation.getAssetValue(exerciseDate, assetIndex), numberOfPaths);
+			final double[] numeraires = getRealizations(modelForValuation.getNumeraire(exerciseDate), numberOfPaths);
+			final double[] coefficients = exerciseIndex < numberOfExerciseDates-1 ? regressionCoefficients[exerciseIndex] : null;
+
+			final int exerciseIndexOfUpdate = exerciseIndex;
+			forEachBlock(numberOfPaths, block -> {
+				final double[] basisValues = new double[basis.getNumberOfBasisFunctions()];
+				final int firstPathIndex = block * numberOfPathsPerBlock;
+				final int lastPathIndex = Math.min(firstPathIndex + numberOfPathsPerBlock, numberOfPaths);
+				for(int pathIndex=firstPathIndex; pathIndex<lastPathIndex; pathIndex++) {
+					if(exerciseIndices[pathIndex] >= 0) {
+						continue;	// already exercised
+					}
+					final double exerciseValue = payoff.applyAsDouble(exerciseDate, underlyings[pathIndex]) / numeraires[pathIndex];
+					if(exerciseValue > 0 && (coefficients == null || exerciseValue > getContinuationValue(coefficients, underlyings[pathIndex], basisValues))) {
+						cashFlows[pathIndex] = exerciseValue;
+						exerciseIndices[pathIndex] = exerciseIndexOfUpdate;
+					}
+				}
+			});
+		}
+
+		return getResult(modelForValuation, cashFlows, exerciseIndices, regressionCoefficients);
+	}
+
+	/**
+	 * @return The exercise dates.
+	 */
+	public double[] getExerciseDates() {
+		return exerciseDates.clone();
+	}
+
+	/**
+	 * @return The basis functions of the regression.
+	 */
+	public RegressionBasis getBasis() {
+		return basis;
+	}
+
+	/*
+	 * Solves the normal equations of the regression of the cash flows on the basis functions, using the paths in the money.
+	 */
+	private double[] getRegressionCoefficients(double exerciseDate, double[] underlyings, double[] cashFlows) {
+		final int numberOfPaths = underlyings.length;
+		final int numberOfBasisFunctions = basis.getNumberOfBasisFunctions();
+		final int numberOfBlocks = (numberOfPaths + numberOfPathsPerBlock - 1) / numberOfPathsPerBlock;
+
+		// The upper triangle of Phi^T Phi (row major) followed by Phi^T Y, for each block
+		final double[][] normalEquationsOfBlocks = new double[numberOfBlocks][numberOfBasisFunctions * numberOfBasisFunctions + numberOfBasisFunctions];
+
+		forEachBlock(numberOfPaths, block -> {
+			final double[] normalEquations = normalEquationsOfBlocks[block];
+			final double[] basisValues = new double[numberOfBasisFunctions];
+			final int offsetOfVector = numberOfBasisFunctions * numberOfBasisFunctions;
+			final int firstPathIndex = block * numberOfPathsPerBlock;
+			final int lastPathIndex = Math.min(firstPathIndex + numberOfPathsPerBlock, numberOfPaths);
+			for(int pathIndex=firstPathIndex; pathIndex<lastPathIndex; pathIndex++) {
+				if(payoff.applyAsDouble(exerciseDate, underlyings[pathIndex]) <= 0) {
+					continue;	// out of the money
+				}
+				basis.getValues(underlyings[pathIndex], basisValues);
+				final double cashFlow = cashFlows[pathIndex];
+				for(int j=0; j<numberOfBasisFunctions; j++) {
+					final double basisValue = basisValues[j];
+					final int offsetOfRow = j * numberOfBasisFunctions;
+					for(int l=j; l<numberOfBasisFunctions; l++) {
+						normalEquations[offsetOfRow + l] += basisValue * basisValues[l];
+					}
+					normalEquations[offsetOfVector + j] += basisValue * cashFlow;
+				}
+			}
+		});
+
+		// Sum the blocks in the order of the paths
+		final double[][] matrix = new double[numberOfBasisFunctions][numberOfBasisFunctions];
+		final double[] vector = new double[numberOfBasisFunctions];
+		for(final double[] normalEquations : normalEquationsOfBlocks) {
+			for(int j=0; j<numberOfBasisFunctions; j++) {
+				for(int l=j; l<numberOfBasisFunctions; l++) {
+					matrix[j][l] += normalEquations[j * numberOfBasisFunctions + l];
+				}
+				vector[j] += normalEquations[numberOfBasisFunctions * numberOfBasisFunctions + j];
+			}
+		}
+		for(int j=0; j<numberOfBasisFunctions; j++) {
+			for(int l=0; l<j; l++) {
+				matrix[j][l] = matrix[l][j];
+			}
+		}
+
+		// The singular value decomposition gives the least squares solution also if the matrix is singular (e.g. few paths in the money),
+		// singular values below the rank cutoff of the decomposition are treated as zero (see the class documentation)
+		return new SingularValueDecomposition(new Array2DRowRealMatrix(matrix, false)).getSolver().solve(new ArrayRealVector(vector, false)).toArray();
+	}
+
+	private double getContinuationValue(double[] coefficients, double underlying, double[] basisValues) {
+		basis.getValues(underlying, basisValues);
+		double continuationValue = 0.0;
+		for(int j=0; j<coefficients.length; j++) {
+			continuationValue += coefficients[j] * basisValues[j];
+		}
+		return continuationValue;
+	}
+
+	private LongstaffSchwartzResult getResult(AssetModelMonteCarloSimulationModel model, double[] cashFlows, int[] exerciseIndices, double[][] regressionCoefficients) throws CalculationException {
+		final int numberOfPaths = cashFlows.length;
+
+		double sum = 0.0;
+		final long[] numberOfExercises = new long[exerciseDates.length];
+		for(int pathIndex=0; pathIndex<numberOfPaths; pathIndex++) {
+			sum += cashFlows[pathIndex];
+			if(exerciseIndices[pathIndex] >= 0) {
+				numberOfExercises[exerciseIndices[pathIndex]]++;
+			}
+		}
+		final double[] exerciseProbabilities = Arrays.stream(numberOfExercises).mapToDouble(count -> (double)count / numberOfPaths).toArray();
+		final double mean = sum / numberOfPaths;
+
+		// Second pass: the sum of the squared deviations does not suffer from the cancellation of E(X^2) - E(X)^2
+		double sumOfSquaredDeviations = 0.0;
+		for(int pathIndex=0; pathIndex<numberOfPaths; pathIndex++) {
+			final double deviation = cashFlows[pathIndex] - mean;
+			sumOfSquaredDeviations += deviation * deviation;
+		}
+		final double variance = numberOfPaths > 1 ? sumOfSquaredDeviations / (numberOfPaths - 1.0) : 0.0;
+
+		// The numeraire at the evaluation time is known at that time
+		final double numeraireAtEvaluationTime = model.getNumeraire(model.getTime(0)).getAverage();
+
+		return new LongstaffSchwartzResult(mean * numeraireAtEvaluationTime, Math.sqrt(variance / numberOfPaths) * numeraireAtEvaluationTime,
+				exerciseProbabilities, regressionCoefficients);
+	}
+
+	private void forEachBlock(int numberOfPaths, IntConsumer blockAction) {
+		final int numberOfBlocks = (numberOfPaths + numberOfPathsPerBlock - 1) / numberOfPathsPerBlock;
+		if(forkJoinPool == null) {
+			for(int block=0; block<numberOfBlocks; block++) {
+				blockAction.accept(block);
+			}
+		}
+		else {
+			forkJoinPool.submit(() -> IntStream.range(0, numberOfBlocks).parallel().forEach(blockAction)).join();
+		}
+	}
+
+	private static double[] getRealizations(RandomVariable randomVariable, int numberOfPaths) {
+		if(randomVariable.isDeterministic()) {
+			final double[] values = new double[numberOfPaths];
+			Arrays.fill(values, randomVariable.doubleValue());
+			return values;
+		}
+		return randomVariable.getRealizations();
+	}
+
+	@Override
+	public String toString() {
+		return "LongstaffSchwartzBermudanOption [exerciseDates=" + Arrays.toString(exerciseDates) + ", basis=" + basis + ", assetIndex=" + assetIndex + "]";
+	}
+}
@@ -0,0 +1,68 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.bermudan;
+
+/**
+ * The result of a Longstaff-Schwartz valuation: the value, its standard error, the probability of exercise at each exercise date
+ * and the regression coefficients (the exercise strategy).
+ *
+ * @author Christian Fries
+ */
+public class LongstaffSchwartzResult {
+
+	private final double value;
+	private final double standardError;
+	private final double[] exerciseProbabilities;
+	private final double[][] regressionCoefficients;
+
+	/**
+	 * Create the result of a Longstaff-Schwartz valuation.
+	 *
+	 * @param value The value (Monte-Carlo estimate).
+	 * @param standardError The standard error of the Monte-Carlo estimate.
+	 * @param exerciseProbabilities The fraction of the paths exercised at each exercise date.
+	 * @param regressionCoefficients The regression coefficients \( \beta \) of the continuation value for each exercise date (except the last).
+	 */
+	public LongstaffSchwartzResult(double value, double standardError, double[] exerciseProbabilities, double[][] regressionCoefficients) {
+		super();
+		this.value = value;
+		this.standardError = standardError;
+		this.exerciseProbabilities = exerciseProbabilities;
+		this.regressionCoefficients = regressionCoefficients;
+	}
+
+	/**
+	 * @return The value (Monte-Carlo estimate).
+	 */
+	public double getValue() {
+		return value;
+	}
+
+	/**
+	 * @return The standard error of the Monte-Carlo estimate.
+	 */
+	public double getStandardError() {
+		return standardError;
+	}
+
+	/**
+	 * @return The fraction of the paths exercised at each exercise date.
+	 */
+	public double[] getExerciseProbabilities() {
+		return exerciseProbabilities.clone();
+	}
+
+	/**
+	 * @return The regression coefficients \( \beta \) of the continuation value for each exercise date (except the last).
+	 */
+	public double[][] getRegressionCoefficients() {
+		final double[][] coefficients = new double[regressionCoefficients.length][];
+		for(int i=0; i<coefficients.length; i++) {
+			coefficients[i] = regressionCoefficients[i].clone();
+		}
+		return coefficients;
+	}
+
+	@Override
+	public String toString() {
+		return "LongstaffSchwartzResult [value=" + value + ", standardError=" + standardError + "]";
+	}
+}
@@ -0,0 +1,60 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.bermudan;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * The basis functions \( \phi_{0}, \ldots, \phi_{k-1} \) of the regression of the continuation value \( C(S) \approx \sum_{j} \beta_{j} \phi_{j}(S) \)
+ * in the Longstaff-Schwartz algorithm, see {@link LongstaffSchwartzBermudanOption}.
+ *
+ * The values are written to a given buffer, such that the evaluation does not allocate memory for each path.
+ *
+ * @author Christian Fries
+ */
+public interface RegressionBasis {
+
+	/**
+	 * @return The number of basis functions k.
+	 */
+	int getNumberOfBasisFunctions();
+
+	/**
+	 * Evaluate the basis functions.
+	 *
+	 * @param underlying The value of the underlying S.
+	 * @param values The buffer receiving the values \( \phi_{j}(S) \), j = 0, ..., k-1.
+	 */
+	void getValues(double underlying, double[] values);
+
+	/**
+	 * Returns the monomials \( 1, S/s, (S/s)^{2}, \ldots, (S/s)^{d} \), where the scale s (e.g. the initial value or the strike)
+	 * keeps the regression matrix well conditioned.
+	 *
+	 * @param degree The maximum degree d.
+	 * @param scale The scale s.
+	 * @return The basis of monomials.
+	 */
+	static RegressionBasis ofMonomials(int degree, double scale) {
+		Validate.isTrue(degree >= 0, "Parameter degree must be >= 0.");
+		Validate.isTrue(scale > 0, "Parameter scale must be > 0.");
+		return new RegressionBasis() {
+			@Override
+			public int getNumberOfBasisFunctions() {
+				return degree+1;
+			}
+
+			@Override
+			public void getValues(double underlying, double[] values) {
+				final double x = underlying / scale;
+				values[0] = 1.0;
+				for(int j=1; j<=degree; j++) {
+					values[j] = values[j-1] * x;
+				}
+			}
+
+			@Override
+			public String toString() {
+				return "RegressionBasis.ofMonomials [degree=" + degree + ", scale=" + scale + "]";
+			}
+		};
+	}
+}
@@ -1,17 +1,16 @@
 package info.quantlab.numericalmethods.lecture.montecarlo.brownianmotion;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
 import java.util.function.DoubleUnaryOperator;
+import java.util.stream.IntStream;
 
-import info.quantlab.numericalmethods.lecture.randomnumbers.MersenneTwister;
+import info.quantlab.numericalmethods.lecture.montecarlo.paths.PathStore;
+import info.quantlab.numericalmethods.lecture.randomnumbers.NormalRandomNumberGenerator;
+import info.quantlab.numericalmethods.lecture.randomnumbers.PhiloxRandomNumberGenerator;
 import info.quantlab.numericalmethods.lecture.randomnumbers.RandomNumberGenerator1D;
-import net.finmath.functions.NormalDistribution;
-import net.finmath.montecarlo.RandomVariableFromDoubleArray;
 import net.finmath.plots.DoubleToRandomVariableFunction;
 import net.finmath.plots.Plot2D;
 import net.finmath.plots.PlotProcess2D;
+import net.finmath.time.TimeDiscretization;
 import net.finmath.time.TimeDiscretizationFromArray;
 
 public class BrownianMotionSamplePaths {
@@ -22,6 +21,8 @@ public class BrownianMotionSamplePaths {
 	private final int numberOfPaths = 1000;
 	private final int seed = 3141;
 
+	private final int numberOfPathsPerBlock = 100;
+
 	public static void main(String[] args) {
 
 		(new BrownianMotionSamplePaths()).plot();
@@ -29,39 +30,40 @@ public class BrownianMotionSamplePaths {
 
 	private void plot() {
 
-		final RandomNumberGenerator1D randomNumberGenerator = new MersenneTwister(seed);
-
-		final double[] timeDiscretization = new double[numberOfTimeSteps+1];
-		for(int i=0; i<timeDiscretization.length; i++) {
-			timeDiscretization[i] = i * timeStep;
-		}
+		final TimeDiscretization timeDiscretization = new TimeDiscretizationFromArray(0.0, numberOfTimeSteps, timeStep);
 
-		final List<double[]> brownianMotionSamplePaths = new ArrayList<>();
+		/*
+		 * The paths are generated in parallel, one block of paths per task. The normals of path j are the numbers
+		 * j * numberOfTimeSteps, ..., (j+1) * numberOfTimeSteps - 1 of a counter-based generator, hence the paths
+		 * do not depend on the number of threads.
+		 */
+		final PathStore brownianMotionSamplePaths = new PathStore(timeDiscretization, numberOfPaths).fill((valuesByTime, firstPathIndex, numberOfPathsOfBlock) -> {
+			// Standard normals generated from uniforms via the ICDF, positioned at the first path of the block
+			final PhiloxRandomNumberGenerator uniformRandomNumberGenerator = new PhiloxRandomNumberGenerator(seed);
+			uniformRandomNumberGenerator.skipTo((long)firstPathIndex * numberOfTimeSteps);
+			final RandomNumberGenerator1D normalRandomNumberGenerator = new NormalRandomNumberGenerator(uniformRandomNumberGenerator);
 
-		for(int pathIndex = 0; pathIndex<numberOfPaths; pathIndex++) {
+			// Buffer for the normals of one path
+			final double[] normals = new double[numberOfTimeSteps];
 
-			// Allocate array W(t_i, 𝜔) on the current path 𝜔
-			final double[] brownianMotionSamplePath = new double[timeDiscretization.length];
+			for(int pathIndex = firstPathIndex; pathIndex<firstPathIndex+numberOfPathsOfBlock; pathIndex++) {
 
-			// Initial value (but the array is initialized to 0 anyway)
-			brownianMotionSamplePath[0] = 0.0;
+				// Standard normals for all time steps of the path
+				normalRandomNumberGenerator.fill(normals);
 
-			for(int timeIndex = 0; timeIndex<timeDiscretization.length-1; timeIndex++) {
+				// Initial value (but the array is initialized to 0 anyway)
+				valuesByTime[0][pathIndex] = 0.0;
 
-				final double uniform = randomNumberGenerator.nextDouble();
+				for(int timeIndex = 0; timeIndex<numberOfTimeSteps; timeIndex++) {
 
-				// Standard normal
-				final double normal = NormalDistribution.inverseCumulativeDistribution(uniform);
+					final double normal = normals[timeIndex];
 
-				final double timeStep = timeDiscretization[timeIndex+1] - timeDiscretization[timeIndex];
-				final double brownianIncrement = Math.sqrt(timeStep) * normal;
+					final double brownianIncrement = Math.sqrt(timeDiscretization.getTimeStep(timeIndex)) * normal;
 
-				brownianMotionSamplePath[timeIndex+1] = brownianMotionSamplePath[timeIndex] + brownianIncrement;
+					valuesByTime[timeIndex+1][pathIndex] = valuesByTime[timeIndex][pathIndex] + brownianIncrement;
+				}
 			}
-
-			brownianMotionSamplePaths.add(brownianMotionSamplePath);
-		}
-
+		}, numberOfPathsPerBlock);
 
 		/*
 		 * Plot the sample paths.
@@ -69,44 +71,27 @@ public class BrownianMotionSamplePaths {
 		 */
 		final int numberOfPathsToPlot = 100;
 
-		// Array of functions that map t to W(t,𝜔) (the array is over all 𝜔), i.e., array of paths.
-		final DoubleUnaryOperator[] doubleUnaryOperators = brownianMotionSamplePaths.stream().limit(numberOfPathsToPlot).map(
-				samplePath -> {
-					final DoubleUnaryOperator operator = t -> samplePath[getTimeIndexLessOrEqual(timeDiscretization, t)];
-					return operator;
-				}).toArray(DoubleUnaryOperator[]::new);
+		// Array of functions that map t to W(t,𝜔) (the array is over all 𝜔), i.e., array of paths (views on the path store).
+		final DoubleUnaryOperator[] doubleUnaryOperators = IntStream.range(0, numberOfPathsToPlot).mapToObj(brownianMotionSamplePaths::getPath).toArray(DoubleUnaryOperator[]::new);
 
 		// Plot the sample paths
 		final Plot2D plot = new Plot2D(
-				timeDiscretization[0],
-				timeDiscretization[timeDiscretization.length-1],
-				timeDiscretization.length /* points */,
+				timeDiscretization.getTime(0),
+				timeDiscretization.getTime(numberOfTimeSteps),
+				timeDiscretization.getNumberOfTimes() /* points */,
 				doubleUnaryOperators);
 		plot.setTitle("Brownian Motion (observed at discrete times for selected 𝜔)")
 		.setXAxisLabel("time t")
 		.setYAxisLabel("W(t,𝜔)");
 		plot.show();
 
-		// Function that maps t to W(t), i.e., function from time to random variable.
-		final DoubleToRandomVariableFunction timeToRandomVariable = t ->
-		{ return new RandomVariableFromDoubleArray(t, brownianMotionSamplePaths.stream().mapToDouble(
-				samplePath -> samplePath[getTimeIndexLessOrEqual(timeDiscretization, t)]
-				).toArray());
-		};
+		// Function that maps t to W(t), i.e., function from time to random variable (a view on the path store).
+		final DoubleToRandomVariableFunction timeToRandomVariable = brownianMotionSamplePaths::getRandomVariable;
 
-		final PlotProcess2D process = new PlotProcess2D(new TimeDiscretizationFromArray(Arrays.stream(timeDiscretization), timeStep/10), timeToRandomVariable, 100);
+		final PlotProcess2D process = new PlotProcess2D(timeDiscretization, timeToRandomVariable, 100);
 		process.setTitle("Brownian Motion (observed at discrete times for selected 𝜔)")
 		.setXAxisLabel("time t")
 		.setYAxisLabel("W(t,𝜔)");
 		process.show();
 	}
-
-	private int getTimeIndexLessOrEqual(double[] timeDiscretization, double time) {
-		int timeIndex = Arrays.binarySearch(timeDiscretization, time);
-		// If there is no match, we get a negative value such that -timeIndex-1 is the index of the next time being smaller
-		if(timeIndex < 0) {
-			timeIndex = -timeIndex-1;
-		}
-		return timeIndex;
-	}
 }
@@ -0,0 +1,39 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.integration;
+
+/**
+ * The result of an adaptive integration: the value, its error estimate, the number of evaluations
+ * and whether the tolerance has been reached.
+ *
+ * @author Christian Fries
+ */
+public class AdaptiveIntegrationResult extends IntegrationResult {
+
+	private final boolean isToleranceReached;
+
+	/**
+	 * Create the result of an adaptive integration.
+	 *
+	 * @param value The value of the integral.
+	 * @param errorEstimate The estimate of the error.
+	 * @param numberOfEvaluations The number of evaluations of the integrand.
+	 * @param isToleranceReached True, if the error estimate is below the tolerance.
+	 */
+	public AdaptiveIntegrationResult(double value, double errorEstimate, long numberOfEvaluations, boolean isToleranceReached) {
+		super(value, errorEstimate, numberOfEvaluations);
+		this.isToleranceReached = isToleranceReached;
+	}
+
+	/**
+	 * @return True, if the error estimate is below the tolerance (and the calculation did not stop by the maximum number of evaluations
+	 * or because intervals could not be refined further).
+	 */
+	public boolean isToleranceReached() {
+		return isToleranceReached;
+	}
+
+	@Override
+	public String toString() {
+		return "AdaptiveIntegrationResult [value=" + getValue() + ", errorEstimate=" + getErrorEstimate()
+				+ ", numberOfEvaluations=" + getNumberOfEvaluations() + ", isToleranceReached=" + isToleranceReached + "]";
+	}
+}
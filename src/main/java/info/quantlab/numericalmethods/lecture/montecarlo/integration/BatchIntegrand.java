@@ -0,0 +1,48 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.integration;
+
+/**
+ * An {@link Integrand} implementing the evaluation of blocks of points (structure of arrays).
+ *
+ * This is a functional interface, e.g., the integrand f(x,y) = x y can be written as
+ * <pre>
+ * BatchIntegrand integrand = (arguments, values, n) -&gt; {
+ * 	for(int i=0; i&lt;n; i++) values[i] = arguments[0][i] * arguments[1][i];
+ * };
+ * </pre>
+ * The evaluation of a single point is performed by a block of length 1.
+ *
+ * @author Christian Fries
+ */
+@FunctionalInterface
+public interface BatchIntegrand extends Integrand {
+
+	@Override
+	void values(double[][] argumentsByDimension, double[] values, int numberOfPoints);
+
+	/**
+	 * Evaluates the function for a single point, by calling {@link #values(double[][], double[], int)} with a block of length 1.
+	 *
+	 * @param arguments The argument z.
+	 * @return The value f(z).
+	 */
+	@Override
+	default double value(double[] arguments) {
+		final double[][] argumentsByDimension = new double[arguments.length][1];
+		for(int k=0; k<arguments.length; k++) {
+			argumentsByDimension[k][0] = arguments[k];
+		}
+		final double[] values = new double[1];
+		values(argumentsByDimension, values, 1);
+		return values[0];
+	}
+
+	/**
+	 * Creates a batch integrand from an integrand (if the integrand is not already a batch integrand).
+	 *
+	 * @param integrand An integrand.
+	 * @return A batch integrand evaluating the given integrand.
+	 */
+	static BatchIntegrand of(Integrand integrand) {
+		return integrand instanceof BatchIntegrand ? (BatchIntegrand)integrand : integrand::values;
+	}
+}
@@ -3,6 +3,11 @@ package info.quantlab.numericalmethods.lecture.montecarlo.integration;
 /**
  * Interface to be implemented by integrands that are may be integrated by an {@link Integrator}.
  *
+ * Integrators evaluate the integrand in blocks of points via {@link #values(double[][], double[], int)}.
+ * The default implementation of this method calls {@link #value(double[])} for each point.
+ * An integrand may implement the block evaluation directly (see {@link BatchIntegrand}) to avoid the per point call
+ * and to allow loops over the components of all points (which may be vectorized by the JIT compiler).
+ *
  * @author Christian Fries
  */
 public interface Integrand {
@@ -15,4 +20,25 @@ public interface Integrand {
 	 */
 	double value(double[] arguments);
 
+	/**
+	 * Evaluates the function for a block of n points \( z_{0}, \ldots, z_{n-1} \) given by their components
+	 * (structure of arrays), i.e., argumentsByDimension[k][i] is the k-th component of the point \( z_{i} \).
+	 *
+	 * The default implementation calls {@link #value(double[])} for each point, re-using one argument array for all points
+	 * of the block (the argument must not be stored by <code>value</code>).
+	 *
+	 * @param argumentsByDimension The components of the points, argumentsByDimension[k][i] being the k-th component of the i-th point.
+	 * @param values Array receiving the values f(z_i), i = 0, ..., n-1.
+	 * @param numberOfPoints The number of points n.
+	 */
+	default void values(double[][] argumentsByDimension, double[] values, int numberOfPoints) {
+		final int dimension = argumentsByDimension.length;
+		final double[] arguments = new double[dimension];
+		for(int i=0; i<numberOfPoints; i++) {
+			for(int k=0; k<dimension; k++) {
+				arguments[k] = argumentsByDimension[k][i];
+			}
+			values[i] = value(arguments);
+		}
+	}
 }
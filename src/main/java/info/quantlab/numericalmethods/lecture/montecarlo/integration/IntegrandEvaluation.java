@@ -0,0 +1,99 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.integration;
+
+/**
+ * Evaluation of an integrand on a block of points of the unit cube, used by the integrators of this package.
+ *
+ * An object holds the buffers for one block (structure of arrays): the points of the unit cube, their images under
+ * the transformation of the integration domain and the determinants. The buffers are re-used for all blocks
+ * evaluated by the object, hence an object must not be shared by threads.
+ *
+ * @author Christian Fries
+ */
+final class IntegrandEvaluation {
+
+	/**
+	 * The number of points evaluated as one block (the unit of work of a parallel task).
+	 */
+	static final int blockSize = 1024;
+
+	private final double[][] pointsByDimension;
+	private final double[][] argumentsByDimension;
+	private final double[] determinants;
+
+	/**
+	 * Create the buffers for the evaluation of blocks of points.
+	 *
+	 * @param dimension The dimension of the unit cube (the integration domain).
+	 */
+	IntegrandEvaluation(int dimension) {
+		this(dimension, blockSize);
+	}
+
+	/**
+	 * Create the buffers for the evaluation of blocks of at most the given number of points.
+	 *
+	 * @param dimension The dimension of the unit cube (the integration domain).
+	 * @param maximumNumberOfPoints The maximum number of points of a block (at most {@link #blockSize}).
+	 */
+	IntegrandEvaluation(int dimension, int maximumNumberOfPoints) {
+		pointsByDimension = new double[dimension][maximumNumberOfPoints];
+		argumentsByDimension = new double[dimension][maximumNumberOfPoints];
+		determinants = new double[maximumNumberOfPoints];
+	}
+
+	/**
+	 * Returns the buffer for the points of the unit cube, pointsByDimension[k][i] being the k-th component of the i-th point.
+	 *
+	 * @return The buffer for the points of the unit cube.
+	 */
+	double[][] getPointsByDimension() {
+		return pointsByDimension;
+	}
+
+	/**
+	 * Sets the points of the block from an array storing the points one after another (as generated by a <code>RandomNumberGenerator</code>).
+	 *
+	 * @param points The points, the first d numbers being the first point.
+	 * @param numberOfPoints The number of points.
+	 */
+	void setPoints(double[] points, int numberOfPoints) {
+		final int dimension = pointsByDimension.length;
+		for(int k=0; k<dimension; k++) {
+			final double[] pointsOfDimension = pointsByDimension[k];
+			for(int i=0; i<numberOfPoints; i++) {
+				pointsOfDimension[i] = points[i * dimension + k];
+			}
+		}
+	}
+
+	/**
+	 * Calculates the values \( f(g(x_{i})) \det(dg/dx(x_{i})) \) for the points \( x_{i} \) of the block.
+	 *
+	 * @param integrand The integrand f.
+	 * @param integrationDomain The integration domain (the transformation g).
+	 * @param numberOfPoints The number of points to evaluate.
+	 * @param values A buffer receiving the values (at least of length numberOfPoints).
+	 */
+	void getValues(Integrand integrand, IntegrationDomain integrationDomain, int numberOfPoints, double[] values) {
+		integrationDomain.fromUnitCube(pointsByDimension, argumentsByDimension, determinants, numberOfPoints);
+		integrand.values(argumentsByDimension, values, numberOfPoints);
+		for(int i=0; i<numberOfPoints; i++) {
+			values[i] *= determinants[i];
+		}
+	}
+
+	/**
+	 * Returns the sum of the block sums in the order of the blocks (such that the result does not depend on the
+	 * order in which the blocks have been calculated).
+	 *
+	 * @param blockSums The sums of the blocks.
+	 * @return The sum.
+	 */
+	static double sum(double[] blockSums) {
+		double sum = 0.0;
+		for(final double blockSum : blockSums) {
+			sum += blockSum;
+		}
+		return sum;
+	}
+}
@@ -38,4 +38,30 @@ public interface IntegrationDomain {
 	 */
 	double getDeterminantOfDifferential(double[] parametersOnUnitCurve);
 
+	/**
+	 * Applies the transformation g and calculates the determinant of dg/dx for a block of n points
+	 * given by their components (structure of arrays), i.e., parametersByDimension[k][i] is the k-th component of the point \( x_{i} \).
+	 *
+	 * The default implementation calls {@link #fromUnitCube(double[])} and {@link #getDeterminantOfDifferential(double[])} for each point,
+	 * re-using one parameter array for all points of the block.
+	 *
+	 * @param parametersByDimension The components of the points \( x_{i} \) in \( [0,1]^{n} \).
+	 * @param argumentsByDimension Arrays receiving the components of the points \( g(x_{i}) \).
+	 * @param determinants Array receiving the values \( det( dg/dx (x_{i}) ) \).
+	 * @param numberOfPoints The number of points n.
+	 */
+	default void fromUnitCube(double[][] parametersByDimension, double[][] argumentsByDimension, double[] determinants, int numberOfPoints) {
+		final int dimension = parametersByDimension.length;
+		final double[] parameters = new double[dimension];
+		for(int i=0; i<numberOfPoints; i++) {
+			for(int k=0; k<dimension; k++) {
+				parameters[k] = parametersByDimension[k][i];
+			}
+			final double[] arguments = fromUnitCube(parameters);
+			for(int k=0; k<argumentsByDimension.length; k++) {
+				argumentsByDimension[k][i] = arguments[k];
+			}
+			determinants[i] = getDeterminantOfDifferential(parameters);
+		}
+	}
 }
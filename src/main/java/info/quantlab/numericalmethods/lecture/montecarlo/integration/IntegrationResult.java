@@ -0,0 +1,57 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.integration;
+
+/**
+ * The result of a numerical integration: the value of the integral together with an estimate of its error
+ * and the number of evaluations of the integrand used.
+ *
+ * For Monte-Carlo methods the error estimate is the standard error of the estimator.
+ *
+ * @author Christian Fries
+ */
+public class IntegrationResult {
+
+	private final double value;
+	private final double errorEstimate;
+	private final long numberOfEvaluations;
+
+	/**
+	 * Create the result of a numerical integration.
+	 *
+	 * @param value The value of the integral.
+	 * @param errorEstimate The estimate of the error (e.g. the standard error of a Monte-Carlo estimator).
+	 * @param numberOfEvaluations The number of evaluations of the integrand.
+	 */
+	public IntegrationResult(double value, double errorEstimate, long numberOfEvaluations) {
+		super();
+		this.value = value;
+		this.errorEstimate = errorEstimate;
+		this.numberOfEvaluations = numberOfEvaluations;
+	}
+
+	/**
+	 * @return The value of the integral.
+	 */
+	public double getValue() {
+		return value;
+	}
+
+	/**
+	 * @return The estimate of the error, e.g., the standard error of a Monte-Carlo estimator.
+	 */
+	public double getErrorEstimate() {
+		return errorEstimate;
+	}
+
+	/**
+	 * @return The number of evaluations of the integrand.
+	 */
+	public long getNumberOfEvaluations() {
+		return numberOfEvaluations;
+	}
+
+	@Override
+	public String toString() {
+		return "IntegrationResult [value=" + value + ", errorEstimate=" + errorEstimate + ", numberOfEvaluations="
+				+ numberOfEvaluations + "]";
+	}
+}
@@ -0,0 +1,134 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.integration;
+
+import java.util.stream.IntStream;
+
+import org.apache.commons.lang3.Validate;
+
+import info.quantlab.numericalmethods.lecture.randomnumbers.RandomNumberGenerator;
+
+/**
+ * Monte-Carlo (or quasi Monte-Carlo) integration using a given <code>RandomNumberGenerator</code>,
+ * where the integrand is evaluated in parallel.
+ *
+ * The sample points are drawn (sequentially) in rounds of several blocks from the generator, such that the sequence of points
+ * does not depend on the number of threads. The blocks of a round are evaluated in parallel, each block calculates the mean and the
+ * sum of squared deviations of its values (two passes over the values of the block). The blocks are merged in the order of the blocks
+ * with the update of Chan, Golub and LeVeque,
+ * \( \bar{x} = \bar{x}_{A} + \delta n_{B}/n \), \( M_{2} = M_{2,A} + M_{2,B} + \delta^{2} n_{A} n_{B} / n \), \( \delta = \bar{x}_{B} - \bar{x}_{A} \),
+ * which does not suffer from the cancellation of \( E(X^{2}) - E(X)^{2} \). Hence the result does not depend on the number of threads.
+ *
+ * The integrator consumes the numbers of the generator, i.e., a second call to integrate uses the subsequent points of the sequence.
+ * The constructor is a {@link MonteCarloIntegratorFactory}: <code>MonteCarloIntegratorFactory factory = ParallelMonteCarloIntegrator::new</code>.
+ *
+ * @author Christian Fries
+ */
+public class ParallelMonteCarloIntegrator implements Integrator {
+
+	private static final int numberOfBlocksPerRound = 64;
+
+	private final RandomNumberGenerator randomNumberGenerator;
+	private final long numberOfSamplePoints;
+
+	/**
+	 * Create a Monte-Carlo integrator.
+	 *
+	 * @param randomNumberGenerator The generator of the sample points of the unit cube (its dimension has to match the dimension of the integration domain).
+	 * @param numberOfSamplePoints The number of sample points.
+	 */
+	public ParallelMonteCarloIntegrator(RandomNumberGenerator randomNumberGenerator, long numberOfSamplePoints) {
+		super();
+		Validate.notNull(randomNumberGenerator, "Parameter randomNumberGenerator must not be null.");
+		Validate.isTrue(numberOfSamplePoints >= 1, "Parameter numberOfSamplePoints must be >= 1.");
+		this.randomNumberGenerator = randomNumberGenerator;
+		this.numberOfSamplePoints = numberOfSamplePoints;
+	}
+
+	@Override
+	public double integrate(Integrand integrand, IntegrationDomain integrationDomain) {
+		return integrateWithErrorEstimate(integrand, integrationDomain).getValue();
+	}
+
+	/**
+	 * Calculate the integral \( \int_A f(z) dz \) and the standard error of the Monte-Carlo estimate.
+	 *
+	 * For a quasi random sequence the standard error is not a valid error estimate (use {@link RQMCIntegrator} instead).
+	 *
+	 * @param integrand The integrand f.
+	 * @param integrationDomain The integration domain A (the transformation z = g(x)) from a unit cube to A).
+	 * @return The integral \( \int_A f(z) dz \) together with its standard error.
+	 */
+	public IntegrationResult integrateWithErrorEstimate(Integrand integrand, IntegrationDomain integrationDomain) {
+		final int dimension = randomNumberGenerator.getDimension();
+		Validate.isTrue(dimension == integrationDomain.getDimension(), "The dimension of the random number generator does not match the dimension of the integration domain.");
+
+		final int blockSize = IntegrandEvaluation.blockSize;
+		final double[][] points = new double[numberOfBlocksPerRound][blockSize * dimension];
+		final double[][] values = new double[numberOfBlocksPerRound][blockSize];
+		final IntegrandEvaluation[] evaluations = new IntegrandEvaluation[numberOfBlocksPerRound];
+		for(int block=0; block<numberOfBlocksPerRound; block++) {
+			evaluations[block] = new IntegrandEvaluation(dimension);
+		}
+		final double[] blockMeans = new double[numberOfBlocksPerRound];
+		final double[] blockSumsOfSquaredDeviations = new double[numberOfBlocksPerRound];
+
+		long numberOfValues = 0;
+		double mean = 0.0;
+		double sumOfSquaredDeviations = 0.0;
+		for(long roundStart = 0; roundStart < numberOfSamplePoints; roundStart += (long)numberOfBlocksPerRound * blockSize) {
+			final long roundFirstIndex = roundStart;
+			final int numberOfBlocks = (int)Math.min(numberOfBlocksPerRound, (numberOfSamplePoints - roundStart + blockSize - 1) / blockSize);
+
+			// Draw the points of the round in the order of the sequence
+			for(int block=0; block<numberOfBlocks; block++) {
+				final int blockLength = (int)Math.min(blockSize, numberOfSamplePoints - roundFirstIndex - (long)block * blockSize);
+				randomNumberGenerator.fill(points[block], 0, blockLength);
+			}
+
+			IntStream.range(0, numberOfBlocks).parallel().forEach(block -> {
+				final int blockLength = (int)Math.min(blockSize, numberOfSamplePoints - roundFirstIndex - (long)block * blockSize);
+				evaluations[block].setPoints(points[block], blockLength);
+				evaluations[block].getValues(integrand, integrationDomain, blockLength, values[block]);
+
+				double blockSum = 0.0;
+				for(int i=0; i<blockLength; i++) {
+					blockSum += values[block][i];
+				}
+				final double blockMean = blockSum / blockLength;
+				double blockSumOfSquaredDeviations = 0.0;
+				for(int i=0; i<blockLength; i++) {
+					final double deviation = values[block][i] - blockMean;
+					blockSumOfSquaredDeviations += deviation * deviation;
+				}
+				blockMeans[block] = blockMean;
+				blockSumsOfSquaredDeviations[block] = blockSumOfSquaredDeviations;
+			});
+
+			// Merge the blocks in their order (Chan, Golub, LeVeque)
+			for(int block=0; block<numberOfBlocks; block++) {
+				final long blockLength = Math.min(blockSize, numberOfSamplePoints - roundFirstIndex - (long)block * blockSize);
+				final long numberOfValuesMerged = numberOfValues + blockLength;
+				final double delta = blockMeans[block] - mean;
+				mean += delta * blockLength / numberOfValuesMerged;
+				sumOfSquaredDeviations += blockSumsOfSquaredDeviations[block] + delta * delta * numberOfValues * blockLength / numberOfValuesMerged;
+				numberOfValues = numberOfValuesMerged;
+			}
+		}
+
+		final double variance = numberOfSamplePoints > 1 ? sumOfSquaredDeviations / (numberOfSamplePoints - 1) : Double.NaN;
+
+		return new IntegrationResult(mean, Math.sqrt(variance / numberOfSamplePoints), numberOfSamplePoints);
+	}
+
+	/**
+	 * @return The number of sample points.
+	 */
+	public long getNumberOfSamplePoints() {
+		return numberOfSamplePoints;
+	}
+
+	@Override
+	public String toString() {
+		return "ParallelMonteCarloIntegrator [randomNumberGenerator=" + randomNumberGenerator + ", numberOfSamplePoints="
+				+ numberOfSamplePoints + "]";
+	}
+}
@@ -0,0 +1,143 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.integration;
+
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+import org.apache.commons.lang3.Validate;
+
+import info.quantlab.numericalmethods.lecture.randomnumbers.RandomNumberGenerator;
+
+/**
+ * Randomized quasi Monte-Carlo integration.
+ *
+ * The integral is calculated with K independent randomizations of a quasi random number sequence
+ * (e.g., {@link info.quantlab.numericalmethods.lecture.randomnumbers.ScrambledSobolSequence} or
+ * {@link info.quantlab.numericalmethods.lecture.randomnumbers.RandomizedHaltonSequence}).
+ * The value is the mean of the K quasi Monte-Carlo estimates and the error estimate is the standard error
+ * of this mean, \( \sqrt{ \frac{1}{K(K-1)} \sum_{k} (I_{k} - \bar{I})^{2} } \).
+ *
+ * The K randomizations are calculated in parallel. The result does not depend on the number of threads.
+ *
+ * With {@link #integrate(Integrand, IntegrationDomain, double, long)} the number of sample points is doubled
+ * (re-using the previous points) until a given standard error is reached.
+ *
+ * @author Christian Fries
+ */
+public class RQMCIntegrator implements Integrator {
+
+	private final IntFunction<RandomNumberGenerator> randomizedSequenceFactory;
+	private final int numberOfRandomizations;
+	private final long numberOfSamplePoints;
+
+	/**
+	 * Create a randomized quasi Monte-Carlo integrator.
+	 *
+	 * @param randomizedSequenceFactory A function mapping the index k of the randomization to an (independently) randomized sequence, e.g. <code>k -&gt; new ScrambledSobolSequence(dimension, seed + k)</code>.
+	 * @param numberOfRandomizations The number K of randomizations. Must be &ge; 2.
+	 * @param numberOfSamplePoints The number of sample points per randomization (for Sobol sequences a power of 2 is recommended).
+	 */
+	public RQMCIntegrator(IntFunction<RandomNumberGenerator> randomizedSequenceFactory, int numberOfRandomizations, long numberOfSamplePoints) {
+		super();
+		Validate.isTrue(numberOfRandomizations >= 2, "Parameter numberOfRandomizations must be >= 2.");
+		Validate.isTrue(numberOfSamplePoints >= 1, "Parameter numberOfSamplePoints must be >= 1.");
+		this.randomizedSequenceFactory = randomizedSequenceFactory;
+		this.numberOfRandomizations = numberOfRandomizations;
+		this.numberOfSamplePoints = numberOfSamplePoints;
+	}
+
+	@Override
+	public double integrate(Integrand integrand, IntegrationDomain integrationDomain) {
+		return integrateWithErrorEstimate(integrand, integrationDomain).getValue();
+	}
+
+	/**
+	 * Calculate the integral \( \int_A f(z) dz \) and the standard error of the estimate.
+	 *
+	 * @param integrand The integrand f.
+	 * @param integrationDomain The integration domain A (the transformation z = g(x)) from a unit cube to A).
+	 * @return The integral \( \int_A f(z) dz \) together with its standard error.
+	 */
+	public IntegrationResult integrateWithErrorEstimate(Integrand integrand, IntegrationDomain integrationDomain) {
+		return integrate(integrand, integrationDomain, Double.POSITIVE_INFINITY, numberOfSamplePoints);
+	}
+
+	/**
+	 * Calculate the integral \( \int_A f(z) dz \) and the standard error of the estimate,
+	 * starting with <code>numberOfSamplePoints</code> points per randomization and doubling
+	 * the number of points until the standard error is less or equal to the given target
+	 * or the maximum number of points is reached.
+	 *
+	 * @param integrand The integrand f.
+	 * @param integrationDomain The integration domain A (the transformation z = g(x)) from a unit cube to A).
+	 * @param targetStandardError The standard error at which the calculation stops.
+	 * @param maximumNumberOfSamplePoints The maximum number of sample points per randomization.
+	 * @return The integral \( \int_A f(z) dz \) together with its standard error.
+	 */
+	public IntegrationResult integrate(Integrand integrand, IntegrationDomain integrationDomain, double targetStandardError, long maximumNumberOfSamplePoints) {
+
+		final RandomNumberGenerator[] sequences = new RandomNumberGenerator[numberOfRandomizations];
+		for(int k=0; k<numberOfRandomizations; k++) {
+			sequences[k] = randomizedSequenceFactory.apply(k);
+			Validate.isTrue(sequences[k].getDimension() == integrationDomain.getDimension(), "The dimension of the sequence does not match the dimension of the integration domain.");
+		}
+
+		final double[] sums = new double[numberOfRandomizations];
+
+		long numberOfPointsUsed = 0;
+		long numberOfPointsNext = Math.min(numberOfSamplePoints, maximumNumberOfSamplePoints);
+		while(true) {
+			final long numberOfPointsToAdd = numberOfPointsNext - numberOfPointsUsed;
+			IntStream.range(0, numberOfRandomizations).parallel().forEach(
+					k -> sums[k] += getSumOfValues(integrand, integrationDomain, sequences[k], numberOfPointsToAdd));
+			numberOfPointsUsed = numberOfPointsNext;
+
+			final IntegrationResult result = getResult(sums, numberOfPointsUsed);
+			if(result.getErrorEstimate() <= targetStandardError || 2 * numberOfPointsUsed > maximumNumberOfSamplePoints) {
+				return result;
+			}
+			numberOfPointsNext = 2 * numberOfPointsUsed;
+		}
+	}
+
+	private IntegrationResult getResult(double[] sums, long numberOfPoints) {
+		double mean = 0.0;
+		for(int k=0; k<numberOfRandomizations; k++) {
+			mean += sums[k] / numberOfPoints;
+		}
+		mean /= numberOfRandomizations;
+
+		double sumOfSquaredDeviations = 0.0;
+		for(int k=0; k<numberOfRandomizations; k++) {
+			final double deviation = sums[k] / numberOfPoints - mean;
+			sumOfSquaredDeviations += deviation * deviation;
+		}
+		final double standardError = Math.sqrt(sumOfSquaredDeviations / (numberOfRandomizations - 1) / numberOfRandomizations);
+
+		return new IntegrationResult(mean, standardError, numberOfPoints * numberOfRandomizations);
+	}
+
+	private static double getSumOfValues(Integrand integrand, IntegrationDomain integrationDomain, RandomNumberGenerator sequence, long numberOfPoints) {
+		final int blockSize = IntegrandEvaluation.blockSize;
+		final IntegrandEvaluation evaluation = new IntegrandEvaluation(sequence.getDimension());
+		final double[] buffer = new double[blockSize * sequence.getDimension()];
+		final double[] values = new double[blockSize];
+
+		double sum = 0.0;
+		for(long blockStart = 0; blockStart < numberOfPoints; blockStart += blockSize) {
+			final int blockLength = (int)Math.min(blockSize, numberOfPoints - blockStart);
+			sequence.fill(buffer, 0, blockLength);
+			evaluation.setPoints(buffer, blockLength);
+			evaluation.getValues(integrand, integrationDomain, blockLength, values);
+			for(int i=0; i<blockLength; i++) {
+				sum += values[i];
+			}
+		}
+		return sum;
+	}
+
+	@Override
+	public String toString() {
+		return "RQMCIntegrator [numberOfRandomizations=" + numberOfRandomizations + ", numberOfSamplePoints="
+				+ numberOfSamplePoints + "]";
+	}
+}
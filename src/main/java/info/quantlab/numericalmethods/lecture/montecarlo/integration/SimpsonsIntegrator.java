@@ -0,0 +1,127 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.integration;
+
+import java.util.stream.IntStream;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Integration using the tensor product of the (composite) Simpson's rule.
+ *
+ * For an integration domain of dimension d the integrator uses m^d evaluation points,
+ * where m is the smallest odd number such that m^d is larger or equal to the given number of evaluation points.
+ * Hence the constructor is an {@link IntegratorFactory}: <code>IntegratorFactory factory = SimpsonsIntegrator::new</code>.
+ *
+ * The grid is evaluated in parallel in blocks of points. The result does not depend on the number of threads.
+ *
+ * @author Christian Fries
+ */
+public class SimpsonsIntegrator implements Integrator {
+
+	private final long numberOfEvaluationPoints;
+
+	/**
+	 * Create a tensor product Simpson's integrator.
+	 *
+	 * @param numberOfEvaluationPoints The (minimum) number of evaluation points.
+	 */
+	public SimpsonsIntegrator(long numberOfEvaluationPoints) {
+		super();
+		Validate.isTrue(numberOfEvaluationPoints >= 1, "Parameter numberOfEvaluationPoints must be >= 1.");
+		this.numberOfEvaluationPoints = numberOfEvaluationPoints;
+	}
+
+	@Override
+	public double integrate(Integrand integrand, IntegrationDomain integrationDomain) {
+		final int dimension = integrationDomain.getDimension();
+		final int numberOfPointsPerDimension = getNumberOfPointsPerDimension(numberOfEvaluationPoints, dimension);
+
+		// The one dimensional rule on [0,1]
+		final double[] nodes = new double[numberOfPointsPerDimension];
+		final double[] weights = new double[numberOfPointsPerDimension];
+		final double step = 1.0 / (numberOfPointsPerDimension-1);
+		for(int j=0; j<numberOfPointsPerDimension; j++) {
+			nodes[j] = j == numberOfPointsPerDimension-1 ? 1.0 : j * step;
+			weights[j] = (j == 0 || j == numberOfPointsPerDimension-1 ? 1.0 : (j%2 == 1 ? 4.0 : 2.0)) * step / 3.0;
+		}
+
+		long totalNumberOfPoints = 1;
+		for(int k=0; k<dimension; k++) {
+			totalNumberOfPoints = Math.multiplyExact(totalNumberOfPoints, numberOfPointsPerDimension);
+		}
+		final long numberOfPoints = totalNumberOfPoints;
+
+		final int blockSize = IntegrandEvaluation.blockSize;
+		final int numberOfBlocks = Math.toIntExact((numberOfPoints + blockSize - 1) / blockSize);
+		final double[] blockSums = new double[numberOfBlocks];
+		IntStream.range(0, numberOfBlocks).parallel().forEach(block -> {
+			final long firstIndex = (long)block * blockSize;
+			final int blockLength = (int)Math.min(blockSize, numberOfPoints - firstIndex);
+
+			// Multi-index of the first point (the last component runs fastest)
+			final int[] multiIndex = new int[dimension];
+			long index = firstIndex;
+			for(int k=dimension-1; k>=0; k--) {
+				multiIndex[k] = (int)(index % numberOfPointsPerDimension);
+				index /= numberOfPointsPerDimension;
+			}
+
+			final IntegrandEvaluation evaluation = new IntegrandEvaluation(dimension);
+			final double[][] points = evaluation.getPointsByDimension();
+			final double[] pointWeights = new double[blockLength];
+			for(int i=0; i<blockLength; i++) {
+				double weight = 1.0;
+				for(int k=0; k<dimension; k++) {
+					points[k][i] = nodes[multiIndex[k]];
+					weight *= weights[multiIndex[k]];
+				}
+				pointWeights[i] = weight;
+
+				// Next multi-index
+				for(int k=dimension-1; k>=0 && ++multiIndex[k] == numberOfPointsPerDimension; k--) {
+					multiIndex[k] = 0;
+				}
+			}
+
+			final double[] values = new double[blockLength];
+			evaluation.getValues(integrand, integrationDomain, blockLength, values);
+
+			double sum = 0.0;
+			for(int i=0; i<blockLength; i++) {
+				sum += pointWeights[i] * values[i];
+			}
+			blockSums[block] = sum;
+		});
+
+		return IntegrandEvaluation.sum(blockSums);
+	}
+
+	/**
+	 * Returns the smallest odd number m such that m^d is larger or equal to the given number of evaluation points.
+	 *
+	 * @param numberOfEvaluationPoints The (minimum) number of evaluation points.
+	 * @param dimension The dimension d.
+	 * @return The number of points per dimension m (at least 3).
+	 */
+	public static int getNumberOfPointsPerDimension(long numberOfEvaluationPoints, int dimension) {
+		int numberOfPointsPerDimension = Math.max((int)Math.floor(Math.pow(numberOfEvaluationPoints, 1.0/dimension)), 3);
+		if(numberOfPointsPerDimension % 2 == 0) {
+			numberOfPointsPerDimension--;
+		}
+		while(Math.pow(numberOfPointsPerDimension, dimension) < numberOfEvaluationPoints) {
+			numberOfPointsPerDimension += 2;
+		}
+		return numberOfPointsPerDimension;
+	}
+
+	/**
+	 * @return The (minimum) number of evaluation points.
+	 */
+	public long getNumberOfEvaluationPoints() {
+		return numberOfEvaluationPoints;
+	}
+
+	@Override
+	public String toString() {
+		return "SimpsonsIntegrator [numberOfEvaluationPoints=" + numberOfEvaluationPoints + "]";
+	}
+}
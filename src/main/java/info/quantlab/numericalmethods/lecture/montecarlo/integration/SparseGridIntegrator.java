@@ -0,0 +1,278 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.integration;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Integration using a Smolyak sparse grid of nested Clenshaw-Curtis rules.
+ *
+ * For the level l and the dimension d the quadrature is the Smolyak combination
+ * \[
+ * 	A(q,d) = \sum_{q-d+1 \leq |i| \leq q} (-1)^{q-|i|} \binom{d-1}{q-|i|} \ U^{i_{1}} \otimes \ldots \otimes U^{i_{d}} , \quad q = l + d ,
+ * \]
+ * where \( U^{1} \) is the mid-point rule and \( U^{i} \) is the Clenshaw-Curtis rule with \( 2^{i-1}+1 \) points (i &gt; 1).
+ * Since the Clenshaw-Curtis points are nested, the tensor product grids share their points. The weights of a point are
+ * aggregated, such that the integrand is evaluated only once per point.
+ *
+ * For smooth integrands the error is of order \( O(N^{-r} \log(N)^{(d-1)(r+1)}) \) for N points (r being the smoothness),
+ * compared to \( O(N^{-r/d}) \) for a tensor product rule, making the method efficient in moderate dimensions (e.g. d = 3 to 8).
+ *
+ * The grid (points and weights) is calculated once per dimension and cached. The integrand is evaluated in parallel
+ * in blocks of points. The result does not depend on the number of threads.
+ *
+ * @author Christian Fries
+ */
+public class SparseGridIntegrator implements Integrator {
+
+	private final int level;
+
+	// Grids (points and weights) by dimension
+	private final Map<Integer, SparseGrid> sparseGrids = new ConcurrentHashMap<>();
+
+	/**
+	 * Create a sparse grid integrator.
+	 *
+	 * @param level The level l &ge; 0 of the sparse grid (level 0 is the mid-point rule).
+	 */
+	public SparseGridIntegrator(int level) {
+		super();
+		Validate.isTrue(level >= 0 && level <= 20, "Parameter level must be in [0, 20].");
+		this.level = level;
+	}
+
+	@Override
+	public double integrate(Integrand integrand, IntegrationDomain integrationDomain) {
+		final int dimension = integrationDomain.getDimension();
+		final SparseGrid sparseGrid = getSparseGrid(dimension);
+
+		final int numberOfPoints = sparseGrid.weights.length;
+		final int blockSize = IntegrandEvaluation.blockSize;
+		final int numberOfBlocks = (numberOfPoints + blockSize - 1) / blockSize;
+		final double[] blockSums = new double[numberOfBlocks];
+		IntStream.range(0, numberOfBlocks).parallel().forEach(block -> {
+			final int firstIndex = block * blockSize;
+			final int blockLength = Math.min(blockSize, numberOfPoints - firstIndex);
+
+			final IntegrandEvaluation evaluation = new IntegrandEvaluation(dimension);
+			final double[][] points = evaluation.getPointsByDimension();
+			for(int k=0; k<dimension; k++) {
+				System.arraycopy(sparseGrid.pointsByDimension[k], firstIndex, points[k], 0, blockLength);
+			}
+			final double[] values = new double[blockLength];
+			evaluation.getValues(integrand, integrationDomain, blockLength, values);
+
+			double sum = 0.0;
+			for(int i=0; i<blockLength; i++) {
+				sum += sparseGrid.weights[firstIndex + i] * values[i];
+			}
+			blockSums[block] = sum;
+		});
+
+		return IntegrandEvaluation.sum(blockSums);
+	}
+
+	/**
+	 * Returns the number of evaluation points of the sparse grid for the given dimension.
+	 *
+	 * @param dimension The dimension d.
+	 * @return The number of evaluation points.
+	 */
+	public int getNumberOfEvaluationPoints(int dimension) {
+		return getSparseGrid(dimension).weights.length;
+	}
+
+	/**
+	 * @return The level of the sparse grid.
+	 */
+	public int getLevel() {
+		return level;
+	}
+
+	@Override
+	public String toString() {
+		return "SparseGridIntegrator [level=" + level + "]";
+	}
+
+	private SparseGrid getSparseGrid(int dimension) {
+		Validate.isTrue(dimension >= 1, "The dimension of the integration domain must be >= 1.");
+		return sparseGrids.computeIfAbsent(dimension, d -> new SparseGrid(level, d));
+	}
+
+	/**
+	 * The points and (aggregated) weights of a sparse grid.
+	 */
+	private static final class SparseGrid {
+
+		private final double[][] pointsByDimension;
+		private final double[] weights;
+
+		SparseGrid(int level, int dimension) {
+			/*
+			 * The points of all one dimensional rules U^i, i = 1, ..., l+1, are points of the finest rule U^{l+1},
+			 * hence a point of the sparse grid is identified by its multi-index on the finest grid.
+			 */
+			final int finestLevel = level + 1;
+			final int finestNumberOfIntervals = finestLevel == 1 ? 0 : 1 << (finestLevel - 1);
+			final double[] finestNodes = getClenshawCurtisNodes(finestNumberOfIntervals);
+
+			final double[][] oneDimensionalWeights = new double[finestLevel+1][];
+			for(int i=1; i<=finestLevel; i++) {
+				oneDimensionalWeights[i] = getClenshawCurtisWeights(i == 1 ? 0 : 1 << (i - 1));
+			}
+
+			// Aggregate the weights of the tensor product grids (insertion order makes the order of the points deterministic)
+			final Map<MultiIndex, double[]> weightsOfPoints = new LinkedHashMap<>();
+			final int q = level + dimension;
+			final int[] levels = new int[dimension];
+			Arrays.fill(levels, 1);
+			do {
+				final int sumOfLevels = Arrays.stream(levels).sum();
+				if(sumOfLevels >= Math.max(dimension, q - dimension + 1)) {
+					final double coefficient = ((q - sumOfLevels) % 2 == 0 ? 1.0 : -1.0) * binomialCoefficient(dimension - 1, q - sumOfLevels);
+					addTensorProduct(weightsOfPoints, levels, coefficient, oneDimensionalWeights, finestLevel);
+				}
+			} while(nextLevels(levels, level));
+
+			// Remove points with cancelling weights
+			weightsOfPoints.values().removeIf(weight -> weight[0] == 0.0);
+
+			pointsByDimension = new double[dimension][weightsOfPoints.size()];
+			weights = new double[weightsOfPoints.size()];
+			int pointIndex = 0;
+			for(final Map.Entry<MultiIndex, double[]> entry : weightsOfPoints.entrySet()) {
+				final int[] indices = entry.getKey().indices;
+				for(int k=0; k<dimension; k++) {
+					pointsByDimension[k][pointIndex] = finestNodes[indices[k]];
+				}
+				weights[pointIndex] = entry.getValue()[0];
+				pointIndex++;
+			}
+		}
+
+		/*
+		 * Enumerates the multi-indices i with i_k >= 1 and |i| - d <= level (the last component runs fastest).
+		 */
+		private static boolean nextLevels(int[] levels, int level) {
+			int excess = Arrays.stream(levels).sum() - levels.length;
+			for(int k=levels.length-1; k>=0; k--) {
+				if(excess < level) {
+					levels[k]++;
+					return true;
+				}
+				excess -= levels[k] - 1;
+				levels[k] = 1;
+			}
+			return false;
+		}
+
+		private static void addTensorProduct(Map<MultiIndex, double[]> weightsOfPoints, int[] levels, double coefficient, double[][] oneDimensionalWeights, int finestLevel) {
+			final int dimension = levels.length;
+			final int[] indices = new int[dimension];
+			while(true) {
+				double weight = coefficient;
+				final int[] indicesOnFinestGrid = new int[dimension];
+				for(int k=0; k<dimension; k++) {
+					weight *= oneDimensionalWeights[levels[k]][indices[k]];
+					indicesOnFinestGrid[k] = getIndexOnFinestGrid(levels[k], indices[k], finestLevel);
+				}
+				weightsOfPoints.computeIfAbsent(new MultiIndex(indicesOnFinestGrid), key -> new double[1])[0] += weight;
+
+				// Next point of the tensor product grid
+				int k = dimension-1;
+				while(k >= 0 && ++indices[k] == oneDimensionalWeights[levels[k]].length) {
+					indices[k] = 0;
+					k--;
+				}
+				if(k < 0) {
+					return;
+				}
+			}
+		}
+
+		private static int getIndexOnFinestGrid(int level, int index, int finestLevel) {
+			if(finestLevel == 1) {
+				return 0;
+			}
+			else if(level == 1) {
+				// The mid-point
+				return 1 << (finestLevel - 2);
+			}
+			else {
+				return index << (finestLevel - level);
+			}
+		}
+
+		/*
+		 * The nodes of the Clenshaw-Curtis rule with n intervals on [0,1] (n = 0 is the mid-point).
+		 */
+		private static double[] getClenshawCurtisNodes(int numberOfIntervals) {
+			if(numberOfIntervals == 0) {
+				return new double[] { 0.5 };
+			}
+			final double[] nodes = new double[numberOfIntervals+1];
+			for(int j=0; j<=numberOfIntervals; j++) {
+				// The mid-point is set exactly (cos(pi/2) is not 0 in floating point arithmetic)
+				nodes[j] = 2*j == numberOfIntervals ? 0.5 : 0.5 * (1.0 - Math.cos(Math.PI * j / numberOfIntervals));
+			}
+			return nodes;
+		}
+
+		/*
+		 * The weights of the Clenshaw-Curtis rule with n (even) intervals on [0,1] (n = 0 is the mid-point).
+		 */
+		private static double[] getClenshawCurtisWeights(int numberOfIntervals) {
+			if(numberOfIntervals == 0) {
+				return new double[] { 1.0 };
+			}
+			final double[] weights = new double[numberOfIntervals+1];
+			for(int j=0; j<=numberOfIntervals; j++) {
+				final double theta = Math.PI * j / numberOfIntervals;
+				double sum = 0.0;
+				for(int k=1; k<=numberOfIntervals/2; k++) {
+					final double b = 2*k == numberOfIntervals ? 1.0 : 2.0;
+					sum += b / (4.0*k*k - 1.0) * Math.cos(2.0 * k * theta);
+				}
+				final double c = (j == 0 || j == numberOfIntervals) ? 1.0 : 2.0;
+				// Weight on [-1,1] is c/n (1 - sum), the factor 1/2 maps to [0,1]
+				weights[j] = 0.5 * c / numberOfIntervals * (1.0 - sum);
+			}
+			return weights;
+		}
+
+		private static double binomialCoefficient(int n, int k) {
+			double coefficient = 1.0;
+			for(int i=1; i<=k; i++) {
+				coefficient = coefficient * (n - k + i) / i;
+			}
+			return coefficient;
+		}
+	}
+
+	/**
+	 * A multi-index as key of a map.
+	 */
+	private static final class MultiIndex {
+		private final int[] indices;
+		private final int hashCode;
+
+		MultiIndex(int[] indices) {
+			this.indices = indices;
+			this.hashCode = Arrays.hashCode(indices);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return other instanceof MultiIndex && Arrays.equals(indices, ((MultiIndex)other).indices);
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.integration;
+
+import java.util.Arrays;
+
+/**
+ * The result of a stratified Monte-Carlo integration: the value, its standard error and the number of samples,
+ * together with the mean and the variance of the integrand on each stratum.
+ *
+ * The standard deviations of the strata allow to adapt the allocation of the samples for a second pass,
+ * see {@link info.quantlab.numericalmethods.lecture.randomnumbers.StratifiedSampler#withNeymanAllocation(double[], long, long)}.
+ *
+ * @author Christian Fries
+ */
+public class StratifiedIntegrationResult extends IntegrationResult {
+
+	private final double[] meansOfStrata;
+	private final double[] variancesOfStrata;
+	private final long[] numberOfSamplesOfStrata;
+
+	/**
+	 * Create the result of a stratified Monte-Carlo integration.
+	 *
+	 * @param value The value of the integral.
+	 * @param standardError The standard error of the stratified estimator.
+	 * @param numberOfEvaluations The number of samples (evaluations of the integrand).
+	 * @param meansOfStrata The means of the integrand on the strata.
+	 * @param variancesOfStrata The (unbiased) sample variances of the integrand on the strata.
+	 * @param numberOfSamplesOfStrata The number of samples of the strata.
+	 */
+	public StratifiedIntegrationResult(double value, double standardError, long numberOfEvaluations, double[] meansOfStrata, double[] variancesOfStrata, long[] numberOfSamplesOfStrata) {
+		super(value, standardError, numberOfEvaluations);
+		this.meansOfStrata = meansOfStrata;
+		this.variancesOfStrata = variancesOfStrata;
+		this.numberOfSamplesOfStrata = numberOfSamplesOfStrata;
+	}
+
+	/**
+	 * @return The means of the integrand on the strata.
+	 */
+	public double[] getMeansOfStrata() {
+		return meansOfStrata.clone();
+	}
+
+	/**
+	 * @return The (unbiased) sample variances of the integrand on the strata (NaN for a stratum with a single sample).
+	 */
+	public double[] getVariancesOfStrata() {
+		return variancesOfStrata.clone();
+	}
+
+	/**
+	 * @return The standard deviations of the integrand on the strata (e.g. for a Neyman allocation), where a NaN variance is mapped to 0.
+	 */
+	public double[] getStandardDeviationsOfStrata() {
+		return Arrays.stream(variancesOfStrata).map(variance -> Double.isNaN(variance) ? 0.0 : Math.sqrt(variance)).toArray();
+	}
+
+	/**
+	 * @return The number of samples of the strata.
+	 */
+	public long[] getNumberOfSamplesOfStrata() {
+		return numberOfSamplesOfStrata.clone();
+	}
+
+	/**
+	 * @return The number of strata.
+	 */
+	public int getNumberOfStrata() {
+		return meansOfStrata.length;
+	}
+
+	@Override
+	public String toString() {
+		return "StratifiedIntegrationResult [value=" + getValue() + ", standardError=" + getErrorEstimate()
+				+ ", numberOfEvaluations=" + getNumberOfEvaluations() + ", numberOfStrata=" + getNumberOfStrata() + "]";
+	}
+}
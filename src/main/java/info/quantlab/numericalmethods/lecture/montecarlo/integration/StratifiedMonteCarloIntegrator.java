@@ -0,0 +1,142 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.integration;
+
+import java.util.stream.IntStream;
+
+import org.apache.commons.lang3.Validate;
+
+import info.quantlab.numericalmethods.lecture.randomnumbers.StratifiedSampler;
+
+/**
+ * Stratified Monte-Carlo integration using the points of a {@link StratifiedSampler}.
+ *
+ * The integral is estimated by \( \sum_{s} V_{s} \bar{f}_{s} \), where \( \bar{f}_{s} \) is the mean of the \( n_{s} \) samples
+ * of stratum s and \( V_{s} \) its volume. The variance of the estimator is \( \sum_{s} V_{s}^{2} \sigma_{s}^{2} / n_{s} \),
+ * where \( \sigma_{s}^{2} \) is the variance of the integrand on the stratum. Since \( \sigma_{s} \) is small for a smooth
+ * integrand on a small stratum, the variance reduction may be large, at the same number of evaluations of the integrand.
+ *
+ * The strata are evaluated in parallel, where a task evaluates a range of consecutive strata with about 1024 points
+ * in total, re-using its buffers for all strata of the range (hence there is no allocation per stratum, also for strata with few points).
+ * The mean and the variance of each stratum are calculated
+ * with Welford's algorithm and the results are added in the order of the strata, hence the result does not depend on the number of threads.
+ *
+ * The variance of a stratum with a single point cannot be estimated (it is NaN), hence, if the sampler has strata with a single point
+ * (e.g. a Latin hypercube sample of dimension 1), the value is valid, but the standard error of the result is NaN (no error estimate).
+ * The integrator uses the points \( 0, \ldots, N-1 \) of the sampler (one full period of the sampler), hence repeated calls give the same result.
+ *
+ * The result reports the variances of the strata, which allows to adapt the allocation for a second pass, e.g.,
+ * <code>new StratifiedMonteCarloIntegrator(sampler.withNeymanAllocation(result.getStandardDeviationsOfStrata(), numberOfPoints, seed))</code>.
+ *
+ * @author Christian Fries
+ */
+public class StratifiedMonteCarloIntegrator implements Integrator {
+
+	private final StratifiedSampler sampler;
+
+	/**
+	 * Create a stratified Monte-Carlo integrator.
+	 *
+	 * @param sampler The stratified sampler defining the strata and the number of samples of each stratum (its dimension has to match the dimension of the integration domain).
+	 */
+	public StratifiedMonteCarloIntegrator(StratifiedSampler sampler) {
+		super();
+		Validate.notNull(sampler, "Parameter sampler must not be null.");
+		this.sampler = sampler;
+	}
+
+	@Override
+	public double integrate(Integrand integrand, IntegrationDomain integrationDomain) {
+		return integrateWithErrorEstimate(integrand, integrationDomain).getValue();
+	}
+
+	/**
+	 * Calculate the integral \( \int_A f(z) dz \), the standard error of the stratified estimator and the variances of the strata.
+	 *
+	 * @param integrand The integrand f.
+	 * @param integrationDomain The integration domain A (the transformation z = g(x)) from a unit cube to A).
+	 * @return The integral \( \int_A f(z) dz \) together with its standard error and the statistics of the strata.
+	 */
+	public StratifiedIntegrationResult integrateWithErrorEstimate(Integrand integrand, IntegrationDomain integrationDomain) {
+		final int dimension = sampler.getDimension();
+		Validate.isTrue(dimension == integrationDomain.getDimension(), "The dimension of the sampler does not match the dimension of the integration domain.");
+
+		final int numberOfStrata = sampler.getNumberOfStrata();
+		final double[] meansOfStrata = new double[numberOfStrata];
+		final double[] variancesOfStrata = new double[numberOfStrata];
+		final long[] numberOfSamplesOfStrata = new long[numberOfStrata];
+
+		// Tasks of consecutive strata with about blockSize points in total
+		final int numberOfStrataPerTask = (int)Math.max(1, Math.min(numberOfStrata, (long)IntegrandEvaluation.blockSize * numberOfStrata / sampler.getNumberOfPoints()));
+		final int numberOfTasks = (numberOfStrata + numberOfStrataPerTask - 1) / numberOfStrataPerTask;
+
+		IntStream.range(0, numberOfTasks).parallel().forEach(task -> {
+			final int firstStratum = task * numberOfStrataPerTask;
+			final int lastStratum = Math.min(firstStratum + numberOfStrataPerTask, numberOfStrata);
+
+			long maximumNumberOfSamples = 1;
+			for(int stratum=firstStratum; stratum<lastStratum; stratum++) {
+				maximumNumberOfSamples = Math.max(maximumNumberOfSamples, sampler.getNumberOfPointsOfStratum(stratum));
+			}
+			final int blockSize = (int)Math.min(IntegrandEvaluation.blockSize, maximumNumberOfSamples);
+			final IntegrandEvaluation evaluation = new IntegrandEvaluation(dimension, blockSize);
+			final double[] points = new double[blockSize * dimension];
+			final double[] values = new double[blockSize];
+
+			for(int stratum=firstStratum; stratum<lastStratum; stratum++) {
+				evaluateStratum(stratum, integrand, integrationDomain, evaluation, points, values, meansOfStrata, variancesOfStrata, numberOfSamplesOfStrata);
+			}
+		});
+
+		final double volumeOfStratum = sampler.getVolumeOfStratum();
+		double value = 0.0;
+		double varianceOfEstimator = 0.0;
+		for(int stratum=0; stratum<numberOfStrata; stratum++) {
+			value += volumeOfStratum * meansOfStrata[stratum];
+			varianceOfEstimator += volumeOfStratum * volumeOfStratum * variancesOfStrata[stratum] / numberOfSamplesOfStrata[stratum];
+		}
+
+		return new StratifiedIntegrationResult(value, Math.sqrt(varianceOfEstimator), sampler.getNumberOfPoints(), meansOfStrata, variancesOfStrata, numberOfSamplesOfStrata);
+	}
+
+	/*
+	 * Calculates the mean and the variance of the integrand on the stratum, using buffers for blocks of at least min(blockSize, n_s) points.
+	 */
+	private void evaluateStratum(int stratum, Integrand integrand, IntegrationDomain integrationDomain, IntegrandEvaluation evaluation, double[] points, double[] values,
+			double[] meansOfStrata, double[] variancesOfStrata, long[] numberOfSamplesOfStrata) {
+		final long firstIndex = sampler.getFirstIndexOfStratum(stratum);
+		final long numberOfSamples = sampler.getNumberOfPointsOfStratum(stratum);
+		final int blockSize = values.length;
+
+		long count = 0;
+		double mean = 0.0;
+		double sumOfSquaredDeviations = 0.0;
+		for(long blockStart = 0; blockStart < numberOfSamples; blockStart += blockSize) {
+			final int blockLength = (int)Math.min(blockSize, numberOfSamples - blockStart);
+			sampler.fill(firstIndex + blockStart, points, 0, blockLength);
+			evaluation.setPoints(points, blockLength);
+			evaluation.getValues(integrand, integrationDomain, blockLength, values);
+
+			for(int i=0; i<blockLength; i++) {
+				count++;
+				final double deviation = values[i] - mean;
+				mean += deviation / count;
+				sumOfSquaredDeviations += deviation * (values[i] - mean);
+			}
+		}
+
+		meansOfStrata[stratum] = mean;
+		variancesOfStrata[stratum] = numberOfSamples > 1 ? sumOfSquaredDeviations / (numberOfSamples - 1) : Double.NaN;
+		numberOfSamplesOfStrata[stratum] = numberOfSamples;
+	}
+
+	/**
+	 * @return The stratified sampler.
+	 */
+	public StratifiedSampler getSampler() {
+		return sampler;
+	}
+
+	@Override
+	public String toString() {
+		return "StratifiedMonteCarloIntegrator [sampler=" + sampler + "]";
+	}
+}
@@ -0,0 +1,51 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.integration;
+
+import java.time.Duration;
+
+/**
+ * The result of a streaming Monte-Carlo integration: the value, its standard error, the number of samples used,
+ * the elapsed time and whether the target standard error has been reached.
+ *
+ * @author Christian Fries
+ */
+public class StreamingIntegrationResult extends IntegrationResult {
+
+	private final Duration elapsedTime;
+	private final boolean isTargetStandardErrorReached;
+
+	/**
+	 * Create the result of a streaming Monte-Carlo integration.
+	 *
+	 * @param value The value of the integral.
+	 * @param standardError The standard error of the Monte-Carlo estimator.
+	 * @param numberOfEvaluations The number of samples (evaluations of the integrand).
+	 * @param elapsedTime The time used by the integration.
+	 * @param isTargetStandardErrorReached True, if the calculation stopped because the target standard error was reached.
+	 */
+	public StreamingIntegrationResult(double value, double standardError, long numberOfEvaluations, Duration elapsedTime, boolean isTargetStandardErrorReached) {
+		super(value, standardError, numberOfEvaluations);
+		this.elapsedTime = elapsedTime;
+		this.isTargetStandardErrorReached = isTargetStandardErrorReached;
+	}
+
+	/**
+	 * @return The time used by the integration.
+	 */
+	public Duration getElapsedTime() {
+		return elapsedTime;
+	}
+
+	/**
+	 * @return True, if the calculation stopped because the target standard error was reached (and not by the time budget or the maximum number of samples).
+	 */
+	public boolean isTargetStandardErrorReached() {
+		return isTargetStandardErrorReached;
+	}
+
+	@Override
+	public String toString() {
+		return "StreamingIntegrationResult [value=" + getValue() + ", standardError=" + getErrorEstimate()
+				+ ", numberOfEvaluations=" + getNumberOfEvaluations() + ", elapsedTime=" + elapsedTime
+				+ ", isTargetStandardErrorReached=" + isTargetStandardErrorReached + "]";
+	}
+}
@@ -0,0 +1,157 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.integration;
+
+import java.time.Duration;
+
+import org.apache.commons.lang3.Validate;
+
+import info.quantlab.numericalmethods.lecture.randomnumbers.RandomNumberGenerator;
+
+/**
+ * Monte-Carlo integration with an online estimate of the variance, stopping as soon as the standard error
+ * is below a given target or a given time budget is used up (or a maximum number of samples is reached).
+ *
+ * The mean and the variance are updated for each sample with Welford's algorithm, where the updates of the running mean
+ * and of the running sum of squared deviations are Kahan compensated. Hence the estimate does not suffer from the
+ * cancellation of the textbook formula \( E(X^{2}) - E(X)^{2} \), even for a large number of samples.
+ *
+ * The stopping criteria are checked after each block of samples (1024 points).
+ * The integrator consumes the numbers of the generator, i.e., a second call to integrate uses the subsequent points of the sequence.
+ *
+ * @author Christian Fries
+ */
+public class StreamingMonteCarloIntegrator implements Integrator {
+
+	private final RandomNumberGenerator randomNumberGenerator;
+	private final double targetStandardError;
+	private final Duration timeBudget;
+	private final long minimumNumberOfSamplePoints;
+	private final long maximumNumberOfSamplePoints;
+
+	/**
+	 * Create a streaming Monte-Carlo integrator.
+	 *
+	 * @param randomNumberGenerator The generator of the sample points of the unit cube (its dimension has to match the dimension of the integration domain).
+	 * @param targetStandardError The standard error at which the calculation stops.
+	 * @param timeBudget The time after which the calculation stops.
+	 * @param minimumNumberOfSamplePoints The minimum number of samples (to avoid a stop based on a poor estimate of the variance).
+	 * @param maximumNumberOfSamplePoints The maximum number of samples.
+	 */
+	public StreamingMonteCarloIntegrator(RandomNumberGenerator randomNumberGenerator, double targetStandardError, Duration timeBudget, long minimumNumberOfSamplePoints, long maximumNumberOfSamplePoints) {
+		super();
+		Validate.notNull(randomNumberGenerator, "Parameter randomNumberGenerator must not be null.");
+		Validate.notNull(timeBudget, "Parameter timeBudget must not be null.");
+		Validate.isTrue(targetStandardError >= 0, "Parameter targetStandardError must be >= 0.");
+		Validate.isTrue(minimumNumberOfSamplePoints >= 2, "Parameter minimumNumberOfSamplePoints must be >= 2.");
+		Validate.isTrue(maximumNumberOfSamplePoints >= minimumNumberOfSamplePoints, "Parameter maximumNumberOfSamplePoints must be >= minimumNumberOfSamplePoints.");
+		this.randomNumberGenerator = randomNumberGenerator;
+		this.targetStandardError = targetStandardError;
+		this.timeBudget = timeBudget;
+		this.minimumNumberOfSamplePoints = minimumNumberOfSamplePoints;
+		this.maximumNumberOfSamplePoints = maximumNumberOfSamplePoints;
+	}
+
+	/**
+	 * Create a streaming Monte-Carlo integrator using at least one block (1024) and at most \( 2^{62} \) samples.
+	 *
+	 * @param randomNumberGenerator The generator of the sample points of the unit cube (its dimension has to match the dimension of the integration domain).
+	 * @param targetStandardError The standard error at which the calculation stops.
+	 * @param timeBudget The time after which the calculation stops.
+	 */
+	public StreamingMonteCarloIntegrator(RandomNumberGenerator randomNumberGenerator, double targetStandardError, Duration timeBudget) {
+		this(randomNumberGenerator, targetStandardError, timeBudget, IntegrandEvaluation.blockSize, 1L << 62);
+	}
+
+	@Override
+	public double integrate(Integrand integrand, IntegrationDomain integrationDomain) {
+		return integrateWithErrorEstimate(integrand, integrationDomain).getValue();
+	}
+
+	/**
+	 * Calculate the integral \( \int_A f(z) dz \) until the standard error is below the target or the time budget is used up.
+	 *
+	 * @param integrand The integrand f.
+	 * @param integrationDomain The integration domain A (the transformation z = g(x)) from a unit cube to A).
+	 * @return The integral \( \int_A f(z) dz \) together with its standard error, the number of samples and the elapsed time.
+	 */
+	public StreamingIntegrationResult integrateWithErrorEstimate(Integrand integrand, IntegrationDomain integrationDomain) {
+		final long startTime = System.nanoTime();
+		final long timeBudgetInNanos = timeBudget.toNanos();
+
+		final int dimension = randomNumberGenerator.getDimension();
+		Validate.isTrue(dimension == integrationDomain.getDimension(), "The dimension of the random number generator does not match the dimension of the integration domain.");
+
+		final int blockSize = IntegrandEvaluation.blockSize;
+		final IntegrandEvaluation evaluation = new IntegrandEvaluation(dimension);
+		final double[] points = new double[blockSize * dimension];
+		final double[] values = new double[blockSize];
+
+		long numberOfSamples = 0;
+		double mean = 0.0;
+		double meanCompensation = 0.0;
+		double sumOfSquaredDeviations = 0.0;
+		double sumOfSquaredDeviationsCompensation = 0.0;
+
+		double standardError = Double.POSITIVE_INFINITY;
+		boolean isTargetStandardErrorReached = false;
+		while(true) {
+			final int blockLength = (int)Math.min(blockSize, maximumNumberOfSamplePoints - numberOfSamples);
+			randomNumberGenerator.fill(points, 0, blockLength);
+			evaluation.setPoints(points, blockLength);
+			evaluation.getValues(integrand, integrationDomain, blockLength, values);
+
+			for(int i=0; i<blockLength; i++) {
+				numberOfSamples++;
+				final double deviation = values[i] - mean;
+
+				// mean += deviation / n (Kahan summation)
+				final double meanIncrement = deviation / numberOfSamples - meanCompensation;
+				final double meanNew = mean + meanIncrement;
+				meanCompensation = (meanNew - mean) - meanIncrement;
+				mean = meanNew;
+
+				// sumOfSquaredDeviations += deviation * (x - mean) (Kahan summation)
+				final double squaredDeviationIncrement = deviation * (values[i] - mean) - sumOfSquaredDeviationsCompensation;
+				final double sumOfSquaredDeviationsNew = sumOfSquaredDeviations + squaredDeviationIncrement;
+				sumOfSquaredDeviationsCompensation = (sumOfSquaredDeviationsNew - sumOfSquaredDeviations) - squaredDeviationIncrement;
+				sumOfSquaredDeviations = sumOfSquaredDeviationsNew;
+			}
+
+			if(numberOfSamples >= 2) {
+				standardError = Math.sqrt(sumOfSquaredDeviations / (numberOfSamples - 1) / numberOfSamples);
+			}
+
+			if(numberOfSamples >= minimumNumberOfSamplePoints) {
+				if(standardError <= targetStandardError) {
+					isTargetStandardErrorReached = true;
+					break;
+				}
+				if(System.nanoTime() - startTime >= timeBudgetInNanos || numberOfSamples >= maximumNumberOfSamplePoints) {
+					break;
+				}
+			}
+		}
+
+		return new StreamingIntegrationResult(mean, standardError, numberOfSamples, Duration.ofNanos(System.nanoTime() - startTime), isTargetStandardErrorReached);
+	}
+
+	/**
+	 * @return The standard error at which the calculation stops.
+	 */
+	public double getTargetStandardError() {
+		return targetStandardError;
+	}
+
+	/**
+	 * @return The time after which the calculation stops.
+	 */
+	public Duration getTimeBudget() {
+		return timeBudget;
+	}
+
+	@Override
+	public String toString() {
+		return "StreamingMonteCarloIntegrator [targetStandardError=" + targetStandardError + ", timeBudget=" + timeBudget
+				+ ", minimumNumberOfSamplePoints=" + minimumNumberOfSamplePoints + ", maximumNumberOfSamplePoints="
+				+ maximumNumberOfSamplePoints + "]";
+	}
+}
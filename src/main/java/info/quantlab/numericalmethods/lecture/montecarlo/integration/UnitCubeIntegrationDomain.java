@@ -0,0 +1,46 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.integration;
+
+import java.util.Arrays;
+
+/**
+ * The integration domain \( [0,1]^{n} \), i.e., the transformation g is the identity.
+ *
+ * @author Christian Fries
+ */
+public class UnitCubeIntegrationDomain implements IntegrationDomain {
+
+	private final int dimension;
+
+	/**
+	 * Create the unit cube \( [0,1]^{n} \).
+	 *
+	 * @param dimension The dimension n.
+	 */
+	public UnitCubeIntegrationDomain(int dimension) {
+		super();
+		this.dimension = dimension;
+	}
+
+	@Override
+	public double[] fromUnitCube(double[] parametersOnUnitCube) {
+		return parametersOnUnitCube;
+	}
+
+	@Override
+	public int getDimension() {
+		return dimension;
+	}
+
+	@Override
+	public double getDeterminantOfDifferential(double[] parametersOnUnitCurve) {
+		return 1.0;
+	}
+
+	@Override
+	public void fromUnitCube(double[][] parametersByDimension, double[][] argumentsByDimension, double[] determinants, int numberOfPoints) {
+		for(int k=0; k<dimension; k++) {
+			System.arraycopy(parametersByDimension[k], 0, argumentsByDimension[k], 0, numberOfPoints);
+		}
+		Arrays.fill(determinants, 0, numberOfPoints, 1.0);
+	}
+}
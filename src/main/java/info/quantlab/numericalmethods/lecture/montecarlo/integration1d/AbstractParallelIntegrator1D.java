@@ -0,0 +1,127 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.integration1d;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.DoubleUnaryOperator;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Base class for parallel implementations of Integrator1D calculating a weighted sum
+ * \( h \sum_{i=0}^{n-1} w_{i} f(x_{i}) \) where the points \( x_{i} \) and weights \( w_{i} \) are functions of the index i.
+ *
+ * The index range is split into chunks of fixed size. The chunks are evaluated on a <code>ForkJoinPool</code>
+ * and the partial sums are combined in a fixed binary tree (over the chunk indices).
+ * Hence the result does not depend on the number of threads (it may differ in the last digits from the
+ * result of the sequential implementation, which sums in a different order).
+ *
+ * @author Christian Fries
+ */
+public abstract class AbstractParallelIntegrator1D implements Integrator1D {
+
+	private static final int defaultChunkSize = 4096;
+
+	private final int numberOfEvaluationPoints;
+	private final int chunkSize;
+	private final ForkJoinPool forkJoinPool;
+
+	/**
+	 * Create a parallel integrator.
+	 *
+	 * @param numberOfEvaluationPoints The number of evaluation points n.
+	 * @param chunkSize The number of evaluation points per chunk (the unit of work of a task).
+	 * @param forkJoinPool The fork join pool used to evaluate the chunks.
+	 */
+	protected AbstractParallelIntegrator1D(int numberOfEvaluationPoints, int chunkSize, ForkJoinPool forkJoinPool) {
+		super();
+		Validate.isTrue(numberOfEvaluationPoints > 0, "Parameter numberOfEvaluationPoints must be > 0.");
+		Validate.isTrue(chunkSize > 0, "Parameter chunkSize must be > 0.");
+		this.numberOfEvaluationPoints = numberOfEvaluationPoints;
+		this.chunkSize = chunkSize;
+		this.forkJoinPool = forkJoinPool;
+	}
+
+	/**
+	 * Create a parallel integrator using the common fork join pool.
+	 *
+	 * @param numberOfEvaluationPoints The number of evaluation points n.
+	 */
+	protected AbstractParallelIntegrator1D(int numberOfEvaluationPoints) {
+		this(numberOfEvaluationPoints, defaultChunkSize, ForkJoinPool.commonPool());
+	}
+
+	@Override
+	public double integrate(DoubleUnaryOperator integrand, double lowerBound, double upperBound) {
+		final int numberOfChunks = (numberOfEvaluationPoints + chunkSize - 1) / chunkSize;
+		final double sum = forkJoinPool.invoke(new ChunkSumTask(integrand, lowerBound, upperBound, 0, numberOfChunks));
+		return sum * getScalingFactor(lowerBound, upperBound);
+	}
+
+	/**
+	 * Calculates the weighted sum \( \sum_{i} w_{i} f(x_{i}) \) over the indices of a chunk.
+	 *
+	 * @param integrand The integrand f.
+	 * @param lowerBound The lower bound a.
+	 * @param upperBound The upper bound b.
+	 * @param startIndex The first index of the chunk.
+	 * @param endIndex The index after the last index of the chunk.
+	 * @return The weighted sum \( \sum_{i=startIndex}^{endIndex-1} w_{i} f(x_{i}) \).
+	 */
+	protected abstract double getSumOfValues(DoubleUnaryOperator integrand, double lowerBound, double upperBound, int startIndex, int endIndex);
+
+	/**
+	 * Returns the factor h applied to the weighted sum.
+	 *
+	 * @param lowerBound The lower bound a.
+	 * @param upperBound The upper bound b.
+	 * @return The factor h.
+	 */
+	protected abstract double getScalingFactor(double lowerBound, double upperBound);
+
+	/**
+	 * @return The number of evaluation points n.
+	 */
+	public int getNumberOfEvaluationPoints() {
+		return numberOfEvaluationPoints;
+	}
+
+	/**
+	 * Task calculating the sum over the chunks with index firstChunk, ..., endChunk-1 by bisection.
+	 */
+	private class ChunkSumTask extends RecursiveTask<Double> {
+
+		private static final long serialVersionUID = 4529366581316802409L;
+
+		private final DoubleUnaryOperator integrand;
+		private final double lowerBound;
+		private final double upperBound;
+		private final int firstChunk;
+		private final int endChunk;
+
+		ChunkSumTask(DoubleUnaryOperator integrand, double lowerBound, double upperBound, int firstChunk, int endChunk) {
+			this.integrand = integrand;
+			this.lowerBound = lowerBound;
+			this.upperBound = upperBound;
+			this.firstChunk = firstChunk;
+			this.endChunk = endChunk;
+		}
+
+		@Override
+		protected Double compute() {
+			if(endChunk - firstChunk == 1) {
+				final int startIndex = firstChunk * chunkSize;
+				final int endIndex = (int)Math.min((long)startIndex + chunkSize, numberOfEvaluationPoints);
+				return getSumOfValues(integrand, lowerBound, upperBound, startIndex, endIndex);
+			}
+
+			// The split depends only on the chunk indices, hence the order of the summation is fixed
+			final int middleChunk = (firstChunk + endChunk) >>> 1;
+			final ChunkSumTask left = new ChunkSumTask(integrand, lowerBound, upperBound, firstChunk, middleChunk);
+			final ChunkSumTask right = new ChunkSumTask(integrand, lowerBound, upperBound, middleChunk, endChunk);
+			left.fork();
+			final double sumRight = right.compute();
+			final double sumLeft = left.join();
+			return sumLeft + sumRight;
+		}
+	}
+}
@@ -0,0 +1,210 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.integration1d;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.DoubleUnaryOperator;
+
+import org.apache.commons.lang3.Validate;
+
+import info.quantlab.numericalmethods.lecture.montecarlo.integration.AdaptiveIntegrationResult;
+
+/**
+ * Implementation of Integrator1D using a (globally) adaptive Simpson's rule.
+ *
+ * The domain is partitioned into intervals. On each interval [a,b] the integrand is evaluated at five equidistant points
+ * and the error is estimated by comparing the Simpson's rule \( S_{1} \) on [a,b] with the composite rule \( S_{2} \) on the two halves,
+ * \( \epsilon = | S_{2} - S_{1} | \). For smooth integrands the error is about \( \epsilon / 15 \), the estimate is
+ * conservative such that it also holds close to kinks, where the error of the Simpson's rule is of lower order.
+ * The interval with the largest error estimate is bisected until the total error estimate is below
+ * \( \max( \epsilon_{abs}, \epsilon_{rel} |I| ) \) (or the maximum number of evaluations is reached).
+ * Bisecting an interval re-uses the three known function values on each half, such that only four new evaluations are required.
+ *
+ * Hence the integrator places the evaluation points where they are needed, e.g., close to the kink of an option payoff,
+ * while smooth parts of the integrand are evaluated on a coarse grid.
+ * The value on each interval is the Richardson extrapolation \( S_{2} + (S_{2} - S_{1}) / 15 \).
+ *
+ * Intervals which cannot be bisected further (their length is at machine precision) keep their error estimate.
+ * If the tolerance is not reached (by the maximum number of evaluations or because such intervals remain), the result reports this,
+ * see {@link AdaptiveIntegrationResult#isToleranceReached()}.
+ *
+ * @author Christian Fries
+ */
+public class AdaptiveSimpsonsIntegrator1D implements Integrator1D {
+
+	private static final int defaultInitialNumberOfIntervals = 4;
+	private static final long defaultMaximumNumberOfEvaluations = 1000000;
+
+	private final double absoluteTolerance;
+	private final double relativeTolerance;
+	private final int initialNumberOfIntervals;
+	private final long maximumNumberOfEvaluations;
+
+	/**
+	 * Create an adaptive Simpson's integrator.
+	 *
+	 * @param absoluteTolerance The absolute tolerance \( \epsilon_{abs} \).
+	 * @param relativeTolerance The relative tolerance \( \epsilon_{rel} \).
+	 * @param initialNumberOfIntervals The number of intervals of the initial (equidistant) partition (a safeguard against integrands which are sampled badly by few points).
+	 * @param maximumNumberOfEvaluations The maximum number of evaluations of the integrand.
+	 */
+	public AdaptiveSimpsonsIntegrator1D(double absoluteTolerance, double relativeTolerance, int initialNumberOfIntervals, long maximumNumberOfEvaluations) {
+		super();
+		Validate.isTrue(absoluteTolerance >= 0 && relativeTolerance >= 0, "Tolerances must be >= 0.");
+		Validate.isTrue(absoluteTolerance > 0 || relativeTolerance > 0, "At least one tolerance must be > 0.");
+		Validate.isTrue(initialNumberOfIntervals >= 1, "Parameter initialNumberOfIntervals must be >= 1.");
+		Validate.isTrue(maximumNumberOfEvaluations >= 4L*initialNumberOfIntervals+1, "Parameter maximumNumberOfEvaluations must allow the evaluation of the initial partition.");
+		this.absoluteTolerance = absoluteTolerance;
+		this.relativeTolerance = relativeTolerance;
+		this.initialNumberOfIntervals = initialNumberOfIntervals;
+		this.maximumNumberOfEvaluations = maximumNumberOfEvaluations;
+	}
+
+	/**
+	 * Create an adaptive Simpson's integrator.
+	 *
+	 * @param absoluteTolerance The absolute tolerance \( \epsilon_{abs} \).
+	 * @param relativeTolerance The relative tolerance \( \epsilon_{rel} \).
+	 */
+	public AdaptiveSimpsonsIntegrator1D(double absoluteTolerance, double relativeTolerance) {
+		this(absoluteTolerance, relativeTolerance, defaultInitialNumberOfIntervals, defaultMaximumNumberOfEvaluations);
+	}
+
+	@Override
+	public double integrate(DoubleUnaryOperator integrand, double lowerBound, double upperBound) {
+		return integrateWithErrorEstimate(integrand, lowerBound, upperBound).getValue();
+	}
+
+	/**
+	 * Calculate the integral together with an estimate of its error and the number of evaluations of the integrand.
+	 *
+	 * If the tolerance is not reached (the maximum number of evaluations is reached or intervals cannot be bisected further),
+	 * the result carries the error estimate reached so far and {@link AdaptiveIntegrationResult#isToleranceReached()} is false.
+	 *
+	 * @param integrand The integrand f.
+	 * @param lowerBound The lower bound a.
+	 * @param upperBound The upper bound b.
+	 * @return The integral, its error estimate, the number of evaluations and whether the tolerance has been reached.
+	 */
+	public AdaptiveIntegrationResult integrateWithErrorEstimate(DoubleUnaryOperator integrand, double lowerBound, double upperBound) {
+
+		// Intervals with the largest error first
+		final PriorityQueue<Interval> intervals = new PriorityQueue<>(Comparator.comparingDouble((Interval interval) -> interval.error).reversed());
+		// Intervals which cannot be bisected further (at machine precision)
+		final List<Interval> intervalsNotRefinable = new ArrayList<>();
+
+		// Initial partition: 4 n + 1 equidistant points
+		final int numberOfInitialPoints = 4*initialNumberOfIntervals+1;
+		final double[] values = new double[numberOfInitialPoints];
+		for(int i=0; i<numberOfInitialPoints; i++) {
+			final double argument = i == numberOfInitialPoints-1 ? upperBound : lowerBound + (upperBound-lowerBound) * i / (numberOfInitialPoints-1);
+			values[i] = integrand.applyAsDouble(argument);
+		}
+		long numberOfEvaluations = numberOfInitialPoints;
+
+		double value = 0.0;
+		double error = 0.0;
+		for(int k=0; k<initialNumberOfIntervals; k++) {
+			final double left = lowerBound + (upperBound-lowerBound) * k / initialNumberOfIntervals;
+			final double right = k == initialNumberOfIntervals-1 ? upperBound : lowerBound + (upperBound-lowerBound) * (k+1) / initialNumberOfIntervals;
+			final Interval interval = new Interval(left, right, values[4*k], values[4*k+1], values[4*k+2], values[4*k+3], values[4*k+4]);
+			intervals.add(interval);
+			value += interval.value;
+			error += interval.error;
+		}
+
+		while(error > Math.max(absoluteTolerance, relativeTolerance * Math.abs(value)) && numberOfEvaluations+4 <= maximumNumberOfEvaluations) {
+			// No interval left to refine or the interval with the largest error has no error
+			if(intervals.isEmpty() || intervals.peek().error == 0.0) {
+				break;
+			}
+
+			final Interval interval = intervals.poll();
+			final double middle = 0.5 * (interval.left + interval.right);
+
+			// If the interval cannot be bisected further (machine precision), keep it (with its error) without refining it
+			final double quarterLength = 0.25 * (middle - interval.left);
+			if(!(interval.left + quarterLength > interval.left && middle + quarterLength < interval.right)) {
+				intervalsNotRefinable.add(interval);
+				continue;
+			}
+
+			// Re-use the five known values, evaluate the four new midpoints of the quarters
+			final double valueLeft1 = integrand.applyAsDouble(interval.left + quarterLength);
+			final double valueLeft3 = integrand.applyAsDouble(interval.left + 3.0 * quarterLength);
+			final double valueRight1 = integrand.applyAsDouble(middle + quarterLength);
+			final double valueRight3 = integrand.applyAsDouble(middle + 3.0 * quarterLength);
+			numberOfEvaluations += 4;
+
+			final Interval intervalLeft = new Interval(interval.left, middle, interval.values[0], valueLeft1, interval.values[1], valueLeft3, interval.values[2]);
+			final Interval intervalRight = new Interval(middle, interval.right, interval.values[2], valueRight1, interval.values[3], valueRight3, interval.values[4]);
+			intervals.add(intervalLeft);
+			intervals.add(intervalRight);
+
+			value += intervalLeft.value + intervalRight.value - interval.value;
+			error += intervalLeft.error + intervalRight.error - interval.error;
+		}
+
+		// Sum the final partition (avoids the accumulation of round-off errors in the updates above)
+		value = 0.0;
+		error = 0.0;
+		for(final Interval interval : intervals) {
+			value += interval.value;
+			error += interval.error;
+		}
+		for(final Interval interval : intervalsNotRefinable) {
+			value += interval.value;
+			error += interval.error;
+		}
+
+		return new AdaptiveIntegrationResult(value, error, numberOfEvaluations, error <= Math.max(absoluteTolerance, relativeTolerance * Math.abs(value)));
+	}
+
+	/**
+	 * @return The absolute tolerance.
+	 */
+	public double getAbsoluteTolerance() {
+		return absoluteTolerance;
+	}
+
+	/**
+	 * @return The relative tolerance.
+	 */
+	public double getRelativeTolerance() {
+		return relativeTolerance;
+	}
+
+	/**
+	 * @return The maximum number of evaluations of the integrand.
+	 */
+	public long getMaximumNumberOfEvaluations() {
+		return maximumNumberOfEvaluations;
+	}
+
+	/**
+	 * An interval [left, right] with the values of the integrand at five equidistant points.
+	 */
+	private static final class Interval {
+		private final double left;
+		private final double right;
+		private final double[] values;
+		private final double value;
+		private final double error;
+
+		Interval(double left, double right, double value0, double value1, double value2, double value3, double value4) {
+			this.left = left;
+			this.right = right;
+			this.values = new double[] { value0, value1, value2, value3, value4 };
+
+			// Simpson's rule on [left,right] and composite Simpson's rule on the two halves
+			final double length = right-left;
+			final double simpson = length / 6.0 * (value0 + 4.0 * value2 + value4);
+			final double simpsonComposite = length / 12.0 * (value0 + 4.0 * value1 + 2.0 * value2 + 4.0 * value3 + value4);
+
+			this.value = simpsonComposite + (simpsonComposite - simpson) / 15.0;
+			// Conservative error estimate: the factor 1/15 holds only for smooth integrands (e.g. not close to a kink)
+			this.error = Math.abs(simpsonComposite - simpson);
+		}
+	}
+}
@@ -0,0 +1,159 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.integration1d;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleUnaryOperator;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * An Integrator1D which memoizes the values of the integrand and delegates the integration to another Integrator1D.
+ *
+ * The values are stored in a bounded {@link DoubleToDoubleLRUCache} keyed by the evaluation point (the abscissa).
+ * Integrators created by {@link #withIntegrator(Integrator1D)} share the cache, such that a sequence of nested
+ * integration rules (e.g. Simpson's rule with n and 2n-1 points, or a van der Corput sequence with n and 2n points)
+ * evaluates the integrand only at the new points.
+ *
+ * The cache is bound to the integrand (by identity): calling <code>integrate</code> with a different integrand object clears the cache.
+ * Note that a lambda expression capturing variables (e.g. <code>x -&gt; Math.exp(-a * x)</code>) evaluates to a new object each time
+ * the expression is evaluated, hence passing such a lambda created in a loop or in a method called repeatedly clears the cache on each call
+ * and the cache gives no benefit. In this case keep a reference to the integrand object or identify the integrand by an explicit key,
+ * see {@link #integrate(Object, DoubleUnaryOperator, double, double)}.
+ * The integrand has to be a deterministic function.
+ *
+ * If integrations with different integrands run at the same time (nested, e.g. an integrand which itself integrates with this object,
+ * or concurrently), the cache belongs to the integrand of the last call. The evaluations of the integrations of the other integrands
+ * bypass the cache, hence the results are correct, but only the last integrand benefits from the cache.
+ *
+ * @author Christian Fries
+ */
+public class CachingIntegrator1D implements Integrator1D {
+
+	private final Integrator1D integrator;
+	private final EvaluationCache evaluationCache;
+
+	/**
+	 * Create an integrator memoizing the values of the integrand.
+	 *
+	 * @param integrator The integrator used to calculate the integral.
+	 * @param maximumCacheSize The maximum number of integrand values kept in the cache.
+	 */
+	public CachingIntegrator1D(Integrator1D integrator, int maximumCacheSize) {
+		this(integrator, new EvaluationCache(new DoubleToDoubleLRUCache(maximumCacheSize)));
+	}
+
+	private CachingIntegrator1D(Integrator1D integrator, EvaluationCache evaluationCache) {
+		super();
+		Validate.notNull(integrator, "Parameter integrator must not be null.");
+		this.integrator = integrator;
+		this.evaluationCache = evaluationCache;
+	}
+
+	/**
+	 * Create an integrator using the given integration method and sharing the cache with this object.
+	 *
+	 * @param integrator The integrator used to calculate the integral.
+	 * @return An integrator using the given integrator and the cache of this object.
+	 */
+	public CachingIntegrator1D withIntegrator(Integrator1D integrator) {
+		return new CachingIntegrator1D(integrator, evaluationCache);
+	}
+
+	@Override
+	public double integrate(DoubleUnaryOperator integrand, double lowerBound, double upperBound) {
+		return integrate(integrand, integrand, lowerBound, upperBound);
+	}
+
+	/**
+	 * Calculate the integral, where the cached values belong to the given key: the cache is cleared if the key is not equal
+	 * (with respect to <code>equals</code>) to the key of the previous call. Calls with equal keys have to pass the same function
+	 * (possibly as different objects, e.g. capturing lambdas).
+	 *
+	 * @param integrandKey The key identifying the integrand (e.g. a parameter of the integrand), must not be null.
+	 * @param integrand The integrand f.
+	 * @param lowerBound The lower bound a.
+	 * @param upperBound The upper bound b.
+	 * @return The integral.
+	 */
+	public double integrate(Object integrandKey, DoubleUnaryOperator integrand, double lowerBound, double upperBound) {
+		Validate.notNull(integrandKey, "Parameter integrandKey must not be null.");
+		return integrator.integrate(evaluationCache.getCachingIntegrand(integrandKey, integrand), lowerBound, upperBound);
+	}
+
+	/**
+	 * @return The number of evaluations of the integrand (cache misses) since the cache was created or cleared.
+	 */
+	public long getNumberOfEvaluations() {
+		return evaluationCache.numberOfEvaluations.sum();
+	}
+
+	/**
+	 * @return The number of values taken from the cache since the cache was created or cleared.
+	 */
+	public long getNumberOfCacheHits() {
+		return evaluationCache.numberOfCacheHits.sum();
+	}
+
+	/**
+	 * Removes all values from the cache and resets the counters.
+	 */
+	public void clear() {
+		evaluationCache.clear(null);
+	}
+
+	@Override
+	public String toString() {
+		return "CachingIntegrator1D [integrator=" + integrator + ", cache=" + evaluationCache.cache
+				+ ", numberOfEvaluations=" + getNumberOfEvaluations() + ", numberOfCacheHits=" + getNumberOfCacheHits() + "]";
+	}
+
+	/**
+	 * The cache shared by integrators created via <code>withIntegrator</code>, together with the key of the integrand it belongs to.
+	 */
+	private static final class EvaluationCache {
+		private final DoubleToDoubleLRUCache cache;
+		private final LongAdder numberOfEvaluations = new LongAdder();
+		private final LongAdder numberOfCacheHits = new LongAdder();
+
+		private Object integrandKey;
+		// Incremented each time the cache is cleared, a caching integrand of an older generation bypasses the cache
+		private long generation;
+
+		EvaluationCache(DoubleToDoubleLRUCache cache) {
+			this.cache = cache;
+		}
+
+		synchronized DoubleUnaryOperator getCachingIntegrand(Object integrandKey, DoubleUnaryOperator integrand) {
+			if(!integrandKey.equals(this.integrandKey)) {
+				clear(integrandKey);
+			}
+			final long generationOfIntegrand = generation;
+			return x -> {
+				// NaN marks a missing value (a NaN value of the integrand is not cached)
+				synchronized(this) {
+					final double cachedValue = generationOfIntegrand == generation ? cache.getOrDefault(x, Double.NaN) : Double.NaN;
+					if(!Double.isNaN(cachedValue)) {
+						numberOfCacheHits.increment();
+						return cachedValue;
+					}
+				}
+
+				final double value = integrand.applyAsDouble(x);
+				synchronized(this) {
+					if(generationOfIntegrand == generation) {
+						numberOfEvaluations.increment();
+						cache.put(x, value);
+					}
+				}
+				return value;
+			};
+		}
+
+		synchronized void clear(Object integrandKey) {
+			cache.clear();
+			numberOfEvaluations.reset();
+			numberOfCacheHits.reset();
+			this.integrandKey = integrandKey;
+			generation++;
+		}
+	}
+}
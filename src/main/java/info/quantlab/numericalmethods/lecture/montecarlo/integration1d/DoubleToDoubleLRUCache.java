@@ -0,0 +1,231 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.integration1d;
+
+import java.util.Arrays;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * A bounded map double &rarr; double with least-recently-used eviction, working on primitive arrays (no boxing).
+ *
+ * The keys are compared by their bit pattern (<code>Double.doubleToLongBits</code>).
+ * The map uses open addressing with linear probing. The hash table stores the index of an entry, the entries (key, value)
+ * are stored in arrays of size <code>maximumSize</code> and are linked in a doubly linked list in the order of their last use.
+ * If the map is full, the least recently used entry is removed (by backward shift deletion in the hash table)
+ * and its slot is re-used.
+ *
+ * The methods are synchronized.
+ *
+ * @author Christian Fries
+ */
+public class DoubleToDoubleLRUCache {
+
+	private static final int noEntry = -1;
+
+	private final int maximumSize;
+
+	// Hash table: index of the entry or noEntry; the length is a power of 2, at least twice the maximum size
+	private final int[] table;
+	private final int tableMask;
+
+	// Entries
+	private final long[] keys;
+	private final double[] values;
+	private final int[] previous;	// Towards the least recently used entry
+	private final int[] next;		// Towards the most recently used entry
+
+	private int size;
+	private int leastRecentlyUsed = noEntry;
+	private int mostRecentlyUsed = noEntry;
+
+	/**
+	 * Create a cache.
+	 *
+	 * @param maximumSize The maximum number of entries.
+	 */
+	public DoubleToDoubleLRUCache(int maximumSize) {
+		super();
+		Validate.isTrue(maximumSize >= 1 && maximumSize <= 1 << 29, "Parameter maximumSize must be in [1, 2^29].");
+		this.maximumSize = maximumSize;
+
+		final int tableSize = Integer.highestOneBit(2*maximumSize-1) << 1;
+		table = new int[tableSize];
+		Arrays.fill(table, noEntry);
+		tableMask = tableSize-1;
+
+		keys = new long[maximumSize];
+		values = new double[maximumSize];
+		previous = new int[maximumSize];
+		next = new int[maximumSize];
+	}
+
+	/**
+	 * Returns true if the map contains the key. The order of use is not changed.
+	 *
+	 * @param key The key.
+	 * @return True, if the map contains the key.
+	 */
+	public synchronized boolean containsKey(double key) {
+		return table[findSlot(Double.doubleToLongBits(key))] != noEntry;
+	}
+
+	/**
+	 * Returns the value for the key or the given default value if the key is not in the map.
+	 * A found entry becomes the most recently used entry.
+	 *
+	 * @param key The key.
+	 * @param defaultValue The value returned if the key is not in the map.
+	 * @return The value for the key or the default value.
+	 */
+	public synchronized double getOrDefault(double key, double defaultValue) {
+		final int entry = table[findSlot(Double.doubleToLongBits(key))];
+		if(entry == noEntry) {
+			return defaultValue;
+		}
+		moveToMostRecentlyUsed(entry);
+		return values[entry];
+	}
+
+	/**
+	 * Puts the value for the key into the map. The entry becomes the most recently used entry.
+	 * If the map is full the least recently used entry is removed.
+	 *
+	 * @param key The key.
+	 * @param value The value.
+	 */
+	public synchronized void put(double key, double value) {
+		final long bits = Double.doubleToLongBits(key);
+		int slot = findSlot(bits);
+		int entry = table[slot];
+		if(entry != noEntry) {
+			values[entry] = value;
+			moveToMostRecentlyUsed(entry);
+			return;
+		}
+
+		if(size < maximumSize) {
+			entry = size++;
+		}
+		else {
+			// Re-use the entry of the least recently used key
+			entry = leastRecentlyUsed;
+			removeFromTable(findSlot(keys[entry]));
+			unlink(entry);
+			// The removal may have shifted the free slot for the new key
+			slot = findSlot(bits);
+		}
+
+		keys[entry] = bits;
+		values[entry] = value;
+		table[slot] = entry;
+		linkAsMostRecentlyUsed(entry);
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	public synchronized void clear() {
+		Arrays.fill(table, noEntry);
+		size = 0;
+		leastRecentlyUsed = noEntry;
+		mostRecentlyUsed = noEntry;
+	}
+
+	/**
+	 * @return The number of entries.
+	 */
+	public synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * @return The maximum number of entries.
+	 */
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	@Override
+	public String toString() {
+		return "DoubleToDoubleLRUCache [maximumSize=" + maximumSize + ", size=" + size() + "]";
+	}
+
+	/*
+	 * Returns the slot holding the key or the (empty) slot where the key would be inserted.
+	 */
+	private int findSlot(long bits) {
+		int slot = hash(bits) & tableMask;
+		while(table[slot] != noEntry && keys[table[slot]] != bits) {
+			slot = (slot + 1) & tableMask;
+		}
+		return slot;
+	}
+
+	/*
+	 * Backward shift deletion: moves entries of the probe sequence following the slot into the gap, such that all keys remain reachable.
+	 */
+	private void removeFromTable(int slot) {
+		int gap = slot;
+		int current = slot;
+		while(true) {
+			current = (current + 1) & tableMask;
+			final int entry = table[current];
+			if(entry == noEntry) {
+				break;
+			}
+			final int home = hash(keys[entry]) & tableMask;
+			// Move the entry if its home slot is not in the (cyclic) range (gap, current]
+			if(((current - home) & tableMask) >= ((current - gap) & tableMask)) {
+				table[gap] = entry;
+				gap = current;
+			}
+		}
+		table[gap] = noEntry;
+	}
+
+	private void moveToMostRecentlyUsed(int entry) {
+		if(entry != mostRecentlyUsed) {
+			unlink(entry);
+			linkAsMostRecentlyUsed(entry);
+		}
+	}
+
+	private void unlink(int entry) {
+		if(previous[entry] != noEntry) {
+			next[previous[entry]] = next[entry];
+		}
+		else {
+			leastRecentlyUsed = next[entry];
+		}
+		if(next[entry] != noEntry) {
+			previous[next[entry]] = previous[entry];
+		}
+		else {
+			mostRecentlyUsed = previous[entry];
+		}
+	}
+
+	private void linkAsMostRecentlyUsed(int entry) {
+		previous[entry] = mostRecentlyUsed;
+		next[entry] = noEntry;
+		if(mostRecentlyUsed != noEntry) {
+			next[mostRecentlyUsed] = entry;
+		}
+		else {
+			leastRecentlyUsed = entry;
+		}
+		mostRecentlyUsed = entry;
+	}
+
+	/*
+	 * Finalizer of MurmurHash3 (the bits of equidistant doubles differ mainly in the high bits of the mantissa).
+	 */
+	private static int hash(long bits) {
+		long h = bits;
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return (int)h;
+	}
+}
@@ -0,0 +1,128 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.integration1d;
+
+import java.util.Arrays;
+import java.util.function.DoubleUnaryOperator;
+import java.util.stream.DoubleStream;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Implementation of Integrator1D on the real line using the n-point Gauss-Hermite rule for a normal distribution
+ * with mean \( \mu \) and standard deviation \( \sigma \).
+ *
+ * The natural use is the expectation of a function of a normal random variable, see {@link #getExpectation(DoubleUnaryOperator)},
+ * \( E(g(\mu + \sigma Z)) \approx \sum_{i=1}^{n} w_{i} g(\mu + \sigma x_{i}) \), e.g., the value of a European option in the
+ * Black-Scholes model (g being the payoff as a function of the log-return) or in the Bachelier model.
+ * The rule is exact if g is a polynomial of degree &le; 2n-1. For a function with a kink (like an option payoff) the expectation
+ * should be calculated piecewise, see {@link #getExpectation(DoubleUnaryOperator, double...)}.
+ *
+ * The method <code>integrate</code> calculates \( \int_{-\infty}^{\infty} f(x) \mathrm{d}x \) as the expectation of
+ * \( f(X) / \phi_{\mu,\sigma}(X) \), which is accurate if f decays like the normal density \( \phi_{\mu,\sigma} \).
+ * The nodes and weights are calculated once per order, see {@link GaussianQuadratureRule#ofHermite(int)}.
+ *
+ * The order is limited to {@value #maximumOrder}: the largest node grows like \( 2 \sqrt{n} \), for n &gt; 370 the factor
+ * \( \exp(x_{n}^{2}/2) \) of <code>integrate</code> overflows and the weight \( w_{n} \) underflows
+ * (such that \( w_{n} \exp(x_{n}^{2}/2) \) is not a number, also if calculated in log space).
+ */
+public class GaussHermiteIntegrator1D implements Integrator1D {
+
+	// Truncation of the piecewise integration (the normal density at 10 standard deviations is below 1E-22)
+	private static final double truncationInStandardDeviations = 10.0;
+
+	public static final int maximumOrder = 360;
+
+	private final GaussianQuadratureRule rule;
+	private final double mean;
+	private final double standardDeviation;
+
+	/**
+	 * Create a Gauss-Hermite integrator for a normal distribution with given mean and standard deviation.
+	 *
+	 * @param order The number of evaluation points n (at most {@value #maximumOrder}).
+	 * @param mean The mean \( \mu \).
+	 * @param standardDeviation The standard deviation \( \sigma \).
+	 */
+	public GaussHermiteIntegrator1D(int order, double mean, double standardDeviation) {
+		super();
+		Validate.isTrue(standardDeviation > 0, "Parameter standardDeviation must be > 0.");
+		Validate.isTrue(order <= maximumOrder, "Parameter order must be <= %d (the weights w_i exp(x_i^2/2) are not representable).", maximumOrder);
+		rule = GaussianQuadratureRule.ofHermite(order);
+		this.mean = mean;
+		this.standardDeviation = standardDeviation;
+	}
+
+	/**
+	 * Create a Gauss-Hermite integrator for the standard normal distribution.
+	 *
+	 * @param order The number of evaluation points n (at most {@value #maximumOrder}).
+	 */
+	public GaussHermiteIntegrator1D(int order) {
+		this(order, 0.0, 1.0);
+	}
+
+	/**
+	 * Calculates the expectation \( E(g(X)) \) of a normal random variable X with mean \( \mu \) and standard deviation \( \sigma \).
+	 *
+	 * @param function The function g.
+	 * @return The expectation \( E(g(X)) \).
+	 */
+	public double getExpectation(DoubleUnaryOperator function) {
+		return rule.getSum(x -> function.applyAsDouble(mean + standardDeviation * x));
+	}
+
+	/**
+	 * Calculates the expectation \( E(g(X)) \) of a normal random variable X for a function g which is smooth except at given break points
+	 * (e.g. the kink of an option payoff).
+	 *
+	 * The Gauss-Hermite rule converges only algebraically for a function with a kink (the error of a call option in the Black-Scholes model
+	 * is about 1E-3 with 64 nodes). Here the integral \( \int g(x) \phi_{\mu,\sigma}(x) \mathrm{d}x \) is truncated to
+	 * \( [\mu - 10 \sigma, \mu + 10 \sigma] \), split at the break points and each piece is integrated by a Gauss-Legendre rule,
+	 * such that the total number of evaluations is (about) the order n of this integrator.
+	 *
+	 * @param function The function g.
+	 * @param breakPoints The points where g is not smooth.
+	 * @return The expectation \( E(g(X)) \).
+	 */
+	public double getExpectation(DoubleUnaryOperator function, double... breakPoints) {
+		final double lowerBound = mean - truncationInStandardDeviations * standardDeviation;
+		final double upperBound = mean + truncationInStandardDeviations * standardDeviation;
+
+		final double[] bounds = DoubleStream.concat(DoubleStream.of(lowerBound, upperBound), Arrays.stream(breakPoints).filter(x -> x > lowerBound && x < upperBound)).sorted().distinct().toArray();
+		final int numberOfPieces = bounds.length-1;
+		final GaussLegendreIntegrator1D integrator = new GaussLegendreIntegrator1D(Math.max(getOrder() / numberOfPieces, 1));
+
+		final DoubleUnaryOperator integrand = x -> {
+			final double z = (x - mean) / standardDeviation;
+			return function.applyAsDouble(x) * Math.exp(-0.5 * z * z) / (standardDeviation * Math.sqrt(2 * Math.PI));
+		};
+
+		double expectation = 0.0;
+		for(int piece=0; piece<numberOfPieces; piece++) {
+			expectation += integrator.integrate(integrand, bounds[piece], bounds[piece+1]);
+		}
+		return expectation;
+	}
+
+	/**
+	 * Calculates \( \int_{-\infty}^{\infty} f(x) \mathrm{d}x \).
+	 *
+	 * @param integrand The integrand f.
+	 * @param lowerBound The lower bound, has to be \( -\infty \).
+	 * @param upperBound The upper bound, has to be \( +\infty \).
+	 * @return The integral.
+	 */
+	@Override
+	public double integrate(DoubleUnaryOperator integrand, double lowerBound, double upperBound) {
+		Validate.isTrue(lowerBound == Double.NEGATIVE_INFINITY && upperBound == Double.POSITIVE_INFINITY, "The Gauss-Hermite integrator integrates over the real line (-infinity, infinity).");
+
+		final double normalization = standardDeviation * Math.sqrt(2 * Math.PI);
+		return rule.getSum(x -> integrand.applyAsDouble(mean + standardDeviation * x) * Math.exp(0.5 * x * x) * normalization);
+	}
+
+	/**
+	 * @return The number of evaluation points n.
+	 */
+	public int getOrder() {
+		return rule.getOrder();
+	}
+}
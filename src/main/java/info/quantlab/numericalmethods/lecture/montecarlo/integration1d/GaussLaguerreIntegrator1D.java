@@ -0,0 +1,70 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.integration1d;
+
+import java.util.function.DoubleUnaryOperator;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Implementation of Integrator1D on a half line \( [a,\infty) \) using the n-point Gauss-Laguerre rule,
+ * \( \int_{a}^{\infty} f(x) \mathrm{d}x \approx \lambda \sum_{i=1}^{n} w_{i} \exp(x_{i}) f(a + \lambda x_{i}) \),
+ * where \( \lambda \) is a scale (the decay length of the integrand).
+ *
+ * The rule is exact if \( f(a + \lambda x) \exp(x) \) is a polynomial of degree &le; 2n-1 in x, i.e., it is accurate for integrands
+ * decaying like \( \exp(-(x-a)/\lambda) \).
+ * The nodes and weights are calculated once per order, see {@link GaussianQuadratureRule#ofLaguerre(int)}.
+ *
+ * The order is limited to {@value #maximumOrder}: the largest node grows like 4n, for n &gt; 185 the factor \( \exp(x_{n}) \) overflows
+ * and the weight \( w_{n} \) underflows (such that \( w_{n} \exp(x_{n}) \) is not a number, also if calculated in log space).
+ */
+public class GaussLaguerreIntegrator1D implements Integrator1D {
+
+	public static final int maximumOrder = 180;
+
+	private final GaussianQuadratureRule rule;
+	private final double scale;
+
+	/**
+	 * Create a Gauss-Laguerre integrator.
+	 *
+	 * @param order The number of evaluation points n (at most {@value #maximumOrder}).
+	 * @param scale The scale \( \lambda \).
+	 */
+	public GaussLaguerreIntegrator1D(int order, double scale) {
+		super();
+		Validate.isTrue(scale > 0, "Parameter scale must be > 0.");
+		Validate.isTrue(order <= maximumOrder, "Parameter order must be <= %d (the weights w_i exp(x_i) are not representable).", maximumOrder);
+		rule = GaussianQuadratureRule.ofLaguerre(order);
+		this.scale = scale;
+	}
+
+	/**
+	 * Create a Gauss-Laguerre integrator with scale 1.
+	 *
+	 * @param order The number of evaluation points n (at most {@value #maximumOrder}).
+	 */
+	public GaussLaguerreIntegrator1D(int order) {
+		this(order, 1.0);
+	}
+
+	/**
+	 * Calculates \( \int_{a}^{\infty} f(x) \mathrm{d}x \).
+	 *
+	 * @param integrand The integrand f.
+	 * @param lowerBound The lower bound a.
+	 * @param upperBound The upper bound, has to be \( +\infty \).
+	 * @return The integral.
+	 */
+	@Override
+	public double integrate(DoubleUnaryOperator integrand, double lowerBound, double upperBound) {
+		Validate.isTrue(upperBound == Double.POSITIVE_INFINITY, "The Gauss-Laguerre integrator integrates over a half line [a, infinity).");
+
+		return scale * rule.getSum(x -> integrand.applyAsDouble(lowerBound + scale * x) * Math.exp(x));
+	}
+
+	/**
+	 * @return The number of evaluation points n.
+	 */
+	public int getOrder() {
+		return rule.getOrder();
+	}
+}
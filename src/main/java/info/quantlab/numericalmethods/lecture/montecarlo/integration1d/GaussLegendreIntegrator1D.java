@@ -0,0 +1,39 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.integration1d;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Implementation of Integrator1D using the n-point Gauss-Legendre rule,
+ * \( \int_{a}^{b} f(x) \mathrm{d}x \approx \frac{b-a}{2} \sum_{i=1}^{n} w_{i} f(\frac{a+b}{2} + \frac{b-a}{2} x_{i}) \).
+ *
+ * The rule is exact for polynomials of degree &le; 2n-1. For analytic integrands the error decreases exponentially in n.
+ * The nodes and weights are calculated once per order, see {@link GaussianQuadratureRule#ofLegendre(int)}.
+ */
+public class GaussLegendreIntegrator1D implements Integrator1D {
+
+	private final GaussianQuadratureRule rule;
+
+	/**
+	 * Create a Gauss-Legendre integrator.
+	 *
+	 * @param order The number of evaluation points n.
+	 */
+	public GaussLegendreIntegrator1D(int order) {
+		super();
+		rule = GaussianQuadratureRule.ofLegendre(order);
+	}
+
+	@Override
+	public double integrate(DoubleUnaryOperator integrand, double lowerBound, double upperBound) {
+		final double center = 0.5 * (upperBound + lowerBound);
+		final double halfLength = 0.5 * (upperBound - lowerBound);
+		return halfLength * rule.getSum(x -> integrand.applyAsDouble(center + halfLength * x));
+	}
+
+	/**
+	 * @return The number of evaluation points n.
+	 */
+	public int getOrder() {
+		return rule.getOrder();
+	}
+}
@@ -0,0 +1,191 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.integration1d;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleUnaryOperator;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.math3.linear.EigenDecomposition;
+
+/**
+ * The nodes \( x_{i} \) and weights \( w_{i} \) of an n-point Gaussian quadrature rule
+ * \( \int f(x) w(x) \mathrm{d}x \approx \sum_{i=1}^{n} w_{i} f(x_{i}) \), which is exact for polynomials f of degree &le; 2n-1.
+ *
+ * The nodes are calculated by the Golub-Welsch algorithm, i.e., as the eigenvalues of the (symmetric tridiagonal) Jacobi matrix
+ * of the three term recurrence of the orthogonal polynomials, refined by Newton's method.
+ * The weights are calculated from the Christoffel function of the orthonormal polynomials.
+ *
+ * The rules are calculated once per order and kept in a (concurrent) cache, see {@link #ofLegendre(int)}, {@link #ofHermite(int)} and {@link #ofLaguerre(int)}.
+ *
+ * @author Christian Fries
+ */
+public class GaussianQuadratureRule {
+
+	private static final Map<Integer, GaussianQuadratureRule> rulesLegendre = new ConcurrentHashMap<>();
+	private static final Map<Integer, GaussianQuadratureRule> rulesHermite = new ConcurrentHashMap<>();
+	private static final Map<Integer, GaussianQuadratureRule> rulesLaguerre = new ConcurrentHashMap<>();
+
+	private static final int numberOfNewtonIterations = 2;
+
+	private final double[] nodes;
+	private final double[] weights;
+
+	private GaussianQuadratureRule(double[] nodes, double[] weights) {
+		super();
+		this.nodes = nodes;
+		this.weights = weights;
+	}
+
+	/**
+	 * Returns the Gauss-Legendre rule for \( \int_{-1}^{1} f(x) \mathrm{d}x \), i.e., the weight function w(x) = 1 on [-1,1].
+	 *
+	 * @param order The number of nodes n.
+	 * @return The Gauss-Legendre rule of order n.
+	 */
+	public static GaussianQuadratureRule ofLegendre(int order) {
+		Validate.isTrue(order >= 1, "Parameter order must be >= 1.");
+		// P_{k+1} = x P_{k} - k^2/(4k^2-1) P_{k-1}
+		return rulesLegendre.computeIfAbsent(order, n -> ofJacobiMatrix(n, k -> 0.0, k -> k / Math.sqrt(4.0 * k * k - 1.0), 2.0));
+	}
+
+	/**
+	 * Returns the Gauss-Hermite rule for the expectation of f(Z) for a standard normal random variable Z,
+	 * \( \int_{-\infty}^{\infty} f(x) \phi(x) \mathrm{d}x \) with \( \phi(x) = \exp(-x^{2}/2) / \sqrt{2 \pi} \)
+	 * (the probabilists' Hermite polynomials).
+	 *
+	 * @param order The number of nodes n.
+	 * @return The Gauss-Hermite rule of order n.
+	 */
+	public static GaussianQuadratureRule ofHermite(int order) {
+		Validate.isTrue(order >= 1, "Parameter order must be >= 1.");
+		// He_{k+1} = x He_{k} - k He_{k-1}
+		return rulesHermite.computeIfAbsent(order, n -> ofJacobiMatrix(n, k -> 0.0, k -> Math.sqrt(k), 1.0));
+	}
+
+	/**
+	 * Returns the Gauss-Laguerre rule for \( \int_{0}^{\infty} f(x) \exp(-x) \mathrm{d}x \).
+	 *
+	 * @param order The number of nodes n.
+	 * @return The Gauss-Laguerre rule of order n.
+	 */
+	public static GaussianQuadratureRule ofLaguerre(int order) {
+		Validate.isTrue(order >= 1, "Parameter order must be >= 1.");
+		// L_{k+1} = (x - (2k+1)) L_{k} - k^2 L_{k-1} (monic)
+		return rulesLaguerre.computeIfAbsent(order, n -> ofJacobiMatrix(n, k -> 2.0 * k + 1.0, k -> k, 1.0));
+	}
+
+	/**
+	 * Calculates the rule from the Jacobi matrix (Golub-Welsch), where each node is refined by Newton's method
+	 * and the weights are calculated from the Christoffel function \( w_{i} = 1 / \sum_{k=0}^{n-1} p_{k}(x_{i})^{2} \)
+	 * of the orthonormal polynomials \( p_{k} \) (which is accurate also for very small weights).
+	 *
+	 * @param order The number of nodes n.
+	 * @param diagonal The function k &mapsto; \( \alpha_{k} \), k = 0, ..., n-1 (the diagonal of the Jacobi matrix).
+	 * @param offDiagonal The function k &mapsto; \( \sqrt{\beta_{k}} \), k = 1, ..., n (the off-diagonal of the Jacobi matrix).
+	 * @param totalWeight The integral of the weight function \( \mu_{0} \).
+	 * @return The quadrature rule.
+	 */
+	private static GaussianQuadratureRule ofJacobiMatrix(int order, DoubleUnaryOperator diagonal, DoubleUnaryOperator offDiagonal, double totalWeight) {
+		final double[] main = new double[order];
+		final double[] secondary = new double[order-1];
+		for(int k=0; k<order; k++) {
+			main[k] = diagonal.applyAsDouble(k);
+			if(k >= 1) {
+				secondary[k-1] = offDiagonal.applyAsDouble(k);
+			}
+		}
+
+		final double[] eigenvalues = new EigenDecomposition(main, secondary).getRealEigenvalues();
+		Arrays.sort(eigenvalues);
+
+		final double[] nodes = new double[order];
+		final double[] weights = new double[order];
+		final double[] valueAndDerivative = new double[3];
+		for(int i=0; i<order; i++) {
+			double node = eigenvalues[i];
+			for(int iteration=0; iteration<numberOfNewtonIterations; iteration++) {
+				evaluateOrthonormalPolynomials(node, order, diagonal, offDiagonal, totalWeight, valueAndDerivative);
+				if(valueAndDerivative[1] != 0.0 && Double.isFinite(valueAndDerivative[0] / valueAndDerivative[1])) {
+					node -= valueAndDerivative[0] / valueAndDerivative[1];
+				}
+			}
+			evaluateOrthonormalPolynomials(node, order, diagonal, offDiagonal, totalWeight, valueAndDerivative);
+			nodes[i] = node;
+			weights[i] = 1.0 / valueAndDerivative[2];
+		}
+
+		return new GaussianQuadratureRule(nodes, weights);
+	}
+
+	/*
+	 * Evaluates the orthonormal polynomials by the three term recurrence
+	 * sqrt(beta_{k+1}) p_{k+1}(x) = (x - alpha_k) p_k(x) - sqrt(beta_k) p_{k-1}(x), p_0 = 1/sqrt(mu_0).
+	 * The result is p_n(x), p_n'(x) and sum_{k=0}^{n-1} p_k(x)^2.
+	 */
+	private static void evaluateOrthonormalPolynomials(double x, int order, DoubleUnaryOperator diagonal, DoubleUnaryOperator offDiagonal, double totalWeight, double[] result) {
+		double value = 1.0 / Math.sqrt(totalWeight);
+		double valuePrevious = 0.0;
+		double derivative = 0.0;
+		double derivativePrevious = 0.0;
+		double sumOfSquares = 0.0;
+		for(int k=0; k<order; k++) {
+			sumOfSquares += value * value;
+
+			final double alpha = diagonal.applyAsDouble(k);
+			final double sqrtBeta = k >= 1 ? offDiagonal.applyAsDouble(k) : 0.0;
+			final double sqrtBetaNext = offDiagonal.applyAsDouble(k+1);
+
+			final double valueNext = ((x - alpha) * value - sqrtBeta * valuePrevious) / sqrtBetaNext;
+			final double derivativeNext = (value + (x - alpha) * derivative - sqrtBeta * derivativePrevious) / sqrtBetaNext;
+
+			valuePrevious = value;
+			value = valueNext;
+			derivativePrevious = derivative;
+			derivative = derivativeNext;
+		}
+		result[0] = value;
+		result[1] = derivative;
+		result[2] = sumOfSquares;
+	}
+
+	/**
+	 * Calculates \( \sum_{i=1}^{n} w_{i} f(x_{i}) \).
+	 *
+	 * @param function The function f.
+	 * @return The sum \( \sum_{i=1}^{n} w_{i} f(x_{i}) \).
+	 */
+	public double getSum(DoubleUnaryOperator function) {
+		double sum = 0.0;
+		for(int i=0; i<nodes.length; i++) {
+			sum += weights[i] * function.applyAsDouble(nodes[i]);
+		}
+		return sum;
+	}
+
+	/**
+	 * @return The number of nodes n.
+	 */
+	public int getOrder() {
+		return nodes.length;
+	}
+
+	/**
+	 * @return The nodes \( x_{i} \) (in ascending order).
+	 */
+	public double[] getNodes() {
+		return nodes.clone();
+	}
+
+	/**
+	 * @return The weights \( w_{i} \).
+	 */
+	public double[] getWeights() {
+		return weights.clone();
+	}
+
+	@Override
+	public String toString() {
+		return "GaussianQuadratureRule [order=" + nodes.length + ", nodes=" + Arrays.toString(nodes) + ", weights=" + Arrays.toString(weights) + "]";
+	}
+}
@@ -1,15 +1,17 @@
 package info.quantlab.numericalmethods.lecture.montecarlo.integration1d;
 
-import java.util.function.DoubleSupplier;
 import java.util.function.DoubleUnaryOperator;
 
 import info.quantlab.numericalmethods.lecture.randomnumbers.MersenneTwister;
+import info.quantlab.numericalmethods.lecture.randomnumbers.RandomNumberGenerator1D;
 
 /**
  * Implementation of Integrator1D using Monte-Carlo integration with a MersenneTwister.
  */
 public class MonteCarloIntegrator1D implements Integrator1D {
 
+	private static final int blockSize = 1024;
+
 	private final int numberOfEvaluationPoints;
 	private final int seed;
 
@@ -29,18 +31,23 @@ public class MonteCarloIntegrator1D implements Integrator1D {
 	public double integrate(DoubleUnaryOperator integrand, double lowerBound, double upperBound) {
 
 		// Create random number sequence generator (we use MersenneTwister)
-		final DoubleSupplier uniformRandomNumberGenerator = new MersenneTwister(seed);
+		final RandomNumberGenerator1D uniformRandomNumberGenerator = new MersenneTwister(seed);
 		final double domainSize = upperBound-lowerBound;
 
-		double sum = 0.0;
-		for(int i=0; i<numberOfEvaluationPoints; i++) {
+		// Random numbers are drawn block-wise (one call to the generator per block)
+		final double[] randomNumbers = new double[Math.min(blockSize, numberOfEvaluationPoints)];
 
-			final double randomNumber = uniformRandomNumberGenerator.getAsDouble();
+		double sum = 0.0;
+		for(int blockStart=0; blockStart<numberOfEvaluationPoints; blockStart += randomNumbers.length) {
+			final int blockLength = Math.min(randomNumbers.length, numberOfEvaluationPoints-blockStart);
+			uniformRandomNumberGenerator.fill(randomNumbers, 0, blockLength);
 
-			final double argument = lowerBound + randomNumber * domainSize;
-			final double value = integrand.applyAsDouble(argument);
+			for(int i=0; i<blockLength; i++) {
+				final double argument = lowerBound + randomNumbers[i] * domainSize;
+				final double value = integrand.applyAsDouble(argument);
 
-			sum += value;
+				sum += value;
+			}
 		}
 		return sum / numberOfEvaluationPoints * domainSize;
 	}
@@ -0,0 +1,72 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.integration1d;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.DoubleUnaryOperator;
+
+import info.quantlab.numericalmethods.lecture.randomnumbers.PhiloxRandomNumberGenerator;
+
+/**
+ * Implementation of Integrator1D using Monte-Carlo integration, evaluated in parallel.
+ *
+ * The i-th sample point uses the i-th number of a counter-based random number generator (Philox) with the given seed,
+ * hence each chunk generates its random numbers directly from the global index of the sample (without a shared generator).
+ * The sample points do not depend on the number of threads or on the chunk size, and the result does not depend on the number of threads.
+ * The partial sums are combined per chunk (see {@link AbstractParallelIntegrator1D}), hence a different chunk size gives the same
+ * sample, but may change the last digits of the result (by the different order of the summation).
+ *
+ * @see MonteCarloIntegrator1D
+ */
+public class MonteCarloIntegrator1DParallel extends AbstractParallelIntegrator1D {
+
+	private static final int blockSize = 1024;
+
+	private final PhiloxRandomNumberGenerator uniformRandomNumberGenerator;
+
+	/**
+	 * Create a parallel Monte-Carlo integration using the counter-based random number generator Philox with the given seed.
+	 *
+	 * @param numberOfEvaluationPoints The number of sample points to be used.
+	 * @param seed The seed for the random number generator.
+	 * @param chunkSize The number of sample points per chunk (the unit of work of a task).
+	 * @param forkJoinPool The fork join pool used to evaluate the chunks.
+	 */
+	public MonteCarloIntegrator1DParallel(int numberOfEvaluationPoints, long seed, int chunkSize, ForkJoinPool forkJoinPool) {
+		super(numberOfEvaluationPoints, chunkSize, forkJoinPool);
+		uniformRandomNumberGenerator = new PhiloxRandomNumberGenerator(seed);
+	}
+
+	/**
+	 * Create a parallel Monte-Carlo integration using the counter-based random number generator Philox with the given seed.
+	 *
+	 * @param numberOfEvaluationPoints The number of sample points to be used.
+	 * @param seed The seed for the random number generator.
+	 */
+	public MonteCarloIntegrator1DParallel(int numberOfEvaluationPoints, long seed) {
+		super(numberOfEvaluationPoints);
+		uniformRandomNumberGenerator = new PhiloxRandomNumberGenerator(seed);
+	}
+
+	@Override
+	protected double getSumOfValues(DoubleUnaryOperator integrand, double lowerBound, double upperBound, int startIndex, int endIndex) {
+		final double domainSize = upperBound-lowerBound;
+
+		// Random numbers are calculated block-wise from their index (the generator is not modified)
+		final double[] randomNumbers = new double[Math.min(blockSize, endIndex-startIndex)];
+
+		double sum = 0.0;
+		for(int blockStart=startIndex; blockStart<endIndex; blockStart += randomNumbers.length) {
+			final int blockLength = Math.min(randomNumbers.length, endIndex-blockStart);
+			uniformRandomNumberGenerator.fill(blockStart, randomNumbers, 0, blockLength);
+
+			for(int i=0; i<blockLength; i++) {
+				sum += integrand.applyAsDouble(lowerBound + randomNumbers[i] * domainSize);
+			}
+		}
+		return sum;
+	}
+
+	@Override
+	protected double getScalingFactor(double lowerBound, double upperBound) {
+		return (upperBound-lowerBound) / getNumberOfEvaluationPoints();
+	}
+}
@@ -0,0 +1,48 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.integration1d;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * This is a Riemann sum with left points approximation of the integral, evaluated in parallel.
+ * The result does not depend on the number of threads.
+ *
+ * @see QuasiMonteCarloIntegrator1D
+ */
+public class QuasiMonteCarloIntegrator1DParallel extends AbstractParallelIntegrator1D {
+
+	/**
+	 * @param numberOfEvaluationPoints The number of evaluation points.
+	 * @param chunkSize The number of evaluation points per chunk (the unit of work of a task).
+	 * @param forkJoinPool The fork join pool used to evaluate the chunks.
+	 */
+	public QuasiMonteCarloIntegrator1DParallel(int numberOfEvaluationPoints, int chunkSize, ForkJoinPool forkJoinPool) {
+		super(numberOfEvaluationPoints, chunkSize, forkJoinPool);
+	}
+
+	/**
+	 * @param numberOfEvaluationPoints The number of evaluation points.
+	 */
+	public QuasiMonteCarloIntegrator1DParallel(int numberOfEvaluationPoints) {
+		super(numberOfEvaluationPoints);
+	}
+
+	@Override
+	protected double getSumOfValues(DoubleUnaryOperator integrand, double lowerBound, double upperBound, int startIndex, int endIndex) {
+		final int numberOfEvaluationPoints = getNumberOfEvaluationPoints();
+		final double domainSize = upperBound-lowerBound;
+
+		double sum = 0.0;
+		for(int i=startIndex; i<endIndex; i++) {
+			// left-points of equi-partitioning of [0,1] - x_i = i /n
+			final double uniformSample = (2.0*i+0.0)/(2.0*numberOfEvaluationPoints);
+			sum += integrand.applyAsDouble(lowerBound + uniformSample * domainSize);
+		}
+		return sum;
+	}
+
+	@Override
+	protected double getScalingFactor(double lowerBound, double upperBound) {
+		return (upperBound-lowerBound) / getNumberOfEvaluationPoints();
+	}
+}
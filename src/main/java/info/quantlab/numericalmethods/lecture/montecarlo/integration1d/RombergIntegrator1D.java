@@ -0,0 +1,169 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.integration1d;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.DoubleUnaryOperator;
+import java.util.stream.IntStream;
+
+import org.apache.commons.lang3.Validate;
+
+import info.quantlab.numericalmethods.lecture.montecarlo.integration.IntegrationResult;
+
+/**
+ * Implementation of Integrator1D using Romberg's method, i.e., the Richardson extrapolation of the trapezoidal rule.
+ *
+ * The trapezoidal rule \( T_{k} \) with \( 2^{k} \) intervals of length \( h_{k} = (b-a)/2^{k} \) is calculated from
+ * the previous level, \( T_{k} = T_{k-1}/2 + h_{k} \sum_{i=1}^{2^{k-1}} f(a + (2i-1) h_{k}) \),
+ * hence each level evaluates the integrand only at the \( 2^{k-1} \) new midpoints.
+ * The error of the trapezoidal rule is an expansion in even powers of h (for a smooth integrand), which is eliminated
+ * order by order by the Richardson extrapolation
+ * \( R_{k,j} = R_{k,j-1} + (R_{k,j-1} - R_{k-1,j-1}) / (4^{j}-1) \), \( R_{k,0} = T_{k} \).
+ *
+ * The iteration stops if \( | R_{k,k} - R_{k-1,k-1} | \le \max( \epsilon_{abs}, \epsilon_{rel} |R_{k,k}| ) \) (or the maximum level is reached).
+ * For analytic integrands the error decreases faster than any power of the number of points, such that
+ * machine precision is reached with a few hundred evaluations.
+ *
+ * Optionally, the new points of a level are evaluated on a <code>ForkJoinPool</code> (for levels with many points).
+ * The values are summed in the order of the points, hence the result does not depend on the number of threads.
+ */
+public class RombergIntegrator1D implements Integrator1D {
+
+	private static final int defaultMinimumLevel = 3;
+	private static final int defaultMaximumLevel = 20;
+
+	// Levels with fewer new points are evaluated sequentially
+	private static final int minimumNumberOfPointsForParallelEvaluation = 1024;
+
+	private final double absoluteTolerance;
+	private final double relativeTolerance;
+	private final int minimumLevel;
+	private final int maximumLevel;
+	private final ForkJoinPool forkJoinPool;
+
+	/**
+	 * Create a Romberg integrator.
+	 *
+	 * @param absoluteTolerance The absolute tolerance \( \epsilon_{abs} \).
+	 * @param relativeTolerance The relative tolerance \( \epsilon_{rel} \).
+	 * @param minimumLevel The minimum level k (a safeguard against integrands which are sampled badly by few points, e.g., periodic functions).
+	 * @param maximumLevel The maximum level k (the integrand is evaluated at most at \( 2^{k}+1 \) points).
+	 * @param forkJoinPool The fork join pool used to evaluate the new points of a level, or null for a sequential evaluation.
+	 */
+	public RombergIntegrator1D(double absoluteTolerance, double relativeTolerance, int minimumLevel, int maximumLevel, ForkJoinPool forkJoinPool) {
+		super();
+		Validate.isTrue(absoluteTolerance >= 0 && relativeTolerance >= 0, "Tolerances must be >= 0.");
+		Validate.isTrue(minimumLevel >= 1, "Parameter minimumLevel must be >= 1.");
+		Validate.isTrue(maximumLevel >= minimumLevel && maximumLevel <= 30, "Parameter maximumLevel must be in [minimumLevel, 30].");
+		this.absoluteTolerance = absoluteTolerance;
+		this.relativeTolerance = relativeTolerance;
+		this.minimumLevel = minimumLevel;
+		this.maximumLevel = maximumLevel;
+		this.forkJoinPool = forkJoinPool;
+	}
+
+	/**
+	 * Create a Romberg integrator evaluating the integrand sequentially.
+	 *
+	 * @param absoluteTolerance The absolute tolerance \( \epsilon_{abs} \).
+	 * @param relativeTolerance The relative tolerance \( \epsilon_{rel} \).
+	 */
+	public RombergIntegrator1D(double absoluteTolerance, double relativeTolerance) {
+		this(absoluteTolerance, relativeTolerance, defaultMinimumLevel, defaultMaximumLevel, null);
+	}
+
+	@Override
+	public double integrate(DoubleUnaryOperator integrand, double lowerBound, double upperBound) {
+		return integrateWithErrorEstimate(integrand, lowerBound, upperBound).getValue();
+	}
+
+	/**
+	 * Calculate the integral together with an estimate of its error and the number of evaluations of the integrand.
+	 *
+	 * The error estimate is the difference of the last two diagonal elements of the Romberg table, \( | R_{k,k} - R_{k-1,k-1} | \).
+	 *
+	 * @param integrand The integrand f.
+	 * @param lowerBound The lower bound a.
+	 * @param upperBound The upper bound b.
+	 * @return The integral, its error estimate and the number of evaluations.
+	 */
+	public IntegrationResult integrateWithErrorEstimate(DoubleUnaryOperator integrand, double lowerBound, double upperBound) {
+		final double domainSize = upperBound-lowerBound;
+
+		// The last row of the Romberg table, R[k-1][j], j = 0, ..., k-1
+		double[] previousRow = new double[] { 0.5 * domainSize * (integrand.applyAsDouble(lowerBound) + integrand.applyAsDouble(upperBound)) };
+		long numberOfEvaluations = 2;
+
+		double value = previousRow[0];
+		double error = Double.POSITIVE_INFINITY;
+		for(int level=1; level<=maximumLevel; level++) {
+			final int numberOfNewPoints = 1 << (level-1);
+			final double stepSize = domainSize / (2 * numberOfNewPoints);
+
+			final double trapezoidal = 0.5 * previousRow[0] + stepSize * getSumOfValuesAtMidPoints(integrand, lowerBound, stepSize, numberOfNewPoints);
+			numberOfEvaluations += numberOfNewPoints;
+
+			// Richardson extrapolation
+			final double[] row = new double[level+1];
+			row[0] = trapezoidal;
+			double factor = 1.0;
+			for(int j=1; j<=level; j++) {
+				factor *= 4.0;
+				row[j] = row[j-1] + (row[j-1] - previousRow[j-1]) / (factor - 1.0);
+			}
+
+			error = Math.abs(row[level] - previousRow[level-1]);
+			value = row[level];
+			previousRow = row;
+
+			if(level >= minimumLevel && error <= Math.max(absoluteTolerance, relativeTolerance * Math.abs(value))) {
+				break;
+			}
+		}
+
+		return new IntegrationResult(value, error, numberOfEvaluations);
+	}
+
+	/**
+	 * @return The absolute tolerance.
+	 */
+	public double getAbsoluteTolerance() {
+		return absoluteTolerance;
+	}
+
+	/**
+	 * @return The relative tolerance.
+	 */
+	public double getRelativeTolerance() {
+		return relativeTolerance;
+	}
+
+	/**
+	 * @return The maximum level k (the integrand is evaluated at most at \( 2^{k}+1 \) points).
+	 */
+	public int getMaximumLevel() {
+		return maximumLevel;
+	}
+
+	/*
+	 * Returns the sum of f(a + (2i-1) h), i = 1, ..., n (summed in this order).
+	 */
+	private double getSumOfValuesAtMidPoints(DoubleUnaryOperator integrand, double lowerBound, double stepSize, int numberOfPoints) {
+		if(forkJoinPool == null || numberOfPoints < minimumNumberOfPointsForParallelEvaluation) {
+			double sum = 0.0;
+			for(int i=1; i<=numberOfPoints; i++) {
+				sum += integrand.applyAsDouble(lowerBound + (2*i-1) * stepSize);
+			}
+			return sum;
+		}
+
+		final double[] values = new double[numberOfPoints];
+		forkJoinPool.submit(() -> IntStream.range(0, numberOfPoints).parallel().forEach(i -> {
+			values[i] = integrand.applyAsDouble(lowerBound + (2*i+1) * stepSize);
+		})).join();
+
+		double sum = 0.0;
+		for(final double value : values) {
+			sum += value;
+		}
+		return sum;
+	}
+}
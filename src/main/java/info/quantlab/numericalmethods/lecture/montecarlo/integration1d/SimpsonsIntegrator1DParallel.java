@@ -0,0 +1,57 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.integration1d;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Implementation of Integrator1D using the Simpson's rule, evaluated in parallel.
+ * The result does not depend on the number of threads.
+ *
+ * @see SimpsonsIntegrator1D
+ */
+public class SimpsonsIntegrator1DParallel extends AbstractParallelIntegrator1D {
+
+	/**
+	 * @param numberOfEvaluationPoints The number of evaluation points (odd).
+	 * @param chunkSize The number of evaluation points per chunk (the unit of work of a task).
+	 * @param forkJoinPool The fork join pool used to evaluate the chunks.
+	 */
+	public SimpsonsIntegrator1DParallel(int numberOfEvaluationPoints, int chunkSize, ForkJoinPool forkJoinPool) {
+		super(numberOfEvaluationPoints, chunkSize, forkJoinPool);
+
+		if(numberOfEvaluationPoints%2 != 1) {
+			throw new IllegalArgumentException("numberOfEvaluationPoints needs to be odd");
+		}
+	}
+
+	/**
+	 * @param numberOfEvaluationPoints The number of evaluation points (odd).
+	 */
+	public SimpsonsIntegrator1DParallel(int numberOfEvaluationPoints) {
+		super(numberOfEvaluationPoints);
+
+		if(numberOfEvaluationPoints%2 != 1) {
+			throw new IllegalArgumentException("numberOfEvaluationPoints needs to be odd");
+		}
+	}
+
+	@Override
+	protected double getSumOfValues(DoubleUnaryOperator integrand, double lowerBound, double upperBound, int startIndex, int endIndex) {
+		final int lastIndex = getNumberOfEvaluationPoints()-1;
+		final double integralStep = (upperBound-lowerBound) / lastIndex;		// h
+
+		double sum = 0.0;
+		for(int i=startIndex; i<endIndex; i++) {
+			// End points with a weight of 1, odd points with a weight of 4, even (inner) points with a weight of 2
+			final double weight = (i == 0 || i == lastIndex) ? 1.0 : (i%2 == 1 ? 4.0 : 2.0);
+			final double argument = i == lastIndex ? upperBound : lowerBound + i * integralStep;
+			sum += weight * integrand.applyAsDouble(argument);
+		}
+		return sum;
+	}
+
+	@Override
+	protected double getScalingFactor(double lowerBound, double upperBound) {
+		return (upperBound-lowerBound) / (getNumberOfEvaluationPoints()-1) / 3;
+	}
+}
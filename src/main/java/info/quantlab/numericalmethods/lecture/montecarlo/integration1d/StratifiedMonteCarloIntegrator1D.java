@@ -0,0 +1,79 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.integration1d;
+
+import java.util.function.DoubleUnaryOperator;
+
+import org.apache.commons.lang3.Validate;
+
+import info.quantlab.numericalmethods.lecture.montecarlo.integration.BatchIntegrand;
+import info.quantlab.numericalmethods.lecture.montecarlo.integration.StratifiedIntegrationResult;
+import info.quantlab.numericalmethods.lecture.montecarlo.integration.StratifiedMonteCarloIntegrator;
+import info.quantlab.numericalmethods.lecture.montecarlo.integration.UnitCubeIntegrationDomain;
+import info.quantlab.numericalmethods.lecture.randomnumbers.StratifiedSampler;
+
+/**
+ * Implementation of Integrator1D using stratified Monte-Carlo integration: the interval [a,b] is divided into
+ * strata of equal length, each stratum is sampled by its own (independent, uniform) points.
+ *
+ * With one point per stratum the sample is a Latin hypercube sample of dimension 1. For a smooth integrand the error is
+ * of order \( n^{-3/2} \) (instead of \( n^{-1/2} \)). However, in this mode there is no error estimate: the variance of a stratum
+ * with a single point cannot be estimated, hence the standard error of the result is NaN. Use at least two points per stratum for an error estimate.
+ * The strata are evaluated in parallel, see {@link StratifiedMonteCarloIntegrator}.
+ */
+public class StratifiedMonteCarloIntegrator1D implements Integrator1D {
+
+	private final StratifiedSampler sampler;
+
+	/**
+	 * Create a stratified Monte-Carlo integration with the given sampler (of dimension 1).
+	 *
+	 * @param sampler The stratified sampler of [0,1], e.g., with a Neyman allocation obtained from a previous integration.
+	 */
+	public StratifiedMonteCarloIntegrator1D(StratifiedSampler sampler) {
+		super();
+		Validate.isTrue(sampler.getDimension() == 1, "The sampler must have dimension 1.");
+		this.sampler = sampler;
+	}
+
+	/**
+	 * Create a stratified Monte-Carlo integration with proportional allocation.
+	 *
+	 * @param numberOfEvaluationPoints The number of sample points to be used.
+	 * @param numberOfStrata The number of strata (must be &le; numberOfEvaluationPoints).
+	 * @param seed The seed for the random number generator.
+	 */
+	public StratifiedMonteCarloIntegrator1D(long numberOfEvaluationPoints, int numberOfStrata, long seed) {
+		this(StratifiedSampler.ofProportionalAllocation(1, 1, numberOfStrata, numberOfEvaluationPoints, seed));
+	}
+
+	@Override
+	public double integrate(DoubleUnaryOperator integrand, double lowerBound, double upperBound) {
+		return integrateWithErrorEstimate(integrand, lowerBound, upperBound).getValue();
+	}
+
+	/**
+	 * Calculate the integral together with the standard error of the estimate and the variances of the strata.
+	 *
+	 * @param integrand The integrand f.
+	 * @param lowerBound The lower bound a.
+	 * @param upperBound The upper bound b.
+	 * @return The integral, its standard error and the statistics of the strata.
+	 */
+	public StratifiedIntegrationResult integrateWithErrorEstimate(DoubleUnaryOperator integrand, double lowerBound, double upperBound) {
+		final double domainSize = upperBound-lowerBound;
+
+		final BatchIntegrand integrandOnUnitInterval = (arguments, values, numberOfPoints) -> {
+			for(int i=0; i<numberOfPoints; i++) {
+				values[i] = integrand.applyAsDouble(lowerBound + arguments[0][i] * domainSize) * domainSize;
+			}
+		};
+
+		return new StratifiedMonteCarloIntegrator(sampler).integrateWithErrorEstimate(integrandOnUnitInterval, new UnitCubeIntegrationDomain(1));
+	}
+
+	/**
+	 * @return The stratified sampler.
+	 */
+	public StratifiedSampler getSampler() {
+		return sampler;
+	}
+}
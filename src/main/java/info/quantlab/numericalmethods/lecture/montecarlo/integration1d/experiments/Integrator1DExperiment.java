@@ -2,6 +2,7 @@ package info.quantlab.numericalmethods.lecture.montecarlo.integration1d.experime
 
 import java.util.function.DoubleUnaryOperator;
 
+import info.quantlab.numericalmethods.lecture.montecarlo.integration1d.CachingIntegrator1D;
 import info.quantlab.numericalmethods.lecture.montecarlo.integration1d.Integrator1D;
 import info.quantlab.numericalmethods.lecture.montecarlo.integration1d.MonteCarloIntegrator1D;
 import info.quantlab.numericalmethods.lecture.montecarlo.integration1d.MonteCarloIntegrator1DFromRandomGenerator1D;
@@ -10,6 +11,7 @@ import info.quantlab.numericalmethods.lecture.montecarlo.integration1d.QuasiMont
 import info.quantlab.numericalmethods.lecture.montecarlo.integration1d.QuasiMonteCarloIntegrator1DWithStreams;
 import info.quantlab.numericalmethods.lecture.montecarlo.integration1d.RiemannMidPointIntegrator1D;
 import info.quantlab.numericalmethods.lecture.montecarlo.integration1d.RiemannMidPointIntegrator1DWithStreams;
+import info.quantlab.numericalmethods.lecture.montecarlo.integration1d.RombergIntegrator1D;
 import info.quantlab.numericalmethods.lecture.montecarlo.integration1d.SimpsonsIntegrator1D;
 import info.quantlab.numericalmethods.lecture.montecarlo.integration1d.SimpsonsIntegrator1DWithStreams;
 import info.quantlab.numericalmethods.lecture.randomnumbers.VanDerCorputSequence;
@@ -67,6 +69,30 @@ public class Integrator1DExperiment {
 
 		final Integrator1D monteCarloIntegratorWithVanDerCorputSeq = new MonteCarloIntegrator1DFromRandomGenerator1D(numberOfEvaluationPoints, () -> new VanDerCorputSequence(2));
 		testIntegrator(monteCarloIntegratorWithVanDerCorputSeq);
+
+		System.out.println();
+
+		/*
+		 * Nested refinement of Simpson's rule (3, 5, 9, ... points): with a cache only the new points are evaluated.
+		 */
+		System.out.println("Nested Simpson's rule with integrand cache:");
+		final CachingIntegrator1D cachingIntegrator = new CachingIntegrator1D(new SimpsonsIntegrator1D(3), 1 << 16);
+		long numberOfEvaluationsWithoutCache = 0;
+		for(int numberOfIntervals = 2; numberOfIntervals < numberOfEvaluationPoints; numberOfIntervals *= 2) {
+			testIntegrator(cachingIntegrator.withIntegrator(new SimpsonsIntegrator1D(numberOfIntervals+1)));
+			numberOfEvaluationsWithoutCache += numberOfIntervals+1;
+		}
+		System.out.println("Number of evaluations without cache: " + numberOfEvaluationsWithoutCache + ", with cache: " + cachingIntegrator.getNumberOfEvaluations());
+
+		System.out.println();
+
+		/*
+		 * Romberg's method: the trapezoidal levels 1, 2, 4, ... intervals are extrapolated, stopping on convergence.
+		 */
+		System.out.println("Romberg's method (Richardson extrapolation of the trapezoidal rule):");
+		final RombergIntegrator1D integratorRomberg = new RombergIntegrator1D(0.0, 1E-15);
+		testIntegrator(integratorRomberg);
+		System.out.println("Number of evaluations: " + integratorRomberg.integrateWithErrorEstimate(x -> Math.cos(x), 0.0, 5.0).getNumberOfEvaluations());
 	}
 
 	private static void testIntegrator(Integrator1D integrator) {
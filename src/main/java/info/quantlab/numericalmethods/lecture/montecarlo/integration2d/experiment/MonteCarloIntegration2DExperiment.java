@@ -2,13 +2,26 @@ package info.quantlab.numericalmethods.lecture.montecarlo.integration2d.experime
 
 import java.util.function.BiFunction;
 
+import info.quantlab.numericalmethods.lecture.montecarlo.integration.StratifiedIntegrationResult;
+import info.quantlab.numericalmethods.lecture.montecarlo.integration.StratifiedMonteCarloIntegrator;
+import info.quantlab.numericalmethods.lecture.montecarlo.integration.UnitCubeIntegrationDomain;
+import info.quantlab.numericalmethods.lecture.randomnumbers.LatinHypercubeSampler;
+import info.quantlab.numericalmethods.lecture.randomnumbers.MersenneTwister;
+import info.quantlab.numericalmethods.lecture.randomnumbers.RandomNumberGenerator;
+import info.quantlab.numericalmethods.lecture.randomnumbers.RandomNumberGeneratorFrom1D;
+import info.quantlab.numericalmethods.lecture.randomnumbers.StratifiedSampler;
+
 /**
  * Monte-Carlo integration of
  * integral cos(x) * cos(y) dx dy, x = -pi/2 to pi/2, y = -pi/2 to pi/2
+ *
+ * using i.i.d. sampling, stratified sampling and Latin hypercube sampling.
  */
 public class MonteCarloIntegration2DExperiment {
 
 	private static final int numberOfSamples = 1000000;
+	private static final int numberOfStrataPerDimension = 100;
+	private static final long seed = 3141;
 
 	public static void main(String[] args) {
 
@@ -24,28 +37,54 @@ public class MonteCarloIntegration2DExperiment {
 
 		final BiFunction<Double,Double,Double> integrand = (x,y) -> Math.cos(x)*Math.cos(y);
 
-		// General code to integrate integrand on the given domain
-		final double integral = integrate(integrand, xlower, xupper, ylower, yupper);
-
 		final double integralAnalytic = (Math.sin(xupper)-Math.sin(xlower)) * (Math.sin(yupper)-Math.sin(ylower));
-		final double error = integral - integralAnalytic;
 
-		System.out.println("Monte-Carlo Integral....: " + integral);
-		System.out.println("Analytic Integral.......: " + integralAnalytic);
-		System.out.println("Deviation...............: " + String.format("%5.2e", error));
-		System.out.println("sqrt(1/N)...............: " + String.format("%5.2e", Math.sqrt(1.0/numberOfSamples)));
-		System.out.println("Number of Samples.......: " + String.format("%5.2e", (double)numberOfSamples));
+		final RandomNumberGenerator[] samplers = new RandomNumberGenerator[] {
+				new RandomNumberGeneratorFrom1D(new MersenneTwister(seed), 2),
+				StratifiedSampler.ofProportionalAllocation(2, 2, numberOfStrataPerDimension, numberOfSamples, seed),
+				new LatinHypercubeSampler(2, numberOfSamples, seed)
+		};
+
+		for(final RandomNumberGenerator sampler : samplers) {
+			// General code to integrate integrand on the given domain
+			final double integral = integrate(integrand, xlower, xupper, ylower, yupper, sampler);
+			final double error = integral - integralAnalytic;
+
+			System.out.println(sampler.getClass().getSimpleName());
+			System.out.println("Monte-Carlo Integral....: " + integral);
+			System.out.println("Analytic Integral.......: " + integralAnalytic);
+			System.out.println("Deviation...............: " + String.format("%5.2e", error));
+			System.out.println("sqrt(1/N)...............: " + String.format("%5.2e", Math.sqrt(1.0/numberOfSamples)));
+			System.out.println("Number of Samples.......: " + String.format("%5.2e", (double)numberOfSamples));
+			System.out.println();
+		}
 
+		/*
+		 * Stratified sampling with standard error: a first pass with proportional allocation estimates the variances of the strata,
+		 * a second pass uses the Neyman allocation.
+		 */
+		final double domainSize = (xupper-xlower) * (yupper-ylower);
+		final StratifiedSampler sampler = StratifiedSampler.ofProportionalAllocation(2, 2, numberOfStrataPerDimension, numberOfSamples / 10, seed);
+		final StratifiedIntegrationResult firstPass = new StratifiedMonteCarloIntegrator(sampler).integrateWithErrorEstimate(
+				x -> integrand.apply(xlower + x[0] * (xupper-xlower), ylower + x[1] * (yupper-ylower)) * domainSize, new UnitCubeIntegrationDomain(2));
+		final StratifiedIntegrationResult secondPass = new StratifiedMonteCarloIntegrator(sampler.withNeymanAllocation(firstPass.getStandardDeviationsOfStrata(), numberOfSamples, seed+1)).integrateWithErrorEstimate(
+				x -> integrand.apply(xlower + x[0] * (xupper-xlower), ylower + x[1] * (yupper-ylower)) * domainSize, new UnitCubeIntegrationDomain(2));
+
+		System.out.println("Stratified (proportional, first pass)..: " + firstPass.getValue() + "\tstandard error: " + String.format("%5.2e", firstPass.getErrorEstimate()) + "\tsamples: " + firstPass.getNumberOfEvaluations());
+		System.out.println("Stratified (Neyman, second pass).......: " + secondPass.getValue() + "\tstandard error: " + String.format("%5.2e", secondPass.getErrorEstimate()) + "\tsamples: " + secondPass.getNumberOfEvaluations());
 	}
 
 	private static double integrate(BiFunction<Double,Double,Double> integrand,
-			double xlower, double xupper, double ylower, double yupper) {
+			double xlower, double xupper, double ylower, double yupper, RandomNumberGenerator sampler) {
+
+		final double[] point = new double[2];
 
 		double sum = 0.0;
 		for(int i=0; i<numberOfSamples; i++) {
+			sampler.getNext(point);
 
-			final double x = Math.random() * (xupper-xlower) + xlower;
-			final double y = Math.random() * (yupper-ylower) + ylower;
+			final double x = point[0] * (xupper-xlower) + xlower;
+			final double y = point[1] * (yupper-ylower) + ylower;
 
 			sum += integrand.apply(x, y);
 		}
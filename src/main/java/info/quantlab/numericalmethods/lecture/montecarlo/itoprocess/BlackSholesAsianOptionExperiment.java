@@ -2,13 +2,23 @@ package info.quantlab.numericalmethods.lecture.montecarlo.itoprocess;
 
 import java.util.Arrays;
 
+import info.quantlab.numericalmethods.lecture.montecarlo.integration.IntegrationResult;
+import info.quantlab.numericalmethods.lecture.montecarlo.integration.RQMCIntegrator;
+import info.quantlab.numericalmethods.lecture.montecarlo.integration.UnitCubeIntegrationDomain;
+import info.quantlab.numericalmethods.lecture.montecarlo.paths.ArithmeticAverageAccumulator;
+import info.quantlab.numericalmethods.lecture.montecarlo.paths.BlackScholesPathModel;
+import info.quantlab.numericalmethods.lecture.montecarlo.paths.FusedPathSimulation;
 import info.quantlab.numericalmethods.lecture.randomnumbers.HaltonSequence;
 import info.quantlab.numericalmethods.lecture.randomnumbers.MersenneTwister;
+import info.quantlab.numericalmethods.lecture.randomnumbers.NormalRandomNumberGenerator;
 import info.quantlab.numericalmethods.lecture.randomnumbers.RandomNumberGenerator;
 import info.quantlab.numericalmethods.lecture.randomnumbers.RandomNumberGenerator1D;
 import info.quantlab.numericalmethods.lecture.randomnumbers.RandomNumberGeneratorFrom1D;
+import info.quantlab.numericalmethods.lecture.randomnumbers.RandomizedHaltonSequence;
+import info.quantlab.numericalmethods.lecture.randomnumbers.ScrambledSobolSequence;
 import info.quantlab.numericalmethods.lecture.randomnumbers.VanDerCorputSequence;
 import net.finmath.functions.NormalDistribution;
+import net.finmath.time.TimeDiscretizationFromArray;
 
 /**
  * Calculate the value of an Asian Option under the Black-Scholes model.
@@ -16,6 +26,8 @@ import net.finmath.functions.NormalDistribution;
  * Uses log-euler discretization (exact scheme) and Monte-Carlo simulation.
  * Using pseudo- and quasi-random number generators.
  * Uses wrong and correct construction of sample-vector / sample path (dimension = number of time steps).
+ * Uses randomized quasi-random number generators to obtain an error estimate for the quasi Monte-Carlo value.
+ * Uses a fused path simulation (time steps and averaging in a single pass over blocks of paths).
  *
  * @author Christian Fries
  */
@@ -36,6 +48,10 @@ public class BlackSholesAsianOptionExperiment {
 	private final int numberOfSamples = 100000;
 	private final int[] primes = new int[] { 2, 3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37, 41, 47, 53, 59 };
 
+	// Randomized quasi Monte-Carlo parameters (numberOfRandomizations * numberOfSamplesPerRandomization is approx. numberOfSamples)
+	private final int numberOfRandomizations = 25;
+	private final int numberOfSamplesPerRandomization = 4096;
+
 
 	public static void main(String[] args) {
 
@@ -62,22 +78,94 @@ public class BlackSholesAsianOptionExperiment {
 		final RandomNumberGenerator randomNumberGeneratorQuasi = new HaltonSequence(Arrays.copyOfRange(primes, 0, dimension));
 		final double valueQuasi = getValueOfAsianOption(randomNumberGeneratorQuasi);
 		System.out.println("Value of Asian Option (Halton " + randomNumberGeneratorQuasi.getDimension() + "D)............: " + valueQuasi);
+
+		final double valueFused = getValueOfAsianOptionUsingFusedPathSimulation();
+		System.out.println("Value of Asian Option (fused path simulation): " + valueFused);
+
+		final UnitCubeIntegrationDomain unitCube = new UnitCubeIntegrationDomain(dimension);
+
+		final RQMCIntegrator integratorRandomizedHalton = new RQMCIntegrator(
+				k -> new RandomizedHaltonSequence(Arrays.copyOfRange(primes, 0, dimension), seed + k),
+				numberOfRandomizations, numberOfSamplesPerRandomization);
+		final IntegrationResult resultRandomizedHalton = integratorRandomizedHalton.integrateWithErrorEstimate(this::getDiscountedPayoff, unitCube);
+		System.out.println("Value of Asian Option (rand. Halton " + dimension + "D)......: " + resultRandomizedHalton.getValue() + "\t+/- " + resultRandomizedHalton.getErrorEstimate());
+
+		final RQMCIntegrator integratorScrambledSobol = new RQMCIntegrator(
+				k -> new ScrambledSobolSequence(dimension, seed + k),
+				numberOfRandomizations, numberOfSamplesPerRandomization);
+		final IntegrationResult resultScrambledSobol = integratorScrambledSobol.integrateWithErrorEstimate(this::getDiscountedPayoff, unitCube);
+		System.out.println("Value of Asian Option (scr. Sobol " + dimension + "D)........: " + resultScrambledSobol.getValue() + "\t+/- " + resultScrambledSobol.getErrorEstimate());
+	}
+
+	/**
+	 * The discounted payoff of the Asian option as a function of the uniforms used to generate the path.
+	 *
+	 * @param uniforms The uniforms, one for each time step.
+	 * @return The discounted payoff.
+	 */
+	private double getDiscountedPayoff(double[] uniforms) {
+
+		final int numberOfTimeSteps = timesForAveraging.length;
+
+		double sumOfStockValues = 0.0;
+		double time = 0.0;
+		double valueOfStockAtTime = initialStockValue;	// S(T_0)
+		for(int timeStepIndex=0; timeStepIndex<numberOfTimeSteps; timeStepIndex++) {
+			final double standardNormal = NormalDistribution.inverseCumulativeDistribution(uniforms[timeStepIndex]);
+
+			final double timeNext = timesForAveraging[timeStepIndex];
+			final double timeStep = timeNext - time;
+
+			valueOfStockAtTime = valueOfStockAtTime * Math.exp(riskFreeRate * timeStep - 0.5 * volatility * volatility * timeStep + volatility * Math.sqrt(timeStep) * standardNormal);
+			time = timeNext;
+
+			sumOfStockValues += valueOfStockAtTime;
+		}
+		final double averageOfStockValues = sumOfStockValues / numberOfTimeSteps;
+
+		return Math.max(averageOfStockValues - optionStrike,  0) * Math.exp(-riskFreeRate * optionMaturity);
+	}
+
+	/**
+	 * Valuation using the <code>FusedPathSimulation</code>: the time steps of blocks of paths (generated in parallel)
+	 * and the accumulation of the average are performed in a single pass, without storing the paths.
+	 *
+	 * @return The value of the Asian option.
+	 */
+	private double getValueOfAsianOptionUsingFusedPathSimulation() {
+
+		final double[] times = new double[timesForAveraging.length+1];
+		System.arraycopy(timesForAveraging, 0, times, 1, timesForAveraging.length);
+
+		final FusedPathSimulation simulation = new FusedPathSimulation(
+				new BlackScholesPathModel(initialStockValue, riskFreeRate, volatility),
+				new TimeDiscretizationFromArray(times), numberOfSamples, seed);
+
+		final ArithmeticAverageAccumulator average = new ArithmeticAverageAccumulator(timesForAveraging);
+		simulation.simulate(average);
+
+		return average.getValue().sub(optionStrike).floor(0.0).mult(Math.exp(-riskFreeRate * optionMaturity)).getAverage();
 	}
 
 	private double getValueOfAsianOption(RandomNumberGenerator1D randomNumberGenerator) {
 
+		final int numberOfTimeSteps = timesForAveraging.length;
+
+		// Standard normals from the uniforms (ICDF), one buffer for the normals of one path (filled with a single call to the generator)
+		final NormalRandomNumberGenerator normalRandomNumberGenerator = new NormalRandomNumberGenerator(randomNumberGenerator);
+		final double[] normals = new double[numberOfTimeSteps];
+
 		double sum = 0.0;
 
 		for(int i=0; i<numberOfSamples; i++) {
 
-			final int numberOfTimeSteps = timesForAveraging.length;
+			normalRandomNumberGenerator.fill(normals);
 
 			double sumOfStockValues = 0.0;
 			double time = 0.0;
 			double valueOfStockAtTime = initialStockValue;	// S(T_0)
 			for(int timeStepIndex=0; timeStepIndex<numberOfTimeSteps; timeStepIndex++) {
-				final double uniform = randomNumberGenerator.nextDouble();
-				final double standardNormal = NormalDistribution.inverseCumulativeDistribution(uniform);
+				final double standardNormal = normals[timeStepIndex];
 
 				final double timeNext = timesForAveraging[timeStepIndex];
 				final double timeStep = timeNext - time;
@@ -102,13 +190,16 @@ public class BlackSholesAsianOptionExperiment {
 
 	private double getValueOfAsianOption(RandomNumberGenerator randomNumberGenerator) {
 
+		final int numberOfTimeSteps = timesForAveraging.length;
+
+		// Buffer for the sample vector of one path (re-used for all paths)
+		final double[] uniforms = new double[randomNumberGenerator.getDimension()];
+
 		double sum = 0.0;
 
 		for(int i=0; i<numberOfSamples; i++) {
 
-			final double[] uniforms = randomNumberGenerator.getNext();
-
-			final int numberOfTimeSteps = timesForAveraging.length;
+			randomNumberGenerator.fill(uniforms, 0, 1);
 
 			double sumOfStockValues = 0.0;
 			double time = 0.0;
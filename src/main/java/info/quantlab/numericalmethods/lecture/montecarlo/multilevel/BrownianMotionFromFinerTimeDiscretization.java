@@ -0,0 +1,112 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.multilevel;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.Validate;
+
+import net.finmath.montecarlo.BrownianMotion;
+import net.finmath.stochastic.RandomVariable;
+import net.finmath.time.TimeDiscretization;
+
+/**
+ * A Brownian motion on a coarse time discretization, whose increments are the sums of the increments of a given Brownian motion
+ * on a finer time discretization.
+ *
+ * Each time step of the coarse discretization consists of r (the refinement factor) consecutive time steps of the fine discretization,
+ * i.e., the coarse increment i is \( \Delta W^{c}_{i} = \sum_{j=0}^{r-1} \Delta W^{f}_{i r + j} \).
+ * Both processes are driven by the same path of the Brownian motion, which is the coupling used by multilevel Monte-Carlo.
+ *
+ * The increments are calculated on first use and cached.
+ *
+ * @author Christian Fries
+ */
+public class BrownianMotionFromFinerTimeDiscretization implements BrownianMotion {
+
+	private final BrownianMotion brownianMotionOnFinerTimeDiscretization;
+	private final TimeDiscretization timeDiscretization;
+	private final int refinementFactor;
+
+	private final Map<Integer, RandomVariable> increments = new ConcurrentHashMap<>();
+
+	/**
+	 * Create a Brownian motion on a coarse time discretization from a Brownian motion on a finer time discretization.
+	 *
+	 * @param brownianMotionOnFinerTimeDiscretization The Brownian motion on the fine time discretization.
+	 * @param timeDiscretization The coarse time discretization, where time step i corresponds to the fine time steps i r, ..., i r + r - 1.
+	 * @param refinementFactor The number r of fine time steps per coarse time step.
+	 */
+	public BrownianMotionFromFinerTimeDiscretization(BrownianMotion brownianMotionOnFinerTimeDiscretization, TimeDiscretization timeDiscretization, int refinementFactor) {
+		super();
+		Validate.isTrue(refinementFactor >= 1, "Parameter refinementFactor must be >= 1.");
+		Validate.isTrue(timeDiscretization.getNumberOfTimeSteps() * refinementFactor == brownianMotionOnFinerTimeDiscretization.getTimeDiscretization().getNumberOfTimeSteps(),
+				"The number of time steps of the fine time discretization must be the number of time steps of the coarse time discretization times the refinement factor.");
+		this.brownianMotionOnFinerTimeDiscretization = brownianMotionOnFinerTimeDiscretization;
+		this.timeDiscretization = timeDiscretization;
+		this.refinementFactor = refinementFactor;
+	}
+
+	@Override
+	public RandomVariable getBrownianIncrement(int timeIndex, int factor) {
+		return increments.computeIfAbsent(timeIndex * getNumberOfFactors() + factor, key -> {
+			RandomVariable increment = brownianMotionOnFinerTimeDiscretization.getBrownianIncrement(timeIndex * refinementFactor, factor);
+			for(int j=1; j<refinementFactor; j++) {
+				increment = increment.add(brownianMotionOnFinerTimeDiscretization.getBrownianIncrement(timeIndex * refinementFactor + j, factor));
+			}
+			return increment;
+		});
+	}
+
+	@Override
+	public TimeDiscretization getTimeDiscretization() {
+		return timeDiscretization;
+	}
+
+	@Override
+	public int getNumberOfFactors() {
+		return brownianMotionOnFinerTimeDiscretization.getNumberOfFactors();
+	}
+
+	@Override
+	public int getNumberOfPaths() {
+		return brownianMotionOnFinerTimeDiscretization.getNumberOfPaths();
+	}
+
+	@Override
+	public RandomVariable getRandomVariableForConstant(double value) {
+		return brownianMotionOnFinerTimeDiscretization.getRandomVariableForConstant(value);
+	}
+
+	@Override
+	public BrownianMotion getCloneWithModifiedSeed(int seed) {
+		return new BrownianMotionFromFinerTimeDiscretization(brownianMotionOnFinerTimeDiscretization.getCloneWithModifiedSeed(seed), timeDiscretization, refinementFactor);
+	}
+
+	/**
+	 * Not supported, since the time discretization is defined by the fine Brownian motion.
+	 */
+	@Override
+	public BrownianMotion getCloneWithModifiedTimeDiscretization(TimeDiscretization newTimeDiscretization) {
+		throw new UnsupportedOperationException("The time discretization of " + this.getClass().getSimpleName() + " is defined by the Brownian motion on the finer time discretization.");
+	}
+
+	/**
+	 * @return The Brownian motion on the finer time discretization.
+	 */
+	public BrownianMotion getBrownianMotionOnFinerTimeDiscretization() {
+		return brownianMotionOnFinerTimeDiscretization;
+	}
+
+	/**
+	 * @return The number of fine time steps per coarse time step.
+	 */
+	public int getRefinementFactor() {
+		return refinementFactor;
+	}
+
+	@Override
+	public String toString() {
+		return "BrownianMotionFromFinerTimeDiscretization [refinementFactor=" + refinementFactor
+				+ ", brownianMotionOnFinerTimeDiscretization=" + brownianMotionOnFinerTimeDiscretization + "]";
+	}
+}
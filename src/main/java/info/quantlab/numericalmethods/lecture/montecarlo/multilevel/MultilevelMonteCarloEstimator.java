@@ -0,0 +1,303 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.multilevel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang3.Validate;
+
+import net.finmath.exception.CalculationException;
+import net.finmath.montecarlo.BrownianMotion;
+import net.finmath.montecarlo.BrownianMotionFromMersenneRandomNumbers;
+import net.finmath.montecarlo.model.ProcessModel;
+import net.finmath.montecarlo.process.EulerSchemeFromProcessModel;
+import net.finmath.montecarlo.process.EulerSchemeFromProcessModel.Scheme;
+import net.finmath.stochastic.RandomVariable;
+import net.finmath.time.TimeDiscretization;
+import net.finmath.time.TimeDiscretizationFromArray;
+
+/**
+ * Multilevel Monte-Carlo (MLMC) estimator (Giles, 2008) for the expectation of a functional P of the solution of an SDE,
+ * discretized by the Euler scheme (<code>EulerSchemeFromProcessModel</code>).
+ *
+ * Level l uses the time discretization of [0,T] with \( n_{0} 2^{l} \) equidistant time steps. The estimator is
+ * \[
+ * 	E(P_{L}) = E(P_{0}) + \sum_{l=1}^{L} E(P_{l} - P_{l-1}) ,
+ * \]
+ * where each expectation is estimated by an independent Monte-Carlo simulation with \( N_{l} \) paths. On level l &gt; 0
+ * the coarse process \( P_{l-1} \) and the fine process \( P_{l} \) are driven by the same Brownian path
+ * (see {@link BrownianMotionFromFinerTimeDiscretization}), such that the variance \( V_{l} \) of the correction is small.
+ *
+ * The algorithm estimates the variances \( V_{l} \) online (merging the statistics of batches of paths) and allocates the
+ * number of paths \( N_{l} = \lceil 2 \epsilon^{-2} \sqrt{V_{l}/C_{l}} \sum_{k} \sqrt{V_{k} C_{k}} \rceil \), \( C_{l} \) being the cost of a path,
+ * such that the standard error is \( \epsilon / \sqrt{2} \). Levels are added until the estimated bias
+ * \( |E(P_{L} - P_{L-1})| / (2^{\alpha}-1) \) is below \( \epsilon / \sqrt{2} \), such that the root mean squared error is below \( \epsilon \).
+ * For the Euler scheme (strong order 1/2, weak order \( \alpha = 1 \)) the cost is \( O(\epsilon^{-2} \log(\epsilon)^{2}) \),
+ * compared to \( O(\epsilon^{-3}) \) for a standard Monte-Carlo simulation.
+ *
+ * The result is reproducible: the seed of each batch of paths is a function of the seed, the level and the index of the batch.
+ *
+ * @author Christian Fries
+ */
+public class MultilevelMonteCarloEstimator {
+
+	private static final int refinementFactor = 2;
+
+	private final ProcessModel model;
+	private final Scheme scheme;
+	private final double maturity;
+	private final int numberOfTimeStepsOnCoarsestLevel;
+	private final int numberOfFactors;
+	private final PathFunctional functional;
+	private final int seed;
+
+	private final int initialNumberOfPaths;
+	private final int maximumNumberOfPathsPerBatch;
+	private final int maximumLevel;
+	private final double weakOrder;
+
+	/**
+	 * Create a multilevel Monte-Carlo estimator.
+	 *
+	 * @param model The model (the SDE).
+	 * @param scheme The scheme of the <code>EulerSchemeFromProcessModel</code>.
+	 * @param maturity The time horizon T of the time discretizations.
+	 * @param numberOfTimeStepsOnCoarsestLevel The number of time steps \( n_{0} \) of level 0.
+	 * @param numberOfFactors The number of factors of the Brownian motion.
+	 * @param functional The functional P of the paths (e.g. the discounted payoff).
+	 * @param seed The seed of the random number generators.
+	 * @param initialNumberOfPaths The number of paths used to estimate the variance of a new level.
+	 * @param maximumNumberOfPathsPerBatch The maximum number of paths simulated at once (limits the memory requirement).
+	 * @param maximumLevel The maximum level L.
+	 * @param weakOrder The weak order \( \alpha \) of the scheme, used in the estimate of the bias.
+	 */
+	public MultilevelMonteCarloEstimator(ProcessModel model, Scheme scheme, double maturity, int numberOfTimeStepsOnCoarsestLevel, int numberOfFactors,
+			PathFunctional functional, int seed, int initialNumberOfPaths, int maximumNumberOfPathsPerBatch, int maximumLevel, double weakOrder) {
+		super();
+		Validate.isTrue(maturity > 0, "Parameter maturity must be > 0.");
+		Validate.isTrue(numberOfTimeStepsOnCoarsestLevel >= 1, "Parameter numberOfTimeStepsOnCoarsestLevel must be >= 1.");
+		Validate.isTrue(initialNumberOfPaths >= 2, "Parameter initialNumberOfPaths must be >= 2.");
+		Validate.isTrue(maximumNumberOfPathsPerBatch >= 2, "Parameter maximumNumberOfPathsPerBatch must be >= 2.");
+		Validate.isTrue(maximumLevel >= 2 && maximumLevel <= 20, "Parameter maximumLevel must be in [2, 20].");
+		Validate.isTrue(((long)numberOfTimeStepsOnCoarsestLevel << maximumLevel) <= Integer.MAX_VALUE,
+				"The number of time steps on the finest level, numberOfTimeStepsOnCoarsestLevel * 2^maximumLevel, must be <= %d.", Integer.MAX_VALUE);
+		Validate.isTrue(weakOrder > 0, "Parameter weakOrder must be > 0.");
+		this.model = model;
+		this.scheme = scheme;
+		this.maturity = maturity;
+		this.numberOfTimeStepsOnCoarsestLevel = numberOfTimeStepsOnCoarsestLevel;
+		this.numberOfFactors = numberOfFactors;
+		this.functional = functional;
+		this.seed = seed;
+		this.initialNumberOfPaths = initialNumberOfPaths;
+		this.maximumNumberOfPathsPerBatch = maximumNumberOfPathsPerBatch;
+		this.maximumLevel = maximumLevel;
+		this.weakOrder = weakOrder;
+	}
+
+	/**
+	 * Create a multilevel Monte-Carlo estimator for the Euler scheme (weak order 1), using 10000 paths to initialize a level,
+	 * batches of at most 100000 paths and at most 10 levels.
+	 *
+	 * @param model The model (the SDE).
+	 * @param scheme The scheme of the <code>EulerSchemeFromProcessModel</code>.
+	 * @param maturity The time horizon T of the time discretizations.
+	 * @param numberOfTimeStepsOnCoarsestLevel The number of time steps \( n_{0} \) of level 0.
+	 * @param numberOfFactors The number of factors of the Brownian motion.
+	 * @param functional The functional P of the paths (e.g. the discounted payoff).
+	 * @param seed The seed of the random number generators.
+	 */
+	public MultilevelMonteCarloEstimator(ProcessModel model, Scheme scheme, double maturity, int numberOfTimeStepsOnCoarsestLevel, int numberOfFactors,
+			PathFunctional functional, int seed) {
+		this(model, scheme, maturity, numberOfTimeStepsOnCoarsestLevel, numberOfFactors, functional, seed, 10000, 100000, 10, 1.0);
+	}
+
+	/**
+	 * Estimate the expectation of the functional with a root mean squared error (approximately) below the given target.
+	 *
+	 * @param targetRootMeanSquaredError The target \( \epsilon \) of the root mean squared error.
+	 * @return The estimate together with the statistics of the levels.
+	 * @throws CalculationException Thrown if the valuation of the functional fails.
+	 */
+	public MultilevelMonteCarloResult getValue(double targetRootMeanSquaredError) throws CalculationException {
+		Validate.isTrue(targetRootMeanSquaredError > 0, "Parameter targetRootMeanSquaredError must be > 0.");
+
+		final List<LevelStatistics> levels = new ArrayList<>();
+		for(int level=0; level<=2; level++) {
+			levels.add(new LevelStatistics(level));
+			addPaths(levels.get(level), initialNumberOfPaths);
+		}
+
+		boolean isConverged = false;
+		while(true) {
+			// Allocate the paths (re-estimating the variances after new paths have been added)
+			boolean isPathsAdded = true;
+			while(isPathsAdded) {
+				isPathsAdded = false;
+				final long[] optimalNumberOfPaths = getOptimalNumberOfPaths(levels, targetRootMeanSquaredError);
+				for(final LevelStatistics level : levels) {
+					final long numberOfPathsToAdd = optimalNumberOfPaths[level.level] - level.numberOfPaths;
+					// Ignore small deficits (they are within the accuracy of the variance estimate)
+					if(numberOfPathsToAdd > 0.01 * level.numberOfPaths) {
+						addPaths(level, numberOfPathsToAdd);
+						isPathsAdded = true;
+					}
+				}
+			}
+
+			if(getBiasEstimate(levels) <= targetRootMeanSquaredError / Math.sqrt(2.0)) {
+				isConverged = true;
+				break;
+			}
+			if(levels.size() > maximumLevel) {
+				break;
+			}
+
+			final LevelStatistics newLevel = new LevelStatistics(levels.size());
+			addPaths(newLevel, initialNumberOfPaths);
+			levels.add(newLevel);
+		}
+
+		final int numberOfLevels = levels.size();
+		final long[] numberOfPathsOfLevels = new long[numberOfLevels];
+		final double[] meansOfLevels = new double[numberOfLevels];
+		final double[] variancesOfLevels = new double[numberOfLevels];
+		double value = 0.0;
+		double varianceOfEstimator = 0.0;
+		double cost = 0.0;
+		for(final LevelStatistics level : levels) {
+			numberOfPathsOfLevels[level.level] = level.numberOfPaths;
+			meansOfLevels[level.level] = level.mean;
+			variancesOfLevels[level.level] = level.getVariance();
+			value += level.mean;
+			varianceOfEstimator += level.getVariance() / level.numberOfPaths;
+			cost += level.numberOfPaths * getCostPerPath(level.level);
+		}
+
+		return new MultilevelMonteCarloResult(value, Math.sqrt(varianceOfEstimator), getBiasEstimate(levels),
+				numberOfPathsOfLevels, meansOfLevels, variancesOfLevels, cost, isConverged);
+	}
+
+	/**
+	 * Returns the number of time steps of the given level, \( n_{0} 2^{l} \).
+	 *
+	 * @param level The level l.
+	 * @return The number of time steps.
+	 */
+	public int getNumberOfTimeSteps(int level) {
+		return numberOfTimeStepsOnCoarsestLevel * (1 << level);
+	}
+
+	/*
+	 * The cost of a path of level l: the number of time steps of the fine and the coarse process.
+	 */
+	private double getCostPerPath(int level) {
+		return level == 0 ? getNumberOfTimeSteps(0) : getNumberOfTimeSteps(level) + getNumberOfTimeSteps(level-1);
+	}
+
+	private long[] getOptimalNumberOfPaths(List<LevelStatistics> levels, double targetRootMeanSquaredError) {
+		double sumOfStandardDeviationTimesCost = 0.0;
+		for(final LevelStatistics level : levels) {
+			sumOfStandardDeviationTimesCost += Math.sqrt(level.getVariance() * getCostPerPath(level.level));
+		}
+
+		final long[] optimalNumberOfPaths = new long[levels.size()];
+		for(final LevelStatistics level : levels) {
+			optimalNumberOfPaths[level.level] = (long)Math.ceil(2.0 / (targetRootMeanSquaredError * targetRootMeanSquaredError)
+					* Math.sqrt(level.getVariance() / getCostPerPath(level.level)) * sumOfStandardDeviationTimesCost);
+		}
+		return optimalNumberOfPaths;
+	}
+
+	/*
+	 * Estimate of the bias of the finest level from the two finest corrections (assuming E(P_l - P_{l-1}) ~ 2^{-alpha l}).
+	 */
+	private double getBiasEstimate(List<LevelStatistics> levels) {
+		final int finestLevel = levels.size()-1;
+		final double refinement = Math.pow(refinementFactor, weakOrder);
+		return Math.max(
+				Math.abs(levels.get(finestLevel).mean),
+				Math.abs(levels.get(finestLevel-1).mean) / refinement) / (refinement - 1.0);
+	}
+
+	/*
+	 * Simulates the given number of (additional) paths on the level (in batches) and merges their statistics.
+	 */
+	private void addPaths(LevelStatistics level, long numberOfPaths) throws CalculationException {
+		long numberOfPathsRemaining = numberOfPaths;
+		while(numberOfPathsRemaining > 0) {
+			final int numberOfPathsOfBatch = (int)Math.max(Math.min(maximumNumberOfPathsPerBatch, numberOfPathsRemaining), 2);
+			final RandomVariable corrections = getCorrections(level.level, numberOfPathsOfBatch, getSeedOfBatch(level.level, level.numberOfBatches));
+			level.add(corrections, numberOfPathsOfBatch);
+			numberOfPathsRemaining -= numberOfPathsOfBatch;
+		}
+	}
+
+	/*
+	 * The samples of P_l - P_{l-1} (or P_0 for level 0) using a new Brownian motion with the given seed.
+	 */
+	private RandomVariable getCorrections(int level, int numberOfPaths, int seedOfBatch) throws CalculationException {
+		final int numberOfTimeSteps = getNumberOfTimeSteps(level);
+		final TimeDiscretization timeDiscretization = new TimeDiscretizationFromArray(0.0, numberOfTimeSteps, maturity / numberOfTimeSteps);
+		final BrownianMotion brownianMotion = new BrownianMotionFromMersenneRandomNumbers(timeDiscretization, numberOfFactors, numberOfPaths, seedOfBatch);
+
+		final RandomVariable valueOnFineLevel = functional.getValue(new EulerSchemeFromProcessModel(model, brownianMotion, scheme));
+		if(level == 0) {
+			return valueOnFineLevel;
+		}
+
+		final int numberOfTimeStepsCoarse = getNumberOfTimeSteps(level-1);
+		final TimeDiscretization timeDiscretizationCoarse = new TimeDiscretizationFromArray(0.0, numberOfTimeStepsCoarse, maturity / numberOfTimeStepsCoarse);
+		final BrownianMotion brownianMotionCoarse = new BrownianMotionFromFinerTimeDiscretization(brownianMotion, timeDiscretizationCoarse, refinementFactor);
+
+		final RandomVariable valueOnCoarseLevel = functional.getValue(new EulerSchemeFromProcessModel(model, brownianMotionCoarse, scheme));
+		return valueOnFineLevel.sub(valueOnCoarseLevel);
+	}
+
+	private int getSeedOfBatch(int level, int batchIndex) {
+		// Mix seed, level and batch index (finalizer of SplitMix64)
+		long z = seed + 0x9E3779B97F4A7C15L * (1 + level * 65536L + batchIndex);
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return (int)(z ^ (z >>> 31));
+	}
+
+	@Override
+	public String toString() {
+		return "MultilevelMonteCarloEstimator [maturity=" + maturity + ", numberOfTimeStepsOnCoarsestLevel="
+				+ numberOfTimeStepsOnCoarsestLevel + ", scheme=" + scheme + ", seed=" + seed + ", maximumLevel=" + maximumLevel + "]";
+	}
+
+	/**
+	 * The running statistics (number of paths, mean and sum of squared deviations) of the corrections of a level.
+	 */
+	private static final class LevelStatistics {
+		private final int level;
+		private long numberOfPaths;
+		private int numberOfBatches;
+		private double mean;
+		private double sumOfSquaredDeviations;
+
+		LevelStatistics(int level) {
+			this.level = level;
+		}
+
+		/*
+		 * Merges the statistics of a batch (Chan et al.: pairwise update of mean and sum of squared deviations).
+		 */
+		void add(RandomVariable samples, long numberOfSamples) {
+			final double meanOfBatch = samples.getAverage();
+			final double sumOfSquaredDeviationsOfBatch = samples.sub(meanOfBatch).squared().getAverage() * numberOfSamples;
+
+			final long numberOfPathsNew = numberOfPaths + numberOfSamples;
+			final double delta = meanOfBatch - mean;
+			mean += delta * numberOfSamples / numberOfPathsNew;
+			sumOfSquaredDeviations += sumOfSquaredDeviationsOfBatch + delta * delta * numberOfPaths * numberOfSamples / numberOfPathsNew;
+			numberOfPaths = numberOfPathsNew;
+			numberOfBatches++;
+		}
+
+		double getVariance() {
+			return sumOfSquaredDeviations / (numberOfPaths - 1);
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.multilevel;
+
+import net.finmath.exception.CalculationException;
+import net.finmath.montecarlo.assetderivativevaluation.MonteCarloAssetModel;
+import net.finmath.montecarlo.assetderivativevaluation.models.BlackScholesModel;
+import net.finmath.montecarlo.process.EulerSchemeFromProcessModel.Scheme;
+import net.finmath.stochastic.RandomVariable;
+import net.finmath.time.TimeDiscretization;
+
+/**
+ * Valuation of an Asian option on the continuous average \( \frac{1}{T} \int_{0}^{T} S(t) dt \) in the Black-Scholes model using
+ * multilevel Monte-Carlo for different targets of the root mean squared error.
+ * The average is approximated by the trapezoidal rule on the time discretization of the level.
+ *
+ * The cost (number of simulated time steps) is compared to a standard Monte-Carlo simulation on the finest level with the same standard error.
+ *
+ * @author Christian Fries
+ */
+public class MultilevelMonteCarloExperiment {
+
+	public static void main(String[] args) throws CalculationException {
+		final double initialValue = 100.0;
+		final double riskFreeRate = 0.05;
+		final double volatility = 0.20;
+
+		final double maturity = 1.0;
+		final double strike = 100.0;
+
+		final PathFunctional asianOption = process -> {
+			final MonteCarloAssetModel model = new MonteCarloAssetModel(process);
+			final TimeDiscretization timeDiscretization = process.getTimeDiscretization();
+			RandomVariable integral = model.getRandomVariableForConstant(0.0);
+			for(int timeIndex=0; timeIndex<timeDiscretization.getNumberOfTimeSteps(); timeIndex++) {
+				final RandomVariable valueMidPoint = model.getAssetValue(timeIndex, 0).add(model.getAssetValue(timeIndex+1, 0)).div(2.0);
+				integral = integral.addProduct(valueMidPoint, timeDiscretization.getTimeStep(timeIndex));
+			}
+			return integral.div(maturity).sub(strike).floor(0.0).mult(Math.exp(-riskFreeRate * maturity));
+		};
+
+		final MultilevelMonteCarloEstimator estimator = new MultilevelMonteCarloEstimator(
+				new BlackScholesModel(initialValue, riskFreeRate, volatility), Scheme.EULER, maturity, 1, 1, asianOption, 3141);
+
+		System.out.println(String.format("%8s  %12s  %10s  %6s  %12s  %12s", "epsilon", "value", "std.error", "levels", "cost MLMC", "cost MC"));
+		for(final double targetRootMeanSquaredError : new double[] { 0.04, 0.02, 0.01, 0.005 }) {
+			final MultilevelMonteCarloResult result = estimator.getValue(targetRootMeanSquaredError);
+
+			// A standard Monte-Carlo simulation on the finest level requires V_0 / (standard error)^2 paths
+			final int finestLevel = result.getNumberOfLevels()-1;
+			final double costStandardMonteCarlo = result.getVariancesOfLevels()[0] / Math.pow(result.getStandardError(), 2) * estimator.getNumberOfTimeSteps(finestLevel);
+
+			System.out.println(String.format("%8.4f  %12.6f  %10.6f  %6d  %12.4e  %12.4e",
+					targetRootMeanSquaredError, result.getValue(), result.getStandardError(), result.getNumberOfLevels(), result.getCost(), costStandardMonteCarlo));
+		}
+	}
+}
@@ -0,0 +1,123 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.multilevel;
+
+import java.util.Arrays;
+
+/**
+ * The result of a multilevel Monte-Carlo estimation: the value together with the statistics of the levels.
+ *
+ * @author Christian Fries
+ */
+public class MultilevelMonteCarloResult {
+
+	private final double value;
+	private final double standardError;
+	private final double biasEstimate;
+	private final long[] numberOfPathsOfLevels;
+	private final double[] meansOfLevels;
+	private final double[] variancesOfLevels;
+	private final double cost;
+	private final boolean isConverged;
+
+	/**
+	 * Create the result of a multilevel Monte-Carlo estimation.
+	 *
+	 * @param value The estimate \( \sum_{l} \bar{Y}_{l} \).
+	 * @param standardError The standard error of the estimate, \( \sqrt{ \sum_{l} V_{l} / N_{l} } \).
+	 * @param biasEstimate The estimate of the (absolute) discretization bias of the finest level.
+	 * @param numberOfPathsOfLevels The number of paths \( N_{l} \) used on each level.
+	 * @param meansOfLevels The means \( \bar{Y}_{l} \) of the corrections of each level.
+	 * @param variancesOfLevels The variances \( V_{l} \) of the corrections of each level.
+	 * @param cost The total cost, measured in the number of time steps simulated (summed over all paths).
+	 * @param isConverged True, if the bias estimate met the target (otherwise the maximum level has been reached).
+	 */
+	public MultilevelMonteCarloResult(double value, double standardError, double biasEstimate, long[] numberOfPathsOfLevels,
+			double[] meansOfLevels, double[] variancesOfLevels, double cost, boolean isConverged) {
+		super();
+		this.value = value;
+		this.standardError = standardError;
+		this.biasEstimate = biasEstimate;
+		this.numberOfPathsOfLevels = numberOfPathsOfLevels;
+		this.meansOfLevels = meansOfLevels;
+		this.variancesOfLevels = variancesOfLevels;
+		this.cost = cost;
+		this.isConverged = isConverged;
+	}
+
+	/**
+	 * @return The estimate of the expectation on the finest level.
+	 */
+	public double getValue() {
+		return value;
+	}
+
+	/**
+	 * @return The standard error of the estimate.
+	 */
+	public double getStandardError() {
+		return standardError;
+	}
+
+	/**
+	 * @return The estimate of the discretization bias of the finest level.
+	 */
+	public double getBiasEstimate() {
+		return biasEstimate;
+	}
+
+	/**
+	 * @return The estimate of the root mean squared error, \( \sqrt{ \mathrm{standardError}^{2} + \mathrm{bias}^{2} } \).
+	 */
+	public double getRootMeanSquaredError() {
+		return Math.sqrt(standardError * standardError + biasEstimate * biasEstimate);
+	}
+
+	/**
+	 * @return The number of levels (the finest level is getNumberOfLevels()-1).
+	 */
+	public int getNumberOfLevels() {
+		return numberOfPathsOfLevels.length;
+	}
+
+	/**
+	 * @return The number of paths used on each level.
+	 */
+	public long[] getNumberOfPathsOfLevels() {
+		return numberOfPathsOfLevels.clone();
+	}
+
+	/**
+	 * @return The means of the corrections \( P_{l} - P_{l-1} \) of each level.
+	 */
+	public double[] getMeansOfLevels() {
+		return meansOfLevels.clone();
+	}
+
+	/**
+	 * @return The variances of the corrections \( P_{l} - P_{l-1} \) of each level.
+	 */
+	public double[] getVariancesOfLevels() {
+		return variancesOfLevels.clone();
+	}
+
+	/**
+	 * @return The total cost, measured in the number of time steps simulated (summed over all paths).
+	 */
+	public double getCost() {
+		return cost;
+	}
+
+	/**
+	 * @return True, if the bias estimate met the target (otherwise the maximum level has been reached).
+	 */
+	public boolean isConverged() {
+		return isConverged;
+	}
+
+	@Override
+	public String toString() {
+		return "MultilevelMonteCarloResult [value=" + value + ", standardError=" + standardError + ", biasEstimate="
+				+ biasEstimate + ", numberOfPathsOfLevels=" + Arrays.toString(numberOfPathsOfLevels)
+				+ ", variancesOfLevels=" + Arrays.toString(variancesOfLevels) + ", cost=" + cost
+				+ ", isConverged=" + isConverged + "]";
+	}
+}
@@ -0,0 +1,36 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.multilevel;
+
+import net.finmath.exception.CalculationException;
+import net.finmath.montecarlo.assetderivativevaluation.MonteCarloAssetModel;
+import net.finmath.montecarlo.assetderivativevaluation.products.AssetMonteCarloProduct;
+import net.finmath.montecarlo.process.MonteCarloProcess;
+import net.finmath.stochastic.RandomVariable;
+
+/**
+ * A functional of the paths of a process, e.g. the (discounted) payoff of a product, returning one value per path.
+ *
+ * @author Christian Fries
+ */
+@FunctionalInterface
+public interface PathFunctional {
+
+	/**
+	 * Evaluate the functional on the paths of the given process.
+	 *
+	 * @param process The process (a discretization of an SDE).
+	 * @return The value of the functional for each path.
+	 * @throws CalculationException Thrown if the valuation fails.
+	 */
+	RandomVariable getValue(MonteCarloProcess process) throws CalculationException;
+
+	/**
+	 * Create the functional given by the valuation of a product in a <code>MonteCarloAssetModel</code> using the given process.
+	 *
+	 * @param product The product.
+	 * @param evaluationTime The evaluation time.
+	 * @return The functional mapping a process to the (path-wise) value of the product.
+	 */
+	static PathFunctional of(AssetMonteCarloProduct product, double evaluationTime) {
+		return process -> product.getValue(evaluationTime, new MonteCarloAssetModel(process));
+	}
+}
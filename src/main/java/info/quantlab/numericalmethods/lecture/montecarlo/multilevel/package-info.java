@@ -0,0 +1,5 @@
+/**
+ * Classes related to Monte-Carlo simulation: multilevel Monte-Carlo (MLMC) estimators, coupling the Euler scheme
+ * on a sequence of time discretizations.
+ */
+package info.quantlab.numericalmethods.lecture.montecarlo.multilevel;
@@ -0,0 +1,79 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.paths;
+
+import org.apache.commons.lang3.Validate;
+
+import net.finmath.montecarlo.RandomVariableFromDoubleArray;
+import net.finmath.stochastic.RandomVariable;
+import net.finmath.time.TimeDiscretization;
+
+/**
+ * Base class of a <code>PathAccumulator</code> storing one value per path.
+ *
+ * @author Christian Fries
+ */
+public abstract class AbstractPathAccumulator implements PathAccumulator {
+
+	private TimeDiscretization timeDiscretization;
+	private double[] values;
+
+	@Override
+	public void initialize(TimeDiscretization timeDiscretization, int numberOfPaths) {
+		this.timeDiscretization = timeDiscretization;
+		this.values = new double[numberOfPaths];
+	}
+
+	@Override
+	public RandomVariable getValue() {
+		Validate.validState(values != null, "The accumulator has not been initialized.");
+		return new RandomVariableFromDoubleArray(timeDiscretization.getTime(timeDiscretization.getNumberOfTimeSteps()), values);
+	}
+
+	/**
+	 * @return The time discretization of the simulation.
+	 */
+	protected TimeDiscretization getTimeDiscretization() {
+		return timeDiscretization;
+	}
+
+	/**
+	 * @return The array of the values of the functional, one per path (modified by the updates).
+	 */
+	protected double[] getValues() {
+		return values;
+	}
+
+	/**
+	 * Returns the index of the given time in the time discretization of the simulation.
+	 *
+	 * @param time A time of the time discretization.
+	 * @return The time index.
+	 */
+	protected int getTimeIndex(double time) {
+		final int timeIndex = timeDiscretization.getTimeIndex(time);
+		Validate.isTrue(timeIndex >= 0, "The time %f is not part of the time discretization of the simulation.", time);
+		return timeIndex;
+	}
+
+	/**
+	 * Returns the indicator of the time indices of the given (distinct) times in the time discretization of the simulation.
+	 *
+	 * @param times Distinct times of the time discretization or <code>null</code> for all times \( t_{1}, \ldots, t_{n} \) (excluding \( t_{0} \)).
+	 * @return An array, indexed by the time index, which is true if the time is one of the given times.
+	 */
+	protected boolean[] getIsTimeIndexOfTimes(double[] times) {
+		final boolean[] isTimeIndexOfTimes = new boolean[timeDiscretization.getNumberOfTimes()];
+		if(times == null) {
+			for(int timeIndex=1; timeIndex<isTimeIndexOfTimes.length; timeIndex++) {
+				isTimeIndexOfTimes[timeIndex] = true;
+			}
+		}
+		else {
+			for(final double time : times) {
+				final int timeIndex = getTimeIndex(time);
+				Validate.isTrue(!isTimeIndexOfTimes[timeIndex], "The time %f is given more than once.", time);
+				isTimeIndexOfTimes[timeIndex] = true;
+			}
+		}
+		return isTimeIndexOfTimes;
+	}
+}
@@ -0,0 +1,51 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.paths;
+
+import net.finmath.time.TimeDiscretization;
+
+/**
+ * The arithmetic average \( \frac{1}{m} \sum_{j=1}^{m} S(T_{j}) \) over the given averaging times \( T_{j} \)
+ * (e.g., the underlying of an Asian option).
+ *
+ * @author Christian Fries
+ */
+public class ArithmeticAverageAccumulator extends AbstractPathAccumulator {
+
+	private final double[] averagingTimes;
+	private boolean[] isAveragingTimeIndex;
+	private double weight;
+
+	/**
+	 * Create the accumulator of the average over the given times.
+	 *
+	 * @param averagingTimes The averaging times \( T_{j} \) (must be distinct times of the time discretization of the simulation).
+	 */
+	public ArithmeticAverageAccumulator(double[] averagingTimes) {
+		super();
+		this.averagingTimes = averagingTimes.clone();
+	}
+
+	/**
+	 * Create the accumulator of the average over all times \( t_{1}, \ldots, t_{n} \) of the simulation (excluding \( t_{0} \)).
+	 */
+	public ArithmeticAverageAccumulator() {
+		super();
+		this.averagingTimes = null;
+	}
+
+	@Override
+	public void initialize(TimeDiscretization timeDiscretization, int numberOfPaths) {
+		super.initialize(timeDiscretization, numberOfPaths);
+		isAveragingTimeIndex = getIsTimeIndexOfTimes(averagingTimes);
+		weight = 1.0 / (averagingTimes == null ? timeDiscretization.getNumberOfTimeSteps() : averagingTimes.length);
+	}
+
+	@Override
+	public void update(int timeIndex, double[] values, int firstPathIndex, int numberOfPaths) {
+		if(isAveragingTimeIndex[timeIndex]) {
+			final double[] average = getValues();
+			for(int i=0; i<numberOfPaths; i++) {
+				average[firstPathIndex+i] += values[i] * weight;
+			}
+		}
+	}
+}
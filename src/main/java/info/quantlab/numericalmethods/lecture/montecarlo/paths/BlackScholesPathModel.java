@@ -0,0 +1,62 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.paths;
+
+import java.util.Arrays;
+
+/**
+ * The Black-Scholes model \( \mathrm{d}S = r S \mathrm{d}t + \sigma S \mathrm{d}W \) discretized by the log-Euler scheme
+ * \( S(t_{i+1}) = S(t_{i}) \exp( (r - \sigma^{2}/2) \Delta t_{i} + \sigma \sqrt{\Delta t_{i}} Z_{i} ) \) (which is exact).
+ *
+ * @author Christian Fries
+ */
+public class BlackScholesPathModel implements PathModel {
+
+	private final double initialValue;
+	private final double riskFreeRate;
+	private final double volatility;
+
+	/**
+	 * Create the Black-Scholes model.
+	 *
+	 * @param initialValue The initial value S(0).
+	 * @param riskFreeRate The risk free rate r.
+	 * @param volatility The volatility \( \sigma \).
+	 */
+	public BlackScholesPathModel(double initialValue, double riskFreeRate, double volatility) {
+		super();
+		this.initialValue = initialValue;
+		this.riskFreeRate = riskFreeRate;
+		this.volatility = volatility;
+	}
+
+	@Override
+	public int getNumberOfFactors() {
+		return 1;
+	}
+
+	@Override
+	public int getNumberOfStateComponents() {
+		return 1;
+	}
+
+	@Override
+	public void setInitialState(double[][] state, int numberOfPaths) {
+		Arrays.fill(state[0], 0, numberOfPaths, initialValue);
+	}
+
+	@Override
+	public void step(double time, double timeStep, double[][] state, double[][] normals, int numberOfPaths) {
+		final double drift = (riskFreeRate - 0.5 * volatility * volatility) * timeStep;
+		final double diffusion = volatility * Math.sqrt(timeStep);
+
+		final double[] value = state[0];
+		final double[] normal = normals[0];
+		for(int i=0; i<numberOfPaths; i++) {
+			value[i] *= Math.exp(drift + diffusion * normal[i]);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "BlackScholesPathModel [initialValue=" + initialValue + ", riskFreeRate=" + riskFreeRate + ", volatility=" + volatility + "]";
+	}
+}
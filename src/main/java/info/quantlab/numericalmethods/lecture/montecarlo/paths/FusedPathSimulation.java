@@ -0,0 +1,153 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.paths;
+
+import java.util.stream.IntStream;
+
+import org.apache.commons.lang3.Validate;
+
+import info.quantlab.numericalmethods.lecture.randomnumbers.PhiloxRandomNumberGenerator;
+import net.finmath.functions.NormalDistribution;
+import net.finmath.time.TimeDiscretization;
+
+/**
+ * Monte-Carlo simulation of a <code>PathModel</code> in a single (fused) pass: for a block of paths the normal increments are generated,
+ * the state is advanced by one time step and the path functionals (see {@link PathAccumulator}) are updated, then the next time step follows.
+ *
+ * Only the state of the current time of a block of paths is stored, hence the memory requirement is O(number of paths)
+ * (for the results of the accumulators) instead of O(number of paths &times; number of time steps) for a simulation storing the
+ * process and the Brownian increments as one random variable per time. The blocks are simulated in parallel.
+ *
+ * The uniform random number for path j, time step i and factor k is the component \( (k m + i) \) of path j of a counter-based
+ * generator (m being the number of time steps rounded up to an even number), transformed to a normal by the inverse of the cumulative distribution function.
+ * The numbers of two consecutive time steps are generated by one application of the Philox bijection.
+ * Hence the result does not depend on the size of the blocks or the number of threads, and the Brownian motion of factor k does
+ * not depend on the number of factors of the model.
+ *
+ * @author Christian Fries
+ */
+public class FusedPathSimulation {
+
+	private static final int defaultNumberOfPathsPerBlock = 256;
+
+	private final PathModel model;
+	private final TimeDiscretization timeDiscretization;
+	private final int numberOfPaths;
+	private final long seed;
+	private final int numberOfPathsPerBlock;
+
+	/**
+	 * Create the simulation.
+	 *
+	 * @param model The model (the time step of the discretization).
+	 * @param timeDiscretization The time discretization \( t_{0}, \ldots, t_{n} \).
+	 * @param numberOfPaths The number of paths.
+	 * @param seed The seed of the random number generator.
+	 * @param numberOfPathsPerBlock The number of paths simulated together (the unit of work of a task).
+	 */
+	public FusedPathSimulation(PathModel model, TimeDiscretization timeDiscretization, int numberOfPaths, long seed, int numberOfPathsPerBlock) {
+		super();
+		Validate.notNull(model, "Parameter model must not be null.");
+		Validate.notNull(timeDiscretization, "Parameter timeDiscretization must not be null.");
+		Validate.isTrue(numberOfPaths >= 1, "Parameter numberOfPaths must be >= 1.");
+		Validate.isTrue(numberOfPathsPerBlock >= 1, "Parameter numberOfPathsPerBlock must be >= 1.");
+		this.model = model;
+		this.timeDiscretization = timeDiscretization;
+		this.numberOfPaths = numberOfPaths;
+		this.seed = seed;
+		this.numberOfPathsPerBlock = numberOfPathsPerBlock;
+	}
+
+	/**
+	 * Create the simulation.
+	 *
+	 * @param model The model (the time step of the discretization).
+	 * @param timeDiscretization The time discretization \( t_{0}, \ldots, t_{n} \).
+	 * @param numberOfPaths The number of paths.
+	 * @param seed The seed of the random number generator.
+	 */
+	public FusedPathSimulation(PathModel model, TimeDiscretization timeDiscretization, int numberOfPaths, long seed) {
+		this(model, timeDiscretization, numberOfPaths, seed, defaultNumberOfPathsPerBlock);
+	}
+
+	/**
+	 * Simulate the paths, updating the given accumulators with the asset value \( S(t_{i}) \) of each time \( t_{i} \), i = 0, ..., n.
+	 * The results are available from the accumulators, see {@link PathAccumulator#getValue()}.
+	 *
+	 * @param accumulators The path functionals to be calculated.
+	 */
+	public void simulate(PathAccumulator... accumulators) {
+		for(final PathAccumulator accumulator : accumulators) {
+			accumulator.initialize(timeDiscretization, numberOfPaths);
+		}
+
+		final int numberOfBlocks = (numberOfPaths + numberOfPathsPerBlock - 1) / numberOfPathsPerBlock;
+		IntStream.range(0, numberOfBlocks).parallel().forEach(block -> {
+			final int firstPathIndex = block * numberOfPathsPerBlock;
+			simulateBlock(firstPathIndex, Math.min(numberOfPathsPerBlock, numberOfPaths - firstPathIndex), accumulators);
+		});
+	}
+
+	private void simulateBlock(int firstPathIndex, int numberOfPathsOfBlock, PathAccumulator[] accumulators) {
+		final int numberOfFactors = model.getNumberOfFactors();
+		final int numberOfTimeSteps = timeDiscretization.getNumberOfTimeSteps();
+		final int numberOfComponentsPerFactor = numberOfTimeSteps + (numberOfTimeSteps & 1);
+		final int numberOfComponentsPerPath = numberOfFactors * numberOfComponentsPerFactor;
+		final PhiloxRandomNumberGenerator randomNumberGenerator = new PhiloxRandomNumberGenerator(seed, numberOfComponentsPerPath);
+
+		final double[][] state = new double[model.getNumberOfStateComponents()][numberOfPathsOfBlock];
+		final double[][] normals = new double[numberOfFactors][numberOfPathsOfBlock];
+		final double[][] normalsOfNextTimeStep = new double[numberOfFactors][numberOfPathsOfBlock];
+		final double[] uniforms = new double[2];
+		final int[] block = new int[4];
+
+		model.setInitialState(state, numberOfPathsOfBlock);
+		for(final PathAccumulator accumulator : accumulators) {
+			accumulator.update(0, state[0], firstPathIndex, numberOfPathsOfBlock);
+		}
+
+		for(int timeIndex=0; timeIndex<numberOfTimeSteps; timeIndex++) {
+			// The normals of the time steps i and i+1 (for i even)
+			if((timeIndex & 1) == 0) {
+				for(int factor=0; factor<numberOfFactors; factor++) {
+					for(int i=0; i<numberOfPathsOfBlock; i++) {
+						randomNumberGenerator.fill((firstPathIndex + i) * (long)numberOfComponentsPerPath + factor * numberOfComponentsPerFactor + timeIndex, uniforms, 0, 2, block);
+						normals[factor][i] = NormalDistribution.inverseCumulativeDistribution(uniforms[0]);
+						normalsOfNextTimeStep[factor][i] = NormalDistribution.inverseCumulativeDistribution(uniforms[1]);
+					}
+				}
+			}
+
+			model.step(timeDiscretization.getTime(timeIndex), timeDiscretization.getTimeStep(timeIndex), state, (timeIndex & 1) == 0 ? normals : normalsOfNextTimeStep, numberOfPathsOfBlock);
+
+			for(final PathAccumulator accumulator : accumulators) {
+				accumulator.update(timeIndex+1, state[0], firstPathIndex, numberOfPathsOfBlock);
+			}
+		}
+	}
+
+	/**
+	 * @return The model.
+	 */
+	public PathModel getModel() {
+		return model;
+	}
+
+	/**
+	 * @return The time discretization \( t_{0}, \ldots, t_{n} \).
+	 */
+	public TimeDiscretization getTimeDiscretization() {
+		return timeDiscretization;
+	}
+
+	/**
+	 * @return The number of paths.
+	 */
+	public int getNumberOfPaths() {
+		return numberOfPaths;
+	}
+
+	@Override
+	public String toString() {
+		return "FusedPathSimulation [model=" + model + ", numberOfTimeSteps=" + timeDiscretization.getNumberOfTimeSteps()
+		+ ", numberOfPaths=" + numberOfPaths + ", seed=" + seed + ", numberOfPathsPerBlock=" + numberOfPathsPerBlock + "]";
+	}
+}
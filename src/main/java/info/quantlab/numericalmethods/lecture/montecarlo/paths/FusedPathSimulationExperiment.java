@@ -0,0 +1,106 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.paths;
+
+import net.finmath.exception.CalculationException;
+import net.finmath.montecarlo.BrownianMotion;
+import net.finmath.montecarlo.BrownianMotionFromMersenneRandomNumbers;
+import net.finmath.montecarlo.assetderivativevaluation.MonteCarloAssetModel;
+import net.finmath.montecarlo.assetderivativevaluation.models.HestonModel;
+import net.finmath.montecarlo.assetderivativevaluation.models.HestonModel.Scheme;
+import net.finmath.montecarlo.process.EulerSchemeFromProcessModel;
+import net.finmath.stochastic.RandomVariable;
+import net.finmath.stochastic.Scalar;
+import net.finmath.time.TimeDiscretization;
+import net.finmath.time.TimeDiscretizationFromArray;
+
+/**
+ * Compares the simulation of a Heston model (parameters as in the <code>StochasticVolatilityExperiments</code>)
+ * using <code>EulerSchemeFromProcessModel</code>, which stores the process (and the Brownian increments) for all times,
+ * with the single pass <code>FusedPathSimulation</code>, which stores only the path functionals.
+ *
+ * Both calculate the value of a European option, the maximum and the quadratic variation.
+ * Note: the Euler scheme requires about 2 GB of memory (run with -Xmx4G).
+ *
+ * @author Christian Fries
+ */
+public class FusedPathSimulationExperiment {
+
+	// Model properties
+	private static final double initialValue = 1.0;
+	private static final double riskFreeRate = 0.05;
+	private static final double volatility = 0.30;
+	private static final double theta = volatility*volatility;
+	private static final double kappa = 0.0;
+	private static final double xi = 0.15;
+	private static final double rho = 0.0;
+
+	// Process discretization properties
+	private static final int numberOfPaths = 100000;
+	private static final int numberOfTimeSteps = 500;
+	private static final double deltaT = 0.01;
+	private static final int seed = 31415;
+
+	// Product properties
+	private static final double optionMaturity = 5.0;
+	private static final double optionStrike = 1.0;
+
+	public static void main(String[] args) throws CalculationException {
+		final TimeDiscretization timeDiscretization = new TimeDiscretizationFromArray(0.0, numberOfTimeSteps, deltaT);
+		final double discountFactor = Math.exp(-riskFreeRate * optionMaturity);
+
+		final long memoryStart = getUsedMemory();
+
+		/*
+		 * Fused simulation: a single pass over blocks of paths, without storing the paths
+		 */
+		final long timeStartFused = System.currentTimeMillis();
+
+		final FusedPathSimulation fusedSimulation = new FusedPathSimulation(new HestonPathModel(initialValue, riskFreeRate, volatility, theta, kappa, xi, rho),
+				timeDiscretization, numberOfPaths, seed);
+		final ValueAccumulator underlyingFused = new ValueAccumulator(optionMaturity);
+		final MaximumAccumulator maximumFused = new MaximumAccumulator();
+		final QuadraticVariationAccumulator quadraticVariationFused = new QuadraticVariationAccumulator();
+		fusedSimulation.simulate(underlyingFused, maximumFused, quadraticVariationFused);
+		final double valueFused = underlyingFused.getValue().sub(optionStrike).floor(0.0).mult(discountFactor).getAverage();
+
+		final long timeEndFused = System.currentTimeMillis();
+		final long memoryFused = getUsedMemory() - memoryStart;
+
+		/*
+		 * Euler scheme of finmath lib: all times are stored as RandomVariable
+		 */
+		final long timeStartEuler = System.currentTimeMillis();
+
+		final BrownianMotion brownianMotion = new BrownianMotionFromMersenneRandomNumbers(timeDiscretization, 2, numberOfPaths, seed);
+		final MonteCarloAssetModel simulation = new MonteCarloAssetModel(new EulerSchemeFromProcessModel(
+				new HestonModel(initialValue, riskFreeRate, volatility, theta, kappa, xi, rho, Scheme.FULL_TRUNCATION), brownianMotion));
+
+		final RandomVariable underlying = simulation.getAssetValue(optionMaturity, 0);
+		RandomVariable maximum = simulation.getAssetValue(0, 0);
+		RandomVariable quadraticVariation = new Scalar(0.0);
+		for(int timeIndex=0; timeIndex<numberOfTimeSteps; timeIndex++) {
+			maximum = maximum.floor(simulation.getAssetValue(timeIndex+1, 0));
+			quadraticVariation = quadraticVariation.add(simulation.getAssetValue(timeIndex+1, 0).log().sub(simulation.getAssetValue(timeIndex, 0).log()).squared());
+		}
+		final double valueEuler = underlying.sub(optionStrike).floor(0.0).mult(discountFactor).getAverage();
+
+		final long timeEndEuler = System.currentTimeMillis();
+		final long memoryEuler = getUsedMemory() - memoryStart;
+
+		System.out.println(fusedSimulation);
+		System.out.println();
+		System.out.println("                      Euler scheme\tFused simulation");
+		System.out.println("Value of option.....: " + String.format("%12.6f", valueEuler) + "\t" + String.format("%12.6f", valueFused));
+		System.out.println("E(max S)............: " + String.format("%12.6f", maximum.getAverage()) + "\t" + String.format("%12.6f", maximumFused.getValue().getAverage()));
+		System.out.println("E(QV)...............: " + String.format("%12.6f", quadraticVariation.getAverage()) + "\t" + String.format("%12.6f", quadraticVariationFused.getValue().getAverage()));
+		System.out.println("Calculation time....: " + String.format("%10.3f s", (timeEndEuler-timeStartEuler)/1000.0) + "\t" + String.format("%10.3f s", (timeEndFused-timeStartFused)/1000.0));
+		System.out.println("Memory used.........: " + String.format("%9.1f MB", memoryEuler/1E6) + "\t" + String.format("%9.1f MB", memoryFused/1E6));
+	}
+
+	/*
+	 * The memory used by reachable objects (after a garbage collection).
+	 */
+	private static long getUsedMemory() {
+		System.gc();
+		return Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+	}
+}
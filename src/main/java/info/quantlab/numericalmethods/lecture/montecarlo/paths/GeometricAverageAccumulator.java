@@ -0,0 +1,59 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.paths;
+
+import net.finmath.stochastic.RandomVariable;
+import net.finmath.time.TimeDiscretization;
+
+/**
+ * The geometric average \( \left( \prod_{j=1}^{m} S(T_{j}) \right)^{1/m} \) over the given averaging times \( T_{j} \)
+ * (e.g., the underlying of a geometric Asian option, a control variate for the arithmetic one).
+ *
+ * The average of the logarithms is accumulated, the exponential is taken once in {@link #getValue()}.
+ *
+ * @author Christian Fries
+ */
+public class GeometricAverageAccumulator extends AbstractPathAccumulator {
+
+	private final double[] averagingTimes;
+	private boolean[] isAveragingTimeIndex;
+	private double weight;
+
+	/**
+	 * Create the accumulator of the geometric average over the given times.
+	 *
+	 * @param averagingTimes The averaging times \( T_{j} \) (must be distinct times of the time discretization of the simulation).
+	 */
+	public GeometricAverageAccumulator(double[] averagingTimes) {
+		super();
+		this.averagingTimes = averagingTimes.clone();
+	}
+
+	/**
+	 * Create the accumulator of the geometric average over all times \( t_{1}, \ldots, t_{n} \) of the simulation (excluding \( t_{0} \)).
+	 */
+	public GeometricAverageAccumulator() {
+		super();
+		this.averagingTimes = null;
+	}
+
+	@Override
+	public void initialize(TimeDiscretization timeDiscretization, int numberOfPaths) {
+		super.initialize(timeDiscretization, numberOfPaths);
+		isAveragingTimeIndex = getIsTimeIndexOfTimes(averagingTimes);
+		weight = 1.0 / (averagingTimes == null ? timeDiscretization.getNumberOfTimeSteps() : averagingTimes.length);
+	}
+
+	@Override
+	public void update(int timeIndex, double[] values, int firstPathIndex, int numberOfPaths) {
+		if(isAveragingTimeIndex[timeIndex]) {
+			final double[] averageOfLogs = getValues();
+			for(int i=0; i<numberOfPaths; i++) {
+				averageOfLogs[firstPathIndex+i] += Math.log(values[i]) * weight;
+			}
+		}
+	}
+
+	@Override
+	public RandomVariable getValue() {
+		return super.getValue().exp();
+	}
+}
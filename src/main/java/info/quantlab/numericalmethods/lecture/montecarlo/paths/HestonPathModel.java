@@ -0,0 +1,90 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.paths;
+
+import java.util.Arrays;
+
+/**
+ * The Heston model
+ * \[
+ * 	\mathrm{d}S = r S \mathrm{d}t + \sqrt{V} S \mathrm{d}W_{1} , \quad
+ * 	\mathrm{d}V = \kappa (\theta - V) \mathrm{d}t + \xi \sqrt{V} \mathrm{d}W_{2} , \quad
+ * 	\mathrm{d}W_{1} \mathrm{d}W_{2} = \rho \mathrm{d}t ,
+ * \]
+ * discretized by the log-Euler scheme for S and the Euler scheme with full truncation for V (i.e., using \( V^{+} = \max(V,0) \)
+ * in drift and diffusion), as the <code>HestonModel</code> with <code>Scheme.FULL_TRUNCATION</code> of finmath lib.
+ *
+ * The state components are S (component 0) and V (component 1).
+ *
+ * @author Christian Fries
+ */
+public class HestonPathModel implements PathModel {
+
+	private final double initialValue;
+	private final double riskFreeRate;
+	private final double volatility;
+	private final double theta;
+	private final double kappa;
+	private final double xi;
+	private final double rho;
+
+	/**
+	 * Create the Heston model.
+	 *
+	 * @param initialValue The initial value S(0).
+	 * @param riskFreeRate The risk free rate r.
+	 * @param volatility The initial volatility \( \sqrt{V(0)} \).
+	 * @param theta The mean reversion level \( \theta \) of V.
+	 * @param kappa The mean reversion speed \( \kappa \) of V.
+	 * @param xi The volatility of volatility \( \xi \).
+	 * @param rho The correlation \( \rho \) of the Brownian motions.
+	 */
+	public HestonPathModel(double initialValue, double riskFreeRate, double volatility, double theta, double kappa, double xi, double rho) {
+		super();
+		this.initialValue = initialValue;
+		this.riskFreeRate = riskFreeRate;
+		this.volatility = volatility;
+		this.theta = theta;
+		this.kappa = kappa;
+		this.xi = xi;
+		this.rho = rho;
+	}
+
+	@Override
+	public int getNumberOfFactors() {
+		return 2;
+	}
+
+	@Override
+	public int getNumberOfStateComponents() {
+		return 2;
+	}
+
+	@Override
+	public void setInitialState(double[][] state, int numberOfPaths) {
+		Arrays.fill(state[0], 0, numberOfPaths, initialValue);
+		Arrays.fill(state[1], 0, numberOfPaths, volatility * volatility);
+	}
+
+	@Override
+	public void step(double time, double timeStep, double[][] state, double[][] normals, int numberOfPaths) {
+		final double sqrtOfTimeStep = Math.sqrt(timeStep);
+		final double rhoBar = Math.sqrt(1 - rho * rho);
+
+		final double[] value = state[0];
+		final double[] variance = state[1];
+		final double[] normal1 = normals[0];
+		final double[] normal2 = normals[1];
+		for(int i=0; i<numberOfPaths; i++) {
+			final double variancePositive = Math.max(variance[i], 0.0);
+			final double volatilityTimesSqrtOfTimeStep = Math.sqrt(variancePositive) * sqrtOfTimeStep;
+
+			value[i] *= Math.exp((riskFreeRate - 0.5 * variancePositive) * timeStep + volatilityTimesSqrtOfTimeStep * normal1[i]);
+			variance[i] += kappa * (theta - variancePositive) * timeStep + xi * volatilityTimesSqrtOfTimeStep * (rho * normal1[i] + rhoBar * normal2[i]);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "HestonPathModel [initialValue=" + initialValue + ", riskFreeRate=" + riskFreeRate + ", volatility=" + volatility
+				+ ", theta=" + theta + ", kappa=" + kappa + ", xi=" + xi + ", rho=" + rho + "]";
+	}
+}
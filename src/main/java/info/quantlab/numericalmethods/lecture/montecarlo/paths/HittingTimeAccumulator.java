@@ -0,0 +1,50 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.paths;
+
+import java.util.Arrays;
+
+import net.finmath.time.TimeDiscretization;
+
+/**
+ * The first hitting time \( \min \{ t_{i} : S(t_{i}) \ge B \} \) of an upper barrier B, or \( \min \{ t_{i} : S(t_{i}) \le B \} \) of a lower barrier
+ * (e.g., the knock-in or knock-out time of a barrier option), monitored at the times of the time discretization.
+ *
+ * If the barrier is not hit, the value is <code>Double.POSITIVE_INFINITY</code>, such that the indicator of a knock-out at or before T is
+ * the indicator of hittingTime &le; T.
+ *
+ * @author Christian Fries
+ */
+public class HittingTimeAccumulator extends AbstractPathAccumulator {
+
+	private final double barrier;
+	private final boolean isUpperBarrier;
+
+	/**
+	 * Create the accumulator of the first hitting time of a barrier.
+	 *
+	 * @param barrier The barrier B.
+	 * @param isUpperBarrier If true, the barrier is hit if \( S(t_{i}) \ge B \), otherwise if \( S(t_{i}) \le B \).
+	 */
+	public HittingTimeAccumulator(double barrier, boolean isUpperBarrier) {
+		super();
+		this.barrier = barrier;
+		this.isUpperBarrier = isUpperBarrier;
+	}
+
+	@Override
+	public void initialize(TimeDiscretization timeDiscretization, int numberOfPaths) {
+		super.initialize(timeDiscretization, numberOfPaths);
+		Arrays.fill(getValues(), Double.POSITIVE_INFINITY);
+	}
+
+	@Override
+	public void update(int timeIndex, double[] values, int firstPathIndex, int numberOfPaths) {
+		final double[] hittingTime = getValues();
+		final double time = getTimeDiscretization().getTime(timeIndex);
+		for(int i=0; i<numberOfPaths; i++) {
+			final boolean isHit = isUpperBarrier ? values[i] >= barrier : values[i] <= barrier;
+			if(isHit && hittingTime[firstPathIndex+i] == Double.POSITIVE_INFINITY) {
+				hittingTime[firstPathIndex+i] = time;
+			}
+		}
+	}
+}
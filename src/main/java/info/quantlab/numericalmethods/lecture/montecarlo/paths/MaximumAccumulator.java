@@ -0,0 +1,22 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.paths;
+
+/**
+ * The running maximum \( \max_{0 \le i \le n} S(t_{i}) \) (e.g., the underlying of a lookback option).
+ *
+ * @author Christian Fries
+ */
+public class MaximumAccumulator extends AbstractPathAccumulator {
+
+	@Override
+	public void update(int timeIndex, double[] values, int firstPathIndex, int numberOfPaths) {
+		final double[] maximum = getValues();
+		if(timeIndex == 0) {
+			System.arraycopy(values, 0, maximum, firstPathIndex, numberOfPaths);
+		}
+		else {
+			for(int i=0; i<numberOfPaths; i++) {
+				maximum[firstPathIndex+i] = Math.max(maximum[firstPathIndex+i], values[i]);
+			}
+		}
+	}
+}
@@ -0,0 +1,22 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.paths;
+
+/**
+ * The running minimum \( \min_{0 \le i \le n} S(t_{i}) \) (e.g., the underlying of a lookback option).
+ *
+ * @author Christian Fries
+ */
+public class MinimumAccumulator extends AbstractPathAccumulator {
+
+	@Override
+	public void update(int timeIndex, double[] values, int firstPathIndex, int numberOfPaths) {
+		final double[] minimum = getValues();
+		if(timeIndex == 0) {
+			System.arraycopy(values, 0, minimum, firstPathIndex, numberOfPaths);
+		}
+		else {
+			for(int i=0; i<numberOfPaths; i++) {
+				minimum[firstPathIndex+i] = Math.min(minimum[firstPathIndex+i], values[i]);
+			}
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.paths;
+
+import net.finmath.stochastic.RandomVariable;
+import net.finmath.time.TimeDiscretization;
+
+/**
+ * A path functional \( F(S(t_{0}), \ldots, S(t_{n})) \) calculated incrementally, i.e., updated with the values of each time
+ * while the paths are generated, such that the paths need not be stored.
+ *
+ * The accumulator is updated for blocks of paths: for each block the updates are called for the time indices 0, 1, ..., n (in this order).
+ * Updates of different (disjoint) blocks may be called concurrently, hence an implementation must only write the state of the paths of the block.
+ *
+ * @author Christian Fries
+ */
+public interface PathAccumulator {
+
+	/**
+	 * Initialize (or reset) the accumulator for a simulation.
+	 *
+	 * @param timeDiscretization The time discretization \( t_{0}, \ldots, t_{n} \) of the simulation.
+	 * @param numberOfPaths The number of paths of the simulation.
+	 */
+	void initialize(TimeDiscretization timeDiscretization, int numberOfPaths);
+
+	/**
+	 * Update the functional with the values \( S(t_{i}) \) of a block of paths.
+	 *
+	 * @param timeIndex The time index i.
+	 * @param values The values, values[k] being the value of the path firstPathIndex+k.
+	 * @param firstPathIndex The index of the first path of the block.
+	 * @param numberOfPaths The number of paths of the block.
+	 */
+	void update(int timeIndex, double[] values, int firstPathIndex, int numberOfPaths);
+
+	/**
+	 * @return The value of the functional for each path (after all updates).
+	 */
+	RandomVariable getValue();
+}
@@ -0,0 +1,56 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.paths;
+
+import java.util.Arrays;
+
+import net.finmath.exception.CalculationException;
+import net.finmath.montecarlo.assetderivativevaluation.AssetModelMonteCarloSimulationModel;
+import net.finmath.stochastic.RandomVariable;
+import net.finmath.time.TimeDiscretization;
+
+/**
+ * Calculation of path functionals (see {@link PathAccumulator}) from a simulated (stored) process in a single pass over its times.
+ *
+ * For each time the asset value is requested once from the model and all accumulators are updated with its realizations
+ * (the accumulators in parallel), hence no intermediate random variables are created (compared to an expression like
+ * <code>getAssetValue(i+1).log().sub(getAssetValue(i).log()).squared()</code> for each time step).
+ *
+ * @author Christian Fries
+ */
+public class PathAccumulators {
+
+	private PathAccumulators() {
+	}
+
+	/**
+	 * Update the given accumulators with the asset values \( S(t_{i}) \) of the model for all times \( t_{i} \) of its time discretization.
+	 * The results are available from the accumulators, see {@link PathAccumulator#getValue()}.
+	 *
+	 * @param model The Monte-Carlo model.
+	 * @param assetIndex The index of the asset S.
+	 * @param accumulators The path functionals to be calculated.
+	 * @throws CalculationException Thrown if the model fails to provide the asset values.
+	 */
+	public static void accumulate(AssetModelMonteCarloSimulationModel model, int assetIndex, PathAccumulator... accumulators) throws CalculationException {
+		final TimeDiscretization timeDiscretization = model.getTimeDiscretization();
+		final int numberOfPaths = model.getNumberOfPaths();
+		for(final PathAccumulator accumulator : accumulators) {
+			accumulator.initialize(timeDiscretization, numberOfPaths);
+		}
+
+		for(int timeIndex=0; timeIndex<timeDiscretization.getNumberOfTimes(); timeIndex++) {
+			final RandomVariable value = model.getAssetValue(timeIndex, assetIndex);
+			final double[] values;
+			if(value.isDeterministic()) {
+				// E.g. the initial value
+				values = new double[numberOfPaths];
+				Arrays.fill(values, value.doubleValue());
+			}
+			else {
+				values = value.getRealizations();
+			}
+
+			final int timeIndexOfValues = timeIndex;
+			Arrays.stream(accumulators).parallel().forEach(accumulator -> accumulator.update(timeIndexOfValues, values, 0, numberOfPaths));
+		}
+	}
+}
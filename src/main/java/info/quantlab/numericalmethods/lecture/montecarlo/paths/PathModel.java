@@ -0,0 +1,41 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.paths;
+
+/**
+ * The time step of the discretization of an SDE, applied to a block of paths at once.
+ *
+ * The state of the paths is an array <code>state[component][pathIndex]</code>, where component 0 is the value of the asset S.
+ * The state of a block of paths is advanced in place, such that the simulation requires memory only for the current time.
+ *
+ * @author Christian Fries
+ */
+public interface PathModel {
+
+	/**
+	 * @return The number of factors of the Brownian motion driving the model.
+	 */
+	int getNumberOfFactors();
+
+	/**
+	 * @return The number of components of the state (component 0 being the asset value).
+	 */
+	int getNumberOfStateComponents();
+
+	/**
+	 * Set the state of the given number of paths to the initial state \( X(t_{0}) \).
+	 *
+	 * @param state The state, state[component][pathIndex].
+	 * @param numberOfPaths The number of paths (the first numberOfPaths elements of each component are set).
+	 */
+	void setInitialState(double[][] state, int numberOfPaths);
+
+	/**
+	 * Advance the state of the given number of paths from time \( t_{i} \) to \( t_{i+1} = t_{i} + \Delta t_{i} \).
+	 *
+	 * @param time The time \( t_{i} \).
+	 * @param timeStep The time step \( \Delta t_{i} \).
+	 * @param state The state, state[component][pathIndex], replaced by the state at time \( t_{i+1} \).
+	 * @param normals The independent standard normal increments, normals[factor][pathIndex] (the Brownian increment being \( \sqrt{\Delta t_{i}} Z \)).
+	 * @param numberOfPaths The number of paths.
+	 */
+	void step(double time, double timeStep, double[][] state, double[][] normals, int numberOfPaths);
+}
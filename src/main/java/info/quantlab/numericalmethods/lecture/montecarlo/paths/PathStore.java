@@ -0,0 +1,226 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.paths;
+
+import java.util.function.DoubleUnaryOperator;
+import java.util.stream.IntStream;
+
+import org.apache.commons.lang3.Validate;
+
+import net.finmath.montecarlo.RandomVariableFromDoubleArray;
+import net.finmath.stochastic.RandomVariable;
+import net.finmath.time.TimeDiscretization;
+
+/**
+ * A store of the sample paths \( X(t_{i},\omega_{j}) \) of a process on a time discretization \( t_{0}, \ldots, t_{m} \),
+ * for paths \( \omega_{0}, \ldots, \omega_{n-1} \).
+ *
+ * The values are stored by time: for each time index i the values of all paths are one contiguous <code>double[]</code>.
+ * Hence the random variable \( X(t_{i}) \) is a view on this array, created in O(1) without copying
+ * (see {@link #getRandomVariable(int)}), and a loop over the paths (the typical loop of a Monte-Carlo simulation)
+ * accesses the memory sequentially. A single path is available as a view (see {@link #getPath(int)}).
+ *
+ * The store may be filled in parallel, where each task fills a block of paths, see {@link #fill(PathBlockGenerator, int)}.
+ *
+ * Note: the arrays are not copied, the random variables returned by this object reflect later modifications of the store.
+ *
+ * @author Christian Fries
+ */
+public class PathStore {
+
+	/**
+	 * A function generating the values of a block of paths.
+	 */
+	@FunctionalInterface
+	public interface PathBlockGenerator {
+
+		/**
+		 * Generate the values of the paths <code>firstPathIndex</code>, ..., <code>firstPathIndex+numberOfPaths-1</code>
+		 * for all times, writing them to <code>valuesByTime[timeIndex][pathIndex]</code>.
+		 *
+		 * The method is called concurrently for disjoint blocks of paths, it must only write the values of its block.
+		 *
+		 * @param valuesByTime The values of the store, valuesByTime[i][j] being the value of path j at time index i.
+		 * @param firstPathIndex The index of the first path of the block.
+		 * @param numberOfPaths The number of paths of the block.
+		 */
+		void generate(double[][] valuesByTime, int firstPathIndex, int numberOfPaths);
+	}
+
+	private final TimeDiscretization timeDiscretization;
+	private final int numberOfPaths;
+
+	// valuesByTime[timeIndex][pathIndex]
+	private final double[][] valuesByTime;
+
+	/**
+	 * Create a path store (initialized with 0).
+	 *
+	 * @param timeDiscretization The time discretization \( t_{0}, \ldots, t_{m} \).
+	 * @param numberOfPaths The number of paths n.
+	 */
+	public PathStore(TimeDiscretization timeDiscretization, int numberOfPaths) {
+		super();
+		Validate.notNull(timeDiscretization, "Parameter timeDiscretization must not be null.");
+		Validate.isTrue(numberOfPaths >= 1, "Parameter numberOfPaths must be >= 1.");
+		this.timeDiscretization = timeDiscretization;
+		this.numberOfPaths = numberOfPaths;
+		valuesByTime = new double[timeDiscretization.getNumberOfTimes()][numberOfPaths];
+	}
+
+	/**
+	 * Fill the store in parallel, one block of paths per task.
+	 *
+	 * If the generator uses random numbers which are a function of the path index (e.g. from a counter-based generator
+	 * or a generator positioned by jump-ahead at the first path of the block), the result does not depend on the number of threads.
+	 *
+	 * @param generator The generator of the values of a block of paths.
+	 * @param numberOfPathsPerBlock The number of paths per block (the unit of work of a task).
+	 * @return This object.
+	 */
+	public PathStore fill(PathBlockGenerator generator, int numberOfPathsPerBlock) {
+		Validate.isTrue(numberOfPathsPerBlock >= 1, "Parameter numberOfPathsPerBlock must be >= 1.");
+		final int numberOfBlocks = (numberOfPaths + numberOfPathsPerBlock - 1) / numberOfPathsPerBlock;
+		IntStream.range(0, numberOfBlocks).parallel().forEach(block -> {
+			final int firstPathIndex = block * numberOfPathsPerBlock;
+			generator.generate(valuesByTime, firstPathIndex, Math.min(numberOfPathsPerBlock, numberOfPaths - firstPathIndex));
+		});
+		return this;
+	}
+
+	/**
+	 * Returns the random variable \( X(t_{i}) \) (a view on the values of the store, created without copying).
+	 *
+	 * @param timeIndex The time index i.
+	 * @return The random variable \( X(t_{i}) \).
+	 */
+	public RandomVariable getRandomVariable(int timeIndex) {
+		return new RandomVariableFromDoubleArray(timeDiscretization.getTime(timeIndex), valuesByTime[timeIndex]);
+	}
+
+	/**
+	 * Returns the random variable \( X(t_{i}) \), where \( t_{i} \) is the largest time of the time discretization
+	 * less or equal to the given time (i.e., the path is interpreted as piecewise constant, right continuous).
+	 *
+	 * @param time The time t (must be &ge; \( t_{0} \)).
+	 * @return The random variable \( X(t_{i}) \), \( t_{i} \le t &lt; t_{i+1} \).
+	 */
+	public RandomVariable getRandomVariable(double time) {
+		return getRandomVariable(getTimeIndexLessOrEqual(time));
+	}
+
+	/**
+	 * Returns the array of the values of all paths at the given time index (not a copy, i.e., a modification of the array modifies the store).
+	 *
+	 * @param timeIndex The time index i.
+	 * @return The array of the values \( X(t_{i},\omega_{j}) \), j = 0, ..., n-1.
+	 */
+	public double[] getValues(int timeIndex) {
+		return valuesByTime[timeIndex];
+	}
+
+	/**
+	 * @param timeIndex The time index i.
+	 * @param pathIndex The path index j.
+	 * @return The value \( X(t_{i},\omega_{j}) \).
+	 */
+	public double getValue(int timeIndex, int pathIndex) {
+		return valuesByTime[timeIndex][pathIndex];
+	}
+
+	/**
+	 * @param timeIndex The time index i.
+	 * @param pathIndex The path index j.
+	 * @param value The value \( X(t_{i},\omega_{j}) \).
+	 */
+	public void setValue(int timeIndex, int pathIndex, double value) {
+		valuesByTime[timeIndex][pathIndex] = value;
+	}
+
+	/**
+	 * Returns a view on the path \( \omega_{j} \) (created without copying).
+	 *
+	 * @param pathIndex The path index j.
+	 * @return The path \( t_{i} \mapsto X(t_{i},\omega_{j}) \).
+	 */
+	public Path getPath(int pathIndex) {
+		Validate.isTrue(pathIndex >= 0 && pathIndex < numberOfPaths, "Parameter pathIndex out of range.");
+		return new Path(pathIndex);
+	}
+
+	/**
+	 * @return The time discretization \( t_{0}, \ldots, t_{m} \).
+	 */
+	public TimeDiscretization getTimeDiscretization() {
+		return timeDiscretization;
+	}
+
+	/**
+	 * @return The number of paths n.
+	 */
+	public int getNumberOfPaths() {
+		return numberOfPaths;
+	}
+
+	@Override
+	public String toString() {
+		return "PathStore [numberOfTimes=" + timeDiscretization.getNumberOfTimes() + ", numberOfPaths=" + numberOfPaths + "]";
+	}
+
+	private int getTimeIndexLessOrEqual(double time) {
+		final int timeIndex = timeDiscretization.getTimeIndexNearestLessOrEqual(time);
+		Validate.isTrue(timeIndex >= 0, "The time must be >= the first time of the time discretization.");
+		return timeIndex;
+	}
+
+	/**
+	 * A view on a single path \( t_{i} \mapsto X(t_{i},\omega_{j}) \) of the store.
+	 *
+	 * As a <code>DoubleUnaryOperator</code> the path is the piecewise constant (right continuous) function
+	 * \( t \mapsto X(t_{i},\omega_{j}) \), \( t_{i} \le t &lt; t_{i+1} \).
+	 */
+	public final class Path implements DoubleUnaryOperator {
+
+		private final int pathIndex;
+
+		private Path(int pathIndex) {
+			this.pathIndex = pathIndex;
+		}
+
+		/**
+		 * @param timeIndex The time index i.
+		 * @return The value \( X(t_{i},\omega_{j}) \).
+		 */
+		public double getValue(int timeIndex) {
+			return valuesByTime[timeIndex][pathIndex];
+		}
+
+		@Override
+		public double applyAsDouble(double time) {
+			return valuesByTime[getTimeIndexLessOrEqual(time)][pathIndex];
+		}
+
+		/**
+		 * @return The path index j.
+		 */
+		public int getPathIndex() {
+			return pathIndex;
+		}
+
+		/**
+		 * @return The number of times m+1.
+		 */
+		public int getNumberOfTimes() {
+			return valuesByTime.length;
+		}
+
+		/**
+		 * @return A copy of the values of the path.
+		 */
+		public double[] toArray() {
+			final double[] values = new double[valuesByTime.length];
+			for(int timeIndex=0; timeIndex<values.length; timeIndex++) {
+				values[timeIndex] = valuesByTime[timeIndex][pathIndex];
+			}
+			return values;
+		}
+	}
+}
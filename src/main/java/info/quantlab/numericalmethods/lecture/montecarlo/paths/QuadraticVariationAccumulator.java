@@ -0,0 +1,34 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.paths;
+
+import net.finmath.time.TimeDiscretization;
+
+/**
+ * The (realized) quadratic variation of the logarithm \( \sum_{i=0}^{n-1} ( \log(S(t_{i+1})) - \log(S(t_{i})) )^{2} \).
+ *
+ * The logarithm of the previous time is kept per path, such that each value is transformed only once.
+ *
+ * @author Christian Fries
+ */
+public class QuadraticVariationAccumulator extends AbstractPathAccumulator {
+
+	private double[] previousLogValues;
+
+	@Override
+	public void initialize(TimeDiscretization timeDiscretization, int numberOfPaths) {
+		super.initialize(timeDiscretization, numberOfPaths);
+		previousLogValues = new double[numberOfPaths];
+	}
+
+	@Override
+	public void update(int timeIndex, double[] values, int firstPathIndex, int numberOfPaths) {
+		final double[] quadraticVariation = getValues();
+		for(int i=0; i<numberOfPaths; i++) {
+			final double logValue = Math.log(values[i]);
+			if(timeIndex > 0) {
+				final double increment = logValue - previousLogValues[firstPathIndex+i];
+				quadraticVariation[firstPathIndex+i] += increment * increment;
+			}
+			previousLogValues[firstPathIndex+i] = logValue;
+		}
+	}
+}
@@ -0,0 +1,37 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.paths;
+
+import net.finmath.time.TimeDiscretization;
+
+/**
+ * The value \( S(t_{i}) \) at a given time \( t_{i} \) (e.g., the maturity of a European option).
+ *
+ * @author Christian Fries
+ */
+public class ValueAccumulator extends AbstractPathAccumulator {
+
+	private final double time;
+	private int timeIndex;
+
+	/**
+	 * Create the accumulator of the value at the given time.
+	 *
+	 * @param time The time \( t_{i} \) (must be a time of the time discretization of the simulation).
+	 */
+	public ValueAccumulator(double time) {
+		super();
+		this.time = time;
+	}
+
+	@Override
+	public void initialize(TimeDiscretization timeDiscretization, int numberOfPaths) {
+		super.initialize(timeDiscretization, numberOfPaths);
+		timeIndex = getTimeIndex(time);
+	}
+
+	@Override
+	public void update(int timeIndex, double[] values, int firstPathIndex, int numberOfPaths) {
+		if(timeIndex == this.timeIndex) {
+			System.arraycopy(values, 0, getValues(), firstPathIndex, numberOfPaths);
+		}
+	}
+}
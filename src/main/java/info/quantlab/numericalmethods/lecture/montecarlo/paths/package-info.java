@@ -0,0 +1,4 @@
+/**
+ * Classes related to the storage and the (fused, single pass) simulation of Monte-Carlo sample paths.
+ */
+package info.quantlab.numericalmethods.lecture.montecarlo.paths;
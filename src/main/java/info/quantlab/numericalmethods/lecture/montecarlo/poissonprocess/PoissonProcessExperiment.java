@@ -1,11 +1,7 @@
 package info.quantlab.numericalmethods.lecture.montecarlo.poissonprocess;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
-import info.quantlab.numericalmethods.lecture.randomnumbers.MersenneTwister;
-import info.quantlab.numericalmethods.lecture.randomnumbers.RandomNumberGenerator1D;
-import net.finmath.montecarlo.RandomVariableFromDoubleArray;
 import net.finmath.plots.DoubleToRandomVariableFunction;
 import net.finmath.plots.PlotProcess2D;
 import net.finmath.time.TimeDiscretization;
@@ -28,47 +24,21 @@ public class PoissonProcessExperiment {
 		final double maturity = 10.0;
 		final double lambda = 1.0;
 
-		final RandomNumberGenerator1D randomNumberGenerator = new MersenneTwister(3141);
 		/*
-		 * Part 1: Generate array (paths) containing the list of jump times<maturity.
-		 * List of List: Inner list: the jump times. Outer list: the samples (paths).
+		 * Part 1: Generate the jump times<maturity of all paths.
+		 * The jump times are stored in a single array, the jump times of a path being a contiguous range.
 		 */
-		final List<List<Double>> jumpTimesPaths = new ArrayList<>();
-		for(int pathIndex = 0; pathIndex<numberOfPaths; pathIndex++) {
-			final List<Double> jumpTimes = new ArrayList<>();
+		final PoissonProcessSimulation simulation = new PoissonProcessSimulation(lambda, maturity, numberOfPaths, 3141);
 
-			double nextJumpTime = 0;			// T_0
-			while(nextJumpTime < maturity) {
-
-				// Sample exponential distributed timeStep
-				final double uniform = randomNumberGenerator.nextDouble();
-				final double timeStep = - Math.log(uniform) / lambda;
-
-				nextJumpTime += timeStep;
-				if(nextJumpTime <= maturity) {
-					jumpTimes.add(nextJumpTime);
-				}
-
-				System.out.print(nextJumpTime + ", ");
-			}
-			jumpTimesPaths.add(jumpTimes);
-
-			System.out.println();
-		}
+		System.out.println(simulation);
+		System.out.println("Jump times of path 0: " + Arrays.toString(simulation.getJumpTimes(0)));
 
 		/*
 		 * Part 2: Generate the function t -> M(t) = N(t) - lambda t
 		 *
-		 * M(t) for a fixed time t = <code>time</code>.
+		 * M(t) for a fixed time t = <code>time</code> (N(t) being found by a binary search in the jump times of each path).
 		 */
-		final DoubleToRandomVariableFunction process = time -> {
-			final double[] values = new double[numberOfPaths];
-			for(int pathIndex = 0; pathIndex<numberOfPaths; pathIndex++) {
-				final long count = jumpTimesPaths.get(pathIndex).stream().filter(t -> t <= time).count();	// Count T_{i} <= t
-				values[pathIndex] = count - lambda * time;
-			}
-			return new RandomVariableFromDoubleArray(maturity, values);
-		};
+		final DoubleToRandomVariableFunction process = time -> simulation.getNumberOfJumps(time).sub(lambda * time);
 
 		/*
 		 * Plot N(t) on a fixed time grid (t_i, N(t_i))
@@ -0,0 +1,389 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.poissonprocess;
+
+import java.util.Arrays;
+import java.util.function.DoubleUnaryOperator;
+import java.util.stream.IntStream;
+
+import org.apache.commons.lang3.Validate;
+
+import info.quantlab.numericalmethods.lecture.montecarlo.paths.PathStore;
+import info.quantlab.numericalmethods.lecture.randomnumbers.PhiloxRandomNumberGenerator;
+import net.finmath.montecarlo.RandomVariableFromDoubleArray;
+import net.finmath.stochastic.RandomVariable;
+import net.finmath.time.TimeDiscretization;
+
+/**
+ * Monte-Carlo simulation of a (compound) Poisson process \( X(t) = \sum_{k=1}^{N(t)} Y_{k} \) on [0,T],
+ * where N is a Poisson process with piecewise constant intensity \( \lambda \) and \( Y_{k} \) are i.i.d. jump sizes
+ * (for \( Y_{k} = 1 \) we have X = N).
+ *
+ * The intensity is given as in {@link info.quantlab.numericalmethods.assignments.inhomogenousexponential.InhomogenousExponentialAssignment}:
+ * for times \( t_{0} &lt; \ldots &lt; t_{n-1} \) the intensity <code>intensities[i]</code> applies on the interval
+ * \( [t_{i-1}, t_{i}) \), where \( t_{-1} := 0 \) and \( t_{n} := \infty \).
+ *
+ * The jump times are generated event by event: with the integrated intensity \( \Lambda(t) = \int_{0}^{t} \lambda(s) \mathrm{d}s \)
+ * we have \( T_{k} = \Lambda^{-1}(E_{1} + \ldots + E_{k}) \) for i.i.d. standard exponential \( E_{k} \).
+ *
+ * The jump times of all paths are stored in one array (compressed sparse row layout):
+ * the jumps of path j are the elements <code>offsets[j]</code>, ..., <code>offsets[j+1]-1</code>, sorted in time.
+ * Hence N(t) is found by a binary search and the values on a time discretization by a single merge over the jumps of each path.
+ * For compound processes the values \( X(T_{k}) \) are stored in a second array of the same layout.
+ *
+ * The random numbers of path j are the numbers of a counter-based generator for the path index j, such that the paths are generated
+ * in parallel and the result does not depend on the number of threads.
+ *
+ * @author Christian Fries
+ */
+public class PoissonProcessSimulation {
+
+	private static final int numberOfPathsPerBlock = 1024;
+
+	private final double[] times;
+	private final double[] intensities;
+	private final DoubleUnaryOperator jumpSizeInverseDistributionFunction;
+	private final double maturity;
+	private final int numberOfPaths;
+	private final long seed;
+
+	// Integrated intensity at the start of the intervals, integratedIntensities[i] = Lambda(t_{i-1})
+	private final double[] integratedIntensities;
+
+	// CSR layout: jumps of path j at offsets[j], ..., offsets[j+1]-1
+	private final int[] offsets;
+	private final double[] jumpTimes;
+	private final double[] valuesAtJumpTimes;
+
+	/**
+	 * Create the simulation of a compound Poisson process with piecewise constant intensity.
+	 *
+	 * @param times The times \( t_{0} &lt; \ldots &lt; t_{n-1} \) where the intensity changes (all &gt; 0).
+	 * @param intensities The intensities (n+1 values &ge; 0), <code>intensities[i]</code> applying on \( [t_{i-1}, t_{i}) \).
+	 * @param jumpSizeInverseDistributionFunction The inverse distribution function of the jump size Y (applied to a uniform), or null for Y = 1.
+	 * @param maturity The final time T of the simulation.
+	 * @param numberOfPaths The number of paths.
+	 * @param seed The seed of the random number generator.
+	 */
+	public PoissonProcessSimulation(double[] times, double[] intensities, DoubleUnaryOperator jumpSizeInverseDistributionFunction, double maturity, int numberOfPaths, long seed) {
+		super();
+		Validate.isTrue(intensities.length == times.length + 1, "The number of intensities must be the number of times + 1.");
+		for(int i=0; i<times.length; i++) {
+			Validate.isTrue(times[i] > (i == 0 ? 0.0 : times[i-1]), "The times must be positive and increasing.");
+		}
+		for(final double intensity : intensities) {
+			Validate.isTrue(intensity >= 0 && Double.isFinite(intensity), "The intensities must be finite and >= 0.");
+		}
+		Validate.isTrue(maturity >= 0, "Parameter maturity must be >= 0.");
+		Validate.isTrue(numberOfPaths >= 1, "Parameter numberOfPaths must be >= 1.");
+
+		this.times = times.clone();
+		this.intensities = intensities.clone();
+		this.jumpSizeInverseDistributionFunction = jumpSizeInverseDistributionFunction;
+		this.maturity = maturity;
+		this.numberOfPaths = numberOfPaths;
+		this.seed = seed;
+
+		integratedIntensities = new double[intensities.length];
+		for(int i=1; i<intensities.length; i++) {
+			integratedIntensities[i] = integratedIntensities[i-1] + intensities[i-1] * (times[i-1] - getStartOfInterval(i-1));
+		}
+
+		/*
+		 * Generate the jumps of each block of paths into buffers of the block, then copy the buffers into the CSR arrays.
+		 */
+		final int numberOfBlocks = (numberOfPaths + numberOfPathsPerBlock - 1) / numberOfPathsPerBlock;
+		final JumpsOfBlock[] blocks = IntStream.range(0, numberOfBlocks).parallel()
+				.mapToObj(block -> generateJumps(block * numberOfPathsPerBlock, Math.min(numberOfPathsPerBlock, numberOfPaths - block * numberOfPathsPerBlock)))
+				.toArray(JumpsOfBlock[]::new);
+
+		offsets = new int[numberOfPaths+1];
+		final int[] offsetsOfBlocks = new int[numberOfBlocks];
+		long numberOfJumps = 0;
+		for(int block=0; block<numberOfBlocks; block++) {
+			offsetsOfBlocks[block] = (int)numberOfJumps;
+			final int firstPathIndex = block * numberOfPathsPerBlock;
+			for(int i=0; i<blocks[block].numberOfJumpsOfPaths.length; i++) {
+				numberOfJumps += blocks[block].numberOfJumpsOfPaths[i];
+				offsets[firstPathIndex+i+1] = (int)Math.min(numberOfJumps, Integer.MAX_VALUE);
+			}
+			Validate.isTrue(numberOfJumps < Integer.MAX_VALUE - 8, "The total number of jumps exceeds the maximum size of an array.");
+		}
+
+		jumpTimes = new double[(int)numberOfJumps];
+		valuesAtJumpTimes = jumpSizeInverseDistributionFunction != null ? new double[(int)numberOfJumps] : null;
+		IntStream.range(0, numberOfBlocks).parallel().forEach(block -> {
+			System.arraycopy(blocks[block].jumpTimes, 0, jumpTimes, offsetsOfBlocks[block], blocks[block].numberOfJumps);
+			if(valuesAtJumpTimes != null) {
+				System.arraycopy(blocks[block].valuesAtJumpTimes, 0, valuesAtJumpTimes, offsetsOfBlocks[block], blocks[block].numberOfJumps);
+			}
+		});
+	}
+
+	/**
+	 * Create the simulation of a Poisson process with piecewise constant intensity.
+	 *
+	 * @param times The times \( t_{0} &lt; \ldots &lt; t_{n-1} \) where the intensity changes (all &gt; 0).
+	 * @param intensities The intensities (n+1 values &ge; 0), <code>intensities[i]</code> applying on \( [t_{i-1}, t_{i}) \).
+	 * @param maturity The final time T of the simulation.
+	 * @param numberOfPaths The number of paths.
+	 * @param seed The seed of the random number generator.
+	 */
+	public PoissonProcessSimulation(double[] times, double[] intensities, double maturity, int numberOfPaths, long seed) {
+		this(times, intensities, null, maturity, numberOfPaths, seed);
+	}
+
+	/**
+	 * Create the simulation of a Poisson process with constant intensity.
+	 *
+	 * @param intensity The intensity \( \lambda \).
+	 * @param maturity The final time T of the simulation.
+	 * @param numberOfPaths The number of paths.
+	 * @param seed The seed of the random number generator.
+	 */
+	public PoissonProcessSimulation(double intensity, double maturity, int numberOfPaths, long seed) {
+		this(new double[0], new double[] { intensity }, null, maturity, numberOfPaths, seed);
+	}
+
+	/**
+	 * Returns the number of jumps N(t) of all paths (by a binary search in the jump times of each path).
+	 *
+	 * @param time The time t (0 &le; t &le; T).
+	 * @return The random variable N(t).
+	 */
+	public RandomVariable getNumberOfJumps(double time) {
+		final double[] values = new double[numberOfPaths];
+		IntStream.range(0, numberOfPaths).parallel().forEach(pathIndex -> values[pathIndex] = getNumberOfJumps(pathIndex, time));
+		return new RandomVariableFromDoubleArray(time, values);
+	}
+
+	/**
+	 * Returns the value \( X(t) = \sum_{k=1}^{N(t)} Y_{k} \) of all paths (equal to N(t) if the jump sizes are 1).
+	 *
+	 * @param time The time t (0 &le; t &le; T).
+	 * @return The random variable X(t).
+	 */
+	public RandomVariable getValue(double time) {
+		if(valuesAtJumpTimes == null) {
+			return getNumberOfJumps(time);
+		}
+
+		final double[] values = new double[numberOfPaths];
+		IntStream.range(0, numberOfPaths).parallel().forEach(pathIndex -> {
+			final int numberOfJumps = getNumberOfJumps(pathIndex, time);
+			values[pathIndex] = numberOfJumps > 0 ? valuesAtJumpTimes[offsets[pathIndex] + numberOfJumps - 1] : 0.0;
+		});
+		return new RandomVariableFromDoubleArray(time, values);
+	}
+
+	/**
+	 * Returns the number of jumps \( N(t_{i}) \) of all paths for all times of the given time discretization
+	 * (by a single merge of the times with the jump times of each path).
+	 *
+	 * @param timeDiscretization The times \( t_{i} \) (0 &le; \( t_{i} \) &le; T).
+	 * @return The store of the paths \( t_{i} \mapsto N(t_{i}) \).
+	 */
+	public PathStore getNumberOfJumps(TimeDiscretization timeDiscretization) {
+		return getValues(timeDiscretization, false);
+	}
+
+	/**
+	 * Returns the values \( X(t_{i}) \) of all paths for all times of the given time discretization
+	 * (by a single merge of the times with the jump times of each path).
+	 *
+	 * @param timeDiscretization The times \( t_{i} \) (0 &le; \( t_{i} \) &le; T).
+	 * @return The store of the paths \( t_{i} \mapsto X(t_{i}) \).
+	 */
+	public PathStore getValues(TimeDiscretization timeDiscretization) {
+		return getValues(timeDiscretization, valuesAtJumpTimes != null);
+	}
+
+	/**
+	 * Returns the integrated intensity \( \Lambda(t) = \int_{0}^{t} \lambda(s) \mathrm{d}s \), i.e., \( E(N(t)) \).
+	 *
+	 * @param time The time t &ge; 0.
+	 * @return The integrated intensity \( \Lambda(t) \).
+	 */
+	public double getIntegratedIntensity(double time) {
+		int interval = Arrays.binarySearch(times, time);
+		interval = interval >= 0 ? interval + 1 : -interval - 1;
+		return integratedIntensities[interval] + intensities[interval] * (time - getStartOfInterval(interval));
+	}
+
+	/**
+	 * @param pathIndex The path index j.
+	 * @return The number of jumps N(T) of the path.
+	 */
+	public int getNumberOfJumps(int pathIndex) {
+		return offsets[pathIndex+1] - offsets[pathIndex];
+	}
+
+	/**
+	 * @param pathIndex The path index j.
+	 * @return The jump times \( T_{1} &lt; \ldots &lt; T_{N(T)} \) of the path (a copy).
+	 */
+	public double[] getJumpTimes(int pathIndex) {
+		return Arrays.copyOfRange(jumpTimes, offsets[pathIndex], offsets[pathIndex+1]);
+	}
+
+	/**
+	 * @param pathIndex The path index j.
+	 * @return The jump sizes \( Y_{1}, \ldots, Y_{N(T)} \) of the path.
+	 */
+	public double[] getJumpSizes(int pathIndex) {
+		final double[] jumpSizes = new double[getNumberOfJumps(pathIndex)];
+		for(int k=0; k<jumpSizes.length; k++) {
+			if(valuesAtJumpTimes == null) {
+				jumpSizes[k] = 1.0;
+			}
+			else {
+				jumpSizes[k] = valuesAtJumpTimes[offsets[pathIndex] + k] - (k > 0 ? valuesAtJumpTimes[offsets[pathIndex] + k - 1] : 0.0);
+			}
+		}
+		return jumpSizes;
+	}
+
+	/**
+	 * @return The total number of jumps of all paths.
+	 */
+	public int getTotalNumberOfJumps() {
+		return jumpTimes.length;
+	}
+
+	/**
+	 * @return The final time T of the simulation.
+	 */
+	public double getMaturity() {
+		return maturity;
+	}
+
+	/**
+	 * @return The number of paths.
+	 */
+	public int getNumberOfPaths() {
+		return numberOfPaths;
+	}
+
+	@Override
+	public String toString() {
+		return "PoissonProcessSimulation [times=" + Arrays.toString(times) + ", intensities=" + Arrays.toString(intensities)
+		+ ", isCompound=" + (valuesAtJumpTimes != null) + ", maturity=" + maturity + ", numberOfPaths=" + numberOfPaths
+		+ ", totalNumberOfJumps=" + jumpTimes.length + ", seed=" + seed + "]";
+	}
+
+	private double getStartOfInterval(int interval) {
+		return interval == 0 ? 0.0 : times[interval-1];
+	}
+
+	/*
+	 * Returns the number of jump times <= time of the given path (binary search for the upper bound).
+	 */
+	private int getNumberOfJumps(int pathIndex, double time) {
+		final int start = offsets[pathIndex];
+		int low = start;
+		int high = offsets[pathIndex+1];
+		while(low < high) {
+			final int middle = (low + high) >>> 1;
+			if(jumpTimes[middle] <= time) {
+				low = middle + 1;
+			}
+			else {
+				high = middle;
+			}
+		}
+		return low - start;
+	}
+
+	private PathStore getValues(TimeDiscretization timeDiscretization, boolean isCompound) {
+		return new PathStore(timeDiscretization, numberOfPaths).fill((valuesByTime, firstPathIndex, numberOfPathsOfBlock) -> {
+			for(int pathIndex=firstPathIndex; pathIndex<firstPathIndex+numberOfPathsOfBlock; pathIndex++) {
+				final int start = offsets[pathIndex];
+				final int end = offsets[pathIndex+1];
+				int jumpIndex = start;
+				for(int timeIndex=0; timeIndex<valuesByTime.length; timeIndex++) {
+					final double time = timeDiscretization.getTime(timeIndex);
+					while(jumpIndex < end && jumpTimes[jumpIndex] <= time) {
+						jumpIndex++;
+					}
+					if(isCompound) {
+						valuesByTime[timeIndex][pathIndex] = jumpIndex > start ? valuesAtJumpTimes[jumpIndex-1] : 0.0;
+					}
+					else {
+						valuesByTime[timeIndex][pathIndex] = jumpIndex - start;
+					}
+				}
+			}
+		}, numberOfPathsPerBlock);
+	}
+
+	/*
+	 * Generates the jumps of the given paths. The random numbers of path j are the components 2k (exponential waiting time)
+	 * and 2k+1 (jump size) of path j of the counter-based generator.
+	 */
+	private JumpsOfBlock generateJumps(int firstPathIndex, int numberOfPathsOfBlock) {
+		final PhiloxRandomNumberGenerator randomNumberGenerator = new PhiloxRandomNumberGenerator(seed);
+		// The two random numbers of a jump (waiting time and jump size) are one block of the generator
+		final double[] uniforms = new double[2];
+		final int[] block = new int[4];
+		final int[] numberOfJumpsOfPaths = new int[numberOfPathsOfBlock];
+		final int expectedNumberOfJumps = (int)Math.min(numberOfPathsOfBlock * (getIntegratedIntensity(maturity) + 1.0), Integer.MAX_VALUE - 8);
+		double[] jumpTimesOfBlock = new double[Math.max(expectedNumberOfJumps, 16)];
+		double[] valuesOfBlock = jumpSizeInverseDistributionFunction != null ? new double[jumpTimesOfBlock.length] : null;
+		int numberOfJumps = 0;
+
+		for(int i=0; i<numberOfPathsOfBlock; i++) {
+			final long pathIndex = firstPathIndex + i;
+
+			int interval = 0;
+			double integratedIntensity = 0.0;
+			double value = 0.0;
+			for(int k=0; ; k++) {
+				randomNumberGenerator.valuesAt(pathIndex, k, uniforms, block);
+				integratedIntensity += -Math.log(uniforms[0]);
+
+				// Lambda^{-1}: the jump times are increasing, hence the interval only moves forward
+				while(interval < times.length && integratedIntensities[interval+1] <= integratedIntensity) {
+					interval++;
+				}
+				final double jumpTime = intensities[interval] > 0
+						? getStartOfInterval(interval) + (integratedIntensity - integratedIntensities[interval]) / intensities[interval]
+								: Double.POSITIVE_INFINITY;
+				if(jumpTime > maturity) {
+					break;
+				}
+
+				if(numberOfJumps == jumpTimesOfBlock.length) {
+					final int capacity = (int)Math.min(2L * jumpTimesOfBlock.length, Integer.MAX_VALUE - 8);
+					Validate.isTrue(capacity > numberOfJumps, "The number of jumps exceeds the maximum size of an array.");
+					jumpTimesOfBlock = Arrays.copyOf(jumpTimesOfBlock, capacity);
+					valuesOfBlock = valuesOfBlock != null ? Arrays.copyOf(valuesOfBlock, capacity) : null;
+				}
+
+				jumpTimesOfBlock[numberOfJumps] = jumpTime;
+				if(valuesOfBlock != null) {
+					value += jumpSizeInverseDistributionFunction.applyAsDouble(uniforms[1]);
+					valuesOfBlock[numberOfJumps] = value;
+				}
+				numberOfJumps++;
+				numberOfJumpsOfPaths[i]++;
+			}
+		}
+
+		return new JumpsOfBlock(numberOfJumpsOfPaths, jumpTimesOfBlock, valuesOfBlock, numberOfJumps);
+	}
+
+	/*
+	 * The jumps of a block of paths (buffers which may be larger than the number of jumps).
+	 */
+	private static class JumpsOfBlock {
+		private final int[] numberOfJumpsOfPaths;
+		private final double[] jumpTimes;
+		private final double[] valuesAtJumpTimes;
+		private final int numberOfJumps;
+
+		private JumpsOfBlock(int[] numberOfJumpsOfPaths, double[] jumpTimes, double[] valuesAtJumpTimes, int numberOfJumps) {
+			this.numberOfJumpsOfPaths = numberOfJumpsOfPaths;
+			this.jumpTimes = jumpTimes;
+			this.valuesAtJumpTimes = valuesAtJumpTimes;
+			this.numberOfJumps = numberOfJumps;
+		}
+	}
+}
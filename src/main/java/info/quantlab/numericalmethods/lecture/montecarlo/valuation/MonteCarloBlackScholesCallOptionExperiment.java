@@ -3,6 +3,10 @@ package info.quantlab.numericalmethods.lecture.montecarlo.valuation;
 import java.util.function.DoubleUnaryOperator;
 import java.util.stream.DoubleStream;
 
+import info.quantlab.numericalmethods.lecture.montecarlo.paths.BlackScholesPathModel;
+import info.quantlab.numericalmethods.lecture.montecarlo.paths.FusedPathSimulation;
+import info.quantlab.numericalmethods.lecture.montecarlo.paths.PathModel;
+import info.quantlab.numericalmethods.lecture.montecarlo.paths.ValueAccumulator;
 import net.finmath.exception.CalculationException;
 import net.finmath.functions.AnalyticFormulas;
 import net.finmath.functions.NormalDistribution;
@@ -36,6 +40,7 @@ import net.finmath.time.TimeDiscretizationFromArray;
  * 	<li>Stream of uniform random numbers, mapped by the model function to S(T), mapped by the product function to V(T), then averaged.</li>
  * 	<li>Arithmetic operations on <code>RandomVariable</code> using a <code>TimeDiscretization</code> and <code>BrownianMotion</code>.</li>
  * 	<li>Using a <code>Model</code>, an <code>EulerScheme</code> and a <code>Product</code>.</li>
+ * 	<li>Using a <code>FusedPathSimulation</code> (normals, time step and payoff in a single parallel pass over blocks of paths).</li>
  * </ol>
  *
  * @author Christian Fries
@@ -91,6 +96,12 @@ public class MonteCarloBlackScholesCallOptionExperiment {
 		timeEnd = System.currentTimeMillis();
 
 		System.out.println("Monte-Carlo (using Lib)..............: " + valueMonteCarloWithLib + " \t(" + (timeEnd-timeStart)/1000.0 + " sec.)");
+
+		timeStart = System.currentTimeMillis();
+		final double valueMonteCarloWithFusedPathSimulation = experiment.getMonteCarloValueFusedPathSimulation();
+		timeEnd = System.currentTimeMillis();
+
+		System.out.println("Monte-Carlo (using fused paths)......: " + valueMonteCarloWithFusedPathSimulation + " \t(" + (timeEnd-timeStart)/1000.0 + " sec.)");
 	}
 
 	/*
@@ -213,4 +224,21 @@ public class MonteCarloBlackScholesCallOptionExperiment {
 
 		return value;
 	}
+
+	/*
+	 * Calculation using a FusedPathSimulation (the paths are generated in parallel blocks, only S(T) is stored)
+	 */
+	private double getMonteCarloValueFusedPathSimulation() {
+
+		final PathModel blackScholesModel = new BlackScholesPathModel(initialValue, riskFreeRate, volatility);
+
+		final TimeDiscretization timeDiscretization = new TimeDiscretizationFromArray(initialTime, numberOfTimeSteps, (optionMaturity-initialTime)/numberOfTimeSteps);
+
+		final ValueAccumulator underlying = new ValueAccumulator(optionMaturity);		// S(T)
+		new FusedPathSimulation(blackScholesModel, timeDiscretization, (int)numberOfSamples, seed).simulate(underlying);
+
+		final double value = underlying.getValue().sub(optionStrike).floor(0.0).mult(Math.exp(-riskFreeRate * (optionMaturity-initialTime))).getAverage();
+
+		return value;
+	}
 }
@@ -4,8 +4,9 @@ import java.awt.Color;
 import java.io.File;
 import java.io.IOException;
 import java.util.function.DoubleUnaryOperator;
-import java.util.stream.IntStream;
 
+import info.quantlab.numericalmethods.lecture.montecarlo.paths.PathAccumulators;
+import info.quantlab.numericalmethods.lecture.montecarlo.paths.QuadraticVariationAccumulator;
 import net.finmath.exception.CalculationException;
 import net.finmath.functions.AnalyticFormulas;
 import net.finmath.montecarlo.BrownianMotion;
@@ -22,7 +23,6 @@ import net.finmath.plots.Plot2D;
 import net.finmath.plots.PlotProcess2D;
 import net.finmath.plots.Plots;
 import net.finmath.stochastic.RandomVariable;
-import net.finmath.stochastic.Scalar;
 import net.finmath.time.TimeDiscretization;
 import net.finmath.time.TimeDiscretizationFromArray;
 
@@ -107,19 +107,10 @@ public class StochasticVolatilityExperiments {
 
 		final DoubleToRandomVariableFunction paths = t -> simulation.getAssetValue(t, assetIndex);		// t -> S(t)
 
-		final RandomVariable quadraticVariation = IntStream.range(0, timeDiscretization.getNumberOfTimeSteps())
-				.mapToObj(i -> {
-					try {
-						return simulation.getAssetValue(i+1, assetIndex).log()		// log(S(t_{i+1})
-								.sub(
-										simulation.getAssetValue(i, assetIndex).log())		// log(S(t_{i})
-								.squared()
-								.div(optionMaturity);
-					} catch (final CalculationException e) {
-						return new Scalar(Double.NaN);
-					}
-				})
-				.reduce((x1,x2)-> x2.add(x1)).get();
+		// Quadratic variation of log(S) (divided by T), calculated in a single pass over the times of the simulation
+		final QuadraticVariationAccumulator quadraticVariationAccumulator = new QuadraticVariationAccumulator();
+		PathAccumulators.accumulate(simulation, assetIndex, quadraticVariationAccumulator);
+		final RandomVariable quadraticVariation = quadraticVariationAccumulator.getValue().div(optionMaturity);
 
 		/*
 		 * Plots: Implied volatility
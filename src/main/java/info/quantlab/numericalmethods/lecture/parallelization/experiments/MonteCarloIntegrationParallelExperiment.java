@@ -2,14 +2,15 @@ package info.quantlab.numericalmethods.lecture.parallelization.experiments;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.stream.IntStream;
 
-import net.finmath.randomnumbers.HaltonSequence;
+import info.quantlab.numericalmethods.lecture.randomnumbers.HaltonSequence;
+import info.quantlab.numericalmethods.lecture.randomnumbers.MersenneTwister;
+import info.quantlab.numericalmethods.lecture.randomnumbers.ThreadLocalRandomNumberGenerator;
 
 /**
  * Monte-Carlo Integration of \( x^2 + y^2 \lt 1 \) to approximate pi.
@@ -37,6 +38,7 @@ public class MonteCarloIntegrationParallelExperiment {
 		testHaltonWithStreamPar(numberOfSamples);
 		testMersenneWithStreamSeq(numberOfSamples);
 		testMersenneWithStreamPar(numberOfSamples);
+		testMersenneWithThreadLocalStreamPar(numberOfSamples);
 		testHaltonWithExecutor(numberOfSamples);
 		testMersenneWithExecutor(numberOfSamples);
 	}
@@ -85,13 +87,13 @@ public class MonteCarloIntegrationParallelExperiment {
 
 	private static  void testMersenneWithStreamSeq(int numberOfSamples) {
 
-		final org.apache.commons.math3.random.MersenneTwister mersenne = new org.apache.commons.math3.random.MersenneTwister(3141);
+		final MersenneTwister mersenne = new MersenneTwister(3141);
 
 		final long timeStart = System.currentTimeMillis();
 		final double piMersenne = 4.0 * IntStream.range(0, numberOfSamples).mapToDouble(
 				i -> {
-					final double x = 2.0 * (mersenne.nextDouble()-0.5);
-					final double y = 2.0 * (mersenne.nextDouble()-0.5);
+					final double x = 2.0 * (mersenne.nextDoubleFast()-0.5);
+					final double y = 2.0 * (mersenne.nextDoubleFast()-0.5);
 					if(x*x+y*y < 1) {
 						return 1.0;
 					} else {
@@ -108,14 +110,14 @@ public class MonteCarloIntegrationParallelExperiment {
 
 	private static  void testMersenneWithStreamPar(int numberOfSamples) {
 
-		final org.apache.commons.math3.random.MersenneTwister mersenne = new org.apache.commons.math3.random.MersenneTwister(3141);
+		final MersenneTwister mersenne = new MersenneTwister(3141);
 
 		final long timeStart = System.currentTimeMillis();
 		final double piMersenne = 4.0 * IntStream.range(0, numberOfSamples).parallel().mapToDouble(
 				i -> {
 					synchronized (mersenne) {
-						final double x = 2.0 * (mersenne.nextDouble()-0.5);
-						final double y = 2.0 * (mersenne.nextDouble()-0.5);
+						final double x = 2.0 * (mersenne.nextDoubleFast()-0.5);
+						final double y = 2.0 * (mersenne.nextDoubleFast()-0.5);
 						if(x*x+y*y < 1) {
 							return 1.0;
 						} else {
@@ -131,6 +133,33 @@ public class MonteCarloIntegrationParallelExperiment {
 				String.format("%10.2E", piMersenne-piAnalytic) + "\t" + timeInSeconds + " sec.");
 	}
 
+	private static  void testMersenneWithThreadLocalStreamPar(int numberOfSamples) {
+
+		/*
+		 * Each thread uses its own sub-stream (jump-ahead by 2 * numberOfSamples), no synchronization required.
+		 * Note: the result depends on the assignment of the samples to the threads.
+		 */
+		final ThreadLocalRandomNumberGenerator mersenne = ThreadLocalRandomNumberGenerator.ofMersenneTwister(3141, 2L * numberOfSamples);
+
+		final long timeStart = System.currentTimeMillis();
+		final double piMersenne = 4.0 * IntStream.range(0, numberOfSamples).parallel().mapToDouble(
+				i -> {
+					final double x = 2.0 * (mersenne.nextDouble()-0.5);
+					final double y = 2.0 * (mersenne.nextDouble()-0.5);
+					if(x*x+y*y < 1) {
+						return 1.0;
+					} else {
+						return 0.0;
+					}
+				}).sum() / numberOfSamples;
+		final long timeEnd = System.currentTimeMillis();
+
+		final double timeInSeconds = (timeEnd-timeStart) / 1000.0;
+
+		System.out.println("Mersenne, parallel using stream, thread local sub-streams....: " +
+				String.format("%10.2E", piMersenne-piAnalytic) + "\t" + timeInSeconds + " sec.");
+	}
+
 	private static void testMersenneWithExecutor(int numberOfSamples) throws InterruptedException, ExecutionException {
 
 		final long timeStart = System.currentTimeMillis();
@@ -142,33 +171,40 @@ public class MonteCarloIntegrationParallelExperiment {
 		final ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
 
 		try {
-			final Random randomSeed = new Random(3216);
+			/*
+			 * Each task uses its own generator, which is a sub-stream of the sequential stream:
+			 * the generator of task k is obtained from the generator of task k-1 by jumping ahead
+			 * by the number of random numbers consumed by a task (2 per sample).
+			 * Hence the result does not depend on the number of tasks or threads.
+			 */
+			final MersenneTwister mersenne = new MersenneTwister(3141);
 
 			/*
 			 * Distribute the tasks.
 			 */
-			final List<Future<Double>> results = new ArrayList<>();
+			final List<Future<Long>> results = new ArrayList<>();
 			for(int taskIndex = 0; taskIndex<numberOfTask; taskIndex++) {
-				final long seed = randomSeed.nextLong();
+				final MersenneTwister mersenneForTask = new MersenneTwister(mersenne);
+				mersenne.jump(2L * numberOfSamplesPerTask);
 
-				final Future<Double> value = executor.submit(() -> getApproximationOfPiWithMersenne(seed, numberOfSamplesPerTask));
+				final Future<Long> value = executor.submit(() -> getNumberOfSamplesInUnitCircleWithMersenne(mersenneForTask, numberOfSamplesPerTask));
 				results.add(value);
 			}
 
 			/*
 			 * Collect the results
 			 */
-			double sum = 0.0;
+			long numberOfSamplesInUnitCircle = 0;
 			for(int taskIndex = 0; taskIndex<numberOfTask; taskIndex++) {
-				sum += results.get(taskIndex).get();
+				numberOfSamplesInUnitCircle += results.get(taskIndex).get();
 			}
-			final double piMersenne = sum / numberOfTask;
+			final double piMersenne = 4.0 * numberOfSamplesInUnitCircle / (numberOfTask * numberOfSamplesPerTask);
 
 			final long timeEnd = System.currentTimeMillis();
 
 			final double timeInSeconds = (timeEnd-timeStart) / 1000.0;
 
-			System.out.println("Mersenne, parallel Executor w/ thread local generator........: " +
+			System.out.println("Mersenne, parallel Executor w/ jump-ahead sub-streams........: " +
 					String.format("%10.2E", piMersenne-piAnalytic) + "\t" + timeInSeconds + " sec.");
 		}
 		finally {
@@ -219,31 +255,41 @@ public class MonteCarloIntegrationParallelExperiment {
 		}
 	}
 
-	private static double getApproximationOfPiWithMersenne(long seed, int numberOfSamples) {
-		final org.apache.commons.math3.random.MersenneTwister mersenne = new org.apache.commons.math3.random.MersenneTwister(seed);
+	private static long getNumberOfSamplesInUnitCircleWithMersenne(MersenneTwister mersenne, int numberOfSamples) {
 
-		int numberOfSamplesInUnitCircle = 0;
+		long numberOfSamplesInUnitCircle = 0;
 
 		for(int i = 0; i<numberOfSamples; i++) {
-			final double x = 2.0 * (mersenne.nextDouble()-0.5);
-			final double y = 2.0 * (mersenne.nextDouble()-0.5);
+			final double x = 2.0 * (mersenne.nextDoubleFast()-0.5);
+			final double y = 2.0 * (mersenne.nextDoubleFast()-0.5);
 			if(x*x + y*y < 1) {
 				numberOfSamplesInUnitCircle++;
 			}
 		}
 
-		return 4.0 * numberOfSamplesInUnitCircle / numberOfSamples;
+		return numberOfSamplesInUnitCircle;
 	}
 
 	private static double getApproximationOfPiWithHalton(int startIndex, int numberOfSamples) {
 
+		// Each task uses its own sequence, positioned at the first index of the task, generating the points in blocks
+		final HaltonSequence halton = new HaltonSequence(new int[] { 2, 3 });
+		halton.skipTo(startIndex);
+
+		final int blockSize = 1024;
+		final double[] points = new double[2 * blockSize];
+
 		int numberOfSamplesInUnitCircle = 0;
 
-		for(int i = startIndex; i<startIndex+numberOfSamples; i++) {
-			final double x = 2.0 * (HaltonSequence.getHaltonNumberForGivenBase(i, 2)-0.5);
-			final double y = 2.0 * (HaltonSequence.getHaltonNumberForGivenBase(i, 3)-0.5);
-			if(x*x + y*y < 1) {
-				numberOfSamplesInUnitCircle++;
+		for(int blockStart = 0; blockStart<numberOfSamples; blockStart += blockSize) {
+			final int numberOfPointsInBlock = Math.min(blockSize, numberOfSamples - blockStart);
+			halton.fill(points, 0, numberOfPointsInBlock);
+			for(int i = 0; i<numberOfPointsInBlock; i++) {
+				final double x = 2.0 * (points[2*i]-0.5);
+				final double y = 2.0 * (points[2*i+1]-0.5);
+				if(x*x + y*y < 1) {
+					numberOfSamplesInUnitCircle++;
+				}
 			}
 		}
 
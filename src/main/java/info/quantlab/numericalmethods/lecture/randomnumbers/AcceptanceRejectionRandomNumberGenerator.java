@@ -5,6 +5,8 @@
  */
 package info.quantlab.numericalmethods.lecture.randomnumbers;
 
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.DoubleUnaryOperator;
 
 import org.apache.commons.lang3.Validate;
@@ -14,18 +16,46 @@ import org.apache.commons.lang3.Validate;
  *
  * Note that the acceptance rejection methods requires a two dimensional uniform random number sequence with independent components.
  *
+ * Optionally a squeeze function s with \( s \leq f \) can be given. If \( u C g(y) \leq s(y) \) the candidate y is accepted
+ * without evaluating the target density f.
+ *
+ * The generator counts the number of trials, acceptances (and acceptances by the squeeze) and records the
+ * maximum observed ratio \( f(y) / (C g(y)) \). A ratio larger than 1 indicates that the acceptance level C is too small
+ * (the samples are not distributed according to f), a maximum ratio much smaller than 1 indicates that C is too large
+ * (the acceptance ratio is smaller than necessary), see {@link #getEstimatedAcceptanceLevel()}.
+ *
+ * The candidates are drawn from the uniform generator in blocks and kept in a buffer, candidates not used by a call
+ * are used by the next call. Hence the sequence generated by {@link #fill(double[], int, int)} agrees with the sequence
+ * generated by repeated calls of {@link #nextDouble()} (and does not depend on how the numbers are requested).
+ *
+ * The methods <code>nextDouble</code> and <code>fill</code> are thread safe.
+ *
  * @author Christian Fries
- * @version 1.0
+ * @version 1.1
  */
 public class AcceptanceRejectionRandomNumberGenerator implements RandomNumberGenerator1D {
 
 	private static final long serialVersionUID = -9060003224133337426L;
 
+	// Number of candidates drawn with a single call to the uniform generator
+	private static final int blockSize = 1024;
+
 	private final RandomNumberGenerator uniformRandomNumberGenerator;
 	private final DoubleUnaryOperator targetDensity;
 	private final DoubleUnaryOperator referenceDensity;
 	private final DoubleUnaryOperator referenceDistributionICDF;
 	private final double acceptanceLevel;
+	private final DoubleUnaryOperator squeezeFunction;
+
+	// Buffer of candidates (tuples (u,v) of uniforms)
+	private final double[] candidates;
+	private int candidatesIndex;
+
+	// Statistics
+	private final LongAdder numberOfTrials = new LongAdder();
+	private final LongAdder numberOfAcceptances = new LongAdder();
+	private final LongAdder numberOfAcceptancesBySqueeze = new LongAdder();
+	private final DoubleAccumulator maximumDensityRatio = new DoubleAccumulator(Math::max, 0.0);
 
 	/**
 	 *
@@ -34,12 +64,14 @@ public class AcceptanceRejectionRandomNumberGenerator implements RandomNumberGen
 	 * @param referenceDensity The density g.
 	 * @param referenceDistributionICDF The ICDF, i.e. the inverse of G where G' = g.
 	 * @param acceptanceLevel The constant C such that \( f \leq C g \).
+	 * @param squeezeFunction A function s with \( s \leq f \), cheaper to evaluate than f, or null.
 	 */
 	public AcceptanceRejectionRandomNumberGenerator(final RandomNumberGenerator uniformRandomNumberGenerator,
 			final DoubleUnaryOperator targetDensity,
 			final DoubleUnaryOperator referenceDensity,
 			final DoubleUnaryOperator referenceDistributionICDF,
-			final double acceptanceLevel) {
+			final double acceptanceLevel,
+			final DoubleUnaryOperator squeezeFunction) {
 		Validate.inclusiveBetween(2, Integer.MAX_VALUE, uniformRandomNumberGenerator.getDimension(), "The acceptance rejection method requires a uniform distributed random number generator with at least dimension 2.");
 
 		this.uniformRandomNumberGenerator = uniformRandomNumberGenerator;
@@ -47,18 +79,156 @@ public class AcceptanceRejectionRandomNumberGenerator implements RandomNumberGen
 		this.referenceDensity = referenceDensity;
 		this.referenceDistributionICDF = referenceDistributionICDF;
 		this.acceptanceLevel = acceptanceLevel;
+		this.squeezeFunction = squeezeFunction;
+
+		candidates = new double[blockSize * uniformRandomNumberGenerator.getDimension()];
+		candidatesIndex = blockSize;
+	}
+
+	/**
+	 *
+	 * @param uniformRandomNumberGenerator A two dimension (at least) uniform number generator (with i.i.d components). The first two components will be used.
+	 * @param targetDensity The density f of the target distribution F.
+	 * @param referenceDensity The density g.
+	 * @param referenceDistributionICDF The ICDF, i.e. the inverse of G where G' = g.
+	 * @param acceptanceLevel The constant C such that \( f \leq C g \).
+	 */
+	public AcceptanceRejectionRandomNumberGenerator(final RandomNumberGenerator uniformRandomNumberGenerator,
+			final DoubleUnaryOperator targetDensity,
+			final DoubleUnaryOperator referenceDensity,
+			final DoubleUnaryOperator referenceDistributionICDF,
+			final double acceptanceLevel) {
+		this(uniformRandomNumberGenerator, targetDensity, referenceDensity, referenceDistributionICDF, acceptanceLevel, null);
+	}
+
+	@Override
+	public synchronized double nextDouble() {
+		return nextDoubleFromCandidates();
+	}
+
+	/**
+	 * Fill the given buffer with random numbers.
+	 *
+	 * @param buffer The buffer receiving the random numbers.
+	 * @param offset The index of the first element of the buffer to be written.
+	 * @param length The number of random numbers to generate.
+	 */
+	@Override
+	public synchronized void fill(double[] buffer, int offset, int length) {
+		for(int i=offset; i<offset+length; i++) {
+			buffer[i] = nextDoubleFromCandidates();
+		}
+	}
+
+	/**
+	 * @return The number of trials (candidates) used so far.
+	 */
+	public long getNumberOfTrials() {
+		return numberOfTrials.sum();
+	}
+
+	/**
+	 * @return The number of accepted candidates (i.e. the number of random numbers generated) so far.
+	 */
+	public long getNumberOfAcceptances() {
+		return numberOfAcceptances.sum();
+	}
+
+	/**
+	 * @return The number of candidates accepted by the squeeze function (without evaluation of the target density).
+	 */
+	public long getNumberOfAcceptancesBySqueeze() {
+		return numberOfAcceptancesBySqueeze.sum();
+	}
+
+	/**
+	 * Returns the observed acceptance ratio. For an optimal acceptance level C (\( C = \sup f/g \)) the ratio is \( 1/C \).
+	 *
+	 * @return The ratio of the number of acceptances to the number of trials.
+	 */
+	public double getAcceptanceRatio() {
+		final long trials = getNumberOfTrials();
+		return trials > 0 ? (double)getNumberOfAcceptances() / trials : Double.NaN;
+	}
+
+	/**
+	 * Returns the maximum of \( f(y) / (C g(y)) \) observed on the candidates y for which f was evaluated.
+	 * A value larger than 1 indicates that the acceptance level C is too small.
+	 *
+	 * @return The maximum observed ratio \( f(y) / (C g(y)) \).
+	 */
+	public double getMaximumObservedDensityRatio() {
+		return maximumDensityRatio.get();
+	}
+
+	/**
+	 * Returns an estimate of the optimal acceptance level \( \sup f/g \) from the observed candidates,
+	 * i.e., C times the maximum observed ratio \( f(y) / (C g(y)) \).
+	 *
+	 * Note: the estimate is a lower bound for the optimal acceptance level.
+	 *
+	 * @return An estimate of \( \sup f/g \).
+	 */
+	public double getEstimatedAcceptanceLevel() {
+		return acceptanceLevel * getMaximumObservedDensityRatio();
+	}
+
+	/**
+	 * Reset the counters and the maximum observed density ratio.
+	 */
+	public void resetStatistics() {
+		numberOfTrials.reset();
+		numberOfAcceptances.reset();
+		numberOfAcceptancesBySqueeze.reset();
+		maximumDensityRatio.reset();
+	}
+
+	/**
+	 * @return The acceptance level C.
+	 */
+	public double getAcceptanceLevel() {
+		return acceptanceLevel;
 	}
 
 	@Override
-	public double nextDouble() {
-		boolean rejected = true;
-		double y = Double.NaN;
-		while(rejected) {
-			final double[] uniform = uniformRandomNumberGenerator.getNext();		// Tuple (u,v) of two uniforms
-			final double u = uniform[0];											// u that samples acceptance/rejection
-			y = referenceDistributionICDF.applyAsDouble(uniform[1]);				// y = ICDF method applied to v (candidate)
-			rejected = targetDensity.applyAsDouble(y) < u * acceptanceLevel * referenceDensity.applyAsDouble(y);
+	public String toString() {
+		return "AcceptanceRejectionRandomNumberGenerator [acceptanceLevel=" + acceptanceLevel + ", numberOfTrials="
+				+ getNumberOfTrials() + ", acceptanceRatio=" + getAcceptanceRatio() + ", maximumObservedDensityRatio="
+				+ getMaximumObservedDensityRatio() + "]";
+	}
+
+	private double nextDoubleFromCandidates() {
+		final int dimension = uniformRandomNumberGenerator.getDimension();
+		long trials = 0;
+		while(true) {
+			if(candidatesIndex == blockSize) {
+				uniformRandomNumberGenerator.fill(candidates, 0, blockSize);
+				candidatesIndex = 0;
+			}
+			final int index = dimension * candidatesIndex++;
+			trials++;
+			final double y = referenceDistributionICDF.applyAsDouble(candidates[index+1]);	// y = ICDF method applied to v (candidate)
+			if(isAccepted(candidates[index], y)) {										// u samples acceptance/rejection
+				numberOfTrials.add(trials);
+				numberOfAcceptances.increment();
+				return y;
+			}
+		}
+	}
+
+	private boolean isAccepted(double u, double y) {
+		final double envelope = acceptanceLevel * referenceDensity.applyAsDouble(y);
+		final double level = u * envelope;
+
+		if(squeezeFunction != null && level <= squeezeFunction.applyAsDouble(y)) {
+			numberOfAcceptancesBySqueeze.increment();
+			return true;
+		}
+
+		final double density = targetDensity.applyAsDouble(y);
+		if(envelope > 0) {
+			maximumDensityRatio.accumulate(density / envelope);
 		}
-		return y;
+		return density >= level;
 	}
 }
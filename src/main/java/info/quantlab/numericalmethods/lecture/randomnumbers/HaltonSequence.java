@@ -19,6 +19,7 @@ public class HaltonSequence implements RandomNumberGenerator {
 	private static final long serialVersionUID = -4799340450248196350L;
 
 	private final int[] base;
+	private final RadicalInverse[] radicalInverses;
 
 	private final AtomicLong currentIndex = new AtomicLong();
 
@@ -37,6 +38,11 @@ public class HaltonSequence implements RandomNumberGenerator {
 		}
 
 		this.base = base;
+
+		radicalInverses = new RadicalInverse[base.length];
+		for(int dimension = 0; dimension<base.length; dimension++) {
+			radicalInverses[dimension] = RadicalInverse.of(base[dimension]);
+		}
 	}
 
 	@Override
@@ -44,6 +50,37 @@ public class HaltonSequence implements RandomNumberGenerator {
 		return getHaltonNumber(currentIndex.getAndIncrement());
 	}
 
+	@Override
+	public void fill(double[] buffer, int offset, int numberOfVectors) {
+		// Reserve the block of indices with a single atomic operation
+		final long startIndex = currentIndex.getAndAdd(numberOfVectors);
+
+		// Each component of the block is calculated incrementally from the digits of the index
+		for(int dimension = 0; dimension<base.length; dimension++) {
+			final RadicalInverse.Cursor cursor = radicalInverses[dimension].getCursor(startIndex + 1);
+			for(int k=0; k<numberOfVectors; k++) {
+				buffer[offset + k*base.length + dimension] = cursor.getValue();
+				cursor.increment();
+			}
+		}
+	}
+
+	@Override
+	public void jump(long numberOfVectors) {
+		if(numberOfVectors < 0) {
+			throw new IllegalArgumentException("numberOfVectors needs to be non-negative");
+		}
+		currentIndex.addAndGet(numberOfVectors);
+	}
+
+	@Override
+	public void skipTo(long index) {
+		if(index < 0) {
+			throw new IllegalArgumentException("index needs to be non-negative");
+		}
+		currentIndex.set(index);
+	}
+
 	@Override
 	public int getDimension() {
 		return base.length;
@@ -52,7 +89,7 @@ public class HaltonSequence implements RandomNumberGenerator {
 	public double[] getHaltonNumber(final long index) {
 		final double[] x = new double[base.length];
 		for(int dimension = 0; dimension<base.length; dimension++) {
-			x[dimension] = VanDerCorputSequence.getVanDerCorputNumber(index, base[dimension]);
+			x[dimension] = radicalInverses[dimension].valueOf(index + 1);
 		}
 		return x;
 	}
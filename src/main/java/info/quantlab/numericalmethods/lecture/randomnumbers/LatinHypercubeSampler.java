@@ -0,0 +1,179 @@
+package info.quantlab.numericalmethods.lecture.randomnumbers;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * A Latin hypercube sampler of the unit cube \( [0,1]^{d} \).
+ *
+ * A Latin hypercube sample of N points stratifies each component into N intervals of length 1/N, with exactly one point
+ * per interval: the j-th component of the i-th point is
+ * \( x_{i,j} = ( \pi_{j}(i) + u_{i,j} ) / N \),
+ * where \( \pi_{0}, \ldots, \pi_{d-1} \) are independent random permutations of \( \{ 0, \ldots, N-1 \} \) and
+ * \( u_{i,j} \) are independent uniform random numbers.
+ * Each point is uniformly distributed, the sample has a perfectly stratified projection onto each component.
+ * Hence the variance of the additive part of the integrand is removed, while the number of points does not grow with the dimension
+ * (in contrast to the stratification of the unit cube, see {@link StratifiedSampler}).
+ *
+ * The sequence of points consists of independent Latin hypercube samples of N points each (the batches).
+ * The points are a function of their index (the uniform numbers are generated by the counter-based {@link PhiloxRandomNumberGenerator},
+ * the permutations of a batch by a {@link MersenneTwister} seeded by the seed and the index of the batch).
+ * Note: the points of a batch are not independent, hence the standard error of the plain Monte-Carlo estimator is not
+ * a valid error estimate. An error estimate is obtained from independent batches.
+ *
+ * @author Christian Fries
+ */
+public class LatinHypercubeSampler implements RandomNumberGenerator {
+
+	private static final long serialVersionUID = -6062315040964613702L;
+
+	private final int dimension;
+	private final int numberOfPoints;
+	private final long seed;
+
+	private final PhiloxRandomNumberGenerator uniformGenerator;
+	private final AtomicLong currentIndex = new AtomicLong();
+
+	// The permutations of the most recently used batch (a batch is usually used by consecutive calls)
+	private transient volatile Permutations permutations;
+
+	/**
+	 * Create a Latin hypercube sampler.
+	 *
+	 * @param dimension The dimension d of the unit cube.
+	 * @param numberOfPoints The number of points N of a Latin hypercube sample (a batch).
+	 * @param seed The seed of the random numbers.
+	 */
+	public LatinHypercubeSampler(int dimension, int numberOfPoints, long seed) {
+		super();
+		Validate.isTrue(dimension >= 1, "Parameter dimension must be >= 1.");
+		Validate.isTrue(numberOfPoints >= 1, "Parameter numberOfPoints must be >= 1.");
+		this.dimension = dimension;
+		this.numberOfPoints = numberOfPoints;
+		this.seed = seed;
+		uniformGenerator = new PhiloxRandomNumberGenerator(seed, dimension);
+	}
+
+	@Override
+	public double[] getNext() {
+		final double[] point = new double[dimension];
+		fill(currentIndex.getAndIncrement(), point, 0, 1);
+		return point;
+	}
+
+	@Override
+	public void fill(double[] buffer, int offset, int numberOfVectors) {
+		// Reserve the block of indices with a single atomic operation
+		fill(currentIndex.getAndAdd(numberOfVectors), buffer, offset, numberOfVectors);
+	}
+
+	/**
+	 * Fill the given buffer with the points <code>startIndex</code>, ..., <code>startIndex+numberOfVectors-1</code> of the sequence.
+	 * The method does not depend on (or change) the position of this generator.
+	 *
+	 * @param startIndex The index of the first point.
+	 * @param buffer The buffer receiving the points (stored consecutively).
+	 * @param offset The index of the first element of the buffer to be written.
+	 * @param numberOfVectors The number of points to generate.
+	 */
+	public void fill(long startIndex, double[] buffer, int offset, int numberOfVectors) {
+		uniformGenerator.fill(Math.multiplyExact(startIndex, dimension), buffer, offset, numberOfVectors * dimension);
+
+		Permutations permutationsOfBatch = getPermutations(startIndex / numberOfPoints);
+		for(int k=0; k<numberOfVectors; k++) {
+			final long index = startIndex + k;
+			final long batch = index / numberOfPoints;
+			if(batch != permutationsOfBatch.batch) {
+				permutationsOfBatch = getPermutations(batch);
+			}
+
+			final int indexInBatch = (int)(index % numberOfPoints);
+			for(int component=0; component<dimension; component++) {
+				final int position = offset + k * dimension + component;
+				buffer[position] = (permutationsOfBatch.permutations[component][indexInBatch] + buffer[position]) / numberOfPoints;
+			}
+		}
+	}
+
+	@Override
+	public void jump(long numberOfVectors) {
+		Validate.isTrue(numberOfVectors >= 0, "Parameter numberOfVectors must be >= 0.");
+		currentIndex.addAndGet(numberOfVectors);
+	}
+
+	@Override
+	public void skipTo(long index) {
+		Validate.isTrue(index >= 0, "Parameter index must be >= 0.");
+		currentIndex.set(index);
+	}
+
+	@Override
+	public int getDimension() {
+		return dimension;
+	}
+
+	/**
+	 * @return The number of points N of a Latin hypercube sample (a batch).
+	 */
+	public int getNumberOfPoints() {
+		return numberOfPoints;
+	}
+
+	/**
+	 * @return The seed of the random numbers.
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	@Override
+	public String toString() {
+		return "LatinHypercubeSampler [dimension=" + dimension + ", numberOfPoints=" + numberOfPoints + ", seed=" + seed
+				+ ", currentIndex=" + currentIndex + "]";
+	}
+
+	private Permutations getPermutations(long batch) {
+		final Permutations permutationsOfLastBatch = permutations;
+		if(permutationsOfLastBatch != null && permutationsOfLastBatch.batch == batch) {
+			return permutationsOfLastBatch;
+		}
+
+		final Permutations permutationsOfBatch = new Permutations(batch, dimension, numberOfPoints, seed);
+		permutations = permutationsOfBatch;
+		return permutationsOfBatch;
+	}
+
+	/**
+	 * The random permutations \( \pi_{0}, \ldots, \pi_{d-1} \) of a batch.
+	 */
+	private static final class Permutations {
+		private final long batch;
+		private final int[][] permutations;
+
+		Permutations(long batch, int dimension, int numberOfPoints, long seed) {
+			this.batch = batch;
+
+			// Fisher-Yates shuffle using a generator with a seed depending on the batch (SplitMix64 finalizer)
+			long seedOfBatch = seed + (batch+1) * 0x9E3779B97F4A7C15L;
+			seedOfBatch = (seedOfBatch ^ (seedOfBatch >>> 30)) * 0xBF58476D1CE4E5B9L;
+			seedOfBatch = (seedOfBatch ^ (seedOfBatch >>> 27)) * 0x94D049BB133111EBL;
+			seedOfBatch = seedOfBatch ^ (seedOfBatch >>> 31);
+			final MersenneTwister randomNumberGenerator = new MersenneTwister(seedOfBatch);
+
+			permutations = new int[dimension][numberOfPoints];
+			for(int component=0; component<dimension; component++) {
+				final int[] permutation = permutations[component];
+				for(int i=0; i<numberOfPoints; i++) {
+					permutation[i] = i;
+				}
+				for(int i=numberOfPoints-1; i>0; i--) {
+					final int j = (int)(randomNumberGenerator.nextDoubleFast() * (i+1));
+					final int swap = permutation[i];
+					permutation[i] = permutation[j];
+					permutation[j] = swap;
+				}
+			}
+		}
+	}
+}
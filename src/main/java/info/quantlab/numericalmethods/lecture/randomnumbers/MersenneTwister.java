@@ -9,50 +9,469 @@ package info.quantlab.numericalmethods.lecture.randomnumbers;
 import java.io.Serializable;
 import java.util.Random;
 
+import org.apache.commons.lang3.Validate;
+
 /**
- * Mersenne Twister random number generator. This class is just a wrapper of
- * <code>org.apache.commons.math3.random.MersenneTwister</code>.
+ * Mersenne Twister random number generator (MT19937).
+ *
+ * The implementation generates the same sequence as
+ * <code>org.apache.commons.math3.random.MersenneTwister</code> (for the same seed),
+ * where each double consumes two 32-bit words of the generator.
+ *
+ * In addition, the implementation supports jumping ahead in the sequence
+ * (see {@link #jump(long)} and {@link #skipTo(long)}). Large jumps are performed via the
+ * polynomial jump-ahead algorithm (Haramoto, Matsumoto, Nishimura, Panneton, L'Ecuyer, 2008):
+ * the state after k steps is given by p(A) applied to the current state, where A is the
+ * state transition and p(x) = x<sup>k</sup> mod P(x) with P the characteristic polynomial of A.
+ * This allows to split a single stream into consecutive sub-streams, e.g., for parallel
+ * computations which give the same result as the sequential run.
  *
  * @author Christian Fries
  *
- * @version 1.0
+ * @version 2.0
  */
 public class MersenneTwister implements RandomNumberGenerator1D, Serializable {
 
 	private static final long serialVersionUID = -1827470318370174186L;
 
+	// Parameters of MT19937
+	private static final int stateSize = 624;
+	private static final int shiftSize = 397;
+	private static final int matrixA = 0x9908b0df;
+	private static final int upperMask = 0x80000000;
+	private static final int lowerMask = 0x7fffffff;
+
+	// Degree of the characteristic polynomial (the dimension of the state space).
+	private static final int degree = 19937;
+
+	// Jumps below this number of words are performed by generating the numbers.
+	private static final long minimumWordsForPolynomialJump = 1L << 20;
+
+	// Cache of the last jump polynomial used (jumps are usually repeated with the same stride).
+	private static volatile JumpPolynomial lastJumpPolynomial;
+
 	private final long seed;
 
-	private final org.apache.commons.math3.random.MersenneTwister mersenneTwister;
+	private final int[] state = new int[stateSize];
+	private int stateIndex;
+
+	// The index of the next double to be generated
+	private long index;
 
 	public MersenneTwister(final long seed) {
-		this.seed = seed;	// Stored for information purposes only (toString())
-		mersenneTwister	= new org.apache.commons.math3.random.MersenneTwister(seed);
+		this.seed = seed;
+		setSeed(seed);
 	}
 
 	public MersenneTwister() {
 		this(new Random().nextLong());
 	}
 
+	/**
+	 * Creates a copy of the given generator, which continues with the same sequence.
+	 *
+	 * @param generator The generator to copy.
+	 */
+	public MersenneTwister(final MersenneTwister generator) {
+		synchronized (generator) {
+			this.seed = generator.seed;
+			System.arraycopy(generator.state, 0, state, 0, stateSize);
+			this.stateIndex = generator.stateIndex;
+			this.index = generator.index;
+		}
+	}
+
 	/**
 	 * Returns the next random number in the sequence.
 	 *
 	 * @return The next random number in the sequence.
 	 */
 	@Override
-	public double nextDouble() {
-		synchronized (mersenneTwister) {
-			return mersenneTwister.nextDouble();
-		}
+	public synchronized double nextDouble() {
+		return nextDoubleFast();
 	}
 
 	@Override
 	public double nextDoubleFast() {
-		return mersenneTwister.nextDouble();
+		index++;
+		final long high = ((long) (nextWord() >>> 6)) << 26;
+		final int low = nextWord() >>> 6;
+		return (high | low) * 0x1.0p-52d;
+	}
+
+	@Override
+	public synchronized void fill(double[] buffer, int offset, int length) {
+		for(int i=offset; i<offset+length; i++) {
+			buffer[i] = nextDoubleFast();
+		}
+	}
+
+	/**
+	 * Advance the generator by the given number of random numbers.
+	 *
+	 * For large <code>numberOfVectors</code> the polynomial jump-ahead is used,
+	 * which requires (almost) constant time.
+	 *
+	 * @param numberOfVectors The number of random numbers to skip. Must be &ge; 0.
+	 */
+	@Override
+	public synchronized void jump(long numberOfVectors) {
+		Validate.isTrue(numberOfVectors >= 0, "Parameter numberOfVectors must be >= 0.");
+		Validate.isTrue(numberOfVectors <= Long.MAX_VALUE/2, "Parameter numberOfVectors too large.");
+
+		// Each double consumes two words
+		final long numberOfWords = 2 * numberOfVectors;
+		if(numberOfWords < minimumWordsForPolynomialJump) {
+			for(long i=0; i<numberOfWords; i++) {
+				nextWord();
+			}
+		}
+		else {
+			jumpWords(numberOfWords);
+		}
+		index += numberOfVectors;
+	}
+
+	/**
+	 * Set the generator such that the next random number is the number with the given index
+	 * in the sequence generated from the seed (the first number has index 0).
+	 *
+	 * @param index The index of the next random number. Must be &ge; 0.
+	 */
+	@Override
+	public synchronized void skipTo(long index) {
+		Validate.isTrue(index >= 0, "Parameter index must be >= 0.");
+		if(index < this.index) {
+			setSeed(seed);
+			this.index = 0;
+		}
+		jump(index - this.index);
 	}
 
 	@Override
 	public String toString() {
 		return "MersenneTwister [seed=" + seed + "]";
 	}
+
+	/*
+	 * Generator (identical to org.apache.commons.math3.random.MersenneTwister)
+	 */
+
+	private void setSeed(final int seed) {
+		long longMT = seed;
+		state[0] = (int) longMT;
+		for(stateIndex = 1; stateIndex < stateSize; ++stateIndex) {
+			longMT = (1812433253L * (longMT ^ (longMT >> 30)) + stateIndex) & 0xffffffffL;
+			state[stateIndex] = (int) longMT;
+		}
+	}
+
+	private void setSeed(final long seed) {
+		final int[] seedWords = new int[] { (int) (seed >>> 32), (int) (seed & 0xffffffffL) };
+
+		setSeed(19650218);
+		int i = 1;
+		int j = 0;
+
+		for(int k = Math.max(stateSize, seedWords.length); k != 0; k--) {
+			final long l0 = (state[i] & 0x7fffffffL) | ((state[i] < 0) ? 0x80000000L : 0x0L);
+			final long l1 = (state[i-1] & 0x7fffffffL) | ((state[i-1] < 0) ? 0x80000000L : 0x0L);
+			final long l  = (l0 ^ ((l1 ^ (l1 >> 30)) * 1664525L)) + seedWords[j] + j;
+			state[i] = (int) (l & 0xffffffffL);
+			i++;
+			j++;
+			if(i >= stateSize) {
+				state[0] = state[stateSize - 1];
+				i = 1;
+			}
+			if(j >= seedWords.length) {
+				j = 0;
+			}
+		}
+
+		for(int k = stateSize - 1; k != 0; k--) {
+			final long l0 = (state[i] & 0x7fffffffL) | ((state[i] < 0) ? 0x80000000L : 0x0L);
+			final long l1 = (state[i-1] & 0x7fffffffL) | ((state[i-1] < 0) ? 0x80000000L : 0x0L);
+			final long l  = (l0 ^ ((l1 ^ (l1 >> 30)) * 1566083941L)) - i;
+			state[i] = (int) (l & 0xffffffffL);
+			i++;
+			if(i >= stateSize) {
+				state[0] = state[stateSize - 1];
+				i = 1;
+			}
+		}
+
+		state[0] = 0x80000000;
+		stateIndex = stateSize;
+	}
+
+	private int nextWord() {
+		if(stateIndex >= stateSize) {
+			twist(state);
+			stateIndex = 0;
+		}
+
+		int y = state[stateIndex++];
+
+		// Tempering
+		y ^=  y >>> 11;
+		y ^= (y <<   7) & 0x9d2c5680;
+		y ^= (y <<  15) & 0xefc60000;
+		y ^=  y >>> 18;
+
+		return y;
+	}
+
+	private static void twist(int[] state) {
+		int y;
+		for(int k = 0; k < stateSize - shiftSize; k++) {
+			y = (state[k] & upperMask) | (state[k + 1] & lowerMask);
+			state[k] = state[k + shiftSize] ^ (y >>> 1) ^ ((y & 1) != 0 ? matrixA : 0);
+		}
+		for(int k = stateSize - shiftSize; k < stateSize - 1; k++) {
+			y = (state[k] & upperMask) | (state[k + 1] & lowerMask);
+			state[k] = state[k + (shiftSize - stateSize)] ^ (y >>> 1) ^ ((y & 1) != 0 ? matrixA : 0);
+		}
+		y = (state[stateSize - 1] & upperMask) | (state[0] & lowerMask);
+		state[stateSize - 1] = state[shiftSize - 1] ^ (y >>> 1) ^ ((y & 1) != 0 ? matrixA : 0);
+	}
+
+	/*
+	 * Single step of the linear recurrence x_{k+n} = x_{k+m} ^ twist(x_{k}, x_{k+1}) on a circular buffer,
+	 * where start is the position of x_{k}. Applying this for start = 0,...,n-1 is the batch twist above.
+	 */
+	private static void step(int[] state, int start) {
+		final int y = (state[start] & upperMask) | (state[(start + 1) % stateSize] & lowerMask);
+		state[start] = state[(start + shiftSize) % stateSize] ^ (y >>> 1) ^ ((y & 1) != 0 ? matrixA : 0);
+	}
+
+	/*
+	 * Polynomial jump-ahead
+	 */
+
+	private void jumpWords(long numberOfWords) {
+		/*
+		 * Represent the state as the window of the next stateSize words x_{t},...,x_{t+n-1}
+		 * in a circular buffer starting at stateIndex (the words before stateIndex are advanced to the next batch).
+		 */
+		final int[] window = state.clone();
+		for(int k = 0; k < stateIndex; k++) {
+			step(window, k);
+		}
+		final int windowStart = stateIndex % stateSize;
+
+		final long[] jumpPolynomial = getJumpPolynomial(numberOfWords);
+
+		// Horner scheme: result = sum_i c_i A^i window
+		final int[] result = new int[stateSize];
+		int resultStart = 0;
+		for(int i = degree-1; i >= 0; i--) {
+			step(result, resultStart);
+			resultStart = (resultStart + 1) % stateSize;
+			if(((jumpPolynomial[i >>> 6] >>> (i & 63)) & 1L) != 0) {
+				for(int k = 0; k < stateSize; k++) {
+					result[(resultStart + k) % stateSize] ^= window[(windowStart + k) % stateSize];
+				}
+			}
+		}
+
+		// Store the window such that the next word generated is x_{t+numberOfWords}
+		for(int k = 0; k < stateSize; k++) {
+			state[k] = result[(resultStart + k) % stateSize];
+		}
+		stateIndex = 0;
+	}
+
+	private static long[] getJumpPolynomial(long numberOfWords) {
+		final JumpPolynomial cached = lastJumpPolynomial;
+		if(cached != null && cached.numberOfWords == numberOfWords) {
+			return cached.coefficients;
+		}
+
+		final long[] characteristicPolynomial = CharacteristicPolynomial.coefficients;
+
+		// Polynomial x^{k} mod P via square-and-multiply (multiplication by x is a shift)
+		long[] polynomial = new long[(degree >>> 6) + 1];
+		polynomial[0] = 1L;
+		for(int bit = 63 - Long.numberOfLeadingZeros(numberOfWords); bit >= 0; bit--) {
+			polynomial = squareModulo(polynomial);
+			if(((numberOfWords >>> bit) & 1L) != 0) {
+				multiplyByXModulo(polynomial, characteristicPolynomial);
+			}
+		}
+
+		lastJumpPolynomial = new JumpPolynomial(numberOfWords, polynomial);
+		return polynomial;
+	}
+
+	private static long[] squareModulo(long[] polynomial) {
+		// Squaring over GF(2) spreads the bits: (sum a_i x^i)^2 = sum a_i x^{2i}
+		final long[] square = new long[2 * polynomial.length];
+		for(int i = 0; i < polynomial.length; i++) {
+			square[2*i]		= spreadBits((int) polynomial[i]);
+			square[2*i+1]	= spreadBits((int) (polynomial[i] >>> 32));
+		}
+
+		// Reduction by the (shifted) modulus, from the highest bit down to the degree
+		final long[][] shiftedModulus = ShiftedCharacteristicPolynomial.coefficients;
+		for(int bit = 64 * square.length - 1; bit >= degree; bit--) {
+			if(((square[bit >>> 6] >>> (bit & 63)) & 1L) != 0) {
+				final int shift = bit - degree;
+				final long[] shifted = shiftedModulus[shift & 63];
+				final int wordOffset = shift >>> 6;
+				for(int k = 0; k < shifted.length && wordOffset + k < square.length; k++) {
+					square[wordOffset + k] ^= shifted[k];
+				}
+			}
+		}
+
+		final long[] result = new long[polynomial.length];
+		System.arraycopy(square, 0, result, 0, polynomial.length);
+		return result;
+	}
+
+	private static void multiplyByXModulo(long[] polynomial, long[] modulus) {
+		long carry = 0;
+		for(int k = 0; k < polynomial.length; k++) {
+			final long word = polynomial[k];
+			polynomial[k] = (word << 1) | carry;
+			carry = word >>> 63;
+		}
+		if(((polynomial[degree >>> 6] >>> (degree & 63)) & 1L) != 0) {
+			for(int k = 0; k < polynomial.length; k++) {
+				polynomial[k] ^= modulus[k];
+			}
+		}
+	}
+
+	private static long spreadBits(int word) {
+		long x = word & 0xffffffffL;
+		x = (x | (x << 16)) & 0x0000FFFF0000FFFFL;
+		x = (x | (x << 8)) & 0x00FF00FF00FF00FFL;
+		x = (x | (x << 4)) & 0x0F0F0F0F0F0F0F0FL;
+		x = (x | (x << 2)) & 0x3333333333333333L;
+		x = (x | (x << 1)) & 0x5555555555555555L;
+		return x;
+	}
+
+	/**
+	 * The characteristic polynomial of the MT19937 recurrence, calculated once (lazily)
+	 * by the Berlekamp-Massey algorithm applied to a bit of the output sequence.
+	 */
+	private static final class CharacteristicPolynomial {
+		private static final long[] coefficients = calculateCharacteristicPolynomial();
+
+		private static long[] calculateCharacteristicPolynomial() {
+			final int numberOfBits = 2 * degree;
+
+			// The lowest bit of the (untempered) words generated from an arbitrary state
+			final int[] state = new int[stateSize];
+			final MersenneTwister generator = new MersenneTwister(3141);
+			System.arraycopy(generator.state, 0, state, 0, stateSize);
+			twist(state);
+			final long[] sequence = new long[(numberOfBits >>> 6) + 1];
+			for(int n = 0; n < numberOfBits; n++) {
+				final int k = n % stateSize;
+				if(k == 0 && n > 0) {
+					twist(state);
+				}
+				sequence[n >>> 6] |= (long)(state[k] & 1) << (n & 63);
+			}
+
+			// Berlekamp-Massey over GF(2). Bit i of connection and reversedSequence correspond to c_i and s_{n-i}.
+			final int numberOfWords = (numberOfBits >>> 6) + 2;
+			long[] connection = new long[numberOfWords];
+			long[] previous = new long[numberOfWords];
+			final long[] reversedSequence = new long[numberOfWords];
+			connection[0] = 1L;
+			previous[0] = 1L;
+			int length = 0;
+			int m = 1;
+			for(int n = 0; n < numberOfBits; n++) {
+				// reversedSequence = reversedSequence * x + s_n
+				long carry = (sequence[n >>> 6] >>> (n & 63)) & 1L;
+				for(int k = 0; k <= (n >>> 6) && k < numberOfWords; k++) {
+					final long word = reversedSequence[k];
+					reversedSequence[k] = (word << 1) | carry;
+					carry = word >>> 63;
+				}
+
+				long discrepancy = 0;
+				for(int k = 0; k <= (length >>> 6); k++) {
+					discrepancy ^= connection[k] & reversedSequence[k];
+				}
+				if((Long.bitCount(discrepancy) & 1) == 0) {
+					m++;
+				}
+				else if(2 * length <= n) {
+					final long[] temp = connection.clone();
+					xorShifted(connection, previous, m);
+					length = n + 1 - length;
+					previous = temp;
+					m = 1;
+				}
+				else {
+					xorShifted(connection, previous, m);
+					m++;
+				}
+			}
+
+			if(length != degree) {
+				throw new IllegalStateException("Unexpected degree of the characteristic polynomial: " + length);
+			}
+
+			// The connection polynomial is the reciprocal of the characteristic polynomial
+			final long[] polynomial = new long[(degree >>> 6) + 1];
+			for(int i = 0; i <= degree; i++) {
+				if(((connection[i >>> 6] >>> (i & 63)) & 1L) != 0) {
+					final int j = degree - i;
+					polynomial[j >>> 6] |= 1L << (j & 63);
+				}
+			}
+			return polynomial;
+		}
+
+		private static void xorShifted(long[] target, long[] source, int shift) {
+			final int wordShift = shift >>> 6;
+			final int bitShift = shift & 63;
+			for(int k = target.length - 1; k >= wordShift; k--) {
+				long word = source[k - wordShift] << bitShift;
+				if(bitShift != 0 && k - wordShift - 1 >= 0) {
+					word |= source[k - wordShift - 1] >>> (64 - bitShift);
+				}
+				target[k] ^= word;
+			}
+		}
+	}
+
+	/**
+	 * The characteristic polynomial shifted by 0,...,63 bits (used for the reduction modulo P).
+	 */
+	private static final class ShiftedCharacteristicPolynomial {
+		private static final long[][] coefficients = calculateShiftedCharacteristicPolynomial();
+
+		private static long[][] calculateShiftedCharacteristicPolynomial() {
+			final long[] polynomial = CharacteristicPolynomial.coefficients;
+			final long[][] shifted = new long[64][polynomial.length + 1];
+			for(int shift = 0; shift < 64; shift++) {
+				for(int k = 0; k < polynomial.length; k++) {
+					shifted[shift][k] ^= polynomial[k] << shift;
+					if(shift != 0) {
+						shifted[shift][k+1] ^= polynomial[k] >>> (64 - shift);
+					}
+				}
+			}
+			return shifted;
+		}
+	}
+
+	private static final class JumpPolynomial {
+		private final long numberOfWords;
+		private final long[] coefficients;
+
+		private JumpPolynomial(long numberOfWords, long[] coefficients) {
+			this.numberOfWords = numberOfWords;
+			this.coefficients = coefficients;
+		}
+	}
 }
@@ -0,0 +1,306 @@
+package info.quantlab.numericalmethods.lecture.randomnumbers;
+
+import org.apache.commons.lang3.Validate;
+
+import net.finmath.functions.NormalDistribution;
+
+/**
+ * A generator of standard normal distributed random numbers, transforming the numbers of a uniform
+ * random number generator (<code>RandomNumberGenerator1D</code>) with one of the following algorithms:
+ * <ul>
+ * 	<li>{@link Algorithm#ICDF_WICHURA}: inverse of the cumulative distribution function (Wichura's AS241).</li>
+ * 	<li>{@link Algorithm#ICDF_ACKLAM}: inverse of the cumulative distribution function (Acklam's rational approximation, relative error &lt; 1.15E-9).</li>
+ * 	<li>{@link Algorithm#ZIGGURAT}: the ziggurat method (Marsaglia and Tsang) with 128 layers in the version of Doornik (ZIGNOR).</li>
+ * 	<li>{@link Algorithm#POLAR_BOX_MULLER}: the polar method of Marsaglia (Box-Muller without trigonometric functions).</li>
+ * </ul>
+ *
+ * The ICDF methods use exactly one uniform per normal and preserve the structure of the uniform sequence,
+ * hence they are the only methods that should be used with quasi random numbers.
+ * The ziggurat and the polar method are acceptance-rejection methods (using a random number of uniforms per normal),
+ * they require a pseudo random number generator.
+ *
+ * For the acceptance-rejection methods the uniforms are drawn from the uniform generator in blocks.
+ * The sequence generated by {@link #fill(double[], int, int)} agrees with the sequence generated by repeated
+ * calls of {@link #nextDouble()}.
+ *
+ * The methods <code>nextDouble</code> and <code>fill</code> are thread safe.
+ *
+ * @author Christian Fries
+ */
+public class NormalRandomNumberGenerator implements RandomNumberGenerator1D {
+
+	private static final long serialVersionUID = 2961785125098524347L;
+
+	/**
+	 * The algorithm used to transform uniform to normal distributed random numbers.
+	 */
+	public enum Algorithm {
+		/** Inverse of the cumulative distribution function (Wichura's AS241). */
+		ICDF_WICHURA,
+		/** Inverse of the cumulative distribution function (Acklam's approximation). */
+		ICDF_ACKLAM,
+		/** Ziggurat method (Marsaglia and Tsang, ZIGNOR version of Doornik). */
+		ZIGGURAT,
+		/** Polar method (Marsaglia). */
+		POLAR_BOX_MULLER
+	}
+
+	private static final int uniformBufferSize = 1024;
+
+	private final RandomNumberGenerator1D uniformRandomNumberGenerator;
+	private final Algorithm algorithm;
+
+	// Buffer of uniforms for the acceptance-rejection methods
+	private final double[] uniforms;
+	private int uniformsIndex;
+
+	// The polar method generates pairs, the second number of a pair is stored here
+	private double nextNormal;
+	private boolean isNextNormalAvailable;
+
+	/**
+	 * Create a generator of standard normal distributed random numbers.
+	 *
+	 * @param uniformRandomNumberGenerator The generator of the uniform random numbers.
+	 * @param algorithm The algorithm used to transform the uniforms.
+	 */
+	public NormalRandomNumberGenerator(RandomNumberGenerator1D uniformRandomNumberGenerator, Algorithm algorithm) {
+		super();
+		Validate.notNull(uniformRandomNumberGenerator, "Parameter uniformRandomNumberGenerator must not be null.");
+		Validate.notNull(algorithm, "Parameter algorithm must not be null.");
+		this.uniformRandomNumberGenerator = uniformRandomNumberGenerator;
+		this.algorithm = algorithm;
+
+		if(algorithm == Algorithm.ZIGGURAT || algorithm == Algorithm.POLAR_BOX_MULLER) {
+			uniforms = new double[uniformBufferSize];
+			uniformsIndex = uniformBufferSize;
+		}
+		else {
+			uniforms = null;
+		}
+	}
+
+	/**
+	 * Create a generator of standard normal distributed random numbers using the inverse cumulative distribution function (Wichura).
+	 *
+	 * @param uniformRandomNumberGenerator The generator of the uniform random numbers.
+	 */
+	public NormalRandomNumberGenerator(RandomNumberGenerator1D uniformRandomNumberGenerator) {
+		this(uniformRandomNumberGenerator, Algorithm.ICDF_WICHURA);
+	}
+
+	@Override
+	public double nextDouble() {
+		switch(algorithm) {
+		case ICDF_WICHURA:
+			return NormalDistribution.inverseCumulativeNormalDistributionWichura(uniformRandomNumberGenerator.nextDouble());
+		case ICDF_ACKLAM:
+			return inverseCumulativeNormalDistributionAcklam(uniformRandomNumberGenerator.nextDouble());
+		default:
+			synchronized(this) {
+				return nextDoubleFromAcceptanceRejection();
+			}
+		}
+	}
+
+	@Override
+	public void fill(double[] buffer, int offset, int length) {
+		switch(algorithm) {
+		case ICDF_WICHURA:
+			// Draw the uniforms as a block and transform them in place
+			uniformRandomNumberGenerator.fill(buffer, offset, length);
+			for(int i=offset; i<offset+length; i++) {
+				buffer[i] = NormalDistribution.inverseCumulativeNormalDistributionWichura(buffer[i]);
+			}
+			break;
+		case ICDF_ACKLAM:
+			uniformRandomNumberGenerator.fill(buffer, offset, length);
+			for(int i=offset; i<offset+length; i++) {
+				buffer[i] = inverseCumulativeNormalDistributionAcklam(buffer[i]);
+			}
+			break;
+		default:
+			synchronized(this) {
+				for(int i=offset; i<offset+length; i++) {
+					buffer[i] = nextDoubleFromAcceptanceRejection();
+				}
+			}
+		}
+	}
+
+	/**
+	 * The generator is a transformation of a uniform sequence. Jumping ahead is only supported for the ICDF methods
+	 * (one uniform per normal), where it jumps the uniform generator.
+	 *
+	 * @param numberOfVectors The number of random numbers to skip.
+	 */
+	@Override
+	public void jump(long numberOfVectors) {
+		if(algorithm == Algorithm.ICDF_WICHURA || algorithm == Algorithm.ICDF_ACKLAM) {
+			uniformRandomNumberGenerator.jump(numberOfVectors);
+		}
+		else {
+			RandomNumberGenerator1D.super.jump(numberOfVectors);
+		}
+	}
+
+	/**
+	 * @return The algorithm used to transform the uniforms.
+	 */
+	public Algorithm getAlgorithm() {
+		return algorithm;
+	}
+
+	@Override
+	public String toString() {
+		return "NormalRandomNumberGenerator [algorithm=" + algorithm + ", uniformRandomNumberGenerator=" + uniformRandomNumberGenerator + "]";
+	}
+
+	private double nextDoubleFromAcceptanceRejection() {
+		return algorithm == Algorithm.ZIGGURAT ? nextDoubleFromZiggurat() : nextDoubleFromPolarMethod();
+	}
+
+	private double nextUniform() {
+		if(uniformsIndex == uniformBufferSize) {
+			uniformRandomNumberGenerator.fill(uniforms, 0, uniformBufferSize);
+			uniformsIndex = 0;
+		}
+		return uniforms[uniformsIndex++];
+	}
+
+	/*
+	 * Ziggurat (ZIGNOR): a single uniform u gives the layer i (first 7 bits) and the position within the layer (remaining bits).
+	 */
+	private double nextDoubleFromZiggurat() {
+		while(true) {
+			final double scaledUniform = nextUniform() * Ziggurat.numberOfLayers;
+			final int i = (int)scaledUniform;
+			final double u = 2.0 * (scaledUniform - i) - 1.0;
+
+			// Inside the rectangle of layer i (probability approx. 98.8%)
+			if(Math.abs(u) < Ziggurat.ratios[i]) {
+				return u * Ziggurat.x[i];
+			}
+
+			// Base layer: sample from the tail
+			if(i == 0) {
+				return nextDoubleFromZigguratTail(u < 0);
+			}
+
+			// Wedge: acceptance-rejection with the density
+			final double x = u * Ziggurat.x[i];
+			final double f0 = Math.exp(-0.5 * (Ziggurat.x[i] * Ziggurat.x[i] - x * x));
+			final double f1 = Math.exp(-0.5 * (Ziggurat.x[i+1] * Ziggurat.x[i+1] - x * x));
+			if(f1 + nextUniform() * (f0 - f1) < 1.0) {
+				return x;
+			}
+		}
+	}
+
+	/*
+	 * Tail x > r (Marsaglia's method): uses 1-u in (0,1] to avoid log(0).
+	 */
+	private double nextDoubleFromZigguratTail(boolean isNegative) {
+		double x;
+		double y;
+		do {
+			x = Math.log(1.0 - nextUniform()) / Ziggurat.r;
+			y = Math.log(1.0 - nextUniform());
+		} while(-2.0 * y < x * x);
+		return isNegative ? x - Ziggurat.r : Ziggurat.r - x;
+	}
+
+	private double nextDoubleFromPolarMethod() {
+		if(isNextNormalAvailable) {
+			isNextNormalAvailable = false;
+			return nextNormal;
+		}
+
+		double v1;
+		double v2;
+		double s;
+		do {
+			v1 = 2.0 * nextUniform() - 1.0;
+			v2 = 2.0 * nextUniform() - 1.0;
+			s = v1 * v1 + v2 * v2;
+		} while(s >= 1.0 || s == 0.0);
+
+		final double factor = Math.sqrt(-2.0 * Math.log(s) / s);
+		nextNormal = v2 * factor;
+		isNextNormalAvailable = true;
+		return v1 * factor;
+	}
+
+	/**
+	 * Inverse of the cumulative distribution function of the standard normal distribution
+	 * using the rational approximation of Peter J. Acklam (relative error less than 1.15E-9).
+	 *
+	 * @param p The argument p in (0,1).
+	 * @return The value x such that \( \Phi(x) = p \).
+	 */
+	public static double inverseCumulativeNormalDistributionAcklam(double p) {
+		if(p <= 0) {
+			return Double.NEGATIVE_INFINITY;
+		}
+		else if(p >= 1) {
+			return Double.POSITIVE_INFINITY;
+		}
+		else if(p < Acklam.pLow) {
+			// Rational approximation for lower region
+			final double q = Math.sqrt(-2 * Math.log(p));
+			return (((((Acklam.c[0]*q+Acklam.c[1])*q+Acklam.c[2])*q+Acklam.c[3])*q+Acklam.c[4])*q+Acklam.c[5]) /
+					((((Acklam.d[0]*q+Acklam.d[1])*q+Acklam.d[2])*q+Acklam.d[3])*q+1);
+		}
+		else if(p <= 1 - Acklam.pLow) {
+			// Rational approximation for central region
+			final double q = p - 0.5;
+			final double r = q * q;
+			return (((((Acklam.a[0]*r+Acklam.a[1])*r+Acklam.a[2])*r+Acklam.a[3])*r+Acklam.a[4])*r+Acklam.a[5])*q /
+					(((((Acklam.b[0]*r+Acklam.b[1])*r+Acklam.b[2])*r+Acklam.b[3])*r+Acklam.b[4])*r+1);
+		}
+		else {
+			// Rational approximation for upper region
+			final double q = Math.sqrt(-2 * Math.log(1 - p));
+			return -(((((Acklam.c[0]*q+Acklam.c[1])*q+Acklam.c[2])*q+Acklam.c[3])*q+Acklam.c[4])*q+Acklam.c[5]) /
+					((((Acklam.d[0]*q+Acklam.d[1])*q+Acklam.d[2])*q+Acklam.d[3])*q+1);
+		}
+	}
+
+	/**
+	 * Coefficients of Acklam's rational approximation.
+	 */
+	private static final class Acklam {
+		private static final double[] a = { -3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02, 1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00 };
+		private static final double[] b = { -5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02, 6.680131188771972e+01, -1.328068155288572e+01 };
+		private static final double[] c = { -7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00, -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00 };
+		private static final double[] d = { 7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00, 3.754408661907416e+00 };
+		private static final double pLow = 0.02425;
+	}
+
+	/**
+	 * Tables of the ziggurat with 128 layers of equal area v (Doornik, "An Improved Ziggurat Method to Generate Normal Random Samples", 2005).
+	 * x[i] is the right edge of layer i, ratios[i] = x[i+1]/x[i] is the fraction of layer i inside the density.
+	 */
+	private static final class Ziggurat {
+		private static final int numberOfLayers = 128;
+		private static final double r = 3.442619855899;
+		private static final double v = 9.91256303526217e-3;
+
+		private static final double[] x = new double[numberOfLayers + 1];
+		private static final double[] ratios = new double[numberOfLayers];
+
+		static {
+			double f = Math.exp(-0.5 * r * r);
+			x[0] = v / f;		// the base layer includes the tail
+			x[1] = r;
+			x[numberOfLayers] = 0;
+			for(int i=2; i<numberOfLayers; i++) {
+				x[i] = Math.sqrt(-2 * Math.log(v / x[i-1] + f));
+				f = Math.exp(-0.5 * x[i] * x[i]);
+			}
+			for(int i=0; i<numberOfLayers; i++) {
+				ratios[i] = x[i+1] / x[i];
+			}
+		}
+	}
+}
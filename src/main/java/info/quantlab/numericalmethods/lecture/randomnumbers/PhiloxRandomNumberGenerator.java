@@ -0,0 +1,260 @@
+package info.quantlab.numericalmethods.lecture.randomnumbers;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * A counter-based pseudo random number generator using the Philox4x32-10 bijection
+ * (Salmon, Moraes, Dror, Shaw: "Parallel random numbers: as easy as 1, 2, 3", 2011).
+ *
+ * The random number is a pure function of the key (the seed) and a counter: the number for
+ * path (sample) index i and dimension (component) j is
+ * \( \mathrm{valueAt}(i,j) \), see {@link #valueAt(long, int)}.
+ * No state is required to calculate a number, hence any path or any component can be (re-)generated on any thread.
+ *
+ * As a <code>RandomNumberGenerator1D</code> the generator is the sequence of the numbers of path 0, path 1, ...,
+ * i.e., the n-th number is <code>valueAt(n / dimension, n % dimension)</code>, such that
+ * <code>new RandomNumberGeneratorFrom1D(generator, dimension)</code> generates the paths as vectors.
+ * The only state is the index of the next number, which is an atomic counter.
+ *
+ * The numbers are in the open interval (0,1) with a resolution of \( 2^{-52} \): the number is \( (k + 1/2) 2^{-52} \),
+ * where k are the upper 52 bits of a 64 bit word of the bijection (with 53 bits, \( k + 1/2 \) is not representable for large k
+ * and rounds to \( 2^{53} \), i.e., the number 1).
+ *
+ * @author Christian Fries
+ */
+public class PhiloxRandomNumberGenerator implements RandomNumberGenerator1D {
+
+	private static final long serialVersionUID = -2408957154326853047L;
+
+	// Constants of Philox4x32 (multipliers and Weyl sequence for the key schedule)
+	private static final long multiplier0 = 0xD2511F53L;
+	private static final long multiplier1 = 0xCD9E8D57L;
+	private static final int weyl0 = 0x9E3779B9;
+	private static final int weyl1 = 0xBB67AE85;
+
+	private static final int numberOfRounds = 10;
+
+	private final long seed;
+	private final int dimension;
+
+	// The key (k0, k1) = seed
+	private final int key0;
+	private final int key1;
+
+	private final AtomicLong index;
+
+	/**
+	 * Create a counter-based random number generator.
+	 *
+	 * @param seed The seed (the key of the Philox bijection).
+	 * @param dimension The number of components per path, defining the order of the numbers of the sequence.
+	 */
+	public PhiloxRandomNumberGenerator(long seed, int dimension) {
+		super();
+		Validate.isTrue(dimension >= 1, "Parameter dimension must be >= 1.");
+		this.seed = seed;
+		this.dimension = dimension;
+		key0 = (int)seed;
+		key1 = (int)(seed >>> 32);
+		index = new AtomicLong();
+	}
+
+	/**
+	 * Create a counter-based random number generator with one component per path, i.e., the n-th number is <code>valueAt(n, 0)</code>.
+	 *
+	 * @param seed The seed (the key of the Philox bijection).
+	 */
+	public PhiloxRandomNumberGenerator(long seed) {
+		this(seed, 1);
+	}
+
+	/**
+	 * Returns the random number for given path (sample) index and dimension (component).
+	 *
+	 * The counter of the Philox bijection is (pathIndex, dimension / 2); one application
+	 * of the bijection gives the numbers of two consecutive components.
+	 * The result does not depend on the state of this object.
+	 *
+	 * @param pathIndex The path index i &ge; 0.
+	 * @param dimension The dimension (component) j &ge; 0 (not limited by the dimension of this generator).
+	 * @return The random number for path i and component j, in (0,1).
+	 */
+	public double valueAt(long pathIndex, int dimension) {
+		final int[] block = new int[4];
+		getBlock(pathIndex, dimension >>> 1, block);
+		final int word = (dimension & 1) << 1;
+		return toDouble(block[word], block[word+1]);
+	}
+
+	/**
+	 * Writes the random numbers of the components 2k and 2k+1 of the given path, i.e., <code>valueAt(pathIndex, 2k)</code>
+	 * and <code>valueAt(pathIndex, 2k+1)</code>, using a single application of the bijection.
+	 * The method does not allocate memory, the caller provides the buffer for the words of the bijection
+	 * (e.g. one buffer per thread).
+	 *
+	 * @param pathIndex The path index i &ge; 0.
+	 * @param pairIndex The index k of the pair of components 2k, 2k+1.
+	 * @param values Array receiving the two random numbers (at index 0 and 1).
+	 * @param block Buffer (of length &ge; 4) used for the words of the bijection.
+	 */
+	public void valuesAt(long pathIndex, int pairIndex, double[] values, int[] block) {
+		getBlock(pathIndex, pairIndex, block);
+		values[0] = toDouble(block[0], block[1]);
+		values[1] = toDouble(block[2], block[3]);
+	}
+
+	@Override
+	public double nextDouble() {
+		final long n = index.getAndIncrement();
+		return valueAt(n / dimension, (int)(n % dimension));
+	}
+
+	@Override
+	public void fill(double[] buffer, int offset, int length) {
+		// Reserve the block of indices with a single atomic operation
+		fill(index.getAndAdd(length), buffer, offset, length);
+	}
+
+	/**
+	 * Fill the given buffer with the numbers <code>startIndex</code>, ..., <code>startIndex+length-1</code> of the sequence.
+	 * The method does not depend on (or change) the state of this object.
+	 *
+	 * @param startIndex The index of the first number.
+	 * @param buffer The buffer receiving the random numbers.
+	 * @param offset The index of the first element of the buffer to be written.
+	 * @param length The number of random numbers to generate.
+	 */
+	public void fill(long startIndex, double[] buffer, int offset, int length) {
+		fill(startIndex, buffer, offset, length, new int[4]);
+	}
+
+	/**
+	 * Fill the given buffer with the numbers <code>startIndex</code>, ..., <code>startIndex+length-1</code> of the sequence,
+	 * see {@link #fill(long, double[], int, int)}. The method does not allocate memory, the caller provides the buffer
+	 * for the words of the bijection (e.g. one buffer per thread).
+	 *
+	 * @param startIndex The index of the first number.
+	 * @param buffer The buffer receiving the random numbers.
+	 * @param offset The index of the first element of the buffer to be written.
+	 * @param length The number of random numbers to generate.
+	 * @param block Buffer (of length &ge; 4) used for the words of the bijection.
+	 */
+	public void fill(long startIndex, double[] buffer, int offset, int length, int[] block) {
+		long pathIndex = startIndex / dimension;
+		int component = (int)(startIndex % dimension);
+		int i = 0;
+		while(i < length) {
+			getBlock(pathIndex, component >>> 1, block);
+
+			// Use both numbers of the block if the two components are required
+			if((component & 1) == 0) {
+				buffer[offset + i++] = toDouble(block[0], block[1]);
+				component++;
+			}
+			if(i < length && component < dimension) {
+				buffer[offset + i++] = toDouble(block[2], block[3]);
+				component++;
+			}
+
+			if(component >= dimension) {
+				component = 0;
+				pathIndex++;
+			}
+		}
+	}
+
+	@Override
+	public void jump(long numberOfVectors) {
+		Validate.isTrue(numberOfVectors >= 0, "Parameter numberOfVectors must be >= 0.");
+		index.addAndGet(numberOfVectors);
+	}
+
+	@Override
+	public void skipTo(long index) {
+		Validate.isTrue(index >= 0, "Parameter index must be >= 0.");
+		this.index.set(index);
+	}
+
+	/**
+	 * @return The seed (the key of the Philox bijection).
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * @return The number of components per path.
+	 */
+	public int getNumberOfComponentsPerPath() {
+		return dimension;
+	}
+
+	@Override
+	public String toString() {
+		return "PhiloxRandomNumberGenerator [seed=" + seed + ", dimension=" + dimension + ", index=" + index + "]";
+	}
+
+	/**
+	 * Applies the Philox4x32-10 bijection to the counter (pathIndex, blockIndex) and the key of this generator.
+	 *
+	 * @param pathIndex The first two words of the counter.
+	 * @param blockIndex The third word of the counter (the fourth word is 0).
+	 * @param block Array receiving the four output words.
+	 */
+	private void getBlock(long pathIndex, int blockIndex, int[] block) {
+		block[0] = (int)pathIndex;
+		block[1] = (int)(pathIndex >>> 32);
+		block[2] = blockIndex;
+		block[3] = 0;
+		philox(block, key0, key1);
+	}
+
+	/**
+	 * The Philox4x32-10 bijection (in place).
+	 *
+	 * @param counter The counter (4 words), replaced by the result.
+	 * @param key0 First word of the key.
+	 * @param key1 Second word of the key.
+	 */
+	static void philox(int[] counter, int key0, int key1) {
+		int c0 = counter[0];
+		int c1 = counter[1];
+		int c2 = counter[2];
+		int c3 = counter[3];
+		int k0 = key0;
+		int k1 = key1;
+		for(int round = 0; round < numberOfRounds; round++) {
+			if(round > 0) {
+				k0 += weyl0;
+				k1 += weyl1;
+			}
+			final long product0 = multiplier0 * (c0 & 0xFFFFFFFFL);
+			final long product1 = multiplier1 * (c2 & 0xFFFFFFFFL);
+			final int hi0 = (int)(product0 >>> 32);
+			final int lo0 = (int)product0;
+			final int hi1 = (int)(product1 >>> 32);
+			final int lo1 = (int)product1;
+			c0 = hi1 ^ c1 ^ k0;
+			c1 = lo1;
+			c2 = hi0 ^ c3 ^ k1;
+			c3 = lo0;
+		}
+		counter[0] = c0;
+		counter[1] = c1;
+		counter[2] = c2;
+		counter[3] = c3;
+	}
+
+	private static double toDouble(int low, int high) {
+		return toDouble(((long)high << 32) | (low & 0xFFFFFFFFL));
+	}
+
+	/*
+	 * The 52 upper bits of the 64 bit word as a double in (0,1): (k + 0.5) / 2^52, which is exact (k + 0.5 has 53 significant bits)
+	 */
+	static double toDouble(long bits) {
+		return ((bits >>> 12) + 0.5) * 0x1.0p-52;
+	}
+}
@@ -0,0 +1,220 @@
+package info.quantlab.numericalmethods.lecture.randomnumbers;
+
+import java.io.Serializable;
+
+/**
+ * The radical inverse function \( \phi_{b}(n) = \sum_{k \geq 0} d_{k} b^{-k-1} \), where
+ * \( n = \sum_{k \geq 0} d_{k} b^{k} \) is the base b representation of n.
+ *
+ * This is the kernel of the {@link VanDerCorputSequence} and the {@link HaltonSequence}.
+ * The result is bit-identical to the textbook implementation
+ * <pre>
+ *	double x = 0.0;
+ *	double refinementFactor = 1.0 / base;
+ *	while(n &gt; 0) {
+ *		x += (n % base) * refinementFactor;
+ *		n = n / base;
+ *		refinementFactor = refinementFactor / base;
+ *	}
+ * </pre>
+ * but faster:
+ * <ul>
+ * 	<li>For base 2 the digits are the bits of n and the (exact) sum is the bit reversal of n.</li>
+ * 	<li>The factors \( b^{-k-1} \) (as calculated by the loop above) are pre-computed.</li>
+ * 	<li>For n &lt; 2<sup>31</sup> the division by b is replaced by a multiplication with a pre-computed reciprocal.</li>
+ * 	<li>For consecutive n, a {@link Cursor} keeps the digits of n and updates only the digits changed
+ * 	by the increment, such that no division is required.</li>
+ * </ul>
+ *
+ * @author Christian Fries
+ */
+public final class RadicalInverse implements Serializable {
+
+	private static final long serialVersionUID = -4174950946015003046L;
+
+	// Instances for small bases are created once and shared (they are immutable)
+	private static final int maximumCachedBase = 1024;
+	private static final RadicalInverse[] instances = new RadicalInverse[maximumCachedBase + 1];
+
+	// For base 2 the bit reversal is exact (and agrees with the sum) if n has at most 53 bits
+	private static final long maximumIndexForBitReversal = 1L << 53;
+
+	private final int base;
+
+	/*
+	 * For 0 <= m < 2^31 the quotient m / base is (m * reciprocal) >>> reciprocalShift (Granlund and Montgomery),
+	 * with reciprocal = floor(2^(31+l) / base) + 1, l = ceil(log2(base)).
+	 */
+	private final long reciprocal;
+	private final int reciprocalShift;
+
+	// factors[k] is the factor b^{-k-1} of the k-th digit
+	private final double[] factors;
+
+	private RadicalInverse(int base) {
+		super();
+		if(base <= 1) {
+			throw new IllegalArgumentException("base needs to be larger than 1");
+		}
+		this.base = base;
+
+		reciprocalShift = 31 + (32 - Integer.numberOfLeadingZeros(base - 1));
+		reciprocal = (1L << reciprocalShift) / base + 1;
+
+		// The maximum number of digits of a long in the given base
+		int numberOfDigits = 0;
+		for(long n = Long.MAX_VALUE; n > 0; n /= base) {
+			numberOfDigits++;
+		}
+
+		factors = new double[numberOfDigits];
+		double refinementFactor = 1.0 / base;
+		for(int k=0; k<numberOfDigits; k++) {
+			factors[k] = refinementFactor;
+			refinementFactor = refinementFactor / base;
+		}
+	}
+
+	/**
+	 * Returns the radical inverse function for a given base.
+	 *
+	 * @param base The base. Must be &gt; 1.
+	 * @return The radical inverse function for the given base.
+	 */
+	public static RadicalInverse of(int base) {
+		if(base > 1 && base <= maximumCachedBase) {
+			// Benign race: the object is immutable, at worst it is created twice.
+			RadicalInverse radicalInverse = instances[base];
+			if(radicalInverse == null) {
+				radicalInverse = new RadicalInverse(base);
+				instances[base] = radicalInverse;
+			}
+			return radicalInverse;
+		}
+		else {
+			return new RadicalInverse(base);
+		}
+	}
+
+	/**
+	 * Returns the radical inverse \( \phi_{b}(n) \).
+	 *
+	 * @param n The argument n. For n &le; 0 the value is 0.
+	 * @return The radical inverse \( \phi_{b}(n) \).
+	 */
+	public double valueOf(long n) {
+		if(base == 2 && n >= 0 && n < maximumIndexForBitReversal) {
+			return getBitReversal(n);
+		}
+
+		double x = 0.0;
+		int k = 0;
+		while(n > Integer.MAX_VALUE) {
+			final long quotient = n / base;
+			x += (n - quotient * base) * factors[k++];
+			n = quotient;
+		}
+		// Remaining digits: division replaced by a multiplication with the reciprocal
+		long m = n;
+		while(m > 0) {
+			final long quotient = (m * reciprocal) >>> reciprocalShift;
+			x += (m - quotient * base) * factors[k++];
+			m = quotient;
+		}
+		return x;
+	}
+
+	/**
+	 * Returns a cursor for the calculation of \( \phi_{b}(n) \), \( \phi_{b}(n+1) \), \( \phi_{b}(n+2) \), ...
+	 *
+	 * @param n The start value n. Must be &ge; 0.
+	 * @return A cursor positioned at n.
+	 */
+	public Cursor getCursor(long n) {
+		return new Cursor(n);
+	}
+
+	/**
+	 * @return The base.
+	 */
+	public int getBase() {
+		return base;
+	}
+
+	private static double getBitReversal(long n) {
+		return (Long.reverse(n) >>> 11) * 0x1.0p-53;
+	}
+
+	/**
+	 * A cursor calculating \( \phi_{b}(n) \) for consecutive n. The cursor keeps the digits of n
+	 * and the increment only touches the digits changed by the carry.
+	 *
+	 * A cursor is not thread safe, it is intended to be used locally, e.g., for the generation of a block of numbers.
+	 */
+	public final class Cursor {
+
+		private long n;
+
+		/*
+		 * The digits of n (least significant digit first) and the number of digits used by n.
+		 * For base 2 the digits are not required (bit reversal of n).
+		 */
+		private final int[] digits;
+		private int numberOfDigits;
+
+		private Cursor(long n) {
+			if(n < 0) {
+				throw new IllegalArgumentException("n needs to be non-negative");
+			}
+			this.n = n;
+
+			digits = new int[factors.length];
+			for(numberOfDigits = 0; n > 0 && base != 2; numberOfDigits++) {
+				final long quotient = n / base;
+				digits[numberOfDigits] = (int)(n - quotient * base);
+				n = quotient;
+			}
+		}
+
+		/**
+		 * @return The radical inverse \( \phi_{b}(n) \) of the current n.
+		 */
+		public double getValue() {
+			if(base == 2) {
+				return valueOf(n);
+			}
+
+			// Same order of summation as the textbook implementation
+			double x = 0.0;
+			for(int k=0; k<numberOfDigits; k++) {
+				x += digits[k] * factors[k];
+			}
+			return x;
+		}
+
+		/**
+		 * Advances the cursor from n to n+1.
+		 */
+		public void increment() {
+			n++;
+			if(base == 2) {
+				return;
+			}
+
+			int k = 0;
+			while(++digits[k] == base) {
+				digits[k++] = 0;
+			}
+			if(k >= numberOfDigits) {
+				numberOfDigits = k+1;
+			}
+		}
+
+		/**
+		 * @return The current n.
+		 */
+		public long getIndex() {
+			return n;
+		}
+	}
+}
@@ -22,6 +22,69 @@ public interface RandomNumberGenerator extends Serializable {
 	 */
 	double[] getNext();
 
+	/**
+	 * Write the next sample vector into the given array (avoiding the allocation of a new array).
+	 *
+	 * An implementation has to be thread safe.
+	 *
+	 * @param target The array receiving the sample vector, must have length &ge; <code>getDimension</code>.
+	 */
+	default void getNext(double[] target) {
+		fill(target, 0, 1);
+	}
+
+	/**
+	 * Fill the given buffer with the next <code>numberOfVectors</code> sample vectors.
+	 *
+	 * The vectors are stored consecutively, i.e., component j of the k-th vector is
+	 * stored at <code>buffer[offset + k * getDimension() + j]</code>.
+	 *
+	 * An implementation has to be thread safe. The default implementation calls
+	 * <code>getNext</code> for each vector.
+	 *
+	 * @param buffer The buffer receiving the samples.
+	 * @param offset The index of the first element of the buffer to be written.
+	 * @param numberOfVectors The number of sample vectors to generate.
+	 */
+	default void fill(double[] buffer, int offset, int numberOfVectors) {
+		final int dimension = getDimension();
+		for(int k=0; k<numberOfVectors; k++) {
+			System.arraycopy(getNext(), 0, buffer, offset + k * dimension, dimension);
+		}
+	}
+
+	/**
+	 * Advance the generator by the given number of sample vectors, that is,
+	 * the next call to <code>getNext</code> returns the same vector as
+	 * the call after skipping <code>numberOfVectors</code> vectors.
+	 *
+	 * The default implementation generates and discards the vectors.
+	 * Implementations should override this method if the sequence allows a faster jump-ahead.
+	 *
+	 * @param numberOfVectors The number of sample vectors to skip. Must be &ge; 0.
+	 */
+	default void jump(long numberOfVectors) {
+		for(long i=0; i<numberOfVectors; i++) {
+			getNext();
+		}
+	}
+
+	/**
+	 * Set the generator such that the next call to <code>getNext</code>
+	 * returns the sample vector with the given index (the first vector of the sequence
+	 * has index 0).
+	 *
+	 * Together with {@link #jump(long)} this allows to split a sequence into sub-sequences
+	 * which can be generated independently (e.g. on different threads),
+	 * reproducing the numbers of the original sequence.
+	 *
+	 * @param index The index of the next sample vector. Must be &ge; 0.
+	 * @throws UnsupportedOperationException if the generator does not support random access.
+	 */
+	default void skipTo(long index) {
+		throw new UnsupportedOperationException("skipTo is not supported by " + this.getClass().getSimpleName());
+	}
+
 	/**
 	 * Get the sample vector dimension.
 	 *
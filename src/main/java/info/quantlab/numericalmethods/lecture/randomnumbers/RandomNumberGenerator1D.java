@@ -32,6 +32,40 @@ public interface RandomNumberGenerator1D extends RandomNumberGenerator, DoubleSu
 		return nextDouble();
 	}
 
+	/**
+	 * Fill the given buffer with the next <code>length</code> numbers of this random number generator.
+	 *
+	 * An implementation has to be thread safe. The default implementation calls
+	 * <code>nextDouble</code> for each number. Implementations should override this method
+	 * to draw the block as a whole, e.g., synchronizing once per block instead of once per number.
+	 *
+	 * @param buffer The buffer receiving the random numbers.
+	 * @param offset The index of the first element of the buffer to be written.
+	 * @param length The number of random numbers to generate.
+	 */
+	@Override
+	default void fill(double[] buffer, int offset, int length) {
+		for(int i=offset; i<offset+length; i++) {
+			buffer[i] = nextDouble();
+		}
+	}
+
+	@Override
+	default void jump(long numberOfVectors) {
+		for(long i=0; i<numberOfVectors; i++) {
+			nextDouble();
+		}
+	}
+
+	/**
+	 * Fill the given buffer with random numbers.
+	 *
+	 * @param buffer The buffer receiving the random numbers.
+	 */
+	default void fill(double[] buffer) {
+		fill(buffer, 0, buffer.length);
+	}
+
 	@Override
 	default double[] getNext() {
 		return new double[] { nextDouble() };
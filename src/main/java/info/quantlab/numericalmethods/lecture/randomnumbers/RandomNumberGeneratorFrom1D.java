@@ -29,6 +29,21 @@ public class RandomNumberGeneratorFrom1D implements RandomNumberGenerator {
 		return value;
 	}
 
+	@Override
+	public void fill(double[] buffer, int offset, int numberOfVectors) {
+		randomNumberGenerator.fill(buffer, offset, numberOfVectors * dimension);
+	}
+
+	@Override
+	public void jump(long numberOfVectors) {
+		randomNumberGenerator.jump(numberOfVectors * dimension);
+	}
+
+	@Override
+	public void skipTo(long index) {
+		randomNumberGenerator.skipTo(index * dimension);
+	}
+
 	@Override
 	public int getDimension() {
 		return dimension;
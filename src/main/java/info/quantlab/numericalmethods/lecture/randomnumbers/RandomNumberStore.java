@@ -0,0 +1,354 @@
+package info.quantlab.numericalmethods.lecture.randomnumbers;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * A store of pre-calculated random numbers in a binary file.
+ *
+ * The numbers of a generator are written once to a file (see {@link #write(Path, RandomNumberGenerator, long)}).
+ * The file is read through memory mapped buffers (see {@link #open(Path)}), such that re-runs do not require the generation of
+ * the numbers and different JVMs share the numbers in the page cache of the operating system.
+ *
+ * The store provides random access to the numbers by index (see {@link #get(long)} and {@link #getVector(long, double[])})
+ * and views as a {@link RandomNumberGenerator1D} and as a {@link RandomNumberGenerator} (each view has its own index).
+ *
+ * The file consists of a header of 32 bytes (magic number, version, dimension, number of vectors, reserved bytes) followed by the
+ * numbers as little endian doubles, vector by vector.
+ *
+ * @author Christian Fries
+ */
+public class RandomNumberStore implements Serializable {
+
+	private static final long serialVersionUID = 5183694129617367742L;
+
+	private static final int magicNumber = 0x524E5331;	// "RNS1"
+	private static final int version = 1;
+	private static final int headerSize = 32;
+	private static final ByteOrder byteOrder = ByteOrder.LITTLE_ENDIAN;
+
+	// The file is mapped in segments of 2^27 doubles (1 GB), since a MappedByteBuffer is limited to 2^31 bytes
+	private static final int defaultNumbersPerSegmentLog2 = 27;
+
+	// Numbers per block when writing the file
+	private static final int writeBlockSize = 1 << 16;
+
+	private final Path file;
+	private final int dimension;
+	private final long numberOfVectors;
+	private final long numberOfNumbers;
+
+	private final int numbersPerSegmentLog2;
+	private final transient DoubleBuffer[] segments;
+
+	private RandomNumberStore(Path file, int numbersPerSegmentLog2) {
+		super();
+		this.file = file;
+		this.numbersPerSegmentLog2 = numbersPerSegmentLog2;
+
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			final ByteBuffer header = ByteBuffer.allocate(headerSize).order(byteOrder);
+			while(header.hasRemaining() && channel.read(header) >= 0) {
+				// read until the header is complete
+			}
+			header.flip();
+			if(header.remaining() < headerSize || header.getInt() != magicNumber) {
+				throw new IllegalArgumentException("The file " + file + " is not a random number store.");
+			}
+			final int fileVersion = header.getInt();
+			if(fileVersion != version) {
+				throw new IllegalArgumentException("The file " + file + " has an unsupported version " + fileVersion + ".");
+			}
+			dimension = header.getInt();
+			header.getInt();	// reserved
+			numberOfVectors = header.getLong();
+			numberOfNumbers = numberOfVectors * dimension;
+			if(channel.size() < headerSize + numberOfNumbers * Double.BYTES) {
+				throw new IllegalArgumentException("The file " + file + " is truncated.");
+			}
+
+			final long numbersPerSegment = 1L << numbersPerSegmentLog2;
+			final int numberOfSegments = (int)((numberOfNumbers + numbersPerSegment - 1) >>> numbersPerSegmentLog2);
+			segments = new DoubleBuffer[numberOfSegments];
+			for(int segmentIndex = 0; segmentIndex < numberOfSegments; segmentIndex++) {
+				final long firstNumber = segmentIndex * numbersPerSegment;
+				final long numbersInSegment = Math.min(numbersPerSegment, numberOfNumbers - firstNumber);
+				segments[segmentIndex] = channel.map(MapMode.READ_ONLY, headerSize + firstNumber * Double.BYTES, numbersInSegment * Double.BYTES)
+						.order(byteOrder).asDoubleBuffer();
+			}
+		}
+		catch(final IOException e) {
+			throw new UncheckedIOException("Failed to open random number store " + file, e);
+		}
+	}
+
+	/**
+	 * Open a random number store from a file.
+	 *
+	 * @param file The file written by {@link #write(Path, RandomNumberGenerator, long)}.
+	 * @return The random number store.
+	 */
+	public static RandomNumberStore open(Path file) {
+		return new RandomNumberStore(file, defaultNumbersPerSegmentLog2);
+	}
+
+	/**
+	 * Open a random number store with a given segment size (for tests of the segmentation).
+	 *
+	 * @param file The file written by {@link #write(Path, RandomNumberGenerator, long)}.
+	 * @param numbersPerSegmentLog2 The base 2 logarithm of the number of doubles per mapped segment.
+	 * @return The random number store.
+	 */
+	static RandomNumberStore open(Path file, int numbersPerSegmentLog2) {
+		return new RandomNumberStore(file, numbersPerSegmentLog2);
+	}
+
+	/**
+	 * Write the next <code>numberOfVectors</code> vectors of a random number generator to a file and open the store.
+	 *
+	 * @param file The file. An existing file will be overwritten.
+	 * @param generator The random number generator.
+	 * @param numberOfVectors The number of vectors to store.
+	 * @return The random number store.
+	 */
+	public static RandomNumberStore write(Path file, RandomNumberGenerator generator, long numberOfVectors) {
+		Validate.isTrue(numberOfVectors >= 0, "Parameter numberOfVectors must be >= 0.");
+
+		final int dimension = generator.getDimension();
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			final ByteBuffer header = ByteBuffer.allocate(headerSize).order(byteOrder);
+			header.putInt(magicNumber).putInt(version).putInt(dimension).putInt(0).putLong(numberOfVectors).putLong(0);	// the int and the last long are reserved
+			header.flip();
+			writeFully(channel, header);
+
+			final int vectorsPerBlock = Math.max(writeBlockSize / dimension, 1);
+			final double[] numbers = new double[vectorsPerBlock * dimension];
+			final ByteBuffer block = ByteBuffer.allocateDirect(numbers.length * Double.BYTES).order(byteOrder);
+			for(long vectorIndex = 0; vectorIndex < numberOfVectors; vectorIndex += vectorsPerBlock) {
+				final int vectorsInBlock = (int)Math.min(vectorsPerBlock, numberOfVectors - vectorIndex);
+				generator.fill(numbers, 0, vectorsInBlock);
+
+				block.clear();
+				block.asDoubleBuffer().put(numbers, 0, vectorsInBlock * dimension);
+				block.limit(vectorsInBlock * dimension * Double.BYTES);
+				writeFully(channel, block);
+			}
+		}
+		catch(final IOException e) {
+			throw new UncheckedIOException("Failed to write random number store " + file, e);
+		}
+
+		return open(file);
+	}
+
+	/**
+	 * Returns the number with the given index, where the index runs over all numbers of all vectors,
+	 * i.e., component j of vector i has index i * getDimension() + j.
+	 *
+	 * @param index The index of the number.
+	 * @return The number.
+	 */
+	public double get(long index) {
+		if(index < 0 || index >= numberOfNumbers) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of range [0, " + numberOfNumbers + ").");
+		}
+		return segments[(int)(index >>> numbersPerSegmentLog2)].get((int)(index & ((1L << numbersPerSegmentLog2) - 1)));
+	}
+
+	/**
+	 * Copy the vector with the given index to the target array.
+	 *
+	 * @param vectorIndex The index of the vector.
+	 * @param target The array receiving the vector, must have length &ge; <code>getDimension</code>.
+	 */
+	public void getVector(long vectorIndex, double[] target) {
+		get(vectorIndex * dimension, target, 0, dimension);
+	}
+
+	/**
+	 * Copy the numbers with index <code>startIndex</code>, ..., <code>startIndex+length-1</code> to the given buffer.
+	 *
+	 * @param startIndex The index of the first number (running over all numbers of all vectors).
+	 * @param buffer The buffer receiving the numbers.
+	 * @param offset The index of the first element of the buffer to be written.
+	 * @param length The number of numbers to copy.
+	 */
+	public void get(long startIndex, double[] buffer, int offset, int length) {
+		if(startIndex < 0 || length < 0 || startIndex + length > numberOfNumbers) {
+			throw new IndexOutOfBoundsException("Range [" + startIndex + ", " + (startIndex + length) + ") out of range [0, " + numberOfNumbers + ").");
+		}
+
+		final long numbersPerSegment = 1L << numbersPerSegmentLog2;
+		long index = startIndex;
+		int copied = 0;
+		while(copied < length) {
+			final int segmentIndex = (int)(index >>> numbersPerSegmentLog2);
+			final int indexInSegment = (int)(index & (numbersPerSegment - 1));
+			final int numbersToCopy = (int)Math.min(length - copied, numbersPerSegment - indexInSegment);
+			segments[segmentIndex].get(indexInSegment, buffer, offset + copied, numbersToCopy);
+			copied += numbersToCopy;
+			index += numbersToCopy;
+		}
+	}
+
+	/**
+	 * @return The dimension of the vectors.
+	 */
+	public int getDimension() {
+		return dimension;
+	}
+
+	/**
+	 * @return The number of vectors in this store.
+	 */
+	public long getNumberOfVectors() {
+		return numberOfVectors;
+	}
+
+	/**
+	 * @return The file of this store.
+	 */
+	public Path getFile() {
+		return file;
+	}
+
+	/**
+	 * Returns a view of all numbers of this store (vector by vector) as a one dimensional random number generator.
+	 *
+	 * @return A new random number generator starting at the first number.
+	 */
+	public RandomNumberGenerator1D getRandomNumberGenerator1D() {
+		return new StoreRandomNumberGenerator1D(this);
+	}
+
+	/**
+	 * Returns a view of the vectors of this store as a random number generator.
+	 *
+	 * @return A new random number generator starting at the first vector.
+	 */
+	public RandomNumberGenerator getRandomNumberGenerator() {
+		return new StoreRandomNumberGenerator(this);
+	}
+
+	@Override
+	public String toString() {
+		return "RandomNumberStore [file=" + file + ", dimension=" + dimension + ", numberOfVectors=" + numberOfVectors + "]";
+	}
+
+	// The mapped buffers are not serialized, the deserialized object maps the file again.
+	private Object readResolve() {
+		return new RandomNumberStore(file, numbersPerSegmentLog2);
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while(buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	private static long reserve(AtomicLong index, long length, long size) {
+		final long startIndex = index.getAndAdd(length);
+		if(startIndex + length > size) {
+			throw new IllegalStateException("The random number store is exhausted.");
+		}
+		return startIndex;
+	}
+
+	/**
+	 * View of the store as a one dimensional random number generator.
+	 */
+	private static class StoreRandomNumberGenerator1D implements RandomNumberGenerator1D {
+
+		private static final long serialVersionUID = -5398151376931218093L;
+
+		private final RandomNumberStore store;
+		private final AtomicLong index = new AtomicLong();
+
+		StoreRandomNumberGenerator1D(RandomNumberStore store) {
+			this.store = store;
+		}
+
+		@Override
+		public double nextDouble() {
+			return store.get(reserve(index, 1, store.numberOfNumbers));
+		}
+
+		@Override
+		public void fill(double[] buffer, int offset, int length) {
+			store.get(reserve(index, length, store.numberOfNumbers), buffer, offset, length);
+		}
+
+		@Override
+		public void jump(long numberOfVectors) {
+			Validate.isTrue(numberOfVectors >= 0, "Parameter numberOfVectors must be >= 0.");
+			index.addAndGet(numberOfVectors);
+		}
+
+		@Override
+		public void skipTo(long index) {
+			Validate.isTrue(index >= 0, "Parameter index must be >= 0.");
+			this.index.set(index);
+		}
+	}
+
+	/**
+	 * View of the store as a random number generator of vectors.
+	 */
+	private static class StoreRandomNumberGenerator implements RandomNumberGenerator {
+
+		private static final long serialVersionUID = 8620434757104398512L;
+
+		private final RandomNumberStore store;
+		private final AtomicLong index = new AtomicLong();
+
+		StoreRandomNumberGenerator(RandomNumberStore store) {
+			this.store = store;
+		}
+
+		@Override
+		public double[] getNext() {
+			final double[] vector = new double[store.dimension];
+			getNext(vector);
+			return vector;
+		}
+
+		@Override
+		public void getNext(double[] target) {
+			store.getVector(reserve(index, 1, store.numberOfVectors), target);
+		}
+
+		@Override
+		public void fill(double[] buffer, int offset, int numberOfVectors) {
+			final long startIndex = reserve(index, numberOfVectors, store.numberOfVectors);
+			store.get(startIndex * store.dimension, buffer, offset, numberOfVectors * store.dimension);
+		}
+
+		@Override
+		public void jump(long numberOfVectors) {
+			Validate.isTrue(numberOfVectors >= 0, "Parameter numberOfVectors must be >= 0.");
+			index.addAndGet(numberOfVectors);
+		}
+
+		@Override
+		public void skipTo(long index) {
+			Validate.isTrue(index >= 0, "Parameter index must be >= 0.");
+			this.index.set(index);
+		}
+
+		@Override
+		public int getDimension() {
+			return store.dimension;
+		}
+	}
+}
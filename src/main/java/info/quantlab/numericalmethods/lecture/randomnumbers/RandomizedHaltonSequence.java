@@ -0,0 +1,131 @@
+package info.quantlab.numericalmethods.lecture.randomnumbers;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implements a randomized multi-dimensional Halton sequence using a Cranley-Patterson rotation,
+ * i.e., the points are \( x_{i} + u \mod 1 \) (component-wise), where \( x_{i} \) is the i-th point of the
+ * Halton sequence and u is a uniformly distributed random vector.
+ *
+ * Each point of the randomized sequence is uniformly distributed in \( [0,1]^{d} \) and the randomized sequence
+ * retains the discrepancy of the Halton sequence (modulo 1). Hence independent randomizations (different seeds)
+ * allow to estimate the error of a quasi Monte-Carlo integration, see
+ * {@link info.quantlab.numericalmethods.lecture.montecarlo.integration.RQMCIntegrator}.
+ *
+ * @author Christian Fries
+ * @version 1.0
+ */
+public class RandomizedHaltonSequence implements RandomNumberGenerator {
+
+	private static final long serialVersionUID = 3245170930390557441L;
+
+	private final int[] base;
+	private final RadicalInverse[] radicalInverses;
+	private final long seed;
+	private final double[] shift;
+
+	private final AtomicLong currentIndex = new AtomicLong();
+
+	/**
+	 * Constructs a randomized Halton sequence with the given bases.
+	 *
+	 * The bases should be integers without common divisor greater than 1, for example, prime numbers.
+	 *
+	 * @param base The array of base integers. The length of the array defines the dimension of the sequence.
+	 * @param seed The seed of the random number generator used to generate the random shift.
+	 */
+	public RandomizedHaltonSequence(final int[] base, final long seed) {
+		for (final int element : base) {
+			if(element <= 1) {
+				throw new IllegalArgumentException("base needs to be larger than 1");
+			}
+		}
+
+		this.base = base;
+		this.seed = seed;
+
+		radicalInverses = new RadicalInverse[base.length];
+		for(int dimension = 0; dimension<base.length; dimension++) {
+			radicalInverses[dimension] = RadicalInverse.of(base[dimension]);
+		}
+
+		final MersenneTwister randomNumberGenerator = new MersenneTwister(seed);
+		shift = new double[base.length];
+		randomNumberGenerator.fill(shift);
+	}
+
+	@Override
+	public double[] getNext() {
+		final double[] point = new double[base.length];
+		getHaltonNumber(currentIndex.getAndIncrement(), point);
+		return point;
+	}
+
+	@Override
+	public void getNext(double[] target) {
+		getHaltonNumber(currentIndex.getAndIncrement(), target);
+	}
+
+	@Override
+	public void fill(double[] buffer, int offset, int numberOfVectors) {
+		// Reserve the block of indices with a single atomic operation
+		final long startIndex = currentIndex.getAndAdd(numberOfVectors);
+
+		// Each component of the block is calculated incrementally from the digits of the index
+		for(int dimension = 0; dimension<base.length; dimension++) {
+			final RadicalInverse.Cursor cursor = radicalInverses[dimension].getCursor(startIndex + 1);
+			for(int k=0; k<numberOfVectors; k++) {
+				buffer[offset + k*base.length + dimension] = rotate(cursor.getValue(), dimension);
+				cursor.increment();
+			}
+		}
+	}
+
+	@Override
+	public void jump(long numberOfVectors) {
+		if(numberOfVectors < 0) {
+			throw new IllegalArgumentException("numberOfVectors needs to be non-negative");
+		}
+		currentIndex.addAndGet(numberOfVectors);
+	}
+
+	@Override
+	public void skipTo(long index) {
+		if(index < 0) {
+			throw new IllegalArgumentException("index needs to be non-negative");
+		}
+		currentIndex.set(index);
+	}
+
+	@Override
+	public int getDimension() {
+		return base.length;
+	}
+
+	/**
+	 * Calculates the point with the given index.
+	 *
+	 * @param index The index of the point (starting with 0).
+	 * @param target The array receiving the point, must have length &ge; <code>getDimension</code>.
+	 */
+	public void getHaltonNumber(final long index, double[] target) {
+		for(int dimension = 0; dimension<base.length; dimension++) {
+			target[dimension] = getRotatedNumber(index, dimension);
+		}
+	}
+
+	private double getRotatedNumber(final long index, final int dimension) {
+		return rotate(radicalInverses[dimension].valueOf(index + 1), dimension);
+	}
+
+	private double rotate(final double x, final int dimension) {
+		final double y = x + shift[dimension];
+		return y >= 1.0 ? y - 1.0 : y;
+	}
+
+	@Override
+	public String toString() {
+		return "RandomizedHaltonSequence [base=" + Arrays.toString(base) + ", seed=" + seed + ", currentIndex=" + currentIndex + "]";
+	}
+}
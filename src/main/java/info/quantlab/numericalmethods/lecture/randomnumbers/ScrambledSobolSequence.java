@@ -0,0 +1,76 @@
+package info.quantlab.numericalmethods.lecture.randomnumbers;
+
+/**
+ * Implements a randomized Sobol sequence using a random linear matrix scrambling (Matoušek)
+ * together with a random digital shift.
+ *
+ * For each component j the points are \( L_{j} x_{i,j} \oplus e_{j} \), where \( x_{i,j} \) is the binary digit vector
+ * of the j-th component of the i-th point of the {@link SobolSequence}, \( L_{j} \) is a random lower triangular
+ * binary matrix with unit diagonal and \( e_{j} \) is a random binary digit vector.
+ *
+ * Each point of the scrambled sequence is uniformly distributed in \( [0,1]^{d} \) and the scrambled sequence
+ * retains the (t,m,s)-net property of the Sobol sequence. Hence independent randomizations (different seeds)
+ * allow to estimate the error of a quasi Monte-Carlo integration, see
+ * {@link info.quantlab.numericalmethods.lecture.montecarlo.integration.RQMCIntegrator}.
+ *
+ * The linear scrambling is used instead of Owen's nested uniform scrambling since it can be applied
+ * to the direction numbers, such that generating the points is as fast as for the unscrambled sequence.
+ * It has the same mean square discrepancy as the nested uniform scrambling.
+ *
+ * @author Christian Fries
+ * @version 1.0
+ */
+public class ScrambledSobolSequence extends SobolSequence {
+
+	private static final long serialVersionUID = -2357713226590227637L;
+
+	private static final int bits = 52;
+
+	private final long seed;
+
+	/**
+	 * Constructs a scrambled Sobol sequence with given dimension.
+	 *
+	 * @param dimension The dimension of the sequence. Must be in [1, 1000].
+	 * @param seed The seed of the random number generator used to generate the scrambling matrices and digital shifts.
+	 */
+	public ScrambledSobolSequence(final int dimension, final long seed) {
+		this(dimension, seed, new MersenneTwister(seed));
+	}
+
+	private ScrambledSobolSequence(final int dimension, final long seed, final MersenneTwister randomNumberGenerator) {
+		super(dimension, getRandomScramblingMatrices(dimension, randomNumberGenerator), getRandomDigits(dimension, randomNumberGenerator));
+		this.seed = seed;
+	}
+
+	@Override
+	public String toString() {
+		return "ScrambledSobolSequence [dimension=" + getDimension() + ", seed=" + seed + "]";
+	}
+
+	private static long[][] getRandomScramblingMatrices(int dimension, MersenneTwister randomNumberGenerator) {
+		final long[][] scramblingMatrices = new long[dimension][bits];
+		for(int j = 0; j < dimension; j++) {
+			for(int t = 0; t < bits; t++) {
+				// Row t has random elements (t,k) for k < t (bits 51,...,52-t) and 1 on the diagonal (bit 51-t).
+				final long diagonal = 1L << (bits - 1 - t);
+				final long maskBelowDiagonal = ((1L << bits) - 1) & ~((diagonal << 1) - 1);
+				scramblingMatrices[j][t] = (getRandomBits(randomNumberGenerator) & maskBelowDiagonal) | diagonal;
+			}
+		}
+		return scramblingMatrices;
+	}
+
+	private static long[] getRandomDigits(int dimension, MersenneTwister randomNumberGenerator) {
+		final long[] digits = new long[dimension];
+		for(int j = 0; j < dimension; j++) {
+			digits[j] = getRandomBits(randomNumberGenerator);
+		}
+		return digits;
+	}
+
+	private static long getRandomBits(MersenneTwister randomNumberGenerator) {
+		// The random numbers of the Mersenne Twister are multiples of 2^{-52}
+		return (long)(randomNumberGenerator.nextDouble() * 0x1.0p52);
+	}
+}
@@ -0,0 +1,140 @@
+package info.quantlab.numericalmethods.lecture.randomnumbers;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * A randomized van-der-Corput sequence using random digit permutations, implementing
+ * {@link RandomNumberGenerator1D}.
+ *
+ * If \( n = \sum_{k} d_{k} b^{k} \) is the base b representation of the index (plus 1, as for the {@link VanDerCorputSequence})
+ * the number is \( x_{n} = \sum_{k=0}^{K-1} \pi_{k}(d_{k}) b^{-k-1} \), where \( \pi_{k} \) are independent random permutations
+ * of the digits {0, ..., b-1}. The permutations are also applied to the leading zeros up to the number of digits K,
+ * where K is the largest integer such that \( b^{K} \leq 2^{52} \) (the resolution of a double).
+ *
+ * Each number of the randomized sequence is uniformly distributed (on the grid of multiples of \( b^{-K} \))
+ * and the randomized sequence retains the low discrepancy of the van-der-Corput sequence.
+ * Hence independent randomizations (different seeds) allow to estimate the error of a quasi Monte-Carlo integration.
+ *
+ * @author Christian Fries
+ */
+public class ScrambledVanDerCorputSequence implements RandomNumberGenerator1D {
+
+	private static final long serialVersionUID = 4311519917009736137L;
+
+	private final AtomicLong index;
+	private final int base;
+	private final long seed;
+
+	private final int numberOfDigits;
+	private final long[] powers;				// powers[k] = base^k
+	private final int[][] digitPermutations;	// digitPermutations[k][d] = pi_k(d)
+
+	/**
+	 * Create a scrambled van-der-Corput sequence for a given start index and base.
+	 *
+	 * @param startIndex The start index. Must be &ge; 0.
+	 * @param base The base of the sequence. Must be &gt; 1.
+	 * @param seed The seed of the random number generator used to generate the digit permutations.
+	 */
+	public ScrambledVanDerCorputSequence(long startIndex, int base, long seed) {
+		super();
+		Validate.isTrue(startIndex >= 0, "Parameter startIndex must be >= 0.");
+		Validate.isTrue(base > 1, "Parameter base must be > 1.");
+		this.index = new AtomicLong(startIndex);
+		this.base = base;
+		this.seed = seed;
+
+		int digits = 0;
+		long power = 1;
+		while(power <= (1L << 52) / base) {
+			power *= base;
+			digits++;
+		}
+		numberOfDigits = digits;
+
+		powers = new long[numberOfDigits+1];
+		powers[0] = 1;
+		for(int k=1; k<=numberOfDigits; k++) {
+			powers[k] = powers[k-1] * base;
+		}
+
+		// Random permutations via Fisher-Yates shuffle
+		final MersenneTwister randomNumberGenerator = new MersenneTwister(seed);
+		digitPermutations = new int[numberOfDigits][base];
+		for(int k=0; k<numberOfDigits; k++) {
+			final int[] permutation = digitPermutations[k];
+			for(int d=0; d<base; d++) {
+				permutation[d] = d;
+			}
+			for(int d=base-1; d>0; d--) {
+				final int j = (int)(randomNumberGenerator.nextDouble() * (d+1));
+				final int temp = permutation[d];
+				permutation[d] = permutation[j];
+				permutation[j] = temp;
+			}
+		}
+	}
+
+	/**
+	 * Create a scrambled van-der-Corput sequence for a given base.
+	 *
+	 * @param base The base of the sequence. Must be &gt; 1.
+	 * @param seed The seed of the random number generator used to generate the digit permutations.
+	 */
+	public ScrambledVanDerCorputSequence(int base, long seed) {
+		this(0, base, seed);
+	}
+
+	@Override
+	public double nextDouble() {
+		return getScrambledVanDerCorputNumber(index.getAndIncrement());
+	}
+
+	@Override
+	public void fill(double[] buffer, int offset, int length) {
+		// Reserve the block of indices with a single atomic operation
+		final long startIndex = index.getAndAdd(length);
+		for(int i=0; i<length; i++) {
+			buffer[offset+i] = getScrambledVanDerCorputNumber(startIndex+i);
+		}
+	}
+
+	@Override
+	public void jump(long numberOfVectors) {
+		Validate.isTrue(numberOfVectors >= 0, "Parameter numberOfVectors must be >= 0.");
+		index.addAndGet(numberOfVectors);
+	}
+
+	@Override
+	public void skipTo(long index) {
+		Validate.isTrue(index >= 0, "Parameter index must be >= 0.");
+		this.index.set(index);
+	}
+
+	/**
+	 * Return the scrambled van-der-Corput number.
+	 *
+	 * @param index The index of the sequence starting with 0
+	 * @return The scrambled van der Corput number
+	 */
+	public double getScrambledVanDerCorputNumber(long index) {
+
+		index = index + 1;
+
+		// Integer arithmetic: numerator / base^K is exact up to the final division
+		long numerator = 0;
+		for(int k=0; k<numberOfDigits; k++) {
+			final int digit = (int)(index % base);
+			index = index / base;
+			numerator += digitPermutations[k][digit] * powers[numberOfDigits-1-k];
+		}
+		return (double)numerator / powers[numberOfDigits];
+	}
+
+	@Override
+	public String toString() {
+		return "ScrambledVanDerCorputSequence [index=" + index + ", base=" + base + ", seed=" + seed + "]";
+	}
+}
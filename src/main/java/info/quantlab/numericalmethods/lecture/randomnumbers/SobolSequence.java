@@ -5,46 +5,307 @@
  */
 package info.quantlab.numericalmethods.lecture.randomnumbers;
 
-import org.apache.commons.math3.random.SobolSequenceGenerator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Implements a multi-dimensional Sobol sequence.
+ * Implements a multi-dimensional Sobol sequence (up to dimension 1000)
+ * using the direction numbers of Joe and Kuo (new-joe-kuo-6.1000).
  *
- * The class is just a wrapper to Apache commons-math implementation
- * in order to implement the interface <code>RandomNumberGenerator</code>
- * with a minimal change. The value 0, the first element of the sequence, is omitted.
+ * The i-th point of the sequence is calculated directly from its index via the Gray code
+ * representation of i, \( x_{i} = \bigoplus_{k : g_{k}(i) = 1} v_{k} \) where \( g(i) = i \oplus (i \gg 1) \).
+ * Hence the calculation of a point does not require a state and the class is thread safe
+ * without locking: the only state is the index of the next point, which is an atomic counter.
+ * Blocks of points are generated incrementally, requiring one XOR per component and point.
  *
+ * The sequence agrees with the one of <code>org.apache.commons.math3.random.SobolSequenceGenerator</code>,
+ * in particular the first point (index 0) is the point 0.
+ *
+ * A randomized version is provided by {@link ScrambledSobolSequence}.
  *
  * @author Christian Fries
- * @version 1.0
+ * @version 2.0
  */
 public class SobolSequence implements RandomNumberGenerator {
 
 	private static final long serialVersionUID = -1904010803493075019L;
 
+	// The number of bits used for the points
+	private static final int bits = 52;
+
+	private static final double scale = 0x1.0p-52;
+
+	private static final int maximumDimension = 1000;
+
 	private final int dimension;
 
-	private final SobolSequenceGenerator generator;
+	/*
+	 * The direction numbers v_{k}, stored as directionNumbers[k * dimension + j] for component j,
+	 * such that the numbers required for one incremental step are contiguous.
+	 */
+	private final long[] directionNumbers;
+
+	// The digital shift e_{j} of component j (the value of the point with index 0)
+	private final long[] digitalShift;
+
+	private final AtomicLong currentIndex = new AtomicLong();
 
 	/**
 	 * Constructs a Sobol sequence with given dimension.
 	 *
-	 * @param dimension The dimension of the sequence.
+	 * @param dimension The dimension of the sequence. Must be in [1, 1000].
 	 */
 	public SobolSequence(final int dimension) {
+		this(dimension, null, null);
+	}
+
+	/**
+	 * Constructs a (linearly scrambled and digitally shifted) Sobol sequence with given dimension.
+	 *
+	 * The points are \( L_{j} x_{i,j} \oplus e_{j} \), where \( x_{i,j} \) is the j-th component of the i-th point
+	 * of the Sobol sequence (as a vector of binary digits), \( L_{j} \) is a lower triangular binary matrix
+	 * and \( e_{j} \) is a vector of binary digits (the digital shift).
+	 * Since the scrambling is linear, it is applied to the direction numbers
+	 * and the generation of the points is as efficient as for the original sequence.
+	 *
+	 * @param dimension The dimension of the sequence. Must be in [1, 1000].
+	 * @param scramblingMatrices For each component j an array of 52 rows of \( L_{j} \), where bit 51-k of row t is the element (t,k) (first digit has index 0), or null.
+	 * @param digitalShift For each component j the digital shift \( e_{j} \) (52 bits), or null.
+	 */
+	protected SobolSequence(final int dimension, final long[][] scramblingMatrices, final long[] digitalShift) {
+		if(dimension < 1 || dimension > maximumDimension) {
+			throw new IllegalArgumentException("dimension needs to be in [1, " + maximumDimension + "]");
+		}
 		this.dimension = dimension;
-		generator = new SobolSequenceGenerator(dimension);
+
+		final long[][] directionNumbersForAllDimensions = DirectionNumbers.directionNumbers;
+		directionNumbers = new long[bits * dimension];
+		for(int k = 0; k < bits; k++) {
+			for(int j = 0; j < dimension; j++) {
+				long directionNumber = directionNumbersForAllDimensions[j][k];
+				if(scramblingMatrices != null) {
+					directionNumber = multiply(scramblingMatrices[j], directionNumber);
+				}
+				directionNumbers[k * dimension + j] = directionNumber;
+			}
+		}
+
+		this.digitalShift = digitalShift != null ? digitalShift.clone() : new long[dimension];
 	}
 
 	@Override
 	public double[] getNext() {
-		synchronized (generator) {
-			return generator.nextVector();
+		final double[] point = new double[dimension];
+		getSobolPoint(currentIndex.getAndIncrement(), point);
+		return point;
+	}
+
+	@Override
+	public void getNext(double[] target) {
+		getSobolPoint(currentIndex.getAndIncrement(), target);
+	}
+
+	@Override
+	public void fill(double[] buffer, int offset, int numberOfVectors) {
+		// Reserve the block of indices with a single atomic operation
+		final long startIndex = currentIndex.getAndAdd(numberOfVectors);
+		fill(startIndex, buffer, offset, numberOfVectors);
+	}
+
+	/**
+	 * Fill the given buffer with the points with index <code>startIndex</code>, ..., <code>startIndex+numberOfVectors-1</code>.
+	 * The method does not depend on (or change) the state of this object.
+	 *
+	 * The first point is calculated from its index, the following points are calculated incrementally.
+	 * The points are stored consecutively, i.e., component j of the k-th point is
+	 * stored at <code>buffer[offset + k * getDimension() + j]</code>.
+	 *
+	 * @param startIndex The index of the first point.
+	 * @param buffer The buffer receiving the points.
+	 * @param offset The index of the first element of the buffer to be written.
+	 * @param numberOfVectors The number of points to generate.
+	 */
+	public void fill(long startIndex, double[] buffer, int offset, int numberOfVectors) {
+		if(numberOfVectors <= 0) {
+			return;
+		}
+
+		final long[] point = new long[dimension];
+		getSobolPointAsLong(startIndex, point);
+		for(int j = 0; j < dimension; j++) {
+			buffer[offset + j] = point[j] * scale;
+		}
+
+		for(int i = 1; i < numberOfVectors; i++) {
+			// Gray code: the point with index n differs from the point n-1 by the direction number v_{c}, c = trailing zeros of n
+			final int directionOffset = Long.numberOfTrailingZeros(startIndex + i) * dimension;
+			final int bufferOffset = offset + i * dimension;
+			for(int j = 0; j < dimension; j++) {
+				point[j] ^= directionNumbers[directionOffset + j];
+				buffer[bufferOffset + j] = point[j] * scale;
+			}
+		}
+	}
+
+	/**
+	 * Calculates the point with the given index.
+	 *
+	 * @param index The index of the point (starting with 0).
+	 * @param target The array receiving the point, must have length &ge; <code>getDimension</code>.
+	 */
+	public void getSobolPoint(long index, double[] target) {
+		final long grayCode = index ^ (index >>> 1);
+		for(int j = 0; j < dimension; j++) {
+			target[j] = getSobolNumberFromGrayCode(grayCode, j) * scale;
+		}
+	}
+
+	/**
+	 * Calculates the point with the given index.
+	 *
+	 * @param index The index of the point (starting with 0).
+	 * @return The point with the given index.
+	 */
+	public double[] getSobolPoint(long index) {
+		final double[] point = new double[dimension];
+		getSobolPoint(index, point);
+		return point;
+	}
+
+	/**
+	 * Calculates the component of the point with the given index.
+	 *
+	 * @param index The index of the point (starting with 0).
+	 * @param component The component, i.e., an integer in [0, getDimension()-1].
+	 * @return The component of the point with the given index.
+	 */
+	public double getSobolNumber(long index, int component) {
+		return getSobolNumberFromGrayCode(index ^ (index >>> 1), component) * scale;
+	}
+
+	@Override
+	public void jump(long numberOfVectors) {
+		if(numberOfVectors < 0) {
+			throw new IllegalArgumentException("numberOfVectors needs to be non-negative");
 		}
+		currentIndex.addAndGet(numberOfVectors);
+	}
+
+	@Override
+	public void skipTo(long index) {
+		if(index < 0) {
+			throw new IllegalArgumentException("index needs to be non-negative");
+		}
+		currentIndex.set(index);
 	}
 
 	@Override
 	public int getDimension() {
 		return dimension;
 	}
+
+	@Override
+	public String toString() {
+		return "SobolSequence [dimension=" + dimension + ", currentIndex=" + currentIndex + "]";
+	}
+
+	private void getSobolPointAsLong(long index, long[] point) {
+		final long grayCode = index ^ (index >>> 1);
+		for(int j = 0; j < dimension; j++) {
+			point[j] = getSobolNumberFromGrayCode(grayCode, j);
+		}
+	}
+
+	private long getSobolNumberFromGrayCode(long grayCode, int component) {
+		long x = digitalShift[component];
+		long remainingBits = grayCode;
+		while(remainingBits != 0) {
+			final int k = Long.numberOfTrailingZeros(remainingBits);
+			x ^= directionNumbers[k * dimension + component];
+			remainingBits &= remainingBits - 1;
+		}
+		return x;
+	}
+
+	/*
+	 * Multiplication of the binary digit vector x (digit t is bit 51-t) with the binary matrix given by its rows.
+	 */
+	private static long multiply(long[] matrixRows, long x) {
+		long result = 0;
+		for(int t = 0; t < bits; t++) {
+			result |= (long)(Long.bitCount(matrixRows[t] & x) & 1) << (bits - 1 - t);
+		}
+		return result;
+	}
+
+	/**
+	 * The direction numbers for all dimensions, loaded (once) from the file of Joe and Kuo.
+	 * The direction number v_{k} (k = 0,...,bits-1) of dimension j is directionNumbers[j][k].
+	 */
+	private static final class DirectionNumbers {
+		private static final String resourceName = "new-joe-kuo-6.1000";
+
+		private static final long[][] directionNumbers = loadDirectionNumbers();
+
+		private static long[][] loadDirectionNumbers() {
+			final long[][] directionNumbers = new long[maximumDimension][bits];
+
+			// The first dimension is the van der Corput sequence in base 2
+			for(int k = 0; k < bits; k++) {
+				directionNumbers[0][k] = 1L << (bits - 1 - k);
+			}
+
+			try(InputStream inputStream = SobolSequence.class.getResourceAsStream(resourceName)) {
+				if(inputStream == null) {
+					throw new IllegalStateException("Resource " + resourceName + " not found.");
+				}
+				final BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.US_ASCII));
+
+				// Skip the header line
+				reader.readLine();
+
+				String line;
+				while((line = reader.readLine()) != null) {
+					final String[] tokens = line.trim().split("\\s+");
+					if(tokens.length < 3) {
+						continue;
+					}
+					final int dimension = Integer.parseInt(tokens[0]);
+					final int degree = Integer.parseInt(tokens[1]);
+					final int coefficients = Integer.parseInt(tokens[2]);
+					final int[] initialNumbers = new int[degree];
+					for(int i = 0; i < degree; i++) {
+						initialNumbers[i] = Integer.parseInt(tokens[3 + i]);
+					}
+					initDirectionNumbers(directionNumbers[dimension-1], degree, coefficients, initialNumbers);
+				}
+			}
+			catch(final IOException e) {
+				throw new UncheckedIOException("Failed to read direction numbers from " + resourceName, e);
+			}
+
+			return directionNumbers;
+		}
+
+		/*
+		 * Direction numbers v_{k} from the primitive polynomial of degree s with coefficients a
+		 * and the initial numbers m_{1},...,m_{s} (Bratley and Fox, Algorithm 659).
+		 */
+		private static void initDirectionNumbers(long[] direction, int degree, int coefficients, int[] initialNumbers) {
+			for(int k = 0; k < degree; k++) {
+				direction[k] = ((long) initialNumbers[k]) << (bits - 1 - k);
+			}
+			for(int k = degree; k < bits; k++) {
+				direction[k] = direction[k - degree] ^ (direction[k - degree] >> degree);
+				for(int l = 1; l <= degree - 1; l++) {
+					direction[k] ^= ((coefficients >> (degree - 1 - l)) & 1) * direction[k - l];
+				}
+			}
+		}
+	}
 }
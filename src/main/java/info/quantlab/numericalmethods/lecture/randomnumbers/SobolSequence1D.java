@@ -1,14 +1,16 @@
 package info.quantlab.numericalmethods.lecture.randomnumbers;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
- * Implements a multi-dimensional Sobol sequence.
- *
- * The class is just a wrapper to Apache commons-math implementation
- * in order to implement the interfaces <code>RandomNumberGenerator1D</code>
+ * Implements a one-dimensional Sobol sequence, i.e., the first component of
+ * the {@link SobolSequence}, implementing the interfaces <code>RandomNumberGenerator1D</code>
  * and {@link java.util.function.DoubleSupplier}.
  *
+ * The numbers are calculated directly from their index, the class is thread safe without locking.
+ *
  * @author Christian Fries
- * @version 1.0
+ * @version 2.0
  */
 public class SobolSequence1D implements RandomNumberGenerator1D {
 
@@ -16,6 +18,8 @@ public class SobolSequence1D implements RandomNumberGenerator1D {
 
 	private final SobolSequence sobolSequence;
 
+	private final AtomicLong index = new AtomicLong();
+
 	/**
 	 * Create a Sobol sequence.
 	 */
@@ -26,6 +30,34 @@ public class SobolSequence1D implements RandomNumberGenerator1D {
 
 	@Override
 	public double nextDouble() {
-		return sobolSequence.getNext()[0];
+		return sobolSequence.getSobolNumber(index.getAndIncrement(), 0);
+	}
+
+	@Override
+	public void fill(double[] buffer, int offset, int length) {
+		// The underlying sequence has dimension 1, hence vectors and numbers coincide
+		final long startIndex = index.getAndAdd(length);
+		sobolSequence.fill(startIndex, buffer, offset, length);
+	}
+
+	@Override
+	public void jump(long numberOfVectors) {
+		if(numberOfVectors < 0) {
+			throw new IllegalArgumentException("numberOfVectors needs to be non-negative");
+		}
+		index.addAndGet(numberOfVectors);
+	}
+
+	@Override
+	public void skipTo(long index) {
+		if(index < 0) {
+			throw new IllegalArgumentException("index needs to be non-negative");
+		}
+		this.index.set(index);
+	}
+
+	@Override
+	public String toString() {
+		return "SobolSequence1D [index=" + index + "]";
 	}
 }
@@ -0,0 +1,303 @@
+package info.quantlab.numericalmethods.lecture.randomnumbers;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * A stratified sampler of the unit cube \( [0,1]^{d} \).
+ *
+ * The first k components (the stratified dimensions) of the unit cube are divided into m intervals each, giving
+ * \( S = m^{k} \) strata (sub-cubes) of equal volume \( 1/S \). The remaining d-k components are not stratified.
+ * The stratum s gets \( n_{s} \) points, uniformly distributed in the stratum. The allocation
+ * \( (n_{0}, \ldots, n_{S-1}) \) may be
+ * <ul>
+ * 	<li>proportional, \( n_{s} = N / S \), see {@link #ofProportionalAllocation(int, int, int, long, long)}, or</li>
+ * 	<li>optimal (Neyman), \( n_{s} \propto \sigma_{s} \), where \( \sigma_{s} \) is the standard deviation of the integrand on the stratum,
+ * 		see {@link #withNeymanAllocation(double[], long, long)}, e.g., using the standard deviations estimated by a first pass.</li>
+ * </ul>
+ *
+ * The sequence of points is ordered by strata: the points with index \( F_{s}, \ldots, F_{s}+n_{s}-1 \) belong to stratum s, where
+ * \( F_{s} = n_{0} + \ldots + n_{s-1} \). After \( N = \sum_{s} n_{s} \) points the sequence continues with new points of stratum 0.
+ * The points are a function of their index (using the counter-based {@link PhiloxRandomNumberGenerator}), hence
+ * the points of a stratum can be generated independently of the other strata (e.g., one stratum per task), see {@link #fill(long, double[], int, int)}.
+ *
+ * @author Christian Fries
+ */
+public class StratifiedSampler implements RandomNumberGenerator {
+
+	private static final long serialVersionUID = 8120694736452330617L;
+
+	private static final long minimumNumberOfPointsPerStratum = 2;
+
+	private final int dimension;
+	private final int numberOfStratifiedDimensions;
+	private final int numberOfStrataPerDimension;
+	private final long seed;
+
+	// firstIndexOfStrata[s] is the index of the first point of stratum s, firstIndexOfStrata[S] the total number of points
+	private final long[] firstIndexOfStrata;
+
+	private final PhiloxRandomNumberGenerator uniformGenerator;
+	private final AtomicLong currentIndex = new AtomicLong();
+
+	/**
+	 * Create a stratified sampler with a given allocation of the points to the strata.
+	 *
+	 * The stratum s corresponds to the sub-cube with the index \( (i_{0}, \ldots, i_{k-1}) \), \( s = \sum_{j} i_{j} m^{j} \), i.e.,
+	 * the j-th component of its points is in \( [i_{j}/m, (i_{j}+1)/m) \).
+	 *
+	 * @param dimension The dimension d of the unit cube.
+	 * @param numberOfStratifiedDimensions The number k of components which are stratified (the first k components).
+	 * @param numberOfStrataPerDimension The number m of intervals per stratified dimension.
+	 * @param numberOfPointsOfStrata The number of points \( n_{s} \) of each stratum (the array must have length \( m^{k} \)).
+	 * @param seed The seed of the uniform random numbers.
+	 */
+	public StratifiedSampler(int dimension, int numberOfStratifiedDimensions, int numberOfStrataPerDimension, long[] numberOfPointsOfStrata, long seed) {
+		super();
+		Validate.isTrue(dimension >= 1, "Parameter dimension must be >= 1.");
+		Validate.isTrue(numberOfStratifiedDimensions >= 1 && numberOfStratifiedDimensions <= dimension, "Parameter numberOfStratifiedDimensions must be in [1, dimension].");
+		Validate.isTrue(numberOfStrataPerDimension >= 1, "Parameter numberOfStrataPerDimension must be >= 1.");
+		Validate.isTrue(numberOfPointsOfStrata.length == getNumberOfStrata(numberOfStratifiedDimensions, numberOfStrataPerDimension), "Parameter numberOfPointsOfStrata must have length numberOfStrataPerDimension^numberOfStratifiedDimensions.");
+
+		this.dimension = dimension;
+		this.numberOfStratifiedDimensions = numberOfStratifiedDimensions;
+		this.numberOfStrataPerDimension = numberOfStrataPerDimension;
+		this.seed = seed;
+
+		firstIndexOfStrata = new long[numberOfPointsOfStrata.length+1];
+		for(int stratum=0; stratum<numberOfPointsOfStrata.length; stratum++) {
+			Validate.isTrue(numberOfPointsOfStrata[stratum] >= 1, "Each stratum must have at least one point.");
+			firstIndexOfStrata[stratum+1] = Math.addExact(firstIndexOfStrata[stratum], numberOfPointsOfStrata[stratum]);
+		}
+
+		uniformGenerator = new PhiloxRandomNumberGenerator(seed, dimension);
+	}
+
+	/**
+	 * Create a stratified sampler with proportional allocation, i.e., each stratum gets N/S points
+	 * (if N is not a multiple of S, the first N mod S strata get one additional point).
+	 *
+	 * @param dimension The dimension d of the unit cube.
+	 * @param numberOfStratifiedDimensions The number k of components which are stratified (the first k components).
+	 * @param numberOfStrataPerDimension The number m of intervals per stratified dimension.
+	 * @param numberOfPoints The total number of points N (must be &ge; S).
+	 * @param seed The seed of the uniform random numbers.
+	 * @return The stratified sampler.
+	 */
+	public static StratifiedSampler ofProportionalAllocation(int dimension, int numberOfStratifiedDimensions, int numberOfStrataPerDimension, long numberOfPoints, long seed) {
+		final int numberOfStrata = getNumberOfStrata(numberOfStratifiedDimensions, numberOfStrataPerDimension);
+		Validate.isTrue(numberOfPoints >= numberOfStrata, "Parameter numberOfPoints must be >= the number of strata.");
+
+		final long[] numberOfPointsOfStrata = new long[numberOfStrata];
+		for(int stratum=0; stratum<numberOfStrata; stratum++) {
+			numberOfPointsOfStrata[stratum] = numberOfPoints / numberOfStrata + (stratum < numberOfPoints % numberOfStrata ? 1 : 0);
+		}
+		return new StratifiedSampler(dimension, numberOfStratifiedDimensions, numberOfStrataPerDimension, numberOfPointsOfStrata, seed);
+	}
+
+	/**
+	 * Create a stratified sampler with the same strata as this sampler, using the Neyman allocation
+	 * \( n_{s} \propto \sigma_{s} \) (the strata have equal volume), which minimizes the variance of the stratified estimator
+	 * for a given total number of points.
+	 *
+	 * Each stratum gets at least two points, such that its variance can be estimated (and re-used for a subsequent allocation).
+	 *
+	 * @param standardDeviationsOfStrata The standard deviations \( \sigma_{s} \) of the integrand on the strata, e.g., estimated by a first pass.
+	 * @param numberOfPoints The total number of points N (must be &ge; 2 S).
+	 * @param seed The seed of the uniform random numbers (should differ from the seed of the first pass to obtain independent samples).
+	 * @return The stratified sampler.
+	 */
+	public StratifiedSampler withNeymanAllocation(double[] standardDeviationsOfStrata, long numberOfPoints, long seed) {
+		final int numberOfStrata = getNumberOfStrata();
+		Validate.isTrue(standardDeviationsOfStrata.length == numberOfStrata, "Parameter standardDeviationsOfStrata must have one element per stratum.");
+		Validate.isTrue(numberOfPoints >= minimumNumberOfPointsPerStratum * numberOfStrata, "Parameter numberOfPoints must be >= 2 times the number of strata.");
+
+		double sumOfStandardDeviations = 0.0;
+		for(final double standardDeviation : standardDeviationsOfStrata) {
+			Validate.isTrue(standardDeviation >= 0, "Standard deviations must be >= 0.");
+			sumOfStandardDeviations += standardDeviation;
+		}
+		if(sumOfStandardDeviations == 0.0) {
+			return ofProportionalAllocation(dimension, numberOfStratifiedDimensions, numberOfStrataPerDimension, numberOfPoints, seed);
+		}
+
+		// The minimum number of points is allocated first, the remaining points proportional to the standard deviation (largest remainder rounding)
+		final long numberOfPointsToAllocate = numberOfPoints - minimumNumberOfPointsPerStratum * numberOfStrata;
+		final long[] numberOfPointsOfStrata = new long[numberOfStrata];
+		final double[] remainders = new double[numberOfStrata];
+		long numberOfPointsAllocated = 0;
+		for(int stratum=0; stratum<numberOfStrata; stratum++) {
+			final double share = numberOfPointsToAllocate * standardDeviationsOfStrata[stratum] / sumOfStandardDeviations;
+			final long numberOfPointsOfStratum = Math.min((long)Math.floor(share), numberOfPointsToAllocate - numberOfPointsAllocated);
+			numberOfPointsOfStrata[stratum] = minimumNumberOfPointsPerStratum + numberOfPointsOfStratum;
+			remainders[stratum] = share - numberOfPointsOfStratum;
+			numberOfPointsAllocated += numberOfPointsOfStratum;
+		}
+
+		final Integer[] strataByRemainder = new Integer[numberOfStrata];
+		for(int stratum=0; stratum<numberOfStrata; stratum++) {
+			strataByRemainder[stratum] = stratum;
+		}
+		Arrays.sort(strataByRemainder, (stratum1, stratum2) -> Double.compare(remainders[stratum2], remainders[stratum1]));
+		for(int i=0; numberOfPointsAllocated < numberOfPointsToAllocate; i = (i+1) % numberOfStrata) {
+			numberOfPointsOfStrata[strataByRemainder[i]]++;
+			numberOfPointsAllocated++;
+		}
+
+		return new StratifiedSampler(dimension, numberOfStratifiedDimensions, numberOfStrataPerDimension, numberOfPointsOfStrata, seed);
+	}
+
+	@Override
+	public double[] getNext() {
+		final double[] point = new double[dimension];
+		fill(currentIndex.getAndIncrement(), point, 0, 1);
+		return point;
+	}
+
+	@Override
+	public void fill(double[] buffer, int offset, int numberOfVectors) {
+		// Reserve the block of indices with a single atomic operation
+		fill(currentIndex.getAndAdd(numberOfVectors), buffer, offset, numberOfVectors);
+	}
+
+	/**
+	 * Fill the given buffer with the points <code>startIndex</code>, ..., <code>startIndex+numberOfVectors-1</code> of the sequence.
+	 * The method does not depend on (or change) the state of this object.
+	 *
+	 * The points of stratum s are obtained with <code>startIndex = getFirstIndexOfStratum(s)</code> and
+	 * <code>numberOfVectors = getNumberOfPointsOfStratum(s)</code>.
+	 *
+	 * @param startIndex The index of the first point.
+	 * @param buffer The buffer receiving the points (stored consecutively).
+	 * @param offset The index of the first element of the buffer to be written.
+	 * @param numberOfVectors The number of points to generate.
+	 */
+	public void fill(long startIndex, double[] buffer, int offset, int numberOfVectors) {
+		uniformGenerator.fill(Math.multiplyExact(startIndex, dimension), buffer, offset, numberOfVectors * dimension);
+
+		final long numberOfPoints = getNumberOfPoints();
+		int stratum = getStratumOfIndex(startIndex);
+		long endIndexOfStratum = startIndex - Math.floorMod(startIndex, numberOfPoints) + firstIndexOfStrata[stratum+1];
+		for(int k=0; k<numberOfVectors; k++) {
+			final long index = startIndex + k;
+			if(index >= endIndexOfStratum) {
+				stratum = getStratumOfIndex(index);
+				endIndexOfStratum = index - Math.floorMod(index, numberOfPoints) + firstIndexOfStrata[stratum+1];
+			}
+
+			// Map the first k components into the sub-cube of the stratum
+			int cellIndex = stratum;
+			for(int component=0; component<numberOfStratifiedDimensions; component++) {
+				final int cell = cellIndex % numberOfStrataPerDimension;
+				cellIndex /= numberOfStrataPerDimension;
+				final int position = offset + k * dimension + component;
+				buffer[position] = (cell + buffer[position]) / numberOfStrataPerDimension;
+			}
+		}
+	}
+
+	@Override
+	public void jump(long numberOfVectors) {
+		Validate.isTrue(numberOfVectors >= 0, "Parameter numberOfVectors must be >= 0.");
+		currentIndex.addAndGet(numberOfVectors);
+	}
+
+	@Override
+	public void skipTo(long index) {
+		Validate.isTrue(index >= 0, "Parameter index must be >= 0.");
+		currentIndex.set(index);
+	}
+
+	@Override
+	public int getDimension() {
+		return dimension;
+	}
+
+	/**
+	 * Returns the stratum of the point with the given index.
+	 *
+	 * @param index The index of the point.
+	 * @return The stratum s, such that \( F_{s} \le i \mod N &lt; F_{s+1} \).
+	 */
+	public int getStratumOfIndex(long index) {
+		// The first indices are strictly increasing (each stratum has at least one point)
+		final int position = Arrays.binarySearch(firstIndexOfStrata, Math.floorMod(index, getNumberOfPoints()));
+		return position >= 0 ? position : -position-2;
+	}
+
+	/**
+	 * @return The number of strata S.
+	 */
+	public int getNumberOfStrata() {
+		return firstIndexOfStrata.length-1;
+	}
+
+	/**
+	 * @param stratum The stratum s.
+	 * @return The number of points \( n_{s} \) of the stratum.
+	 */
+	public long getNumberOfPointsOfStratum(int stratum) {
+		return firstIndexOfStrata[stratum+1] - firstIndexOfStrata[stratum];
+	}
+
+	/**
+	 * @param stratum The stratum s.
+	 * @return The index of the first point of the stratum \( F_{s} \).
+	 */
+	public long getFirstIndexOfStratum(int stratum) {
+		return firstIndexOfStrata[stratum];
+	}
+
+	/**
+	 * @return The volume of each stratum, 1/S.
+	 */
+	public double getVolumeOfStratum() {
+		return 1.0 / getNumberOfStrata();
+	}
+
+	/**
+	 * @return The total number of points N of all strata (the period after which the sequence starts again with stratum 0).
+	 */
+	public long getNumberOfPoints() {
+		return firstIndexOfStrata[firstIndexOfStrata.length-1];
+	}
+
+	/**
+	 * @return The number k of stratified components.
+	 */
+	public int getNumberOfStratifiedDimensions() {
+		return numberOfStratifiedDimensions;
+	}
+
+	/**
+	 * @return The number m of intervals per stratified component.
+	 */
+	public int getNumberOfStrataPerDimension() {
+		return numberOfStrataPerDimension;
+	}
+
+	/**
+	 * @return The seed of the uniform random numbers.
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	@Override
+	public String toString() {
+		return "StratifiedSampler [dimension=" + dimension + ", numberOfStratifiedDimensions=" + numberOfStratifiedDimensions
+				+ ", numberOfStrataPerDimension=" + numberOfStrataPerDimension + ", numberOfPoints=" + getNumberOfPoints()
+				+ ", seed=" + seed + ", currentIndex=" + currentIndex + "]";
+	}
+
+	private static int getNumberOfStrata(int numberOfStratifiedDimensions, int numberOfStrataPerDimension) {
+		long numberOfStrata = 1;
+		for(int i=0; i<numberOfStratifiedDimensions; i++) {
+			numberOfStrata *= numberOfStrataPerDimension;
+			Validate.isTrue(numberOfStrata <= Integer.MAX_VALUE - 1, "The number of strata must be < 2^31-1.");
+		}
+		return (int)numberOfStrata;
+	}
+}
@@ -0,0 +1,164 @@
+package info.quantlab.numericalmethods.lecture.randomnumbers;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * A random number generator giving each thread its own generator (a substream), such that
+ * the threads do not share any state.
+ *
+ * The k-th thread using this object obtains the substream k, created by a function k &mapsto; generator
+ * (e.g., by jump-ahead, by an index offset or by a different seed).
+ * The method <code>nextDouble</code> calls <code>nextDoubleFast</code> of the thread's generator,
+ * which is not synchronized (the generator is used by a single thread only).
+ *
+ * Note: the numbers generated by a substream are reproducible, but the assignment of substreams to threads
+ * depends on the order in which the threads first use the generator. A calculation which should be independent
+ * of the number of threads and their scheduling has to use explicit substreams (e.g., one per task).
+ *
+ * The object is serializable if the substream factory is serializable (the factories are declared
+ * as {@link SubstreamFactory} and {@link GeneratorFactory} such that lambdas are serializable).
+ * A deserialized object starts with new substreams.
+ *
+ * @author Christian Fries
+ */
+public class ThreadLocalRandomNumberGenerator implements RandomNumberGenerator1D {
+
+	private static final long serialVersionUID = -3154278106957466911L;
+
+	/**
+	 * A serializable function mapping the index k of the substream to the generator of the k-th substream.
+	 */
+	@FunctionalInterface
+	public interface SubstreamFactory extends LongFunction<RandomNumberGenerator1D>, Serializable {}
+
+	/**
+	 * A serializable supplier of a new generator.
+	 */
+	@FunctionalInterface
+	public interface GeneratorFactory extends Supplier<RandomNumberGenerator1D>, Serializable {}
+
+	private final SubstreamFactory substreamFactory;
+
+	private final transient AtomicLong numberOfSubstreams = new AtomicLong();
+	private final transient ThreadLocal<RandomNumberGenerator1D> generator;
+
+	/**
+	 * Create a thread local random number generator from a function creating the substreams.
+	 *
+	 * @param substreamFactory A function mapping the index k of the substream to the generator of the k-th substream.
+	 */
+	public ThreadLocalRandomNumberGenerator(SubstreamFactory substreamFactory) {
+		super();
+		Validate.notNull(substreamFactory, "Parameter substreamFactory must not be null.");
+		this.substreamFactory = substreamFactory;
+		this.generator = ThreadLocal.withInitial(() -> substreamFactory.apply(numberOfSubstreams.getAndIncrement()));
+	}
+
+	/**
+	 * Create a thread local random number generator where the substream k is the Mersenne Twister with the given seed,
+	 * jumped ahead by k times the given length.
+	 *
+	 * The substreams are created by jumping a master generator by the given length (the jump polynomial is calculated only once).
+	 *
+	 * @param seed The seed of the Mersenne Twister.
+	 * @param substreamLength The number of random numbers available to each substream (without overlap).
+	 * @return A thread local random number generator.
+	 */
+	public static ThreadLocalRandomNumberGenerator ofMersenneTwister(long seed, long substreamLength) {
+		Validate.isTrue(substreamLength > 0, "Parameter substreamLength must be > 0.");
+
+		final MersenneTwister master = new MersenneTwister(seed);
+		final AtomicLong masterIndex = new AtomicLong();
+		return new ThreadLocalRandomNumberGenerator(k -> {
+			synchronized(master) {
+				// Substreams are usually requested in order, such that the master is positioned at substream k (otherwise start from 0)
+				if(k < masterIndex.get()) {
+					master.skipTo(0);
+					masterIndex.set(0);
+				}
+				for(long i=masterIndex.get(); i<k; i++) {
+					master.jump(substreamLength);
+				}
+				final MersenneTwister substream = new MersenneTwister(master);
+				master.jump(substreamLength);
+				masterIndex.set(k+1);
+				return substream;
+			}
+		});
+	}
+
+	/**
+	 * Create a thread local random number generator where the substream k is the generator created by the given supplier,
+	 * positioned at the index k times the given length (via <code>skipTo</code>).
+	 *
+	 * This is efficient for generators where the numbers are functions of the index, like
+	 * {@link VanDerCorputSequence}, {@link SobolSequence1D} or {@link PhiloxRandomNumberGenerator}.
+	 *
+	 * @param generatorFactory A supplier creating a new generator (at index 0).
+	 * @param substreamLength The number of random numbers available to each substream (without overlap).
+	 * @return A thread local random number generator.
+	 */
+	public static ThreadLocalRandomNumberGenerator ofIndexOffset(GeneratorFactory generatorFactory, long substreamLength) {
+		Validate.isTrue(substreamLength > 0, "Parameter substreamLength must be > 0.");
+
+		return new ThreadLocalRandomNumberGenerator(k -> {
+			final RandomNumberGenerator1D substream = generatorFactory.get();
+			substream.skipTo(Math.multiplyExact(k, substreamLength));
+			return substream;
+		});
+	}
+
+	@Override
+	public double nextDouble() {
+		return generator.get().nextDoubleFast();
+	}
+
+	@Override
+	public double nextDoubleFast() {
+		return generator.get().nextDoubleFast();
+	}
+
+	@Override
+	public void fill(double[] buffer, int offset, int length) {
+		generator.get().fill(buffer, offset, length);
+	}
+
+	/**
+	 * Jumps the substream of the calling thread.
+	 *
+	 * @param numberOfVectors The number of random numbers to skip.
+	 */
+	@Override
+	public void jump(long numberOfVectors) {
+		generator.get().jump(numberOfVectors);
+	}
+
+	/**
+	 * @return The generator (substream) of the calling thread.
+	 */
+	public RandomNumberGenerator1D getGeneratorOfCurrentThread() {
+		return generator.get();
+	}
+
+	/**
+	 * @return The number of substreams created so far (i.e. the number of threads that have used this generator).
+	 */
+	public long getNumberOfSubstreams() {
+		return numberOfSubstreams.get();
+	}
+
+	@Override
+	public String toString() {
+		return "ThreadLocalRandomNumberGenerator [numberOfSubstreams=" + numberOfSubstreams + "]";
+	}
+
+	// The thread local generators are not serialized, a deserialized object starts with new substreams.
+	private Object readResolve() {
+		return new ThreadLocalRandomNumberGenerator(substreamFactory);
+	}
+}
@@ -1,6 +1,6 @@
 package info.quantlab.numericalmethods.lecture.randomnumbers;
 
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.lang3.Validate;
 
@@ -14,8 +14,9 @@ public class VanDerCorputSequence implements RandomNumberGenerator1D {
 
 	private static final long serialVersionUID = 1368710922067034251L;
 
-	private final AtomicInteger index;
+	private final AtomicLong index;
 	private final int base;
+	private final RadicalInverse radicalInverse;
 
 	public static void main(String[] args) {
 		for(int i=0; i<30; i++) {
@@ -30,12 +31,13 @@ public class VanDerCorputSequence implements RandomNumberGenerator1D {
 	 * @param startIndex The start index. Must be &ge; 0.
 	 * @param base The base of the sequence. Must be &gt; 1.
 	 */
-	public VanDerCorputSequence(int startIndex, int base) {
+	public VanDerCorputSequence(long startIndex, int base) {
 		super();
 		Validate.isTrue(startIndex >= 0, "Parameter base startIndex be >= 0.");
 		Validate.isTrue(base > 1, "Parameter base must be > 1.");
-		this.index = new AtomicInteger(startIndex);
+		this.index = new AtomicLong(startIndex);
 		this.base = base;
+		this.radicalInverse = RadicalInverse.of(base);
 	}
 
 	public VanDerCorputSequence(int base) {
@@ -44,28 +46,44 @@ public class VanDerCorputSequence implements RandomNumberGenerator1D {
 
 	@Override
 	public double nextDouble() {
-		return getVanDerCorputNumber(index.getAndIncrement(), base);
+		return radicalInverse.valueOf(index.getAndIncrement() + 1);
+	}
+
+	@Override
+	public void fill(double[] buffer, int offset, int length) {
+		// Reserve the block of indices with a single atomic operation
+		final long startIndex = index.getAndAdd(length);
+
+		// The numbers of the block are calculated incrementally from the digits of the index
+		final RadicalInverse.Cursor cursor = radicalInverse.getCursor(startIndex + 1);
+		for(int i=0; i<length; i++) {
+			buffer[offset+i] = cursor.getValue();
+			cursor.increment();
+		}
+	}
+
+	@Override
+	public void jump(long numberOfVectors) {
+		Validate.isTrue(numberOfVectors >= 0, "Parameter numberOfVectors must be >= 0.");
+		index.addAndGet(numberOfVectors);
+	}
+
+	@Override
+	public void skipTo(long index) {
+		Validate.isTrue(index >= 0, "Parameter index must be >= 0.");
+		this.index.set(index);
 	}
 
 	/**
-	 * Return the van-der-Corput number.
+	 * Return the van-der-Corput number, i.e., the radical inverse of index+1.
 	 *
 	 * @param index The index of the sequence starting with 0
 	 * @param base The base.
 	 * @return The van der Corput number
+	 * @see RadicalInverse
 	 */
 	public static double getVanDerCorputNumber(long index, int base) {
-
-		index = index + 1;
-
-		double x = 0.0;
-		double refinementFactor = 1.0 / base;
-		while(index > 0) {
-			x += (index % base) * refinementFactor;
-			index = index / base;
-			refinementFactor = refinementFactor / base;
-		}
-		return x;
+		return RadicalInverse.of(base).valueOf(index + 1);
 	}
 
 	@Override
@@ -0,0 +1,72 @@
+package info.quantlab.numericalmethods.lecture.randomnumbers.experiments;
+
+import info.quantlab.numericalmethods.lecture.randomnumbers.MersenneTwister;
+import info.quantlab.numericalmethods.lecture.randomnumbers.NormalRandomNumberGenerator;
+import info.quantlab.numericalmethods.lecture.randomnumbers.NormalRandomNumberGenerator.Algorithm;
+
+/**
+ * Compares the algorithms of the {@link NormalRandomNumberGenerator} (ICDF, ziggurat, polar method):
+ * time required to generate 10^8 normals (in blocks) and the first four moments.
+ *
+ * See also {@link NormalDistributionWithAcceptanceRejectionExperiment} for the basic acceptance-rejection method.
+ *
+ * @author Christian Fries
+ */
+public class NormalRandomNumberGeneratorExperiment {
+
+	private static final int numberOfSamples = 100000000;	// 10^8
+	private static final int blockSize = 1024;
+	private static final long seed = 3636;
+
+	public static void main(String[] args) {
+
+		// Warm up
+		for(final Algorithm algorithm : Algorithm.values()) {
+			analyse(algorithm, numberOfSamples / 10, false);
+		}
+
+		System.out.println("Algorithm                time           mean      variance      skewness      kurtosis");
+		System.out.println("_".repeat(90));
+
+		for(final Algorithm algorithm : Algorithm.values()) {
+			analyse(algorithm, numberOfSamples, true);
+		}
+	}
+
+	private static void analyse(Algorithm algorithm, int numberOfSamples, boolean isPrintResult) {
+
+		final NormalRandomNumberGenerator normalRandomNumberGenerator = new NormalRandomNumberGenerator(new MersenneTwister(seed), algorithm);
+		final double[] normals = new double[blockSize];
+
+		final long timeStart = System.nanoTime();
+
+		double sum = 0.0;
+		double sumOfSquares = 0.0;
+		double sumOfCubes = 0.0;
+		double sumOfFourthPowers = 0.0;
+		for(int i=0; i<numberOfSamples; i += blockSize) {
+			normalRandomNumberGenerator.fill(normals);
+			for(final double x : normals) {
+				final double xSquared = x*x;
+				sum += x;
+				sumOfSquares += xSquared;
+				sumOfCubes += xSquared * x;
+				sumOfFourthPowers += xSquared * xSquared;
+			}
+		}
+
+		final long timeEnd = System.nanoTime();
+
+		if(isPrintResult) {
+			// Number of generated samples (full blocks)
+			final int n = (numberOfSamples + blockSize - 1) / blockSize * blockSize;
+			System.out.println(String.format("%-20s %8.3f sec. %12.4E  %12.6f  %12.4E  %12.6f",
+					algorithm,
+					(timeEnd-timeStart) / 1E9,
+					sum / n,
+					sumOfSquares / n,
+					sumOfCubes / n,
+					sumOfFourthPowers / n));
+		}
+	}
+}
@@ -0,0 +1,135 @@
+package info.quantlab.numericalmethods.lecture.randomnumbers.experiments;
+
+import java.util.Arrays;
+
+import info.quantlab.numericalmethods.lecture.randomnumbers.HaltonSequence;
+import info.quantlab.numericalmethods.lecture.randomnumbers.VanDerCorputSequence;
+
+/**
+ * Benchmark of the radical inverse kernel used by {@link VanDerCorputSequence} and {@link HaltonSequence}.
+ *
+ * Compares the textbook implementation (one % and one / per digit) with
+ * <ul>
+ * 	<li>the random access <code>VanDerCorputSequence.getVanDerCorputNumber</code> (bit reversal for base 2, pre-computed factors),</li>
+ * 	<li>the block generation <code>fill</code> (incremental update of the digits of the index).</li>
+ * </ul>
+ * and checks that the results are bit-identical.
+ *
+ * @author Christian Fries
+ */
+public class RadicalInverseBenchmark {
+
+	private static final int numberOfSamples = 20000000;
+	private static final int blockSize = 1024;
+	private static final int[] bases = new int[] { 2, 3, 5, 7, 11, 13, 17, 19, 23, 29 };
+
+	public static void main(String[] args) {
+
+		// Warm up
+		for(int i=0; i<3; i++) {
+			benchmarkVanDerCorput(2, numberOfSamples / 10, false);
+			benchmarkVanDerCorput(3, numberOfSamples / 10, false);
+			benchmarkHalton(bases, numberOfSamples / 100, false);
+		}
+
+		System.out.println("Kernel                       textbook     random access   speedup     block fill   speedup   identical");
+		System.out.println("_".repeat(105));
+
+		for(final int base : new int[] { 2, 3, 5, 31 }) {
+			benchmarkVanDerCorput(base, numberOfSamples, true);
+		}
+		benchmarkHalton(new int[] { 2, 3 }, numberOfSamples / 2, true);
+		benchmarkHalton(bases, numberOfSamples / 10, true);
+	}
+
+	private static void benchmarkVanDerCorput(int base, int numberOfSamples, boolean isPrintResult) {
+
+		final double[] valuesTextbook = new double[numberOfSamples];
+		final long timeStartTextbook = System.nanoTime();
+		for(int i=0; i<numberOfSamples; i++) {
+			valuesTextbook[i] = getVanDerCorputNumberTextbook(i, base);
+		}
+		final long timeEndTextbook = System.nanoTime();
+
+		final double[] valuesRandomAccess = new double[numberOfSamples];
+		final long timeStartRandomAccess = System.nanoTime();
+		for(int i=0; i<numberOfSamples; i++) {
+			valuesRandomAccess[i] = VanDerCorputSequence.getVanDerCorputNumber(i, base);
+		}
+		final long timeEndRandomAccess = System.nanoTime();
+
+		final double[] valuesBlock = new double[numberOfSamples];
+		final VanDerCorputSequence sequence = new VanDerCorputSequence(base);
+		final long timeStartBlock = System.nanoTime();
+		for(int i=0; i<numberOfSamples; i += blockSize) {
+			sequence.fill(valuesBlock, i, Math.min(blockSize, numberOfSamples-i));
+		}
+		final long timeEndBlock = System.nanoTime();
+
+		if(isPrintResult) {
+			final boolean isIdentical = Arrays.equals(valuesTextbook, valuesRandomAccess) && Arrays.equals(valuesTextbook, valuesBlock);
+			print("van der Corput, base " + base, timeEndTextbook-timeStartTextbook, timeEndRandomAccess-timeStartRandomAccess, timeEndBlock-timeStartBlock, isIdentical);
+		}
+	}
+
+	private static void benchmarkHalton(int[] bases, int numberOfSamples, boolean isPrintResult) {
+
+		final int dimension = bases.length;
+
+		final double[] valuesTextbook = new double[numberOfSamples * dimension];
+		final long timeStartTextbook = System.nanoTime();
+		for(int i=0; i<numberOfSamples; i++) {
+			for(int j=0; j<dimension; j++) {
+				valuesTextbook[i*dimension+j] = getVanDerCorputNumberTextbook(i, bases[j]);
+			}
+		}
+		final long timeEndTextbook = System.nanoTime();
+
+		final double[] valuesRandomAccess = new double[numberOfSamples * dimension];
+		final HaltonSequence sequenceRandomAccess = new HaltonSequence(bases);
+		final long timeStartRandomAccess = System.nanoTime();
+		for(int i=0; i<numberOfSamples; i++) {
+			System.arraycopy(sequenceRandomAccess.getHaltonNumber(i), 0, valuesRandomAccess, i*dimension, dimension);
+		}
+		final long timeEndRandomAccess = System.nanoTime();
+
+		final double[] valuesBlock = new double[numberOfSamples * dimension];
+		final HaltonSequence sequence = new HaltonSequence(bases);
+		final long timeStartBlock = System.nanoTime();
+		for(int i=0; i<numberOfSamples; i += blockSize) {
+			sequence.fill(valuesBlock, i*dimension, Math.min(blockSize, numberOfSamples-i));
+		}
+		final long timeEndBlock = System.nanoTime();
+
+		if(isPrintResult) {
+			final boolean isIdentical = Arrays.equals(valuesTextbook, valuesRandomAccess) && Arrays.equals(valuesTextbook, valuesBlock);
+			print("Halton, dimension " + dimension, timeEndTextbook-timeStartTextbook, timeEndRandomAccess-timeStartRandomAccess, timeEndBlock-timeStartBlock, isIdentical);
+		}
+	}
+
+	private static void print(String name, long timeTextbook, long timeRandomAccess, long timeBlock, boolean isIdentical) {
+		System.out.println(String.format("%-25s %8.3f sec.   %8.3f sec.   %6.1fx   %8.3f sec.   %6.1fx   %s",
+				name,
+				timeTextbook / 1E9,
+				timeRandomAccess / 1E9, (double)timeTextbook / timeRandomAccess,
+				timeBlock / 1E9, (double)timeTextbook / timeBlock,
+				isIdentical));
+	}
+
+	/*
+	 * The textbook implementation of the van der Corput number (the previous kernel of VanDerCorputSequence).
+	 */
+	private static double getVanDerCorputNumberTextbook(long index, int base) {
+
+		index = index + 1;
+
+		double x = 0.0;
+		double refinementFactor = 1.0 / base;
+		while(index > 0) {
+			x += (index % base) * refinementFactor;
+			index = index / base;
+			refinementFactor = refinementFactor / base;
+		}
+		return x;
+	}
+}
@@ -1,8 +1,9 @@
 /**
  * Random number generators for samples of uniform distributed random variables and generators and transformation for other distriburtions.
  *
- * Classes in this package provide wrappers for random number generators from thirs party libraries (e.g. Mersenne-Twister from commons-math),
- * native implementation of quasi random number gerantors (e.g. Halton sequence) and algorithm to sample other distributions
+ * Classes in this package provide native implementations of pseudo random number generators (e.g. Mersenne-Twister, with jump-ahead,
+ * and the counter-based Philox generator),
+ * native implementation of quasi random number gerantors (e.g. Halton sequence, Sobol sequence) and algorithm to sample other distributions
  * (like the Acceptance-Rejection method).
  *
  * @author Christian Fries
@@ -0,0 +1,125 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.bermudan;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.DoubleBinaryOperator;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+import net.finmath.exception.CalculationException;
+import net.finmath.functions.AnalyticFormulas;
+import net.finmath.montecarlo.BrownianMotionFromMersenneRandomNumbers;
+import net.finmath.montecarlo.assetderivativevaluation.MonteCarloAssetModel;
+import net.finmath.montecarlo.assetderivativevaluation.models.BlackScholesModel;
+import net.finmath.montecarlo.process.EulerSchemeFromProcessModel;
+import net.finmath.time.TimeDiscretizationFromArray;
+
+/**
+ * Test of the Longstaff-Schwartz valuation of Bermudan options under the Black-Scholes model.
+ *
+ * @author Christian Fries
+ */
+public class LongstaffSchwartzBermudanOptionTest {
+
+	private static final double initialValue = 100.0;
+	private static final double riskFreeRate = 0.05;
+	private static final double volatility = 0.30;
+	private static final double maturity = 2.0;
+	private static final double strike = 100.0;
+	private static final int numberOfExerciseDates = 10;
+
+	private static final int numberOfPaths = 50000;
+
+	private static final double[] exerciseDates = new double[numberOfExerciseDates];
+	static {
+		for(int i=0; i<numberOfExerciseDates; i++) {
+			exerciseDates[i] = maturity * (i+1) / numberOfExerciseDates;
+		}
+	}
+
+	@Test
+	public void testSingleExerciseDateIsEuropean() throws CalculationException {
+		final LongstaffSchwartzBermudanOption option = new LongstaffSchwartzBermudanOption(new double[] { maturity },
+				(time, underlying) -> Math.max(underlying - strike, 0.0), RegressionBasis.ofMonomials(2, strike));
+
+		final LongstaffSchwartzResult result = option.getValue(getModel(3141));
+		final double valueAnalytic = AnalyticFormulas.blackScholesOptionValue(initialValue, riskFreeRate, volatility, maturity, strike);
+		Assert.assertEquals("Value", valueAnalytic, result.getValue(), 4 * result.getStandardError());
+	}
+
+	@Test
+	public void testBermudanCallIsEuropean() throws CalculationException {
+		// Without dividends early exercise of a call is not optimal
+		final LongstaffSchwartzBermudanOption option = new LongstaffSchwartzBermudanOption(exerciseDates,
+				(time, underlying) -> Math.max(underlying - strike, 0.0), RegressionBasis.ofMonomials(3, strike));
+
+		final LongstaffSchwartzResult result = option.getValue(getModel(3141), getModel(3142));
+		final double valueAnalytic = AnalyticFormulas.blackScholesOptionValue(initialValue, riskFreeRate, volatility, maturity, strike);
+		System.out.println("Bermudan call: " + result.getValue() + " +/- " + result.getStandardError() + "\tEuropean: " + valueAnalytic);
+		Assert.assertEquals("Value", valueAnalytic, result.getValue(), 4 * result.getStandardError());
+	}
+
+	@Test
+	public void testBermudanPut() throws CalculationException {
+		final DoubleBinaryOperator payoff = (time, underlying) -> Math.max(strike - underlying, 0.0);
+		final LongstaffSchwartzBermudanOption option = new LongstaffSchwartzBermudanOption(exerciseDates, payoff, RegressionBasis.ofMonomials(3, strike));
+
+		final LongstaffSchwartzResult result = option.getValue(getModel(3141));
+		final LongstaffSchwartzResult resultIndependentPaths = option.getValue(getModel(3141), getModel(3142));
+		final double valueBinomial = getValueOfBermudanPutFromBinomialTree(2000);
+		System.out.println("Bermudan put: " + result.getValue() + " (same paths), " + resultIndependentPaths.getValue() + " +/- " + resultIndependentPaths.getStandardError() + " (independent paths)\tbinomial tree: " + valueBinomial);
+
+		// The Longstaff-Schwartz strategy is sub-optimal (low bias), we allow for 0.5 % of the value
+		Assert.assertEquals("Value (same paths)", valueBinomial, result.getValue(), 4 * result.getStandardError() + 0.005 * valueBinomial);
+		Assert.assertEquals("Value (independent paths)", valueBinomial, resultIndependentPaths.getValue(), 4 * resultIndependentPaths.getStandardError() + 0.005 * valueBinomial);
+		Assert.assertTrue("Early exercise premium", resultIndependentPaths.getValue() > AnalyticFormulas.blackScholesOptionValue(initialValue, riskFreeRate, volatility, maturity, strike, false) + 0.3);
+	}
+
+	@Test
+	public void testParallelRegressionIsSequentialRegression() throws CalculationException {
+		final DoubleBinaryOperator payoff = (time, underlying) -> Math.max(strike - underlying, 0.0);
+		final MonteCarloAssetModel model = getModel(3141);
+
+		final LongstaffSchwartzResult result = new LongstaffSchwartzBermudanOption(exerciseDates, payoff, RegressionBasis.ofMonomials(3, strike), 0, null).getValue(model);
+		final ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+		final LongstaffSchwartzResult resultParallel = new LongstaffSchwartzBermudanOption(exerciseDates, payoff, RegressionBasis.ofMonomials(3, strike), 0, forkJoinPool).getValue(model);
+		forkJoinPool.shutdown();
+
+		Assert.assertEquals("Value", result.getValue(), resultParallel.getValue(), 0.0);
+		for(int i=0; i<numberOfExerciseDates-1; i++) {
+			Assert.assertArrayEquals("Regression coefficients", result.getRegressionCoefficients()[i], resultParallel.getRegressionCoefficients()[i], 0.0);
+		}
+	}
+
+	private static MonteCarloAssetModel getModel(int seed) {
+		return new MonteCarloAssetModel(new EulerSchemeFromProcessModel(
+				new BlackScholesModel(initialValue, riskFreeRate, volatility),
+				new BrownianMotionFromMersenneRandomNumbers(new TimeDiscretizationFromArray(0.0, numberOfExerciseDates, maturity / numberOfExerciseDates), 1, numberOfPaths, seed)));
+	}
+
+	/*
+	 * Cox-Ross-Rubinstein tree, where the exercise is only possible at the exercise dates.
+	 */
+	private static double getValueOfBermudanPutFromBinomialTree(int numberOfTimeSteps) {
+		final int numberOfTimeStepsPerExercise = numberOfTimeSteps / numberOfExerciseDates;
+		final double timeStep = maturity / numberOfTimeSteps;
+		final double up = Math.exp(volatility * Math.sqrt(timeStep));
+		final double probabilityUp = (Math.exp(riskFreeRate * timeStep) - 1.0 / up) / (up - 1.0 / up);
+		final double discountFactor = Math.exp(-riskFreeRate * timeStep);
+
+		final double[] values = new double[numberOfTimeSteps+1];
+		for(int i=0; i<=numberOfTimeSteps; i++) {
+			values[i] = Math.max(strike - initialValue * Math.pow(up, 2*i - numberOfTimeSteps), 0.0);
+		}
+		for(int timeIndex=numberOfTimeSteps-1; timeIndex>=0; timeIndex--) {
+			final boolean isExerciseDate = timeIndex > 0 && timeIndex % numberOfTimeStepsPerExercise == 0;
+			for(int i=0; i<=timeIndex; i++) {
+				values[i] = discountFactor * (probabilityUp * values[i+1] + (1-probabilityUp) * values[i]);
+				if(isExerciseDate) {
+					values[i] = Math.max(values[i], strike - initialValue * Math.pow(up, 2*i - timeIndex));
+				}
+			}
+		}
+		return values[0];
+	}
+}
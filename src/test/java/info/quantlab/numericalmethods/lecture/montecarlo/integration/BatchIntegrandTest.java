@@ -0,0 +1,53 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.integration;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+import info.quantlab.numericalmethods.lecture.randomnumbers.MersenneTwister;
+import info.quantlab.numericalmethods.lecture.randomnumbers.RandomNumberGeneratorFrom1D;
+
+/**
+ * Test that the block evaluation of batch integrands gives the same results as the point-wise evaluation.
+ *
+ * @author Christian Fries
+ */
+public class BatchIntegrandTest {
+
+	private static final Integrand integrand = z -> Math.exp(z[0]) * z[1] + z[2] * z[2];
+
+	private static final BatchIntegrand batchIntegrand = (z, values, n) -> {
+		for(int i=0; i<n; i++) {
+			values[i] = Math.exp(z[0][i]) * z[1][i] + z[2][i] * z[2][i];
+		}
+	};
+
+	@Test
+	public void testBatchIntegrandEqualsScalarIntegrand() {
+		final IntegrationDomain integrationDomain = new UnitCubeIntegrationDomain(3);
+
+		final Integrator sparseGridIntegrator = new SparseGridIntegrator(5);
+		Assert.assertEquals("Sparse grid", sparseGridIntegrator.integrate(integrand, integrationDomain), sparseGridIntegrator.integrate(batchIntegrand, integrationDomain), 0.0);
+
+		final Integrator simpsonsIntegrator = new SimpsonsIntegrator(10000);
+		Assert.assertEquals("Simpson's rule", simpsonsIntegrator.integrate(integrand, integrationDomain), simpsonsIntegrator.integrate(batchIntegrand, integrationDomain), 0.0);
+
+		final double valueMonteCarlo = new ParallelMonteCarloIntegrator(new RandomNumberGeneratorFrom1D(new MersenneTwister(3141), 3), 100000).integrate(integrand, integrationDomain);
+		final double valueMonteCarloBatch = new ParallelMonteCarloIntegrator(new RandomNumberGeneratorFrom1D(new MersenneTwister(3141), 3), 100000).integrate(batchIntegrand, integrationDomain);
+		Assert.assertEquals("Monte-Carlo", valueMonteCarlo, valueMonteCarloBatch, 0.0);
+
+		// Integral of exp(x) y + z^2 over the unit cube
+		Assert.assertEquals("Sparse grid", (Math.E - 1.0) / 2.0 + 1.0 / 3.0, sparseGridIntegrator.integrate(batchIntegrand, integrationDomain), 1E-10);
+	}
+
+	@Test
+	public void testAdapters() {
+		final double[] point = new double[] { 0.3, 0.7, 0.2 };
+		Assert.assertEquals("Single point evaluation of batch integrand", integrand.value(point), batchIntegrand.value(point), 0.0);
+
+		final double[][] points = new double[][] { { 0.3, 0.1 }, { 0.7, 0.5 }, { 0.2, 0.9 } };
+		final double[] values = new double[2];
+		BatchIntegrand.of(integrand).values(points, values, 2);
+		Assert.assertEquals("Block evaluation of scalar integrand", integrand.value(new double[] { 0.1, 0.5, 0.9 }), values[1], 0.0);
+		Assert.assertSame("Batch integrand is not wrapped", batchIntegrand, BatchIntegrand.of(batchIntegrand));
+	}
+}
@@ -0,0 +1,105 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.integration;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+import info.quantlab.numericalmethods.lecture.randomnumbers.MersenneTwister;
+import info.quantlab.numericalmethods.lecture.randomnumbers.RandomNumberGeneratorFrom1D;
+
+public class CubatureTest {
+
+	/*
+	 * The domain [0,2]^d (with a determinant of 2^d).
+	 */
+	private static IntegrationDomain getScaledCube(int dimension) {
+		return new IntegrationDomain() {
+			@Override
+			public double[] fromUnitCube(double[] parametersOnUnitCube) {
+				final double[] arguments = new double[parametersOnUnitCube.length];
+				for(int k=0; k<arguments.length; k++) {
+					arguments[k] = 2.0 * parametersOnUnitCube[k];
+				}
+				return arguments;
+			}
+
+			@Override
+			public int getDimension() {
+				return dimension;
+			}
+
+			@Override
+			public double getDeterminantOfDifferential(double[] parametersOnUnitCurve) {
+				return Math.pow(2.0, dimension);
+			}
+		};
+	}
+
+	// f(z) = exp(0.25 (z_1 + ... + z_d)), the integral over [0,2]^d is ((exp(0.5)-1)/0.25)^d
+	private static final Integrand integrand = z -> {
+		double sum = 0.0;
+		for(final double zk : z) {
+			sum += zk;
+		}
+		return Math.exp(0.25 * sum);
+	};
+
+	private static double getIntegralAnalytic(int dimension) {
+		return Math.pow((Math.exp(0.5)-1.0)/0.25, dimension);
+	}
+
+	@Test
+	public void testSparseGridVersusMonteCarlo() {
+		final int dimension = 5;
+		final IntegrationDomain integrationDomain = getScaledCube(dimension);
+		final double integralAnalytic = getIntegralAnalytic(dimension);
+
+		final SparseGridIntegrator sparseGridIntegrator = new SparseGridIntegrator(4);
+		final int numberOfPoints = sparseGridIntegrator.getNumberOfEvaluationPoints(dimension);
+		final double errorSparseGrid = sparseGridIntegrator.integrate(integrand, integrationDomain) - integralAnalytic;
+
+		final ParallelMonteCarloIntegrator monteCarloIntegrator = new ParallelMonteCarloIntegrator(new RandomNumberGeneratorFrom1D(new MersenneTwister(3141), dimension), numberOfPoints);
+		final IntegrationResult resultMonteCarlo = monteCarloIntegrator.integrateWithErrorEstimate(integrand, integrationDomain);
+		final double errorMonteCarlo = resultMonteCarlo.getValue() - integralAnalytic;
+
+		System.out.println("Number of points.....: " + numberOfPoints);
+		System.out.println("Error of sparse grid.: " + errorSparseGrid);
+		System.out.println("Error of Monte-Carlo.: " + errorMonteCarlo + " (standard error " + resultMonteCarlo.getErrorEstimate() + ")");
+
+		Assert.assertEquals("Sparse grid integral", 0.0, errorSparseGrid / integralAnalytic, 1E-8);
+		Assert.assertEquals("Monte-Carlo integral", 0.0, errorMonteCarlo, 4.0 * resultMonteCarlo.getErrorEstimate());
+		Assert.assertTrue("Sparse grid more accurate than Monte-Carlo", Math.abs(errorSparseGrid) * 1000 < Math.abs(errorMonteCarlo));
+	}
+
+	@Test
+	public void testSimpsonsIntegrator() {
+		final int dimension = 3;
+		final IntegratorFactory integratorFactory = SimpsonsIntegrator::new;
+
+		final double integral = integratorFactory.getIntegrator(100000).integrate(integrand, getScaledCube(dimension));
+
+		Assert.assertEquals("Number of points per dimension", 47, SimpsonsIntegrator.getNumberOfPointsPerDimension(100000, dimension));
+		Assert.assertEquals("Simpson's integral", 0.0, integral / getIntegralAnalytic(dimension) - 1.0, 1E-8);
+	}
+
+	@Test
+	public void testSparseGridPolynomialExactness() {
+		// Level 1 (Clenshaw-Curtis with 3 points in each direction) integrates polynomials of total degree 3 exactly
+		final int dimension = 4;
+		final Integrand polynomial = x -> x[0]*x[0]*x[1] + x[2]*x[2]*x[2] - x[3];
+		final double integral = new SparseGridIntegrator(1).integrate(polynomial, new UnitCubeIntegrationDomain(dimension));
+
+		Assert.assertEquals("Integral of polynomial", 1.0/6.0 + 1.0/4.0 - 1.0/2.0, integral, 1E-15);
+		Assert.assertEquals("Number of points", 2*dimension+1, new SparseGridIntegrator(1).getNumberOfEvaluationPoints(dimension));
+	}
+
+	@Test
+	public void testMonteCarloStandardErrorWithLargeMean() {
+		// f(z) = 10^8 + z on [0,1], the variance 1/12 is small compared to the mean
+		final int numberOfPoints = 1000000;
+		final IntegrationResult result = new ParallelMonteCarloIntegrator(new RandomNumberGeneratorFrom1D(new MersenneTwister(3141), 1), numberOfPoints)
+				.integrateWithErrorEstimate(z -> 1E8 + z[0], new UnitCubeIntegrationDomain(1));
+
+		System.out.println("Standard error.......: " + result.getErrorEstimate() + " (exact " + Math.sqrt(1.0/12.0/numberOfPoints) + ")");
+		Assert.assertEquals("Standard error", Math.sqrt(1.0/12.0/numberOfPoints), result.getErrorEstimate(), 0.01 * Math.sqrt(1.0/12.0/numberOfPoints));
+	}
+}
@@ -0,0 +1,54 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.integration;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+import info.quantlab.numericalmethods.lecture.randomnumbers.RandomizedHaltonSequence;
+import info.quantlab.numericalmethods.lecture.randomnumbers.ScrambledSobolSequence;
+
+/**
+ * Test of the randomized quasi Monte-Carlo integration: the error estimate has to be consistent with the
+ * true error and the result has to be reproducible.
+ *
+ * @author Christian Fries
+ */
+public class RQMCIntegratorTest {
+
+	private static final int dimension = 4;
+
+	// f(x) = prod_j 3/2 sqrt(x_j) has integral 1 over [0,1]^4
+	private static final Integrand integrand = x -> {
+		double value = 1.0;
+		for(final double xj : x) {
+			value *= 1.5 * Math.sqrt(xj);
+		}
+		return value;
+	};
+
+	@Test
+	public void testScrambledSobol() {
+		final RQMCIntegrator integrator = new RQMCIntegrator(k -> new ScrambledSobolSequence(dimension, 3141 + k), 16, 1 << 12);
+
+		final IntegrationResult result = integrator.integrateWithErrorEstimate(integrand, new UnitCubeIntegrationDomain(dimension));
+		final IntegrationResult resultRepeated = integrator.integrateWithErrorEstimate(integrand, new UnitCubeIntegrationDomain(dimension));
+
+		System.out.println("Scrambled Sobol...: " + result);
+		Assert.assertEquals("Reproducible", result.getValue(), resultRepeated.getValue(), 0.0);
+		Assert.assertEquals("Number of evaluations", 16 * (1 << 12), result.getNumberOfEvaluations());
+		Assert.assertTrue("Error estimate", result.getErrorEstimate() > 0 && result.getErrorEstimate() < 1E-3);
+		Assert.assertEquals("Value", 1.0, result.getValue(), 5 * result.getErrorEstimate());
+	}
+
+	@Test
+	public void testRandomizedHaltonWithTargetAccuracy() {
+		final double targetStandardError = 1E-4;
+		final RQMCIntegrator integrator = new RQMCIntegrator(k -> new RandomizedHaltonSequence(new int[] { 2, 3, 5, 7 }, 3141 + k), 16, 1 << 8);
+
+		final IntegrationResult result = integrator.integrate(integrand, new UnitCubeIntegrationDomain(dimension), targetStandardError, 1 << 20);
+
+		System.out.println("Randomized Halton.: " + result);
+		Assert.assertTrue("Target accuracy", result.getErrorEstimate() <= targetStandardError);
+		Assert.assertTrue("Stopped early", result.getNumberOfEvaluations() < 16L * (1 << 20));
+		Assert.assertEquals("Value", 1.0, result.getValue(), 5 * result.getErrorEstimate());
+	}
+}
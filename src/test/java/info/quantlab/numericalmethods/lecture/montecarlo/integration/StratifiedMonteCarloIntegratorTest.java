@@ -0,0 +1,66 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.integration;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+import info.quantlab.numericalmethods.lecture.montecarlo.integration1d.StratifiedMonteCarloIntegrator1D;
+import info.quantlab.numericalmethods.lecture.randomnumbers.MersenneTwister;
+import info.quantlab.numericalmethods.lecture.randomnumbers.RandomNumberGeneratorFrom1D;
+import info.quantlab.numericalmethods.lecture.randomnumbers.StratifiedSampler;
+
+/**
+ * Test of the stratified Monte-Carlo integration: the variance reduction compared to i.i.d. sampling and
+ * the adaptation of the allocation by a second pass.
+ *
+ * @author Christian Fries
+ */
+public class StratifiedMonteCarloIntegratorTest {
+
+	@Test
+	public void testVarianceReduction() {
+		final IntegrationDomain integrationDomain = new UnitCubeIntegrationDomain(2);
+		final Integrand integrand = x -> Math.exp(x[0] + x[1]);
+		final double valueAnalytic = Math.pow(Math.E - 1, 2);
+
+		final long numberOfSamplePoints = 100000;
+		final IntegrationResult resultMonteCarlo = new ParallelMonteCarloIntegrator(new RandomNumberGeneratorFrom1D(new MersenneTwister(3141), 2), numberOfSamplePoints).integrateWithErrorEstimate(integrand, integrationDomain);
+		final StratifiedIntegrationResult resultStratified = new StratifiedMonteCarloIntegrator(StratifiedSampler.ofProportionalAllocation(2, 2, 20, numberOfSamplePoints, 3141)).integrateWithErrorEstimate(integrand, integrationDomain);
+
+		System.out.println(resultMonteCarlo);
+		System.out.println(resultStratified);
+
+		final double varianceReduction = Math.pow(resultMonteCarlo.getErrorEstimate() / resultStratified.getErrorEstimate(), 2);
+		Assert.assertTrue("Variance reduction (" + varianceReduction + ")", varianceReduction > 50);
+		Assert.assertEquals("Number of evaluations", numberOfSamplePoints, resultStratified.getNumberOfEvaluations());
+		Assert.assertEquals("Integral", valueAnalytic, resultStratified.getValue(), 4 * resultStratified.getErrorEstimate());
+	}
+
+	@Test
+	public void testNeymanAllocationSecondPass() {
+		// An integrand concentrated on a small part of the domain: the Neyman allocation puts the points there
+		final StratifiedMonteCarloIntegrator1D integratorFirstPass = new StratifiedMonteCarloIntegrator1D(10000, 100, 3141);
+		final StratifiedIntegrationResult resultFirstPass = integratorFirstPass.integrateWithErrorEstimate(x -> Math.max(x - 0.9, 0.0) * Math.sin(200 * x), 0.0, 1.0);
+
+		final StratifiedMonteCarloIntegrator1D integratorSecondPass = new StratifiedMonteCarloIntegrator1D(integratorFirstPass.getSampler().withNeymanAllocation(resultFirstPass.getStandardDeviationsOfStrata(), 10000, 2718));
+		final StratifiedIntegrationResult resultSecondPass = integratorSecondPass.integrateWithErrorEstimate(x -> Math.max(x - 0.9, 0.0) * Math.sin(200 * x), 0.0, 1.0);
+
+		System.out.println(resultFirstPass);
+		System.out.println(resultSecondPass);
+
+		Assert.assertEquals("Number of strata", 100, resultFirstPass.getNumberOfStrata());
+		Assert.assertEquals("Stratum without variance", 2, resultSecondPass.getNumberOfSamplesOfStrata()[0]);
+		Assert.assertTrue("Standard error of second pass", resultSecondPass.getErrorEstimate() < 0.5 * resultFirstPass.getErrorEstimate());
+		Assert.assertEquals("Integral", resultFirstPass.getValue(), resultSecondPass.getValue(), 4 * resultFirstPass.getErrorEstimate());
+	}
+
+	@Test
+	public void testSinglePointPerStratum() {
+		// Latin hypercube sample of dimension 1: accurate value, but no error estimate
+		final int numberOfSamplePoints = 100000;
+		final StratifiedIntegrationResult result = new StratifiedMonteCarloIntegrator1D(numberOfSamplePoints, numberOfSamplePoints, 3141).integrateWithErrorEstimate(Math::exp, 0.0, 1.0);
+
+		Assert.assertEquals("Integral", Math.E - 1, result.getValue(), 1E-7);
+		Assert.assertTrue("Standard error", Double.isNaN(result.getErrorEstimate()));
+		Assert.assertEquals("Number of evaluations", numberOfSamplePoints, result.getNumberOfEvaluations());
+	}
+}
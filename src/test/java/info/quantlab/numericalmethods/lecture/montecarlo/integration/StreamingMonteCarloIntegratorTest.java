@@ -0,0 +1,65 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.integration;
+
+import java.time.Duration;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+import info.quantlab.numericalmethods.lecture.randomnumbers.MersenneTwister;
+import info.quantlab.numericalmethods.lecture.randomnumbers.RandomNumberGeneratorFrom1D;
+
+/**
+ * Test of the stopping criteria and the accuracy of the online variance of the streaming Monte-Carlo integrator.
+ *
+ * @author Christian Fries
+ */
+public class StreamingMonteCarloIntegratorTest {
+
+	@Test
+	public void testTargetStandardError() {
+		final IntegrationDomain integrationDomain = new UnitCubeIntegrationDomain(2);
+		final Integrand integrand = x -> x[0] * x[1];
+
+		final double targetStandardError = 1E-3;
+		final StreamingMonteCarloIntegrator integrator = new StreamingMonteCarloIntegrator(new RandomNumberGeneratorFrom1D(new MersenneTwister(3141), 2), targetStandardError, Duration.ofMinutes(1));
+		final StreamingIntegrationResult result = integrator.integrateWithErrorEstimate(integrand, integrationDomain);
+
+		System.out.println(result);
+
+		// Var(XY) = 1/9 - 1/16 = 7/144, hence about 7/144/1E-6 = 48611 samples are required
+		Assert.assertTrue("Target standard error reached", result.isTargetStandardErrorReached());
+		Assert.assertTrue("Standard error", result.getErrorEstimate() <= targetStandardError);
+		Assert.assertEquals("Number of samples", 7.0/144.0/(targetStandardError*targetStandardError), result.getNumberOfEvaluations(), 2000);
+		Assert.assertEquals("Integral", 0.25, result.getValue(), 4 * result.getErrorEstimate());
+	}
+
+	@Test
+	public void testTimeBudget() {
+		final IntegrationDomain integrationDomain = new UnitCubeIntegrationDomain(1);
+		final Integrand integrand = x -> x[0];
+
+		final Duration timeBudget = Duration.ofMillis(50);
+		final StreamingMonteCarloIntegrator integrator = new StreamingMonteCarloIntegrator(new RandomNumberGeneratorFrom1D(new MersenneTwister(3141), 1), 0.0, timeBudget);
+		final StreamingIntegrationResult result = integrator.integrateWithErrorEstimate(integrand, integrationDomain);
+
+		System.out.println(result);
+
+		Assert.assertFalse("Target standard error reached", result.isTargetStandardErrorReached());
+		Assert.assertTrue("Elapsed time", result.getElapsedTime().compareTo(timeBudget) >= 0);
+		Assert.assertEquals("Integral", 0.5, result.getValue(), 4 * result.getErrorEstimate());
+	}
+
+	@Test
+	public void testVarianceWithLargeMean() {
+		// The variance of 1E9 + U is 1/12, the textbook formula E(X^2) - E(X)^2 loses all digits
+		final long numberOfSamples = 1000000;
+		final StreamingMonteCarloIntegrator integrator = new StreamingMonteCarloIntegrator(new RandomNumberGeneratorFrom1D(new MersenneTwister(3141), 1), 0.0, Duration.ofMinutes(1), numberOfSamples, numberOfSamples);
+		final StreamingIntegrationResult result = integrator.integrateWithErrorEstimate(x -> 1E9 + x[0], new UnitCubeIntegrationDomain(1));
+
+		final double variance = result.getErrorEstimate() * result.getErrorEstimate() * numberOfSamples;
+
+		Assert.assertEquals("Number of samples", numberOfSamples, result.getNumberOfEvaluations());
+		Assert.assertEquals("Variance", 1.0/12.0, variance, 1E-3);
+		Assert.assertEquals("Mean", 1E9 + 0.5, result.getValue(), 1E-3);
+	}
+}
@@ -0,0 +1,73 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.integration1d;
+
+import java.util.function.DoubleUnaryOperator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import info.quantlab.numericalmethods.lecture.montecarlo.integration.AdaptiveIntegrationResult;
+import info.quantlab.numericalmethods.lecture.montecarlo.integration.IntegrationResult;
+
+public class AdaptiveSimpsonsIntegrator1DTest {
+
+	@Test
+	public void testSmoothIntegrand() {
+
+		final double lowerBound = 0.0;
+		final double upperBound = 1.5;
+		final DoubleUnaryOperator integrand = x -> Math.cos(x);
+		final double integralValueAnalytic = Math.sin(upperBound)-Math.sin(lowerBound);
+
+		final AdaptiveSimpsonsIntegrator1D integrator = new AdaptiveSimpsonsIntegrator1D(1E-12, 0.0);
+		final IntegrationResult result = integrator.integrateWithErrorEstimate(integrand, lowerBound, upperBound);
+
+		System.out.println(String.format("%30s:", "cos") + "\t" + result + "\terror: " + (result.getValue()-integralValueAnalytic));
+
+		Assert.assertEquals("Integral", integralValueAnalytic, result.getValue(), 1E-12);
+		Assert.assertEquals("Integral", integralValueAnalytic, integrator.integrate(integrand, lowerBound, upperBound), 1E-12);
+	}
+
+	@Test
+	public void testPayoffWithKink() {
+
+		final double strike = Math.PI / 3.0;
+		final double lowerBound = 0.0;
+		final double upperBound = 2.0;
+		final DoubleUnaryOperator integrand = x -> Math.max(x-strike, 0.0);
+		final double integralValueAnalytic = 0.5 * (upperBound-strike) * (upperBound-strike);
+
+		final double tolerance = 1E-12;
+		final AdaptiveSimpsonsIntegrator1D integrator = new AdaptiveSimpsonsIntegrator1D(tolerance, 0.0);
+		final IntegrationResult result = integrator.integrateWithErrorEstimate(integrand, lowerBound, upperBound);
+
+		// Simpson's rule with equidistant points: error is O(h^2) at the kink
+		final int numberOfEvaluationPoints = 100001;
+		final double valueSimpson = new SimpsonsIntegrator1D(numberOfEvaluationPoints).integrate(integrand, lowerBound, upperBound);
+
+		System.out.println(String.format("%30s:", "max(x-K,0) adaptive") + "\t" + result + "\terror: " + (result.getValue()-integralValueAnalytic));
+		System.out.println(String.format("%30s:", "max(x-K,0) Simpson") + "\tnumberOfEvaluations=" + numberOfEvaluationPoints + "\terror: " + (valueSimpson-integralValueAnalytic));
+
+		Assert.assertEquals("Integral", integralValueAnalytic, result.getValue(), tolerance);
+		Assert.assertTrue("Error of adaptive integration smaller than error of Simpson's rule", Math.abs(result.getValue()-integralValueAnalytic) < Math.abs(valueSimpson-integralValueAnalytic));
+		Assert.assertTrue("Number of evaluations", result.getNumberOfEvaluations() < numberOfEvaluationPoints / 100);
+	}
+
+	@Test
+	public void testToleranceNotReached() {
+
+		// A jump: the error estimate of the interval containing the jump is proportional to its length, the tolerance is below machine precision
+		final DoubleUnaryOperator integrand = x -> x < Math.PI / 3.0 ? 0.0 : 1.0;
+
+		final AdaptiveIntegrationResult result = new AdaptiveSimpsonsIntegrator1D(1E-30, 0.0).integrateWithErrorEstimate(integrand, 0.0, 2.0);
+		System.out.println(String.format("%30s:", "jump") + "\t" + result);
+
+		Assert.assertFalse("Tolerance reached", result.isToleranceReached());
+		Assert.assertTrue("Error estimate", result.getErrorEstimate() > 1E-30);
+		Assert.assertEquals("Integral", 2.0 - Math.PI / 3.0, result.getValue(), 1E-14);
+
+		// Maximum number of evaluations
+		final AdaptiveIntegrationResult resultOfMaximumNumberOfEvaluations = new AdaptiveSimpsonsIntegrator1D(1E-12, 0.0, 4, 41).integrateWithErrorEstimate(integrand, 0.0, 2.0);
+		Assert.assertFalse("Tolerance reached", resultOfMaximumNumberOfEvaluations.isToleranceReached());
+		Assert.assertTrue("Tolerance reached", new AdaptiveSimpsonsIntegrator1D(1E-12, 0.0).integrateWithErrorEstimate(x -> Math.cos(x), 0.0, 1.5).isToleranceReached());
+	}
+}
@@ -0,0 +1,127 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.integration1d;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.DoubleUnaryOperator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import info.quantlab.numericalmethods.lecture.randomnumbers.VanDerCorputSequence;
+
+public class CachingIntegrator1DTest {
+
+	@Test
+	public void testNestedSimpsonsRule() {
+
+		final double lowerBound = 0.0;
+		final double upperBound = 5.0;
+		final DoubleUnaryOperator integrand = x -> Math.cos(x);
+
+		final CachingIntegrator1D integratorCoarse = new CachingIntegrator1D(new SimpsonsIntegrator1D(3), 1 << 16);
+		long numberOfEvaluationsUncached = 0;
+		for(int k=1; k<=12; k++) {
+			final int numberOfEvaluationPoints = (1 << k) + 1;
+			final Integrator1D integratorSimpsons = new SimpsonsIntegrator1D(numberOfEvaluationPoints);
+			final Integrator1D integratorCached = integratorCoarse.withIntegrator(integratorSimpsons);
+
+			final double value = integratorSimpsons.integrate(integrand, lowerBound, upperBound);
+			final double valueCached = integratorCached.integrate(integrand, lowerBound, upperBound);
+			numberOfEvaluationsUncached += numberOfEvaluationPoints;
+
+			Assert.assertEquals("Value of cached integrator", value, valueCached, 0.0);
+		}
+
+		System.out.println("Nested Simpson's rule: evaluations without cache: " + numberOfEvaluationsUncached + ",\twith cache: " + integratorCoarse.getNumberOfEvaluations());
+
+		// The grid of the last rule contains all previous grids
+		Assert.assertEquals("Number of evaluations", (1 << 12) + 1, integratorCoarse.getNumberOfEvaluations());
+		Assert.assertEquals("Number of cache hits", numberOfEvaluationsUncached - ((1 << 12) + 1), integratorCoarse.getNumberOfCacheHits());
+	}
+
+	@Test
+	public void testVanDerCorputSampleDoubling() {
+
+		final DoubleUnaryOperator integrand = x -> Math.exp(x);
+
+		final CachingIntegrator1D integrator = new CachingIntegrator1D(new MonteCarloIntegrator1DFromRandomGenerator1D(1000, () -> new VanDerCorputSequence(2)), 1 << 12);
+		integrator.integrate(integrand, 0.0, 1.0);
+		integrator.withIntegrator(new MonteCarloIntegrator1DFromRandomGenerator1D(2000, () -> new VanDerCorputSequence(2))).integrate(integrand, 0.0, 1.0);
+
+		Assert.assertEquals("Number of evaluations", 2000, integrator.getNumberOfEvaluations());
+
+		// A different integrand clears the cache
+		integrator.integrate(x -> x*x, 0.0, 1.0);
+		Assert.assertEquals("Number of evaluations", 1000, integrator.getNumberOfEvaluations());
+	}
+
+	@Test
+	public void testCapturingLambdaWithIntegrandKey() {
+
+		final CachingIntegrator1D integrator = new CachingIntegrator1D(new SimpsonsIntegrator1D(101), 1 << 12);
+		for(int i=0; i<3; i++) {
+			final double rate = Math.sqrt(0.25);
+			// A capturing lambda is a new object in each iteration (the cache is cleared)
+			integrator.integrate(x -> Math.exp(-rate * x), 0.0, 1.0);
+		}
+		Assert.assertEquals("Number of evaluations", 101, integrator.getNumberOfEvaluations());
+		Assert.assertEquals("Number of cache hits", 0, integrator.getNumberOfCacheHits());
+
+		integrator.clear();
+		for(int i=0; i<3; i++) {
+			final double rate = Math.sqrt(0.25);
+			integrator.integrate(rate, x -> Math.exp(-rate * x), 0.0, 1.0);
+		}
+		Assert.assertEquals("Number of evaluations", 101, integrator.getNumberOfEvaluations());
+		Assert.assertEquals("Number of cache hits", 2 * 101, integrator.getNumberOfCacheHits());
+
+		// A different key clears the cache
+		integrator.integrate(0.25, x -> Math.exp(-0.25 * x), 0.0, 1.0);
+		Assert.assertEquals("Number of evaluations", 101, integrator.getNumberOfEvaluations());
+		Assert.assertEquals("Number of cache hits", 0, integrator.getNumberOfCacheHits());
+	}
+
+	@Test
+	public void testNestedIntegration() {
+
+		// int_0^1 int_0^1 x + y^3 dx dy = 1/2 + 1/4
+		final CachingIntegrator1D integrator = new CachingIntegrator1D(new SimpsonsIntegrator1D(101), 1 << 12);
+		final double value = integrator.integrate(y -> integrator.integrate(x -> x + y*y*y, 0.0, 1.0), 0.0, 1.0);
+
+		Assert.assertEquals("Value", 0.75, value, 1E-12);
+	}
+
+	@Test
+	public void testLeastRecentlyUsedEviction() {
+
+		final int maximumSize = 100;
+		final DoubleToDoubleLRUCache cache = new DoubleToDoubleLRUCache(maximumSize);
+
+		// Reference implementation: LinkedHashMap in access order
+		final Map<Double, Double> reference = new LinkedHashMap<>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Double, Double> eldest) {
+				return size() > maximumSize;
+			}
+		};
+
+		final Random random = new Random(3141);
+		for(int i=0; i<200000; i++) {
+			final double key = random.nextInt(250) * 0.01;
+			if(random.nextBoolean()) {
+				final double value = random.nextDouble();
+				cache.put(key, value);
+				reference.put(key, value);
+			}
+			else {
+				final Double valueReference = reference.get(key);
+				final double value = cache.getOrDefault(key, Double.NaN);
+				Assert.assertEquals("Value for key " + key, valueReference != null ? valueReference : Double.NaN, value, 0.0);
+			}
+			Assert.assertEquals("Size", reference.size(), cache.size());
+		}
+	}
+}
@@ -0,0 +1,117 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.integration1d;
+
+import java.util.function.DoubleUnaryOperator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.finmath.functions.AnalyticFormulas;
+import net.finmath.functions.NormalDistribution;
+
+public class GaussianQuadratureTest {
+
+	@Test
+	public void testLegendre() {
+
+		final GaussianQuadratureRule rule = GaussianQuadratureRule.ofLegendre(2);
+		Assert.assertArrayEquals("Nodes", new double[] { -1.0/Math.sqrt(3), 1.0/Math.sqrt(3) }, rule.getNodes(), 1E-15);
+		Assert.assertArrayEquals("Weights", new double[] { 1.0, 1.0 }, rule.getWeights(), 1E-15);
+		Assert.assertSame("Cached rule", rule, GaussianQuadratureRule.ofLegendre(2));
+
+		// Exact for polynomials of degree 2n-1
+		final Integrator1D integrator = new GaussLegendreIntegrator1D(10);
+		for(int degree = 0; degree < 20; degree++) {
+			final int power = degree;
+			Assert.assertEquals("Degree " + degree, Math.pow(2.0, degree+1) / (degree+1), integrator.integrate(x -> Math.pow(x, power), 0.0, 2.0), 1E-13 * Math.pow(2.0, degree+1));
+		}
+
+		final DoubleUnaryOperator normalDensity = x -> Math.exp(-0.5 * x * x) / Math.sqrt(2 * Math.PI);
+		final double integral = new GaussLegendreIntegrator1D(20).integrate(normalDensity, -1.0, 1.0);
+		Assert.assertEquals("Normal density", NormalDistribution.cumulativeDistribution(1.0) - NormalDistribution.cumulativeDistribution(-1.0), integral, 1E-15);
+	}
+
+	@Test
+	public void testHermite() {
+
+		// E(Z^k) = (k-1)!! for even k
+		final GaussHermiteIntegrator1D integrator = new GaussHermiteIntegrator1D(10);
+		double doubleFactorial = 1.0;
+		for(int k = 0; k < 20; k += 2) {
+			final int power = k;
+			Assert.assertEquals("Moment " + k, doubleFactorial, integrator.getExpectation(x -> Math.pow(x, power)), 1E-13 * doubleFactorial);
+			Assert.assertEquals("Moment " + (k+1), 0.0, integrator.getExpectation(x -> Math.pow(x, power+1)), 1E-13 * doubleFactorial);
+			doubleFactorial *= k+1;
+		}
+
+		// Integral over the real line (the integrand is a polynomial times the density of N(0,1/2))
+		Assert.assertEquals("Integral", Math.sqrt(Math.PI)/2.0, new GaussHermiteIntegrator1D(20, 0.0, Math.sqrt(0.5)).integrate(x -> x * x * Math.exp(-x*x), Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY), 1E-14);
+
+		// Large order: all weights finite and positive, summing to 1
+		final double[] weights = GaussianQuadratureRule.ofHermite(200).getWeights();
+		double sumOfWeights = 0.0;
+		for(final double weight : weights) {
+			Assert.assertTrue("Weight", weight > 0 && Double.isFinite(weight));
+			sumOfWeights += weight;
+		}
+		Assert.assertEquals("Sum of weights", 1.0, sumOfWeights, 1E-14);
+
+		// The maximum order is finite, a larger order is rejected
+		Assert.assertEquals("Integral (maximum order)", Math.sqrt(Math.PI), new GaussHermiteIntegrator1D(GaussHermiteIntegrator1D.maximumOrder).integrate(x -> Math.exp(-x*x), Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY), 1E-14);
+		try {
+			new GaussHermiteIntegrator1D(GaussHermiteIntegrator1D.maximumOrder+1);
+			Assert.fail("Order larger than the maximum order accepted.");
+		}
+		catch(final IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testHermiteBlackScholesOption() {
+		final double initialValue = 1.0;
+		final double riskFreeRate = 0.05;
+		final double volatility = 0.30;
+		final double maturity = 5.0;
+
+		// The log-return is normal with mean (r - sigma^2/2) T and standard deviation sigma sqrt(T)
+		final GaussHermiteIntegrator1D integrator = new GaussHermiteIntegrator1D(64, (riskFreeRate - 0.5 * volatility * volatility) * maturity, volatility * Math.sqrt(maturity));
+		for(final double strike : new double[] { 0.5, 1.0, 1.5, 2.5 }) {
+			final DoubleUnaryOperator payoff = x -> Math.max(initialValue * Math.exp(x) - strike, 0.0);
+			final double valueAnalytic = AnalyticFormulas.blackScholesOptionValue(initialValue, riskFreeRate, volatility, maturity, strike);
+
+			// The Gauss-Hermite rule converges slowly for the kink of the payoff, the piecewise integration is exact
+			final double value = Math.exp(-riskFreeRate * maturity) * integrator.getExpectation(payoff);
+			final double valuePiecewise = Math.exp(-riskFreeRate * maturity) * integrator.getExpectation(payoff, Math.log(strike / initialValue));
+
+			System.out.println(String.format("%30s:", "Black-Scholes K=" + strike) + "\t" + value + "\terror: " + (value-valueAnalytic) + "\terror piecewise: " + (valuePiecewise-valueAnalytic));
+			Assert.assertEquals("Option value", valueAnalytic, value, 5E-3);
+			Assert.assertEquals("Option value piecewise", valueAnalytic, valuePiecewise, 1E-14);
+		}
+	}
+
+	@Test
+	public void testLaguerre() {
+
+		// int_0^infinity x^k exp(-x) dx = k!
+		final Integrator1D integrator = new GaussLaguerreIntegrator1D(10);
+		double factorial = 1.0;
+		for(int k = 0; k < 20; k++) {
+			final int power = k;
+			Assert.assertEquals("Moment " + k, factorial, integrator.integrate(x -> Math.pow(x, power) * Math.exp(-x), 0.0, Double.POSITIVE_INFINITY), 1E-12 * factorial);
+			factorial *= k+1;
+		}
+
+		// Shifted and scaled: int_1^infinity exp(-2x) dx = exp(-2)/2
+		Assert.assertEquals("Integral", Math.exp(-2.0)/2.0, new GaussLaguerreIntegrator1D(5, 0.5).integrate(x -> Math.exp(-2*x), 1.0, Double.POSITIVE_INFINITY), 1E-15);
+
+		// The maximum order is finite, a larger order is rejected
+		Assert.assertEquals("Integral (maximum order)", 2.0, new GaussLaguerreIntegrator1D(GaussLaguerreIntegrator1D.maximumOrder).integrate(x -> Math.exp(-0.5*x), 0.0, Double.POSITIVE_INFINITY), 1E-12);
+		try {
+			new GaussLaguerreIntegrator1D(GaussLaguerreIntegrator1D.maximumOrder+1);
+			Assert.fail("Order larger than the maximum order accepted.");
+		}
+		catch(final IllegalArgumentException e) {
+			// expected
+		}
+	}
+}
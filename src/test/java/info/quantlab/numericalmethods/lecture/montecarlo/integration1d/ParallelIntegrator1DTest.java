@@ -0,0 +1,64 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.integration1d;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.Function;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ParallelIntegrator1DTest {
+
+	@Test
+	public void testResultIndependentOfNumberOfThreads() {
+
+		final double lowerBound = 0.0;
+		final double upperBound = 1.5;
+		final DoubleUnaryOperator integrand = x -> Math.cos(x);
+		final double integralValueAnalytic = Math.sin(upperBound)-Math.sin(lowerBound);
+
+		final int numberOfEvaluationPoints = 100001;
+		final int chunkSize = 1000;
+
+		final List<Function<ForkJoinPool, Integrator1D>> integratorFactories = List.of(
+				pool -> new RiemannMidPointIntegrator1DParallel(numberOfEvaluationPoints, chunkSize, pool),
+				pool -> new QuasiMonteCarloIntegrator1DParallel(numberOfEvaluationPoints, chunkSize, pool),
+				pool -> new SimpsonsIntegrator1DParallel(numberOfEvaluationPoints, chunkSize, pool),
+				pool -> new MonteCarloIntegrator1DParallel(numberOfEvaluationPoints, 3141, chunkSize, pool)
+				);
+
+		final ForkJoinPool singleThreadPool = new ForkJoinPool(1);
+		final ForkJoinPool multiThreadPool = new ForkJoinPool(4);
+		try {
+			for(final Function<ForkJoinPool, Integrator1D> integratorFactory : integratorFactories) {
+				final Integrator1D integratorSingleThread = integratorFactory.apply(singleThreadPool);
+				final Integrator1D integratorMultiThread = integratorFactory.apply(multiThreadPool);
+
+				final double integralValueSingleThread = integratorSingleThread.integrate(integrand, lowerBound, upperBound);
+				final double integralValueMultiThread = integratorMultiThread.integrate(integrand, lowerBound, upperBound);
+
+				System.out.println(String.format("%40s:", integratorSingleThread.getClass().getSimpleName()) + "\t" + "numeric: " + integralValueMultiThread + "\tanalytic: " + integralValueAnalytic + "\t" + (integralValueMultiThread-integralValueAnalytic));
+
+				Assert.assertEquals("Result independent of number of threads", integralValueSingleThread, integralValueMultiThread, 0.0);
+				Assert.assertEquals("Integral", integralValueAnalytic, integralValueMultiThread, 3.0/Math.sqrt(numberOfEvaluationPoints));
+			}
+		}
+		finally {
+			singleThreadPool.shutdown();
+			multiThreadPool.shutdown();
+		}
+	}
+
+	@Test
+	public void testMonteCarloSampleIndependentOfChunkSize() {
+		// The sample points are functions of their global index: different chunk sizes sum the same values (in a different order)
+		final DoubleUnaryOperator integrand = x -> Math.cos(x);
+		final double value = new MonteCarloIntegrator1DParallel(100001, 3141, 1000, ForkJoinPool.commonPool()).integrate(integrand, 0.0, 1.5);
+		final double valueOtherChunkSize = new MonteCarloIntegrator1DParallel(100001, 3141, 777, ForkJoinPool.commonPool()).integrate(integrand, 0.0, 1.5);
+		final double valueSingleChunk = new MonteCarloIntegrator1DParallel(100001, 3141, 100001, ForkJoinPool.commonPool()).integrate(integrand, 0.0, 1.5);
+
+		Assert.assertEquals("Result independent of chunk size (up to rounding)", value, valueOtherChunkSize, 1E-14);
+		Assert.assertEquals("Result independent of chunk size (up to rounding)", value, valueSingleChunk, 1E-14);
+	}
+}
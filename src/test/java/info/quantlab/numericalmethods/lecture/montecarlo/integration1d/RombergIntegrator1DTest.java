@@ -0,0 +1,68 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.integration1d;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.DoubleUnaryOperator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import info.quantlab.numericalmethods.lecture.montecarlo.integration.IntegrationResult;
+import net.finmath.functions.NormalDistribution;
+
+public class RombergIntegrator1DTest {
+
+	@Test
+	public void testNormalDensity() {
+
+		final DoubleUnaryOperator integrand = x -> Math.exp(-0.5 * x * x) / Math.sqrt(2 * Math.PI);
+		final double integralValueAnalytic = NormalDistribution.cumulativeDistribution(1.0) - NormalDistribution.cumulativeDistribution(-1.0);
+
+		final RombergIntegrator1D integrator = new RombergIntegrator1D(0.0, 1E-15);
+		final IntegrationResult result = integrator.integrateWithErrorEstimate(integrand, -1.0, 1.0);
+
+		System.out.println(String.format("%30s:", "normal density") + "\t" + result + "\terror: " + (result.getValue()-integralValueAnalytic));
+
+		Assert.assertEquals("Integral", integralValueAnalytic, result.getValue(), 1E-15);
+		Assert.assertTrue("Number of evaluations", result.getNumberOfEvaluations() <= 257);
+	}
+
+	@Test
+	public void testCosine() {
+
+		final double lowerBound = 0.0;
+		final double upperBound = 5.0;
+		final DoubleUnaryOperator integrand = x -> Math.cos(x);
+		final double integralValueAnalytic = Math.sin(upperBound)-Math.sin(lowerBound);
+
+		final RombergIntegrator1D integrator = new RombergIntegrator1D(1E-15, 0.0);
+		final IntegrationResult result = integrator.integrateWithErrorEstimate(integrand, lowerBound, upperBound);
+
+		System.out.println(String.format("%30s:", "cos") + "\t" + result + "\terror: " + (result.getValue()-integralValueAnalytic));
+
+		Assert.assertEquals("Integral", integralValueAnalytic, result.getValue(), 1E-14);
+		Assert.assertTrue("Number of evaluations", result.getNumberOfEvaluations() <= 257);
+	}
+
+	@Test
+	public void testParallelEvaluationGivesSameResult() {
+
+		// A kink requires many levels, such that the parallel evaluation is used
+		final DoubleUnaryOperator integrand = x -> Math.max(x - Math.PI / 3.0, 0.0);
+
+		final IntegrationResult resultSequential = new RombergIntegrator1D(1E-10, 0.0, 3, 16, null).integrateWithErrorEstimate(integrand, 0.0, 2.0);
+		final ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+		final IntegrationResult resultParallel;
+		try {
+			resultParallel = new RombergIntegrator1D(1E-10, 0.0, 3, 16, forkJoinPool).integrateWithErrorEstimate(integrand, 0.0, 2.0);
+		}
+		finally {
+			forkJoinPool.shutdown();
+		}
+
+		System.out.println(String.format("%30s:", "max(x-K,0)") + "\t" + resultParallel);
+
+		Assert.assertTrue("Parallel evaluation used", resultParallel.getNumberOfEvaluations() > 2048);
+		Assert.assertEquals("Parallel and sequential", resultSequential.getValue(), resultParallel.getValue(), 0.0);
+		Assert.assertEquals("Number of evaluations", resultSequential.getNumberOfEvaluations(), resultParallel.getNumberOfEvaluations());
+	}
+}
@@ -0,0 +1,95 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.multilevel;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+import net.finmath.exception.CalculationException;
+import net.finmath.montecarlo.BrownianMotion;
+import net.finmath.montecarlo.BrownianMotionFromMersenneRandomNumbers;
+import net.finmath.montecarlo.assetderivativevaluation.MonteCarloAssetModel;
+import net.finmath.montecarlo.assetderivativevaluation.models.BlackScholesModel;
+import net.finmath.montecarlo.process.EulerSchemeFromProcessModel.Scheme;
+import net.finmath.stochastic.RandomVariable;
+import net.finmath.time.TimeDiscretization;
+import net.finmath.time.TimeDiscretizationFromArray;
+
+/**
+ * Test of the multilevel Monte-Carlo estimator: the coupling of the Brownian motions and the valuation of the time average
+ * of a Black-Scholes path, a functional with a discretization bias.
+ *
+ * @author Christian Fries
+ */
+public class MultilevelMonteCarloEstimatorTest {
+
+	@Test
+	public void testValueOfAverage() throws CalculationException {
+		final double initialValue = 100.0;
+		final double riskFreeRate = 0.05;
+		final double volatility = 0.20;
+		final double maturity = 1.0;
+
+		/*
+		 * The time average (1/T) \int_0^T S(t) dt approximated by the left Riemann sum on the time discretization of the level.
+		 * The approximation has a bias of order dt, the expectation of the continuous average is S(0) (exp(r T) - 1) / (r T).
+		 */
+		final PathFunctional average = process -> {
+			final MonteCarloAssetModel model = new MonteCarloAssetModel(process);
+			final TimeDiscretization timeDiscretization = process.getTimeDiscretization();
+			RandomVariable sum = model.getRandomVariableForConstant(0.0);
+			for(int timeIndex=0; timeIndex<timeDiscretization.getNumberOfTimeSteps(); timeIndex++) {
+				sum = sum.addProduct(model.getAssetValue(timeIndex, 0), timeDiscretization.getTimeStep(timeIndex));
+			}
+			return sum.div(maturity);
+		};
+
+		final double targetRootMeanSquaredError = 0.02;
+
+		final MultilevelMonteCarloEstimator estimator = new MultilevelMonteCarloEstimator(
+				new BlackScholesModel(initialValue, riskFreeRate, volatility), Scheme.EULER, maturity, 2, 1, average, 3141);
+
+		final MultilevelMonteCarloResult result = estimator.getValue(targetRootMeanSquaredError);
+		final double valueAnalytic = initialValue * (Math.exp(riskFreeRate * maturity) - 1.0) / (riskFreeRate * maturity);
+
+		System.out.println(result);
+		System.out.println("Analytic value: " + valueAnalytic + "\terror: " + (result.getValue() - valueAnalytic));
+
+		Assert.assertTrue("Converged", result.isConverged());
+		Assert.assertTrue("Number of levels", result.getNumberOfLevels() > 3);
+		Assert.assertTrue("Standard error", result.getStandardError() <= targetRootMeanSquaredError / Math.sqrt(2.0) * 1.05);
+		Assert.assertEquals("Value", valueAnalytic, result.getValue(), 3.0 * targetRootMeanSquaredError);
+
+		// The variance of the corrections decreases with the level (strong convergence of the coupled discretizations)
+		final double[] variances = result.getVariancesOfLevels();
+		for(int level=2; level<variances.length; level++) {
+			Assert.assertTrue("Variance of level " + level, variances[level] < variances[level-1]);
+		}
+
+		// Cost of a standard Monte-Carlo simulation with the same standard error on the finest level
+		final double costStandardMonteCarlo = variances[0] / Math.pow(result.getStandardError(), 2) * estimator.getNumberOfTimeSteps(result.getNumberOfLevels()-1);
+		System.out.println("Cost MLMC: " + result.getCost() + "\tcost standard Monte-Carlo: " + costStandardMonteCarlo);
+		Assert.assertTrue("Cost", result.getCost() < costStandardMonteCarlo);
+	}
+
+	@Test
+	public void testNumberOfTimeStepsOnFinestLevel() {
+		final PathFunctional terminalValue = process -> new MonteCarloAssetModel(process).getAssetValue(process.getTimeDiscretization().getNumberOfTimeSteps(), 0);
+		Assert.assertThrows(IllegalArgumentException.class, () -> new MultilevelMonteCarloEstimator(
+				new BlackScholesModel(100.0, 0.05, 0.20), Scheme.EULER, 1.0, 1 << 12, 1, terminalValue, 3141, 100, 10000, 20, 1.0));
+	}
+
+	@Test
+	public void testCoarseBrownianIncrements() {
+		final BrownianMotion brownianMotion = new BrownianMotionFromMersenneRandomNumbers(new TimeDiscretizationFromArray(0.0, 8, 0.125), 2, 1000, 3141);
+		final BrownianMotion brownianMotionCoarse = new BrownianMotionFromFinerTimeDiscretization(brownianMotion, new TimeDiscretizationFromArray(0.0, 2, 0.5), 4);
+
+		for(int factor=0; factor<2; factor++) {
+			final double valueCoarse = brownianMotionCoarse.getBrownianIncrement(0, factor).add(brownianMotionCoarse.getBrownianIncrement(1, factor)).get(17);
+			double valueFine = 0.0;
+			for(int timeIndex=0; timeIndex<8; timeIndex++) {
+				valueFine += brownianMotion.getBrownianIncrement(timeIndex, factor).get(17);
+			}
+			Assert.assertEquals("W(1) of fine and coarse Brownian motion", valueFine, valueCoarse, 1E-12);
+		}
+		Assert.assertEquals("Variance of coarse increment", 0.5, brownianMotionCoarse.getBrownianIncrement(1, 0).getVariance(), 0.1);
+	}
+}
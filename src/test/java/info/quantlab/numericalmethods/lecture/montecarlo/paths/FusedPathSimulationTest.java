@@ -0,0 +1,89 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.paths;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+import net.finmath.functions.AnalyticFormulas;
+import net.finmath.stochastic.RandomVariable;
+import net.finmath.time.TimeDiscretization;
+import net.finmath.time.TimeDiscretizationFromArray;
+
+/**
+ * Test of the fused path simulation and the path accumulators.
+ *
+ * @author Christian Fries
+ */
+public class FusedPathSimulationTest {
+
+	private static final double initialValue = 100.0;
+	private static final double riskFreeRate = 0.05;
+	private static final double volatility = 0.30;
+	private static final double maturity = 2.0;
+
+	private static final TimeDiscretization timeDiscretization = new TimeDiscretizationFromArray(0.0, 40, maturity / 40);
+
+	@Test
+	public void testBlackScholesEuropeanOption() {
+		final int numberOfPaths = 200000;
+		final double strike = 110.0;
+
+		final ValueAccumulator underlying = new ValueAccumulator(maturity);
+		final QuadraticVariationAccumulator quadraticVariation = new QuadraticVariationAccumulator();
+		new FusedPathSimulation(new BlackScholesPathModel(initialValue, riskFreeRate, volatility), timeDiscretization, numberOfPaths, 3141)
+		.simulate(underlying, quadraticVariation);
+
+		final RandomVariable payoff = underlying.getValue().sub(strike).floor(0.0).mult(Math.exp(-riskFreeRate * maturity));
+		final double valueAnalytic = AnalyticFormulas.blackScholesOptionValue(initialValue, riskFreeRate, volatility, maturity, strike);
+		System.out.println("Value: " + payoff.getAverage() + "\tanalytic: " + valueAnalytic);
+		Assert.assertEquals("Value", valueAnalytic, payoff.getAverage(), 4 * payoff.getStandardError());
+
+		// E((mu dt + sigma dW)^2) summed over the time steps
+		final double drift = riskFreeRate - 0.5 * volatility * volatility;
+		final double quadraticVariationExpected = volatility * volatility * maturity + drift * drift * maturity * timeDiscretization.getTimeStep(0);
+		Assert.assertEquals("Quadratic variation", quadraticVariationExpected, quadraticVariation.getValue().getAverage(), 4 * quadraticVariation.getValue().getStandardError());
+	}
+
+	@Test
+	public void testResultDoesNotDependOnBlocks() {
+		final int numberOfPaths = 1000;
+		final PathModel model = new HestonPathModel(1.0, riskFreeRate, volatility, 0.04, 1.0, 0.5, -0.5);
+
+		final QuadraticVariationAccumulator quadraticVariation = new QuadraticVariationAccumulator();
+		new FusedPathSimulation(model, timeDiscretization, numberOfPaths, 3141).simulate(quadraticVariation);
+
+		final QuadraticVariationAccumulator quadraticVariationSmallBlocks = new QuadraticVariationAccumulator();
+		new FusedPathSimulation(model, timeDiscretization, numberOfPaths, 3141, 7).simulate(quadraticVariationSmallBlocks);
+
+		Assert.assertArrayEquals("Quadratic variation", quadraticVariation.getValue().getRealizations(), quadraticVariationSmallBlocks.getValue().getRealizations(), 0.0);
+	}
+
+	@Test
+	public void testHestonWithoutVolatilityOfVolatilityIsBlackScholes() {
+		final int numberOfPaths = 1000;
+		final double[] averagingTimes = new double[] { 0.5, 1.0, 1.5, 2.0 };
+
+		final ArithmeticAverageAccumulator averageBlackScholes = new ArithmeticAverageAccumulator(averagingTimes);
+		final MaximumAccumulator maximumBlackScholes = new MaximumAccumulator();
+		new FusedPathSimulation(new BlackScholesPathModel(initialValue, riskFreeRate, volatility), timeDiscretization, numberOfPaths, 3141)
+		.simulate(averageBlackScholes, maximumBlackScholes);
+
+		final ArithmeticAverageAccumulator averageHeston = new ArithmeticAverageAccumulator(averagingTimes);
+		final MaximumAccumulator maximumHeston = new MaximumAccumulator();
+		new FusedPathSimulation(new HestonPathModel(initialValue, riskFreeRate, volatility, volatility * volatility, 1.0, 0.0, 0.3), timeDiscretization, numberOfPaths, 3141)
+		.simulate(averageHeston, maximumHeston);
+
+		for(int pathIndex=0; pathIndex<numberOfPaths; pathIndex++) {
+			Assert.assertEquals("Average", averageBlackScholes.getValue().get(pathIndex), averageHeston.getValue().get(pathIndex), 1E-10 * initialValue);
+			Assert.assertEquals("Maximum", maximumBlackScholes.getValue().get(pathIndex), maximumHeston.getValue().get(pathIndex), 1E-10 * initialValue);
+			Assert.assertTrue("Maximum >= average", maximumBlackScholes.getValue().get(pathIndex) >= averageBlackScholes.getValue().get(pathIndex));
+			Assert.assertTrue("Maximum >= initial value", maximumBlackScholes.getValue().get(pathIndex) >= initialValue);
+		}
+
+		// E(S(t)) = S(0) exp(r t)
+		double averageExpected = 0.0;
+		for(final double time : averagingTimes) {
+			averageExpected += initialValue * Math.exp(riskFreeRate * time) / averagingTimes.length;
+		}
+		Assert.assertEquals("Average", averageExpected, averageBlackScholes.getValue().getAverage(), 4 * averageBlackScholes.getValue().getStandardError());
+	}
+}
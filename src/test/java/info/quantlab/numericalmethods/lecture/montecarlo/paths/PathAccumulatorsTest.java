@@ -0,0 +1,116 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.paths;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+import net.finmath.exception.CalculationException;
+import net.finmath.montecarlo.BrownianMotionFromMersenneRandomNumbers;
+import net.finmath.montecarlo.assetderivativevaluation.MonteCarloAssetModel;
+import net.finmath.montecarlo.assetderivativevaluation.models.BlackScholesModel;
+import net.finmath.montecarlo.process.EulerSchemeFromProcessModel;
+import net.finmath.stochastic.RandomVariable;
+import net.finmath.stochastic.Scalar;
+import net.finmath.time.TimeDiscretization;
+import net.finmath.time.TimeDiscretizationFromArray;
+
+/**
+ * Test of the path accumulators applied to a stored process, compared to the calculation using <code>RandomVariable</code> operations.
+ *
+ * @author Christian Fries
+ */
+public class PathAccumulatorsTest {
+
+	private static final double initialValue = 100.0;
+	private static final double riskFreeRate = 0.05;
+	private static final double volatility = 0.30;
+
+	private static final TimeDiscretization timeDiscretization = new TimeDiscretizationFromArray(0.0, 20, 0.1);
+
+	@Test
+	public void testAccumulatorsOnStoredProcess() throws CalculationException {
+		final int numberOfPaths = 10000;
+		final MonteCarloAssetModel simulation = new MonteCarloAssetModel(new EulerSchemeFromProcessModel(
+				new BlackScholesModel(initialValue, riskFreeRate, volatility),
+				new BrownianMotionFromMersenneRandomNumbers(timeDiscretization, 1, numberOfPaths, 3141)));
+
+		final double barrier = 120.0;
+		final QuadraticVariationAccumulator quadraticVariation = new QuadraticVariationAccumulator();
+		final MaximumAccumulator maximum = new MaximumAccumulator();
+		final MinimumAccumulator minimum = new MinimumAccumulator();
+		final ArithmeticAverageAccumulator arithmeticAverage = new ArithmeticAverageAccumulator();
+		final GeometricAverageAccumulator geometricAverage = new GeometricAverageAccumulator();
+		final HittingTimeAccumulator hittingTime = new HittingTimeAccumulator(barrier, true);
+		PathAccumulators.accumulate(simulation, 0, quadraticVariation, maximum, minimum, arithmeticAverage, geometricAverage, hittingTime);
+
+		RandomVariable quadraticVariationExpected = new Scalar(0.0);
+		RandomVariable maximumExpected = simulation.getAssetValue(0, 0);
+		RandomVariable minimumExpected = simulation.getAssetValue(0, 0);
+		RandomVariable sumExpected = new Scalar(0.0);
+		RandomVariable sumOfLogsExpected = new Scalar(0.0);
+		for(int timeIndex=1; timeIndex<timeDiscretization.getNumberOfTimes(); timeIndex++) {
+			final RandomVariable value = simulation.getAssetValue(timeIndex, 0);
+			quadraticVariationExpected = quadraticVariationExpected.add(value.log().sub(simulation.getAssetValue(timeIndex-1, 0).log()).squared());
+			maximumExpected = maximumExpected.floor(value);
+			minimumExpected = minimumExpected.cap(value);
+			sumExpected = sumExpected.add(value);
+			sumOfLogsExpected = sumOfLogsExpected.add(value.log());
+		}
+		final int numberOfTimeSteps = timeDiscretization.getNumberOfTimeSteps();
+
+		assertEquals("Quadratic variation", quadraticVariationExpected, quadraticVariation.getValue(), 1E-14);
+		assertEquals("Maximum", maximumExpected, maximum.getValue(), 0.0);
+		assertEquals("Minimum", minimumExpected, minimum.getValue(), 0.0);
+		assertEquals("Arithmetic average", sumExpected.div(numberOfTimeSteps), arithmeticAverage.getValue(), 1E-12);
+		assertEquals("Geometric average", sumOfLogsExpected.div(numberOfTimeSteps).exp(), geometricAverage.getValue(), 1E-12);
+
+		for(int pathIndex=0; pathIndex<numberOfPaths; pathIndex++) {
+			final double time = hittingTime.getValue().get(pathIndex);
+			if(maximumExpected.get(pathIndex) < barrier) {
+				Assert.assertEquals("Hitting time", Double.POSITIVE_INFINITY, time, 0.0);
+			}
+			else {
+				final int timeIndex = timeDiscretization.getTimeIndex(time);
+				Assert.assertTrue("Hitting time", simulation.getAssetValue(timeIndex, 0).get(pathIndex) >= barrier);
+				Assert.assertTrue("Hitting time", timeIndex == 0 || simulation.getAssetValue(timeIndex-1, 0).get(pathIndex) < barrier);
+			}
+		}
+	}
+
+	@Test
+	public void testDuplicateAveragingTimes() {
+		final ArithmeticAverageAccumulator arithmeticAverage = new ArithmeticAverageAccumulator(new double[] { 0.5, 1.0, 1.0 });
+		Assert.assertThrows(IllegalArgumentException.class, () -> arithmeticAverage.initialize(timeDiscretization, 10));
+
+		final GeometricAverageAccumulator geometricAverage = new GeometricAverageAccumulator(new double[] { 0.5, 1.0, 1.0 });
+		Assert.assertThrows(IllegalArgumentException.class, () -> geometricAverage.initialize(timeDiscretization, 10));
+	}
+
+	@Test
+	public void testGeometricAverageOfFusedSimulation() {
+		final int numberOfPaths = 100000;
+		final double[] averagingTimes = new double[] { 0.5, 1.0, 1.5, 2.0 };
+
+		final GeometricAverageAccumulator geometricAverage = new GeometricAverageAccumulator(averagingTimes);
+		final HittingTimeAccumulator hittingTime = new HittingTimeAccumulator(initialValue, false);
+		new FusedPathSimulation(new BlackScholesPathModel(initialValue, riskFreeRate, volatility), timeDiscretization, numberOfPaths, 3141)
+		.simulate(geometricAverage, hittingTime);
+
+		// E(log(G)) = log(S(0)) + (r - sigma^2/2) * average of the times
+		double averageOfTimes = 0.0;
+		for(final double time : averagingTimes) {
+			averageOfTimes += time / averagingTimes.length;
+		}
+		final RandomVariable logOfGeometricAverage = geometricAverage.getValue().log();
+		Assert.assertEquals("E(log(G))", Math.log(initialValue) + (riskFreeRate - 0.5 * volatility * volatility) * averageOfTimes,
+				logOfGeometricAverage.getAverage(), 4 * logOfGeometricAverage.getStandardError());
+
+		// The lower barrier at S(0) is hit at t_0
+		Assert.assertEquals("Hitting time", 0.0, hittingTime.getValue().getMax(), 0.0);
+	}
+
+	private static void assertEquals(String message, RandomVariable expected, RandomVariable actual, double relativeTolerance) {
+		for(int pathIndex=0; pathIndex<expected.size(); pathIndex++) {
+			Assert.assertEquals(message, expected.get(pathIndex), actual.get(pathIndex), relativeTolerance * Math.abs(expected.get(pathIndex)));
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.paths;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+import info.quantlab.numericalmethods.lecture.randomnumbers.PhiloxRandomNumberGenerator;
+import net.finmath.stochastic.RandomVariable;
+import net.finmath.time.TimeDiscretization;
+import net.finmath.time.TimeDiscretizationFromArray;
+
+/**
+ * Test of the path store: views on times and paths, and the independence of the parallel fill of the block size.
+ *
+ * @author Christian Fries
+ */
+public class PathStoreTest {
+
+	private static final TimeDiscretization timeDiscretization = new TimeDiscretizationFromArray(0.0, 10, 0.5);
+
+	@Test
+	public void testParallelFillDoesNotDependOnBlocks() {
+		final int numberOfPaths = 1001;
+		final PathStore pathStore = new PathStore(timeDiscretization, numberOfPaths).fill(PathStoreTest::generateRandomWalk, numberOfPaths);
+		final PathStore pathStoreSmallBlocks = new PathStore(timeDiscretization, numberOfPaths).fill(PathStoreTest::generateRandomWalk, 7);
+
+		for(int timeIndex=0; timeIndex<timeDiscretization.getNumberOfTimes(); timeIndex++) {
+			Assert.assertArrayEquals("Time index " + timeIndex, pathStore.getValues(timeIndex), pathStoreSmallBlocks.getValues(timeIndex), 0.0);
+		}
+	}
+
+	@Test
+	public void testViews() {
+		final PathStore pathStore = new PathStore(timeDiscretization, 100).fill(PathStoreTest::generateRandomWalk, 10);
+
+		// The random variable at a time and the path are views on the same values
+		final RandomVariable value = pathStore.getRandomVariable(3);
+		final PathStore.Path path = pathStore.getPath(42);
+		Assert.assertEquals("Time", 1.5, value.getFiltrationTime(), 0.0);
+		Assert.assertEquals("Value", pathStore.getValue(3, 42), value.get(42), 0.0);
+		Assert.assertEquals("Value", pathStore.getValue(3, 42), path.getValue(3), 0.0);
+
+		pathStore.setValue(3, 42, 17.0);
+		Assert.assertEquals("View of time", 17.0, value.get(42), 0.0);
+		Assert.assertEquals("View of path", 17.0, path.getValue(3), 0.0);
+		Assert.assertEquals("Copy of path", 17.0, path.toArray()[3], 0.0);
+
+		// Piecewise constant interpretation t_i <= t < t_{i+1}
+		Assert.assertEquals("Path at time", 17.0, path.applyAsDouble(1.7), 0.0);
+		Assert.assertEquals("Random variable at time", 17.0, pathStore.getRandomVariable(1.5).get(42), 0.0);
+		Assert.assertEquals("Random variable at time", pathStore.getValue(2, 42), pathStore.getRandomVariable(1.49).get(42), 0.0);
+	}
+
+	/*
+	 * Random walk with the uniforms of path j being the numbers of path j of a counter-based generator.
+	 */
+	private static void generateRandomWalk(double[][] valuesByTime, int firstPathIndex, int numberOfPaths) {
+		final PhiloxRandomNumberGenerator generator = new PhiloxRandomNumberGenerator(3141, valuesByTime.length);
+		for(int pathIndex=firstPathIndex; pathIndex<firstPathIndex+numberOfPaths; pathIndex++) {
+			for(int timeIndex=1; timeIndex<valuesByTime.length; timeIndex++) {
+				valuesByTime[timeIndex][pathIndex] = valuesByTime[timeIndex-1][pathIndex] + generator.valueAt(pathIndex, timeIndex) - 0.5;
+			}
+		}
+	}
+}
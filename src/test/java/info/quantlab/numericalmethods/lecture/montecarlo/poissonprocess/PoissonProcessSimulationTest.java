@@ -0,0 +1,93 @@
+package info.quantlab.numericalmethods.lecture.montecarlo.poissonprocess;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+import info.quantlab.numericalmethods.lecture.montecarlo.paths.PathStore;
+import net.finmath.functions.NormalDistribution;
+import net.finmath.stochastic.RandomVariable;
+import net.finmath.time.TimeDiscretization;
+import net.finmath.time.TimeDiscretizationFromArray;
+
+/**
+ * Test of the simulation of (compound) Poisson processes with piecewise constant intensity.
+ *
+ * @author Christian Fries
+ */
+public class PoissonProcessSimulationTest {
+
+	private static final int numberOfPaths = 200000;
+
+	@Test
+	public void testHomogeneous() {
+		final double intensity = 2.0;
+		final double maturity = 5.0;
+		final PoissonProcessSimulation simulation = new PoissonProcessSimulation(intensity, maturity, numberOfPaths, 3141);
+
+		final RandomVariable numberOfJumps = simulation.getNumberOfJumps(maturity);
+		final double standardError = Math.sqrt(intensity * maturity / numberOfPaths);
+		System.out.println("E(N(T)) = " + numberOfJumps.getAverage() + "\tVar(N(T)) = " + numberOfJumps.getVariance() + "\t(expected " + intensity * maturity + ")");
+		Assert.assertEquals("Mean", intensity * maturity, numberOfJumps.getAverage(), 4 * standardError);
+		Assert.assertEquals("Variance", intensity * maturity, numberOfJumps.getVariance(), 0.02 * intensity * maturity);
+		Assert.assertEquals("Total number of jumps", numberOfJumps.getAverage() * numberOfPaths, simulation.getTotalNumberOfJumps(), 1E-6);
+
+		// Jump times of a path are sorted and in [0,T]
+		for(int pathIndex=0; pathIndex<100; pathIndex++) {
+			final double[] jumpTimes = simulation.getJumpTimes(pathIndex);
+			for(int k=0; k<jumpTimes.length; k++) {
+				Assert.assertTrue("Jump times", jumpTimes[k] >= (k > 0 ? jumpTimes[k-1] : 0.0) && jumpTimes[k] <= maturity);
+			}
+		}
+	}
+
+	@Test
+	public void testInhomogeneousSurvivalProbability() {
+		final double[] times = new double[] { 1.0, 2.0, 3.0, 5.0 };
+		final double[] intensities = new double[] { 1.0, 0.5, 2.0, 0.2, 0.1 };
+		final PoissonProcessSimulation simulation = new PoissonProcessSimulation(times, intensities, 6.0, numberOfPaths, 3141);
+
+		for(final double time : new double[] { 0.5, 1.0, 2.5, 3.0, 4.0, 6.0 }) {
+			final double survivalProbability = (double)Arrays.stream(simulation.getNumberOfJumps(time).getRealizations()).filter(n -> n == 0).count() / numberOfPaths;
+			final double survivalProbabilityAnalytic = Math.exp(-simulation.getIntegratedIntensity(time));
+			System.out.println("P(N(" + time + ") = 0) = " + survivalProbability + "\t(expected " + survivalProbabilityAnalytic + ")");
+			Assert.assertEquals("Survival probability", survivalProbabilityAnalytic, survivalProbability, 4 * Math.sqrt(0.25 / numberOfPaths));
+		}
+		Assert.assertEquals("Integrated intensity", 1.0 + 0.5 + 2.0 + 0.2 * 2.0 + 0.1 * 1.0, simulation.getIntegratedIntensity(6.0), 1E-15);
+	}
+
+	@Test
+	public void testCompoundAndMergeOnTimeDiscretization() {
+		final double intensity = 1.5;
+		final double maturity = 2.0;
+		final double jumpSizeMean = 0.1;
+		final double jumpSizeStandardDeviation = 0.3;
+		final PoissonProcessSimulation simulation = new PoissonProcessSimulation(new double[0], new double[] { intensity },
+				uniform -> jumpSizeMean + jumpSizeStandardDeviation * NormalDistribution.inverseCumulativeDistribution(uniform), maturity, numberOfPaths, 3141);
+
+		final RandomVariable value = simulation.getValue(maturity);
+		final double expected = intensity * maturity * jumpSizeMean;
+		final double variance = intensity * maturity * (jumpSizeMean * jumpSizeMean + jumpSizeStandardDeviation * jumpSizeStandardDeviation);
+		System.out.println("E(X(T)) = " + value.getAverage() + "\t(expected " + expected + ")");
+		Assert.assertEquals("Mean", expected, value.getAverage(), 4 * Math.sqrt(variance / numberOfPaths));
+		Assert.assertEquals("Variance", variance, value.getVariance(), 0.02 * variance);
+
+		// The merge on a time discretization agrees with the binary search
+		final TimeDiscretization timeDiscretization = new TimeDiscretizationFromArray(0.0, 20, maturity / 20);
+		final PathStore values = simulation.getValues(timeDiscretization);
+		final PathStore numberOfJumps = simulation.getNumberOfJumps(timeDiscretization);
+		for(int timeIndex=0; timeIndex<timeDiscretization.getNumberOfTimes(); timeIndex++) {
+			final double time = timeDiscretization.getTime(timeIndex);
+			Assert.assertArrayEquals("Values", simulation.getValue(time).getRealizations(), values.getValues(timeIndex), 0.0);
+			Assert.assertArrayEquals("Number of jumps", simulation.getNumberOfJumps(time).getRealizations(), numberOfJumps.getValues(timeIndex), 0.0);
+		}
+
+		// The jump sizes sum to the value at maturity
+		double sumOfJumpSizes = 0.0;
+		for(final double jumpSize : simulation.getJumpSizes(7)) {
+			sumOfJumpSizes += jumpSize;
+		}
+		Assert.assertEquals("Sum of jump sizes", value.get(7), sumOfJumpSizes, 1E-12);
+	}
+}
@@ -0,0 +1,88 @@
+package info.quantlab.numericalmethods.lecture.randomnumbers;
+
+import java.util.function.DoubleUnaryOperator;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test of the acceptance rejection method: half-normal distribution from the exponential distribution,
+ * \( f(y) = \sqrt{2/\pi} \exp(-y^2/2) \), \( g(y) = \exp(-y) \) with optimal \( C = \sqrt{2e/\pi} \).
+ *
+ * @author Christian Fries
+ */
+public class AcceptanceRejectionRandomNumberGeneratorTest {
+
+	private static final int numberOfSamples = 1000000;
+
+	private static final DoubleUnaryOperator targetDensity = y -> Math.sqrt(2.0 / Math.PI) * Math.exp(-0.5 * y * y);
+	private static final DoubleUnaryOperator referenceDensity = y -> Math.exp(-y);
+	private static final DoubleUnaryOperator referenceDistributionICDF = v -> -Math.log(1-v);
+	private static final double acceptanceLevel = Math.sqrt(2.0 * Math.E / Math.PI);
+
+	// f / (C g) = exp(-(y-1)^2/2) >= 1 - (y-1)^2/2
+	private static final DoubleUnaryOperator squeezeFunction = y -> acceptanceLevel * Math.exp(-y) * Math.max(1.0 - 0.5 * (y-1) * (y-1), 0.0);
+
+	@Test
+	public void testFillWithSqueeze() {
+		final AcceptanceRejectionRandomNumberGenerator generator = new AcceptanceRejectionRandomNumberGenerator(
+				new RandomNumberGeneratorFrom1D(new MersenneTwister(3141), 2),
+				targetDensity, referenceDensity, referenceDistributionICDF, acceptanceLevel, squeezeFunction);
+
+		final double[] values = new double[numberOfSamples];
+		generator.fill(values);
+
+		double sum = 0.0;
+		for(final double value : values) {
+			sum += value;
+		}
+
+		System.out.println(generator);
+		Assert.assertEquals("Mean", Math.sqrt(2.0 / Math.PI), sum / numberOfSamples, 5.0 * Math.sqrt((1 - 2.0 / Math.PI) / numberOfSamples));
+		Assert.assertEquals("Number of acceptances", numberOfSamples, generator.getNumberOfAcceptances());
+		Assert.assertEquals("Acceptance ratio", 1.0 / acceptanceLevel, generator.getAcceptanceRatio(), 0.005);
+		Assert.assertTrue("Squeeze used", generator.getNumberOfAcceptancesBySqueeze() > numberOfSamples / 2);
+		Assert.assertTrue("Envelope", generator.getMaximumObservedDensityRatio() <= 1.0 && generator.getMaximumObservedDensityRatio() > 0.999);
+	}
+
+	@Test
+	public void testNextDoubleDetectsInvalidAcceptanceLevel() {
+		final AcceptanceRejectionRandomNumberGenerator generator = new AcceptanceRejectionRandomNumberGenerator(
+				new RandomNumberGeneratorFrom1D(new MersenneTwister(3141), 2),
+				targetDensity, referenceDensity, referenceDistributionICDF, 0.8 * acceptanceLevel);
+
+		for(int i=0; i<100000; i++) {
+			generator.nextDouble();
+		}
+
+		System.out.println(generator);
+		Assert.assertEquals("Number of acceptances", 100000, generator.getNumberOfAcceptances());
+		Assert.assertTrue("Envelope violated", generator.getMaximumObservedDensityRatio() > 1.2);
+		Assert.assertEquals("Estimated acceptance level", acceptanceLevel, generator.getEstimatedAcceptanceLevel(), 0.01);
+
+		generator.resetStatistics();
+		Assert.assertEquals("Reset", 0, generator.getNumberOfTrials());
+	}
+
+	@Test
+	public void testFillDoesNotDependOnSplitting() {
+		final AcceptanceRejectionRandomNumberGenerator generator = new AcceptanceRejectionRandomNumberGenerator(
+				new RandomNumberGeneratorFrom1D(new MersenneTwister(3141), 2),
+				targetDensity, referenceDensity, referenceDistributionICDF, acceptanceLevel, squeezeFunction);
+		final AcceptanceRejectionRandomNumberGenerator generatorSingleValues = new AcceptanceRejectionRandomNumberGenerator(
+				new RandomNumberGeneratorFrom1D(new MersenneTwister(3141), 2),
+				targetDensity, referenceDensity, referenceDistributionICDF, acceptanceLevel, squeezeFunction);
+
+		final double[] values = new double[1000];
+		generator.fill(values, 0, values.length);
+
+		final double[] valuesFromSingleFills = new double[1000];
+		for(int i=0; i<valuesFromSingleFills.length; i++) {
+			generatorSingleValues.fill(valuesFromSingleFills, i, 1);
+		}
+
+		Assert.assertArrayEquals("Values", values, valuesFromSingleFills, 0.0);
+		Assert.assertEquals("Number of trials", generator.getNumberOfTrials(), generatorSingleValues.getNumberOfTrials());
+		Assert.assertEquals("Next value", generator.nextDouble(), generatorSingleValues.nextDouble(), 0.0);
+	}
+}
@@ -0,0 +1,44 @@
+package info.quantlab.numericalmethods.lecture.randomnumbers;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test of the Latin hypercube sampler: each component of a batch has exactly one point in each interval [i/N, (i+1)/N).
+ *
+ * @author Christian Fries
+ */
+public class LatinHypercubeSamplerTest {
+
+	@Test
+	public void testOnePointPerInterval() {
+		final int dimension = 4;
+		final int numberOfPoints = 1000;
+		final LatinHypercubeSampler sampler = new LatinHypercubeSampler(dimension, numberOfPoints, 3141);
+
+		// Three batches, drawn in blocks not aligned with the batches
+		final double[] points = new double[3 * numberOfPoints * dimension];
+		for(int blockStart = 0; blockStart < 3 * numberOfPoints; blockStart += 700) {
+			final int blockLength = Math.min(700, 3 * numberOfPoints - blockStart);
+			sampler.fill(points, blockStart * dimension, blockLength);
+		}
+
+		for(int batch=0; batch<3; batch++) {
+			for(int component=0; component<dimension; component++) {
+				final boolean[] isIntervalUsed = new boolean[numberOfPoints];
+				for(int i=0; i<numberOfPoints; i++) {
+					final int interval = (int)(points[(batch * numberOfPoints + i) * dimension + component] * numberOfPoints);
+					Assert.assertFalse("Interval " + interval + " used twice", isIntervalUsed[interval]);
+					isIntervalUsed[interval] = true;
+				}
+			}
+		}
+
+		// Random access generation agrees with the sequence
+		final double[] point = new double[dimension];
+		sampler.fill(1234, point, 0, 1);
+		for(int component=0; component<dimension; component++) {
+			Assert.assertEquals("Random access", points[1234 * dimension + component], point[component], 0.0);
+		}
+	}
+}
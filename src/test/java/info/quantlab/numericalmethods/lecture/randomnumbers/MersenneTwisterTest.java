@@ -0,0 +1,55 @@
+package info.quantlab.numericalmethods.lecture.randomnumbers;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test of the Mersenne Twister: the sequence has to agree with the commons-math implementation
+ * and jumping ahead has to reproduce the numbers of the sequence.
+ *
+ * @author Christian Fries
+ */
+public class MersenneTwisterTest {
+
+	@Test
+	public void testSequenceAgreesWithCommonsMath() {
+		for(final long seed : new long[] { 3141, 3216, 31415, -1 }) {
+			final MersenneTwister mersenneTwister = new MersenneTwister(seed);
+			final org.apache.commons.math3.random.MersenneTwister mersenneTwisterCommonsMath = new org.apache.commons.math3.random.MersenneTwister(seed);
+
+			for(int i=0; i<10000; i++) {
+				Assert.assertEquals("Random number " + i, mersenneTwisterCommonsMath.nextDouble(), mersenneTwister.nextDouble(), 0.0);
+			}
+		}
+	}
+
+	@Test
+	public void testJump() {
+		final int numberOfSkippedNumbers = 1234567;		// large enough to trigger the polynomial jump
+
+		final MersenneTwister mersenneTwister = new MersenneTwister(3141);
+		mersenneTwister.nextDouble();					// jump from a state within a block
+		for(int i=0; i<numberOfSkippedNumbers; i++) {
+			mersenneTwister.nextDouble();
+		}
+
+		final MersenneTwister mersenneTwisterWithJump = new MersenneTwister(3141);
+		mersenneTwisterWithJump.nextDouble();
+		final long timeStart = System.currentTimeMillis();
+		mersenneTwisterWithJump.jump(numberOfSkippedNumbers);
+		final long timeEnd = System.currentTimeMillis();
+		System.out.println("Time for jump (incl. calculation of the characteristic polynomial): " + (timeEnd-timeStart)/1000.0 + " sec.");
+
+		for(int i=0; i<2000; i++) {
+			Assert.assertEquals("Random number " + i, mersenneTwister.nextDouble(), mersenneTwisterWithJump.nextDouble(), 0.0);
+		}
+
+		// skipTo backwards re-starts from the seed
+		mersenneTwisterWithJump.skipTo(numberOfSkippedNumbers + 1);
+		final MersenneTwister mersenneTwisterWithSkip = new MersenneTwister(3141);
+		mersenneTwisterWithSkip.skipTo(numberOfSkippedNumbers + 1);
+		for(int i=0; i<2000; i++) {
+			Assert.assertEquals("Random number " + i, mersenneTwisterWithSkip.nextDouble(), mersenneTwisterWithJump.nextDouble(), 0.0);
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package info.quantlab.numericalmethods.lecture.randomnumbers;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+import info.quantlab.numericalmethods.lecture.randomnumbers.NormalRandomNumberGenerator.Algorithm;
+import net.finmath.functions.NormalDistribution;
+
+/**
+ * Test of the normal random number generator: moments and distribution of all algorithms,
+ * and consistency of block generation with sequential generation.
+ *
+ * @author Christian Fries
+ */
+public class NormalRandomNumberGeneratorTest {
+
+	private static final int numberOfSamples = 2000000;
+
+	@Test
+	public void testMomentsAndDistribution() {
+		final double[] levels = new double[] { -3.0, -1.0, 0.0, 0.5, 2.0, 3.5 };
+
+		for(final Algorithm algorithm : Algorithm.values()) {
+			final NormalRandomNumberGenerator generator = new NormalRandomNumberGenerator(new MersenneTwister(3141), algorithm);
+			final double[] normals = new double[numberOfSamples];
+			generator.fill(normals);
+
+			double sum = 0.0;
+			double sumOfSquares = 0.0;
+			double sumOfFourthPowers = 0.0;
+			final int[] countBelowLevel = new int[levels.length];
+			for(final double x : normals) {
+				sum += x;
+				sumOfSquares += x*x;
+				sumOfFourthPowers += x*x*x*x;
+				for(int j=0; j<levels.length; j++) {
+					if(x < levels[j]) {
+						countBelowLevel[j]++;
+					}
+				}
+			}
+
+			Assert.assertEquals(algorithm + " mean", 0.0, sum / numberOfSamples, 5.0 / Math.sqrt(numberOfSamples));
+			Assert.assertEquals(algorithm + " variance", 1.0, sumOfSquares / numberOfSamples, 5.0 * Math.sqrt(2.0 / numberOfSamples));
+			Assert.assertEquals(algorithm + " kurtosis", 3.0, sumOfFourthPowers / numberOfSamples, 5.0 * Math.sqrt(96.0 / numberOfSamples));
+			for(int j=0; j<levels.length; j++) {
+				final double p = NormalDistribution.cumulativeDistribution(levels[j]);
+				Assert.assertEquals(algorithm + " P(X < " + levels[j] + ")", p, (double)countBelowLevel[j] / numberOfSamples, 5.0 * Math.sqrt(p * (1-p) / numberOfSamples));
+			}
+		}
+	}
+
+	@Test
+	public void testFillAgreesWithNextDouble() {
+		for(final Algorithm algorithm : Algorithm.values()) {
+			final NormalRandomNumberGenerator generatorSequential = new NormalRandomNumberGenerator(new MersenneTwister(3141), algorithm);
+			final NormalRandomNumberGenerator generatorBlock = new NormalRandomNumberGenerator(new MersenneTwister(3141), algorithm);
+
+			// Blocks of odd length to cover the pairs of the polar method and the refill of the buffer of uniforms
+			final double[] block = new double[777];
+			for(int k=0; k<10; k++) {
+				generatorBlock.fill(block);
+				for(int i=0; i<block.length; i++) {
+					Assert.assertEquals(algorithm + " number " + (k*block.length+i), generatorSequential.nextDouble(), block[i], 0.0);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testAcklamAgreesWithWichura() {
+		for(double p = 1E-12; p < 1; p += 0.0013) {
+			final double expected = NormalDistribution.inverseCumulativeNormalDistributionWichura(p);
+			Assert.assertEquals("p = " + p, expected, NormalRandomNumberGenerator.inverseCumulativeNormalDistributionAcklam(p), 1.2E-9 * Math.max(Math.abs(expected), 1E-3));
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package info.quantlab.numericalmethods.lecture.randomnumbers;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test of the counter-based generator: known answer test of the Philox4x32-10 bijection
+ * (test vectors of the Random123 library) and consistency of sequential, block and random access generation.
+ *
+ * @author Christian Fries
+ */
+public class PhiloxRandomNumberGeneratorTest {
+
+	@Test
+	public void testKnownAnswers() {
+		assertPhilox(new int[] { 0, 0, 0, 0 }, 0, 0,
+				new int[] { 0x6627e8d5, 0xe169c58d, 0xbc57ac4c, 0x9b00dbd8 });
+		assertPhilox(new int[] { 0xffffffff, 0xffffffff, 0xffffffff, 0xffffffff }, 0xffffffff, 0xffffffff,
+				new int[] { 0x408f276d, 0x41c83b0e, 0xa20bc7c6, 0x6d5451fd });
+		assertPhilox(new int[] { 0x243f6a88, 0x85a308d3, 0x13198a2e, 0x03707344 }, 0xa4093822, 0x299f31d0,
+				new int[] { 0xd16cfe09, 0x94fdcceb, 0x5001e420, 0x24126ea1 });
+	}
+
+	@Test
+	public void testSequentialBlockAndRandomAccessAgree() {
+		final int dimension = 7;
+		final PhiloxRandomNumberGenerator generatorSequential = new PhiloxRandomNumberGenerator(3141, dimension);
+		final PhiloxRandomNumberGenerator generatorBlock = new PhiloxRandomNumberGenerator(3141, dimension);
+		final RandomNumberGenerator generatorVectors = new RandomNumberGeneratorFrom1D(new PhiloxRandomNumberGenerator(3141, dimension), dimension);
+
+		// Blocks of odd length, starting at odd components
+		final double[] block = new double[1001];
+		double sum = 0.0;
+		for(int k=0; k<20; k++) {
+			generatorBlock.fill(block);
+			for(int i=0; i<block.length; i++) {
+				final long n = (long)k * block.length + i;
+				final double value = generatorSequential.nextDouble();
+				Assert.assertEquals("Number " + n, value, block[i], 0.0);
+				Assert.assertEquals("Number " + n, value, generatorBlock.valueAt(n / dimension, (int)(n % dimension)), 0.0);
+				Assert.assertTrue("Open interval", value > 0 && value < 1);
+				sum += value;
+			}
+		}
+		Assert.assertEquals("Mean", 0.5, sum / (20 * block.length), 5.0 * Math.sqrt(1.0/12.0 / (20 * block.length)));
+
+		for(long pathIndex = 0; pathIndex < 100; pathIndex++) {
+			final double[] path = generatorVectors.getNext();
+			for(int j=0; j<dimension; j++) {
+				Assert.assertEquals("Path " + pathIndex, generatorBlock.valueAt(pathIndex, j), path[j], 0.0);
+			}
+		}
+	}
+
+	@Test
+	public void testMethodsWithCallerBufferAgree() {
+		final PhiloxRandomNumberGenerator generator = new PhiloxRandomNumberGenerator(3141, 5);
+		final int[] block = new int[4];
+
+		final double[] values = new double[2];
+		for(long pathIndex = 0; pathIndex < 100; pathIndex++) {
+			for(int k=0; k<10; k++) {
+				generator.valuesAt(pathIndex, k, values, block);
+				Assert.assertEquals("Component " + 2*k, generator.valueAt(pathIndex, 2*k), values[0], 0.0);
+				Assert.assertEquals("Component " + (2*k+1), generator.valueAt(pathIndex, 2*k+1), values[1], 0.0);
+			}
+		}
+
+		final double[] numbers = new double[333];
+		final double[] numbersWithCallerBuffer = new double[333];
+		generator.fill(17, numbers, 0, numbers.length);
+		generator.fill(17, numbersWithCallerBuffer, 0, numbersWithCallerBuffer.length, block);
+		Assert.assertArrayEquals("Numbers", numbers, numbersWithCallerBuffer, 0.0);
+	}
+
+	@Test
+	public void testOpenInterval() {
+		Assert.assertTrue("All bits set", PhiloxRandomNumberGenerator.toDouble(-1L) < 1.0);
+		Assert.assertEquals("All bits set", 1.0 - 0x1.0p-53, PhiloxRandomNumberGenerator.toDouble(-1L), 0.0);
+		Assert.assertEquals("No bit set", 0x1.0p-53, PhiloxRandomNumberGenerator.toDouble(0L), 0.0);
+		Assert.assertTrue("Resolution", PhiloxRandomNumberGenerator.toDouble(1L << 12) > PhiloxRandomNumberGenerator.toDouble((1L << 12) - 1));
+	}
+
+	private static void assertPhilox(int[] counter, int key0, int key1, int[] expected) {
+		final int[] block = counter.clone();
+		PhiloxRandomNumberGenerator.philox(block, key0, key1);
+		Assert.assertArrayEquals(expected, block);
+	}
+}
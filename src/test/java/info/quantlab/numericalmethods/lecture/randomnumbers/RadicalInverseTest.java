@@ -0,0 +1,75 @@
+package info.quantlab.numericalmethods.lecture.randomnumbers;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test of the radical inverse kernel: all paths (bit reversal, pre-computed factors, incremental block generation)
+ * have to be bit-identical to the textbook implementation.
+ *
+ * @author Christian Fries
+ */
+public class RadicalInverseTest {
+
+	private static final int[] bases = new int[] { 2, 3, 5, 7, 10, 31, 97, 1031, 65537 };
+
+	// Start indices including digit roll-overs and large indices (beyond 2^53 for base 2)
+	private static final long[] startIndices = new long[] { 0, 1000, (1L << 20) - 10, Integer.MAX_VALUE - 100L, 3486784400L, (1L << 53) - 100, 1000000000000000000L, Long.MAX_VALUE - 500 };
+
+	@Test
+	public void testRandomAccessAgreesWithTextbook() {
+		for(final int base : bases) {
+			for(final long startIndex : startIndices) {
+				for(long index = startIndex; index < startIndex + 200 && index >= 0; index++) {
+					Assert.assertEquals("Base " + base + ", index " + index,
+							Double.doubleToLongBits(getVanDerCorputNumberTextbook(index, base)),
+							Double.doubleToLongBits(VanDerCorputSequence.getVanDerCorputNumber(index, base)));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testBlockFillAgreesWithTextbook() {
+		final int numberOfValues = 5000;
+		for(final int base : bases) {
+			for(final long startIndex : new long[] { 0, 1000, (1L << 20) - 10, 3486784400L, (1L << 53) - 100, 1000000000000000000L }) {
+				final double[] values = new double[numberOfValues];
+				new VanDerCorputSequence(startIndex, base).fill(values, 0, numberOfValues);
+				for(int i=0; i<numberOfValues; i++) {
+					Assert.assertEquals("Base " + base + ", index " + (startIndex+i),
+							Double.doubleToLongBits(getVanDerCorputNumberTextbook(startIndex+i, base)),
+							Double.doubleToLongBits(values[i]));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testHaltonAgreesWithFinmath() {
+		final int numberOfPoints = 100000;
+		final int[] haltonBases = new int[] { 2, 3, 5, 7, 11 };
+		final HaltonSequence haltonSequence = new HaltonSequence(haltonBases);
+		final double[] points = new double[numberOfPoints * haltonBases.length];
+		haltonSequence.fill(points, 0, numberOfPoints);
+		for(int i=0; i<numberOfPoints; i++) {
+			for(int j=0; j<haltonBases.length; j++) {
+				Assert.assertEquals("Point " + i, net.finmath.randomnumbers.HaltonSequence.getHaltonNumberForGivenBase(i, haltonBases[j]), points[i*haltonBases.length+j], 0.0);
+			}
+		}
+	}
+
+	private static double getVanDerCorputNumberTextbook(long index, int base) {
+
+		index = index + 1;
+
+		double x = 0.0;
+		double refinementFactor = 1.0 / base;
+		while(index > 0) {
+			x += (index % base) * refinementFactor;
+			index = index / base;
+			refinementFactor = refinementFactor / base;
+		}
+		return x;
+	}
+}
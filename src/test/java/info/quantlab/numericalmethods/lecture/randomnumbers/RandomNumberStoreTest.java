@@ -0,0 +1,71 @@
+package info.quantlab.numericalmethods.lecture.randomnumbers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test of the random number store: the numbers read from the file have to agree with the numbers of the generator,
+ * for random access and for the generator views, also across the boundaries of the mapped segments.
+ *
+ * @author Christian Fries
+ */
+public class RandomNumberStoreTest {
+
+	@TempDir
+	Path temporaryDirectory;
+
+	@Test
+	public void testStoreAgreesWithGenerator() throws IOException {
+		final int dimension = 3;
+		final int numberOfVectors = 100000;
+		final Path file = temporaryDirectory.resolve("sobol.bin");
+
+		RandomNumberStore.write(file, new SobolSequence(dimension), numberOfVectors);
+		Assert.assertEquals("File size", 32 + 8L * dimension * numberOfVectors, Files.size(file));
+
+		// Small segments (2^10 numbers) to test the segmentation
+		final RandomNumberStore store = RandomNumberStore.open(file, 10);
+		Assert.assertEquals("Dimension", dimension, store.getDimension());
+		Assert.assertEquals("Number of vectors", numberOfVectors, store.getNumberOfVectors());
+
+		final SobolSequence sobolSequence = new SobolSequence(dimension);
+		final RandomNumberGenerator generator = store.getRandomNumberGenerator();
+		final double[] vector = new double[dimension];
+		for(long i=0; i<numberOfVectors; i++) {
+			final double[] expected = sobolSequence.getNext();
+			store.getVector(i, vector);
+			Assert.assertArrayEquals("Vector " + i, expected, vector, 0.0);
+			Assert.assertArrayEquals("Vector " + i, expected, generator.getNext(), 0.0);
+		}
+
+		// Block reads across segment boundaries via the 1D view
+		final RandomNumberGenerator1D generator1D = store.getRandomNumberGenerator1D();
+		generator1D.skipTo(1000);
+		final double[] block = new double[5000];
+		generator1D.fill(block);
+		for(int i=0; i<block.length; i++) {
+			Assert.assertEquals("Number " + (1000+i), sobolSequence.getSobolNumber((1000+i) / dimension, (1000+i) % dimension), block[i], 0.0);
+		}
+	}
+
+	@Test
+	public void testExhaustedStoreThrows() {
+		final Path file = temporaryDirectory.resolve("mersenne.bin");
+		final RandomNumberStore store = RandomNumberStore.write(file, new MersenneTwister(3141), 1000);
+
+		final MersenneTwister mersenneTwister = new MersenneTwister(3141);
+		for(int i=0; i<1000; i++) {
+			Assert.assertEquals("Number " + i, mersenneTwister.nextDouble(), store.get(i), 0.0);
+		}
+
+		final RandomNumberGenerator1D generator = store.getRandomNumberGenerator1D();
+		generator.jump(999);
+		generator.nextDouble();
+		Assert.assertThrows(IllegalStateException.class, generator::nextDouble);
+	}
+}
@@ -0,0 +1,58 @@
+package info.quantlab.numericalmethods.lecture.randomnumbers;
+
+import org.apache.commons.math3.random.SobolSequenceGenerator;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test of the Sobol sequence: the sequence has to agree with the commons-math implementation,
+ * independent of the way the points are generated (sequentially, in blocks or by index).
+ *
+ * @author Christian Fries
+ */
+public class SobolSequenceTest {
+
+	@Test
+	public void testSequenceAgreesWithCommonsMath() {
+		final int numberOfPoints = 5000;
+		for(final int dimension : new int[] { 1, 2, 7, 50, 1000 }) {
+			final SobolSequenceGenerator sobolSequenceCommonsMath = new SobolSequenceGenerator(dimension);
+			final SobolSequence sobolSequence = new SobolSequence(dimension);
+
+			// Sequential, as block and by index
+			final SobolSequence sobolSequenceForBlocks = new SobolSequence(dimension);
+			final double[] block = new double[numberOfPoints * dimension];
+			sobolSequenceForBlocks.fill(block, 0, numberOfPoints);
+
+			for(int i=0; i<numberOfPoints; i++) {
+				final double[] expected = sobolSequenceCommonsMath.nextVector();
+				Assert.assertArrayEquals("Point " + i, expected, sobolSequence.getNext(), 0.0);
+				Assert.assertArrayEquals("Point " + i, expected, sobolSequence.getSobolPoint(i), 0.0);
+				for(int j=0; j<dimension; j++) {
+					Assert.assertEquals("Point " + i, expected[j], block[i*dimension+j], 0.0);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testSkipTo() {
+		final int dimension = 20;
+		final SobolSequence sobolSequence = new SobolSequence(dimension);
+		final SobolSequenceGenerator sobolSequenceCommonsMath = new SobolSequenceGenerator(dimension);
+
+		final int index = 1234567;
+		sobolSequence.skipTo(index);
+		final double[] expected = sobolSequenceCommonsMath.skipTo(index);
+		Assert.assertArrayEquals("Point " + index, expected, sobolSequence.getNext(), 0.0);
+
+		final double[] block = new double[10 * dimension];
+		sobolSequence.fill(block, 0, 10);
+		for(int i=0; i<10; i++) {
+			final double[] expectedNext = sobolSequenceCommonsMath.nextVector();
+			for(int j=0; j<dimension; j++) {
+				Assert.assertEquals("Point " + (index+1+i), expectedNext[j], block[i*dimension+j], 0.0);
+			}
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package info.quantlab.numericalmethods.lecture.randomnumbers;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test of the stratified sampler: the points of each stratum lie in its sub-cube, the allocations sum to the number of points
+ * and sequential and random access generation agree.
+ *
+ * @author Christian Fries
+ */
+public class StratifiedSamplerTest {
+
+	@Test
+	public void testPointsInStrata() {
+		final int dimension = 3;
+		final int numberOfStrataPerDimension = 5;
+		final StratifiedSampler sampler = StratifiedSampler.ofProportionalAllocation(dimension, 2, numberOfStrataPerDimension, 1003, 3141);
+
+		Assert.assertEquals("Number of strata", 25, sampler.getNumberOfStrata());
+		Assert.assertEquals("Number of points", 1003, sampler.getNumberOfPoints());
+
+		// Two periods, compared with random access generation
+		final double[] point = new double[dimension];
+		for(long index = 0; index < 2 * sampler.getNumberOfPoints(); index++) {
+			final double[] pointSequential = sampler.getNext();
+			sampler.fill(index, point, 0, 1);
+			Assert.assertArrayEquals("Point " + index, point, pointSequential, 0.0);
+
+			final int stratum = sampler.getStratumOfIndex(index);
+			Assert.assertEquals("Stratum of component 0", stratum % numberOfStrataPerDimension, (int)(point[0] * numberOfStrataPerDimension));
+			Assert.assertEquals("Stratum of component 1", stratum / numberOfStrataPerDimension, (int)(point[1] * numberOfStrataPerDimension));
+			Assert.assertTrue("Unit interval", point[2] > 0 && point[2] < 1);
+		}
+
+		for(int stratum=0; stratum<sampler.getNumberOfStrata(); stratum++) {
+			Assert.assertEquals("Proportional allocation", 1003.0/25.0, sampler.getNumberOfPointsOfStratum(stratum), 1.0);
+		}
+	}
+
+	@Test
+	public void testNeymanAllocation() {
+		final StratifiedSampler sampler = StratifiedSampler.ofProportionalAllocation(1, 1, 4, 400, 3141);
+
+		final StratifiedSampler samplerNeyman = sampler.withNeymanAllocation(new double[] { 0.0, 1.0, 2.0, 5.0 }, 1000, 2718);
+
+		Assert.assertEquals("Number of points", 1000, samplerNeyman.getNumberOfPoints());
+		// Each stratum gets two points, the remaining 992 points are allocated in proportion 0 : 1 : 2 : 5
+		Assert.assertEquals("Stratum 0", 2, samplerNeyman.getNumberOfPointsOfStratum(0));
+		Assert.assertEquals("Stratum 1", 2 + 124, samplerNeyman.getNumberOfPointsOfStratum(1));
+		Assert.assertEquals("Stratum 2", 2 + 248, samplerNeyman.getNumberOfPointsOfStratum(2));
+		Assert.assertEquals("Stratum 3", 2 + 620, samplerNeyman.getNumberOfPointsOfStratum(3));
+	}
+}
@@ -0,0 +1,123 @@
+package info.quantlab.numericalmethods.lecture.randomnumbers;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test of the thread local random number generator: each thread has to obtain a distinct substream
+ * agreeing with the sequential generator positioned at the start of the substream.
+ *
+ * @author Christian Fries
+ */
+public class ThreadLocalRandomNumberGeneratorTest {
+
+	private static final int numberOfThreads = 4;
+	private static final int numberOfValues = 10000;
+	private static final long substreamLength = 1000000;
+
+	@Test
+	public void testMersenneTwisterSubstreams() throws InterruptedException, ExecutionException {
+		final ThreadLocalRandomNumberGenerator generator = ThreadLocalRandomNumberGenerator.ofMersenneTwister(3141, substreamLength);
+		final List<double[]> valuesOfThreads = getValuesOfThreads(generator);
+
+		Assert.assertEquals("Number of substreams", numberOfThreads, generator.getNumberOfSubstreams());
+		assertSubstreams(valuesOfThreads, () -> new MersenneTwister(3141));
+	}
+
+	@Test
+	public void testPhiloxSubstreams() throws InterruptedException, ExecutionException {
+		final ThreadLocalRandomNumberGenerator generator = ThreadLocalRandomNumberGenerator.ofIndexOffset(() -> new PhiloxRandomNumberGenerator(3141), substreamLength);
+		final List<double[]> valuesOfThreads = getValuesOfThreads(generator);
+
+		assertSubstreams(valuesOfThreads, () -> new PhiloxRandomNumberGenerator(3141));
+	}
+
+	@Test
+	public void testSerialization() throws IOException, ClassNotFoundException, InterruptedException, ExecutionException {
+		final ThreadLocalRandomNumberGenerator mersenne = serializeAndDeserialize(ThreadLocalRandomNumberGenerator.ofMersenneTwister(3141, substreamLength));
+		Assert.assertEquals("Number of substreams", 0, mersenne.getNumberOfSubstreams());
+		assertSubstreams(getValuesOfThreads(mersenne), () -> new MersenneTwister(3141));
+
+		final ThreadLocalRandomNumberGenerator philox = serializeAndDeserialize(ThreadLocalRandomNumberGenerator.ofIndexOffset(() -> new PhiloxRandomNumberGenerator(3141), substreamLength));
+		assertSubstreams(getValuesOfThreads(philox), () -> new PhiloxRandomNumberGenerator(3141));
+	}
+
+	private static ThreadLocalRandomNumberGenerator serializeAndDeserialize(ThreadLocalRandomNumberGenerator generator) throws IOException, ClassNotFoundException {
+		// Use the generator before serialization, the deserialized object has to start with new substreams
+		generator.nextDouble();
+
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try(ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(generator);
+		}
+		try(ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			return (ThreadLocalRandomNumberGenerator)in.readObject();
+		}
+	}
+
+	/*
+	 * Each thread draws numberOfValues numbers (half with nextDouble, half with fill).
+	 */
+	private static List<double[]> getValuesOfThreads(ThreadLocalRandomNumberGenerator generator) throws InterruptedException, ExecutionException {
+		final ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+		try {
+			// Ensure that all threads are running at the same time (i.e., use distinct substreams)
+			final CountDownLatch latch = new CountDownLatch(numberOfThreads);
+			final List<Future<double[]>> results = new ArrayList<>();
+			for(int i=0; i<numberOfThreads; i++) {
+				results.add(executor.submit(() -> {
+					latch.countDown();
+					latch.await();
+					final double[] values = new double[numberOfValues];
+					for(int k=0; k<numberOfValues/2; k++) {
+						values[k] = generator.nextDouble();
+					}
+					generator.fill(values, numberOfValues/2, numberOfValues - numberOfValues/2);
+					return values;
+				}));
+			}
+			final List<double[]> valuesOfThreads = new ArrayList<>();
+			for(final Future<double[]> result : results) {
+				valuesOfThreads.add(result.get());
+			}
+			return valuesOfThreads;
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	private static void assertSubstreams(List<double[]> valuesOfThreads, Supplier<RandomNumberGenerator1D> sequentialGeneratorFactory) {
+		final boolean[] isSubstreamUsed = new boolean[numberOfThreads];
+		for(final double[] values : valuesOfThreads) {
+			int substreamIndex = -1;
+			for(int k=0; k<numberOfThreads; k++) {
+				final RandomNumberGenerator1D sequentialGenerator = sequentialGeneratorFactory.get();
+				sequentialGenerator.jump(k * substreamLength);
+				final double[] expected = new double[numberOfValues];
+				sequentialGenerator.fill(expected);
+				if(Arrays.equals(expected, values)) {
+					substreamIndex = k;
+				}
+			}
+			Assert.assertTrue("Values agree with a substream", substreamIndex >= 0);
+			Assert.assertFalse("Substream used by one thread only", isSubstreamUsed[substreamIndex]);
+			isSubstreamUsed[substreamIndex] = true;
+		}
+	}
+}